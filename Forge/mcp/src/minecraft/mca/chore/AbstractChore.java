@@ -12,6 +12,7 @@ package mca.chore;
 import java.io.Serializable;
 
 import mca.entity.AbstractEntity;
+import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 
 /**
@@ -73,4 +74,80 @@ public abstract class AbstractChore implements Serializable
 	 * @param 	NBT	The NBTTagCompound to read the chore from.
 	 */
 	public abstract void readChoreFromNBT(NBTTagCompound NBT);
+
+	/**
+	 * Catches the chore up on the work it would have done while its owner's chunk was not loaded.
+	 * The results are calculated all at once instead of by running the chore for each tick that passed.
+	 * Chores that cannot be caught up on do nothing.
+	 * 
+	 * @param 	elapsedTicks	The number of ticks that passed while the owner was not loaded.
+	 */
+	public void simulateElapsedTime(long elapsedTicks)
+	{
+		return;
+	}
+
+	/**
+	 * Gets how many more times the owner's held tool can be used before it breaks.
+	 * 
+	 * @return	The number of uses left on the held tool. Integer.MAX_VALUE if the owner's tool never wears out.
+	 */
+	protected int getToolUsesLeft()
+	{
+		ItemStack heldItem = owner.getHeldItem();
+
+		if (heldItem != null && heldItem.isItemStackDamageable())
+		{
+			int itemSlot = owner.inventory.getFirstSlotContainingItem(heldItem.getItem());
+
+			if (itemSlot != -1)
+			{
+				ItemStack toolStack = owner.inventory.inventoryItems[itemSlot];
+				return toolStack.getMaxDamage() - toolStack.getItemDamage() + 1;
+			}
+		}
+
+		return Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Damages the owner's held tool as if it had been used the provided number of times.
+	 * 
+	 * @param 	uses	The number of times the tool was used.
+	 */
+	protected void applyToolWear(int uses)
+	{
+		ItemStack heldItem = owner.getHeldItem();
+
+		if (heldItem != null && uses > 0)
+		{
+			int itemSlot = owner.inventory.getFirstSlotContainingItem(heldItem.getItem());
+
+			if (itemSlot != -1)
+			{
+				ItemStack toolStack = owner.inventory.inventoryItems[itemSlot];
+				toolStack.damageItem(uses, owner);
+				owner.inventory.markChanged();
+
+				if (toolStack.stackSize == 0)
+				{
+					owner.onItemDestroyed(toolStack);
+					owner.inventory.setInventorySlotContents(itemSlot, null);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Rounds an expected amount to a whole amount, rounding up with a chance equal to its fractional part.
+	 * 
+	 * @param 	expectedAmount	The expected amount.
+	 * 
+	 * @return	The expected amount as a whole number.
+	 */
+	protected int roundExpectedAmount(double expectedAmount)
+	{
+		int wholeAmount = (int)expectedAmount;
+		return owner.worldObj.rand.nextDouble() < expectedAmount - wholeAmount ? wholeAmount + 1 : wholeAmount;
+	}
 }
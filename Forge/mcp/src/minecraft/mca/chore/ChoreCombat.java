@@ -9,16 +9,15 @@
 
 package mca.chore;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
-import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import mca.core.MCA;
+import mca.core.io.NBTFieldCodec;
 import mca.core.util.LogicHelper;
 import mca.core.util.PacketHelper;
 import mca.entity.AbstractEntity;
 import mca.entity.EntityPlayerChild;
-import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityLivingBase;
 import net.minecraft.entity.monster.EntityCreeper;
 import net.minecraft.entity.monster.EntityEnderman;
@@ -34,7 +33,6 @@ import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.entity.projectile.EntityArrow;
 import net.minecraft.item.Item;
 import net.minecraft.nbt.NBTTagCompound;
-import net.minecraft.util.AxisAlignedBB;
 import net.minecraft.util.DamageSource;
 import net.minecraft.util.MathHelper;
 import cpw.mods.fml.common.network.PacketDispatcher;
@@ -101,6 +99,21 @@ public class ChoreCombat extends AbstractChore
 	/**Has the creeper "woosh" sound been played?*/
 	private transient boolean playedSound = false;
 
+	//Bits used to match the classes of entities against the attack flags.
+	private static final int MASK_PIG = 1;
+	private static final int MASK_SHEEP = 1 << 1;
+	private static final int MASK_COW = 1 << 2;
+	private static final int MASK_CHICKEN = 1 << 3;
+	private static final int MASK_SPIDER = 1 << 4;
+	private static final int MASK_ZOMBIE = 1 << 5;
+	private static final int MASK_SKELETON = 1 << 6;
+	private static final int MASK_CREEPER = 1 << 7;
+	private static final int MASK_ENDERMAN = 1 << 8;
+	private static final int MASK_UNKNOWN = 1 << 9;
+
+	/**Map of entity classes to the mask of entity types they belong to.*/
+	private static final Map<Class, Integer> classMaskMap = new ConcurrentHashMap<Class, Integer>();
+
 	/**
 	 * Constructor
 	 * 
@@ -203,90 +216,28 @@ public class ChoreCombat extends AbstractChore
 	@Override
 	public void writeChoreToNBT(NBTTagCompound NBT) 
 	{
-		//Loop through each field in this class and write to NBT.
-		for (Field f : this.getClass().getFields())
+		try
 		{
-			try
-			{
-				if (f.getModifiers() != Modifier.TRANSIENT)
-				{
-					if (f.getType().toString().contains("int"))
-					{
-						NBT.setInteger(f.getName(), (Integer)f.get(owner.combatChore));
-					}
-
-					else if (f.getType().toString().contains("double"))
-					{
-						NBT.setDouble(f.getName(), (Double)f.get(owner.combatChore));
-					}
-
-					else if (f.getType().toString().contains("float"))
-					{
-						NBT.setFloat(f.getName(), (Float)f.get(owner.combatChore));
-					}
-
-					else if (f.getType().toString().contains("String"))
-					{
-						NBT.setString(f.getName(), (String)f.get(owner.combatChore));
-					}
-
-					else if (f.getType().toString().contains("boolean"))
-					{
-						NBT.setBoolean(f.getName(), (Boolean)f.get(owner.combatChore));
-					}
-				}
-			}
+			NBTFieldCodec.getCodec(this.getClass(), AbstractChore.class).writeFieldsToNBT(this, NBT);
+		}
 
-			catch (Throwable e)
-			{
-				MCA.instance.log(e);
-				continue;
-			}
+		catch (IllegalAccessException e)
+		{
+			MCA.instance.log(e);
 		}
 	}
 
 	@Override
 	public void readChoreFromNBT(NBTTagCompound NBT) 
 	{
-		//Loop through each field in this class and read it from NBT.
-		for (Field f : this.getClass().getFields())
+		try
 		{
-			try
-			{
-				if (f.getModifiers() != Modifier.TRANSIENT)
-				{
-					if (f.getType().toString().contains("int"))
-					{
-						f.set(owner.combatChore, NBT.getInteger(f.getName()));
-					}
-
-					else if (f.getType().toString().contains("double"))
-					{
-						f.set(owner.combatChore, NBT.getDouble(f.getName()));
-					}
-
-					else if (f.getType().toString().contains("float"))
-					{
-						f.set(owner.combatChore, NBT.getFloat(f.getName()));
-					}
-
-					else if (f.getType().toString().contains("String"))
-					{
-						f.set(owner.combatChore, NBT.getString(f.getName()));
-					}
-
-					else if (f.getType().toString().contains("boolean"))
-					{
-						f.set(owner.combatChore, NBT.getBoolean(f.getName()));
-					}
-				}
-			}
+			NBTFieldCodec.getCodec(this.getClass(), AbstractChore.class).readFieldsFromNBT(this, NBT);
+		}
 
-			catch (Throwable e)
-			{
-				MCA.instance.log(e);
-				continue;
-			}
+		catch (IllegalAccessException e)
+		{
+			MCA.instance.log(e);
 		}
 	}
 
@@ -532,68 +483,26 @@ public class ChoreCombat extends AbstractChore
 	private EntityLivingBase findTarget()
 	{
 		EntityLivingBase closestEntity = null;
-		List<Entity> entitiesAroundMe = null;
+		double closestDistanceSq = Double.MAX_VALUE;
+		double searchRadius = sentryMode ? sentryRadius : 15;
+		int attackMask = getAttackMask();
 
-		if (sentryMode)
+		if (attackMask == 0)
 		{
-			entitiesAroundMe = owner.worldObj.getEntitiesWithinAABBExcludingEntity(owner, AxisAlignedBB.getBoundingBox(owner.posX - sentryRadius, owner.posY - 3, owner.posZ - sentryRadius, owner.posX + sentryRadius, owner.posY + 3, owner.posZ + sentryRadius));
+			return null;
 		}
 
-		else
+		//Find the closest entity whose class is selected as attackable.
+		for (EntityLivingBase entity : MCA.instance.entityIndex.getEntitiesNear(owner.worldObj, owner.posX, owner.posY, owner.posZ, searchRadius, 3))
 		{
-			entitiesAroundMe = owner.worldObj.getEntitiesWithinAABBExcludingEntity(owner, AxisAlignedBB.getBoundingBox(owner.posX - 15, owner.posY - 3, owner.posZ - 15, owner.posX + 15, owner.posY + 3, owner.posZ + 15));
-		}
-
-		//Find the closest entity.
-		for (Entity entity : entitiesAroundMe)
-		{
-			if (entity instanceof EntityLivingBase && !(entity instanceof EntityPlayer) && !(entity instanceof AbstractEntity))
+			if (entity != owner && (getClassMask(entity.getClass()) & attackMask) != 0)
 			{
-				if (closestEntity == null)
-				{
-					//Determine if they should attack by checking the target's class against entities selected as attackable.
-					if (entity instanceof EntityPig && attackPigs           	||
-							entity instanceof EntitySheep && attackSheep        ||
-							entity instanceof EntityCow && attackCows           ||
-							entity instanceof EntityChicken && attackChickens   ||
-							entity instanceof EntitySpider && attackSpiders     ||
-							entity instanceof EntityZombie && attackZombies     ||
-							entity instanceof EntitySkeleton && attackSkeletons ||
-							entity instanceof EntityCreeper && attackCreepers   ||
-							entity instanceof EntityEnderman && attackEndermen)
-					{
-						closestEntity = (EntityLivingBase)entity;
-					}
-
-					else if (entity instanceof EntityMob && attackUnknown)
-					{
-						closestEntity = (EntityLivingBase)entity;
-					}
-				}
+				double distanceSq = owner.getDistanceSqToEntity(entity);
 
-				else
+				if (distanceSq < closestDistanceSq)
 				{
-					//Determine if they should attack by checking the target's class against entities selected as attackable.
-					if (entity instanceof EntityPig && attackPigs           	||
-							entity instanceof EntitySheep && attackSheep        ||
-							entity instanceof EntityCow && attackCows           ||
-							entity instanceof EntityChicken && attackChickens   ||
-							entity instanceof EntitySpider && attackSpiders     ||
-							entity instanceof EntityZombie && attackZombies     ||
-							entity instanceof EntitySkeleton && attackSkeletons ||
-							entity instanceof EntityCreeper && attackCreepers   ||
-							entity instanceof EntityEnderman && attackEndermen)
-					{
-						if (owner.getDistanceToEntity(entity) < owner.getDistanceToEntity(closestEntity))
-						{
-							closestEntity = (EntityLivingBase)entity;
-						}
-					}
-
-					else if (entity instanceof EntityMob && attackUnknown)
-					{
-						closestEntity = (EntityLivingBase)entity;
-					}
+					closestDistanceSq = distanceSq;
+					closestEntity = entity;
 				}
 			}
 		}
@@ -601,4 +510,63 @@ public class ChoreCombat extends AbstractChore
 		//Set the owner's target.
 		return closestEntity;
 	}
+
+	/**
+	 * Gets the attack flags of this chore as a mask that can be compared with class masks.
+	 * 
+	 * @return	Mask with the bit of each type of entity that should be attacked set.
+	 */
+	private int getAttackMask()
+	{
+		int mask = 0;
+
+		mask |= attackPigs 		? MASK_PIG : 0;
+		mask |= attackSheep 	? MASK_SHEEP : 0;
+		mask |= attackCows 		? MASK_COW : 0;
+		mask |= attackChickens 	? MASK_CHICKEN : 0;
+		mask |= attackSpiders 	? MASK_SPIDER : 0;
+		mask |= attackZombies 	? MASK_ZOMBIE : 0;
+		mask |= attackSkeletons ? MASK_SKELETON : 0;
+		mask |= attackCreepers 	? MASK_CREEPER : 0;
+		mask |= attackEndermen 	? MASK_ENDERMAN : 0;
+		mask |= attackUnknown 	? MASK_UNKNOWN : 0;
+
+		return mask;
+	}
+
+	/**
+	 * Gets the mask of entity types that the provided class belongs to. Worked out once per class and then remembered.
+	 * 
+	 * @param 	entityClass	The class of the entity.
+	 * 
+	 * @return	Mask with the bit of each type the class belongs to set. 0 if entities of the class are never attacked.
+	 */
+	private static int getClassMask(Class entityClass)
+	{
+		Integer mask = classMaskMap.get(entityClass);
+
+		if (mask == null)
+		{
+			int newMask = 0;
+
+			if (!EntityPlayer.class.isAssignableFrom(entityClass) && !AbstractEntity.class.isAssignableFrom(entityClass))
+			{
+				newMask |= EntityPig.class.isAssignableFrom(entityClass) 		? MASK_PIG : 0;
+				newMask |= EntitySheep.class.isAssignableFrom(entityClass) 		? MASK_SHEEP : 0;
+				newMask |= EntityCow.class.isAssignableFrom(entityClass) 		? MASK_COW : 0;
+				newMask |= EntityChicken.class.isAssignableFrom(entityClass) 	? MASK_CHICKEN : 0;
+				newMask |= EntitySpider.class.isAssignableFrom(entityClass) 	? MASK_SPIDER : 0;
+				newMask |= EntityZombie.class.isAssignableFrom(entityClass) 	? MASK_ZOMBIE : 0;
+				newMask |= EntitySkeleton.class.isAssignableFrom(entityClass) 	? MASK_SKELETON : 0;
+				newMask |= EntityCreeper.class.isAssignableFrom(entityClass) 	? MASK_CREEPER : 0;
+				newMask |= EntityEnderman.class.isAssignableFrom(entityClass) 	? MASK_ENDERMAN : 0;
+				newMask |= EntityMob.class.isAssignableFrom(entityClass) 		? MASK_UNKNOWN : 0;
+			}
+
+			mask = newMask;
+			classMaskMap.put(entityClass, mask);
+		}
+
+		return mask;
+	}
 }
@@ -9,15 +9,16 @@
 
 package mca.chore;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
-import java.util.List;
+import java.util.Map;
 
 import mca.core.MCA;
+import mca.core.io.NBTFieldCodec;
 import mca.core.util.LanguageHelper;
 import mca.core.util.LogicHelper;
 import mca.core.util.PacketHelper;
 import mca.core.util.object.Coordinates;
+import mca.core.util.object.FarmPlot;
+import mca.core.util.object.JobBoard;
 import mca.entity.AbstractEntity;
 import mca.entity.EntityPlayerChild;
 import net.minecraft.block.Block;
@@ -87,6 +88,15 @@ public class ChoreFarming extends AbstractChore
 	/**Is the entity supposed to have a path to a block? */
 	public boolean hasAssignedPathToBlock = false;
 
+	/** The remembered layout of the area being farmed. Not sent to clients. */
+	public transient FarmPlot farmPlot = null;
+
+	/** The farm plot cell currently being harvested. */
+	public transient FarmPlot.FarmCell harvestingCell = null;
+
+	/** The farm map being used to create a farm. */
+	private transient String[] farmMap = null;
+
 	/**
 	 * Constructor
 	 * 
@@ -260,7 +270,7 @@ public class ChoreFarming extends AbstractChore
 			{
 				if (!owner.worldObj.isRemote)
 				{
-					for (String s : MCA.getFarmMap(areaX, seedType))
+					for (String s : getFarmMap())
 					{
 						if (s.equals("S"))
 						{
@@ -305,6 +315,63 @@ public class ChoreFarming extends AbstractChore
 		}
 	}
 
+	@Override
+	public void simulateElapsedTime(long elapsedTicks)
+	{
+		//Creating a farm changes the world block by block, so only maintained farms are caught up on.
+		if (method != 1 || farmPlot == null || farmPlot.lastScanTime < 0)
+		{
+			return;
+		}
+
+		//Everyone working the plot caught up on it together, so each gets their share of its harvests.
+		FarmPlot plot = getFarmPlot();
+		int holderCount = MCA.instance.jobBoard.getPlotHolderCount(owner.worldObj, plot);
+
+		for (Map.Entry<Integer, Long> entry : plot.getHarvestsOverTime(elapsedTicks).entrySet())
+		{
+			int cropID = entry.getKey();
+			long harvests = roundExpectedAmount((double)entry.getValue() / holderCount);
+
+			if (harvests <= 0)
+			{
+				continue;
+			}
+
+			//Use the average amount that each harvest gives when maintaining the farm.
+			if (cropID == Block.crops.blockID)
+			{
+				addSimulatedYield(new ItemStack(Item.wheat), harvests);
+				addSimulatedYield(new ItemStack(Item.seeds), roundExpectedAmount(harvests * 1.5D));
+			}
+
+			else if (cropID == Block.carrot.blockID)
+			{
+				addSimulatedYield(new ItemStack(Item.carrot), harvests * 3);
+			}
+
+			else if (cropID == Block.potato.blockID)
+			{
+				addSimulatedYield(new ItemStack(Item.potato), harvests * 3);
+			}
+
+			else if (cropID == Block.melonStem.blockID)
+			{
+				addSimulatedYield(new ItemStack(Item.melon), harvests * 5);
+			}
+
+			else if (cropID == Block.pumpkinStem.blockID)
+			{
+				addSimulatedYield(new ItemStack(Block.pumpkin), harvests);
+			}
+
+			else if (cropID == Block.reed.blockID)
+			{
+				addSimulatedYield(new ItemStack(Item.reed), harvests);
+			}
+		}
+	}
+
 	@Override
 	public String getChoreName() 
 	{
@@ -315,6 +382,8 @@ public class ChoreFarming extends AbstractChore
 	public void endChore()
 	{
 		owner.setSneaking(false);
+		returnHarvestingCell();
+		MCA.instance.jobBoard.releaseAll(owner);
 		hasEnded = true;
 
 		if (!owner.worldObj.isRemote)
@@ -334,91 +403,137 @@ public class ChoreFarming extends AbstractChore
 	@Override
 	public void writeChoreToNBT(NBTTagCompound NBT) 
 	{
-		//Loop through each field in this class and write to NBT.
-		for (Field f : this.getClass().getFields())
+		try
 		{
-			try
-			{
-				if (f.getModifiers() != Modifier.TRANSIENT)
-				{
-					if (f.getType().toString().contains("int"))
-					{
-						NBT.setInteger(f.getName(), Integer.parseInt(f.get(owner.farmingChore).toString()));
-					}
+			NBTFieldCodec.getCodec(this.getClass(), AbstractChore.class).writeFieldsToNBT(this, NBT);
+		}
 
-					else if (f.getType().toString().contains("double"))
-					{
-						NBT.setDouble(f.getName(), Double.parseDouble(f.get(owner.farmingChore).toString()));
-					}
+		catch (IllegalAccessException e)
+		{
+			MCA.instance.log(e);
+		}
 
-					else if (f.getType().toString().contains("float"))
-					{
-						NBT.setFloat(f.getName(), Float.parseFloat(f.get(owner.farmingChore).toString()));
-					}
+		if (farmPlot != null)
+		{
+			farmPlot.writePlotToNBT(NBT);
+		}
+	}
 
-					else if (f.getType().toString().contains("String"))
-					{
-						NBT.setString(f.getName(), f.get(owner.farmingChore).toString());
-					}
+	@Override
+	public void readChoreFromNBT(NBTTagCompound NBT) 
+	{
+		try
+		{
+			NBTFieldCodec.getCodec(this.getClass(), AbstractChore.class).readFieldsFromNBT(this, NBT);
+		}
 
-					else if (f.getType().toString().contains("boolean"))
-					{
-						NBT.setBoolean(f.getName(), Boolean.parseBoolean(f.get(owner.farmingChore).toString()));
-					}
-				}
-			}
+		catch (IllegalAccessException e)
+		{
+			MCA.instance.log(e);
+		}
 
-			catch (Throwable e)
-			{
-				MCA.instance.log(e);
-				continue;
-			}
+		farmPlot = FarmPlot.readPlotFromNBT(NBT);
+
+		//Take up the lease on the plot as soon as the chore is loaded, so that everyone loaded alongside this chore is counted when the plot is caught up on.
+		if (method == 1 && hasBegun && !hasEnded && farmPlot != null && owner.worldObj != null && !owner.worldObj.isRemote)
+		{
+			farmPlot = MCA.instance.jobBoard.getSharedPlot(owner, farmPlot);
 		}
 	}
 
-	@Override
-	public void readChoreFromNBT(NBTTagCompound NBT) 
+	/**
+	 * Keeps the farm plot of the provided chore if it covers the same area as this chore.
+	 * 
+	 * @param 	previousChore	The farming chore being replaced by this one.
+	 */
+	public void inheritFarmPlot(ChoreFarming previousChore)
 	{
-		//Loop through each field in this class and read from NBT.
-		for (Field f : this.getClass().getFields())
+		if (previousChore != null && previousChore.farmPlot != null && farmPlot == null)
 		{
-			try
-			{
-				if (f.getModifiers() != Modifier.TRANSIENT)
-				{
-					if (f.getType().toString().contains("int"))
-					{
-						f.set(owner.farmingChore, NBT.getInteger(f.getName()));
-					}
+			FarmPlot plot = previousChore.farmPlot;
+			previousChore.returnHarvestingCell();
 
-					else if (f.getType().toString().contains("double"))
-					{
-						f.set(owner.farmingChore, NBT.getDouble(f.getName()));
-					}
+			if (method == 1 && plot.hasBounds(startX - radius, startY - 3, startZ - radius, startX + radius, startY + 3, startZ + radius))
+			{
+				farmPlot = plot;
+			}
+		}
+	}
 
-					else if (f.getType().toString().contains("float"))
-					{
-						f.set(owner.farmingChore, NBT.getFloat(f.getName()));
-					}
+	/**
+	 * Puts the cell being harvested back into the farm plot so that it is checked again right away instead of being lost until the next rescan.
+	 */
+	private void returnHarvestingCell()
+	{
+		if (harvestingCell != null && farmPlot != null)
+		{
+			farmPlot.deferCell(harvestingCell, owner.worldObj.getTotalWorldTime());
+		}
 
-					else if (f.getType().toString().contains("String"))
-					{
-						f.set(owner.farmingChore, NBT.getString(f.getName()));
-					}
+		harvestingCell = null;
+	}
 
-					else if (f.getType().toString().contains("boolean"))
-					{
-						f.set(owner.farmingChore, NBT.getBoolean(f.getName()));
-					}
-				}
+	/**
+	 * Gets the farm plot covering this chore's area, creating it if necessary. The plot of a maintained farm is
+	 * shared through the job board with anyone else working the same area. The plot of a farm being created is
+	 * kept to this chore, since it holds the land this chore has left to work through in step with its farm map.
+	 * 
+	 * @return	The farm plot for this chore.
+	 */
+	public FarmPlot getFarmPlot()
+	{
+		if (farmPlot == null)
+		{
+			if (method == 0)
+			{
+				farmPlot = new FarmPlot(startX, startY - 1, startZ, startX + areaX - 1, startY, startZ + areaY - 1);
 			}
 
-			catch (Throwable e)
+			else
 			{
-				MCA.instance.log(e);
-				continue;
+				farmPlot = new FarmPlot(startX - radius, startY - 3, startZ - radius, startX + radius, startY + 3, startZ + radius);
 			}
 		}
+
+		if (method == 1)
+		{
+			farmPlot = MCA.instance.jobBoard.getSharedPlot(owner, farmPlot);
+		}
+
+		return farmPlot;
+	}
+
+	/**
+	 * Adds the yield of harvests that happened while unloaded to the inventory. Anything that doesn't fit is lost,
+	 * just as it would be while harvesting normally.
+	 * 
+	 * @param 	itemStack	A stack of the item harvested.
+	 * @param 	amount		The total amount of the item harvested.
+	 */
+	private void addSimulatedYield(ItemStack itemStack, long amount)
+	{
+		//No more than a full inventory could ever be added.
+		itemStack.stackSize = (int)Math.min(amount, owner.inventory.getSizeInventory() * itemStack.getMaxStackSize());
+
+		if (itemStack.stackSize > 0)
+		{
+			owner.inventory.addItemStackToInventory(itemStack);
+		}
+	}
+
+	/**
+	 * Gets the farm map used to create this chore's farm.
+	 * 
+	 * @return	The farm map for this chore's area and seed type.
+	 */
+	private String[] getFarmMap()
+	{
+		if (farmMap == null)
+		{
+			farmMap = MCA.getFarmMap(areaX, seedType);
+		}
+
+		return farmMap;
 	}
 
 	/**
@@ -428,19 +543,27 @@ public class ChoreFarming extends AbstractChore
 	{
 		if (!hasAssignedPathToBlock)
 		{
-			List<Coordinates> target = LogicHelper.getNearbyFarmableLand(owner, startX, startY, startZ, areaX, areaY);
+			FarmPlot plot = getFarmPlot();
 
-			if (!target.isEmpty())
+			//Find the land to work once, then work through it in order.
+			if (!plot.hasQueuedLand())
 			{
-				targetX = (int)target.get(0).x;
-				targetY = (int)target.get(0).y;
-				targetZ = (int)target.get(0).z;
+				plot.queueFarmableLand(owner.worldObj, startX, startY, startZ, areaX, areaY);
+			}
+
+			Coordinates target = plot.pollFarmableLand(owner.worldObj);
+
+			if (target != null)
+			{
+				targetX = (int)target.x;
+				targetY = (int)target.y;
+				targetZ = (int)target.z;
 				hasAssignedPathToBlock = true;
 			}
 
 			else
 			{
-				if (farmlandIndex == MCA.getFarmMap(areaX, seedType).length)
+				if (farmlandIndex == getFarmMap().length)
 				{
 					if (!owner.worldObj.isRemote)
 					{
@@ -490,7 +613,7 @@ public class ChoreFarming extends AbstractChore
 
 				else
 				{
-					String nextOperation = MCA.getFarmMap(areaX, seedType)[farmlandIndex];
+					String nextOperation = getFarmMap()[farmlandIndex];
 
 					if (nextOperation.equals("S"))
 					{
@@ -526,6 +649,7 @@ public class ChoreFarming extends AbstractChore
 							}
 
 							owner.worldObj.setBlock(targetX, targetY + 1, targetZ, cropBlockId);
+							getFarmPlot().plantCell(targetX, targetY + 1, targetZ, cropBlockId, owner.worldObj.getTotalWorldTime());
 						}
 					}
 
@@ -566,31 +690,46 @@ public class ChoreFarming extends AbstractChore
 	{
 		if (!hasAssignedPathToBlock)
 		{
-			for (Coordinates coords : LogicHelper.getNearbyHarvestableCrops(owner, startX, startY, startZ, radius))
+			FarmPlot plot = getFarmPlot();
+			long worldTime = owner.worldObj.getTotalWorldTime();
+
+			//Only scan the whole area occasionally. Otherwise just check the crops that should be mature.
+			if (plot.needsRescan(worldTime))
 			{
-				int blockID = owner.worldObj.getBlockId((int)coords.x, (int)coords.y, (int)coords.z);
+				plot.scanForCrops(owner.worldObj, worldTime);
+			}
 
-				if (blockID == Block.crops.blockID || blockID == Block.potato.blockID || blockID == Block.carrot.blockID || blockID == Block.pumpkin.blockID || blockID == Block.melon.blockID || blockID == Block.reed.blockID)
-				{
-					targetX = (int)coords.x;
-					targetY = (int)coords.y;
-					targetZ = (int)coords.z;
-					hasAssignedPathToBlock = true;
+			FarmPlot.FarmCell cell = plot.pollMaturedCell(owner.worldObj, worldTime);
 
-					if (blockID == Block.pumpkin.blockID || blockID == Block.melon.blockID)
-					{
-						//1.5 second delay
-						delay = 35;
-					}
+			//Leave crops that another farmer is already harvesting to them.
+			while (cell != null && !MCA.instance.jobBoard.claim(owner, JobBoard.getJobKey(cell.x, cell.y, cell.z)))
+			{
+				plot.deferCell(cell, worldTime + JobBoard.LEASE_TICKS);
+				cell = plot.pollMaturedCell(owner.worldObj, worldTime);
+			}
 
-					else
-					{
-						delay = 5;
-					}
+			if (cell != null)
+			{
+				targetX = cell.harvestX;
+				targetY = cell.harvestY;
+				targetZ = cell.harvestZ;
+				harvestingCell = cell;
+				hasAssignedPathToBlock = true;
 
-					owner.getNavigator().setPath(owner.getNavigator().getPathToXYZ(targetX, targetY, targetZ), 0.4F);
-					break;
+				int blockID = owner.worldObj.getBlockId(targetX, targetY, targetZ);
+
+				if (blockID == Block.pumpkin.blockID || blockID == Block.melon.blockID)
+				{
+					//1.5 second delay
+					delay = 35;
 				}
+
+				else
+				{
+					delay = 5;
+				}
+
+				owner.getNavigator().setPath(owner.getNavigator().getPathToXYZ(targetX, targetY, targetZ), 0.4F);
 			}
 		}
 
@@ -667,6 +806,14 @@ public class ChoreFarming extends AbstractChore
 							}
 						}
 
+						if (harvestingCell != null)
+						{
+							MCA.instance.jobBoard.release(owner, JobBoard.getJobKey(harvestingCell.x, harvestingCell.y, harvestingCell.z));
+						}
+
+						getFarmPlot().rescheduleCell(harvestingCell, owner.worldObj.getTotalWorldTime());
+						harvestingCell = null;
+
 						PacketDispatcher.sendPacketToAllPlayers(PacketHelper.createInventoryPacket(owner.entityId, owner.inventory));
 					}
 				}
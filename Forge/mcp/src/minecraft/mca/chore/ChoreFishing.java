@@ -9,10 +9,8 @@
 
 package mca.chore;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
-
 import mca.core.MCA;
+import mca.core.io.NBTFieldCodec;
 import mca.core.util.LanguageHelper;
 import mca.core.util.LogicHelper;
 import mca.core.util.PacketHelper;
@@ -62,6 +60,12 @@ public class ChoreFishing extends AbstractChore
 	/** How many ticks the owner has remained idle, with no fish hook thrown.*/
 	public int idleFishingTicks = 0;
 
+	/** The average number of ticks taken to idle, throw the rod, and wait for a chance to catch a fish.*/
+	private static final int AVERAGE_TICKS_PER_CAST = 320;
+
+	/** The chance of catching a fish each time the rod is thrown.*/
+	private static final double CATCH_CHANCE = 0.5D;
+
 	/**
 	 * Constructor
 	 * 
@@ -299,6 +303,65 @@ public class ChoreFishing extends AbstractChore
 		}
 	}
 
+	@Override
+	public void simulateElapsedTime(long elapsedTicks)
+	{
+		//Nothing would have been caught if water was never found.
+		if (!hasWaterCoordinates)
+		{
+			return;
+		}
+
+		//Children must throw their own rod, which wears out once per cast.
+		long casts = elapsedTicks / AVERAGE_TICKS_PER_CAST;
+
+		if (owner instanceof EntityPlayerChild)
+		{
+			casts = Math.min(casts, getToolUsesLeft());
+		}
+
+		int fishCarried = owner.inventory.getQuantityOfItem(Item.fishRaw);
+		int fishCaught = Math.min(roundExpectedAmount(casts * CATCH_CHANCE), 64 - fishCarried);
+
+		if (fishCaught <= 0)
+		{
+			return;
+		}
+
+		//Stop casting once the last fish that fits has been caught.
+		if (fishCarried + fishCaught == 64)
+		{
+			casts = Math.min(casts, (long)Math.ceil(fishCaught / CATCH_CHANCE));
+		}
+
+		owner.inventory.addItemStackToInventory(new ItemStack(Item.fishRaw, fishCaught));
+
+		//Increment achievement values and check for achievement.
+		if (owner instanceof EntityPlayerChild)
+		{
+			EntityPlayerChild child = (EntityPlayerChild)owner;
+
+			applyToolWear((int)casts);
+			child.fishCaught += fishCaught;
+
+			if (child.fishCaught >= 100)
+			{
+				EntityPlayer player = child.worldObj.getPlayerEntityByName(child.ownerPlayerName);
+
+				if (player != null)
+				{
+					player.triggerAchievement(MCA.instance.achievementChildFish);
+				}
+			}
+		}
+
+		if (owner.inventory.getQuantityOfItem(Item.fishRaw) == 64)
+		{
+			owner.say(LanguageHelper.getString("notify.child.chore.finished.fishing"));
+			endChore();
+		}
+	}
+
 	@Override
 	public String getChoreName() 
 	{
@@ -333,90 +396,28 @@ public class ChoreFishing extends AbstractChore
 	@Override
 	public void writeChoreToNBT(NBTTagCompound NBT) 
 	{
-		//Loop through each field in this class and write to NBT.
-		for (Field f : this.getClass().getFields())
+		try
 		{
-			try
-			{
-				if (f.getModifiers() != Modifier.TRANSIENT)
-				{
-					if (f.getType().toString().contains("int"))
-					{
-						NBT.setInteger(f.getName(), (Integer)f.get(owner.fishingChore));
-					}
-
-					else if (f.getType().toString().contains("double"))
-					{
-						NBT.setDouble(f.getName(), (Double)f.get(owner.fishingChore));
-					}
-
-					else if (f.getType().toString().contains("float"))
-					{
-						NBT.setFloat(f.getName(), (Float)f.get(owner.fishingChore));
-					}
-
-					else if (f.getType().toString().contains("String"))
-					{
-						NBT.setString(f.getName(), (String)f.get(owner.fishingChore));
-					}
-
-					else if (f.getType().toString().contains("boolean"))
-					{
-						NBT.setBoolean(f.getName(), (Boolean)f.get(owner.fishingChore));
-					}
-				}
-			}
+			NBTFieldCodec.getCodec(this.getClass(), AbstractChore.class).writeFieldsToNBT(this, NBT);
+		}
 
-			catch (Throwable e)
-			{
-				MCA.instance.log(e);
-				continue;
-			}
+		catch (IllegalAccessException e)
+		{
+			MCA.instance.log(e);
 		}
 	}
 
 	@Override
 	public void readChoreFromNBT(NBTTagCompound NBT) 
 	{
-		//Loop through each field in this class and read from NBT.
-		for (Field f : this.getClass().getFields())
+		try
 		{
-			try
-			{
-				if (f.getModifiers() != Modifier.TRANSIENT)
-				{
-					if (f.getType().toString().contains("int"))
-					{
-						f.set(owner.fishingChore, NBT.getInteger(f.getName()));
-					}
-
-					else if (f.getType().toString().contains("double"))
-					{
-						f.set(owner.fishingChore, NBT.getDouble(f.getName()));
-					}
-
-					else if (f.getType().toString().contains("float"))
-					{
-						f.set(owner.fishingChore, NBT.getFloat(f.getName()));
-					}
-
-					else if (f.getType().toString().contains("String"))
-					{
-						f.set(owner.fishingChore, NBT.getString(f.getName()));
-					}
-
-					else if (f.getType().toString().contains("boolean"))
-					{
-						f.set(owner.fishingChore, NBT.getBoolean(f.getName()));
-					}
-				}
-			}
+			NBTFieldCodec.getCodec(this.getClass(), AbstractChore.class).readFieldsFromNBT(this, NBT);
+		}
 
-			catch (Throwable e)
-			{
-				MCA.instance.log(e);
-				continue;
-			}
+		catch (IllegalAccessException e)
+		{
+			MCA.instance.log(e);
 		}
 	}
 }
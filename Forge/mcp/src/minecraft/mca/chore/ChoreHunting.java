@@ -9,10 +9,8 @@
 
 package mca.chore;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
-
 import mca.core.MCA;
+import mca.core.io.NBTFieldCodec;
 import mca.core.util.LanguageHelper;
 import mca.core.util.PacketHelper;
 import mca.entity.AbstractEntity;
@@ -453,6 +451,13 @@ public class ChoreHunting extends AbstractChore
 		}
 	}
 
+	@Override
+	public void simulateElapsedTime(long elapsedTicks)
+	{
+		//The results of the hunt are already decided all at once on return, so just move the return closer.
+		huntingTicks = (int)Math.min(huntingReturnTicks, huntingTicks + elapsedTicks);
+	}
+
 	@Override
 	public String getChoreName() 
 	{
@@ -475,90 +480,28 @@ public class ChoreHunting extends AbstractChore
 	@Override
 	public void writeChoreToNBT(NBTTagCompound NBT) 
 	{
-		//Loop through each field in this class and write to NBT.
-		for (Field f : this.getClass().getFields())
+		try
 		{
-			try
-			{
-				if (f.getModifiers() != Modifier.TRANSIENT)
-				{
-					if (f.getType().toString().contains("int"))
-					{
-						NBT.setInteger(f.getName(), Integer.parseInt(f.get(owner.huntingChore).toString()));
-					}
-
-					else if (f.getType().toString().contains("double"))
-					{
-						NBT.setDouble(f.getName(), Double.parseDouble(f.get(owner.huntingChore).toString()));
-					}
-
-					else if (f.getType().toString().contains("float"))
-					{
-						NBT.setFloat(f.getName(), Float.parseFloat(f.get(owner.huntingChore).toString()));
-					}
-
-					else if (f.getType().toString().contains("String"))
-					{
-						NBT.setString(f.getName(), f.get(owner.huntingChore).toString());
-					}
-
-					else if (f.getType().toString().contains("boolean"))
-					{
-						NBT.setBoolean(f.getName(), Boolean.parseBoolean(f.get(owner.huntingChore).toString()));
-					}
-				}
-			}
+			NBTFieldCodec.getCodec(this.getClass(), AbstractChore.class).writeFieldsToNBT(this, NBT);
+		}
 
-			catch (Throwable e)
-			{
-				MCA.instance.log(e);
-				continue;
-			}
+		catch (IllegalAccessException e)
+		{
+			MCA.instance.log(e);
 		}
 	}
 
 	@Override
 	public void readChoreFromNBT(NBTTagCompound NBT) 
 	{
-		//Loop through each field in this class and read from NBT.
-		for (Field f : this.getClass().getFields())
+		try
 		{
-			try
-			{
-				if (f.getModifiers() != Modifier.TRANSIENT)
-				{
-					if (f.getType().toString().contains("int"))
-					{
-						f.set(owner.huntingChore, NBT.getInteger(f.getName()));
-					}
-
-					else if (f.getType().toString().contains("double"))
-					{
-						f.set(owner.huntingChore, NBT.getDouble(f.getName()));
-					}
-
-					else if (f.getType().toString().contains("float"))
-					{
-						f.set(owner.huntingChore, NBT.getFloat(f.getName()));
-					}
-
-					else if (f.getType().toString().contains("String"))
-					{
-						f.set(owner.huntingChore, NBT.getString(f.getName()));
-					}
-
-					else if (f.getType().toString().contains("boolean"))
-					{
-						f.set(owner.huntingChore, NBT.getBoolean(f.getName()));
-					}
-				}
-			}
+			NBTFieldCodec.getCodec(this.getClass(), AbstractChore.class).readFieldsFromNBT(this, NBT);
+		}
 
-			catch (Throwable e)
-			{
-				MCA.instance.log(e);
-				continue;
-			}
+		catch (IllegalAccessException e)
+		{
+			MCA.instance.log(e);
 		}
 	}
 }
\ No newline at end of file
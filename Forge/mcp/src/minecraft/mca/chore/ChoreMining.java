@@ -9,10 +9,8 @@
 
 package mca.chore;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
-
 import mca.core.MCA;
+import mca.core.io.NBTFieldCodec;
 import mca.core.util.LanguageHelper;
 import mca.core.util.LogicHelper;
 import mca.core.util.PacketHelper;
@@ -182,6 +180,25 @@ public class ChoreMining extends AbstractChore
 		}
 	}
 
+	@Override
+	public void simulateElapsedTime(long elapsedTicks)
+	{
+		//Active mining digs a tunnel of a set length and is left to finish normally.
+		if (!inPassiveMode || owner.inventory.getBestItemOfType(ItemPickaxe.class) == null)
+		{
+			return;
+		}
+
+		//The pick is only worn when the last search found ore within range.
+		if (passiveDistanceToOre > 0 && passiveDistanceToOre <= 30)
+		{
+			long searches = (passiveNotificationTicks + elapsedTicks) / (passiveNotificationInterval + 1);
+			applyToolWear((int)Math.min(searches * 3, getToolUsesLeft()));
+		}
+
+		passiveNotificationTicks = (int)((passiveNotificationTicks + elapsedTicks) % (passiveNotificationInterval + 1));
+	}
+
 	@Override
 	public String getChoreName() 
 	{
@@ -210,90 +227,28 @@ public class ChoreMining extends AbstractChore
 	@Override
 	public void writeChoreToNBT(NBTTagCompound NBT) 
 	{
-		//Loop through each field in this class and write to NBT.
-		for (Field f : this.getClass().getFields())
+		try
 		{
-			try
-			{
-				if (f.getModifiers() != Modifier.TRANSIENT)
-				{
-					if (f.getType().toString().contains("int"))
-					{
-						NBT.setInteger(f.getName(), Integer.parseInt(f.get(owner.miningChore).toString()));
-					}
-
-					else if (f.getType().toString().contains("double"))
-					{
-						NBT.setDouble(f.getName(), Double.parseDouble(f.get(owner.miningChore).toString()));
-					}
-
-					else if (f.getType().toString().contains("float"))
-					{
-						NBT.setFloat(f.getName(), Float.parseFloat(f.get(owner.miningChore).toString()));
-					}
-
-					else if (f.getType().toString().contains("String"))
-					{
-						NBT.setString(f.getName(), f.get(owner.miningChore).toString());
-					}
-
-					else if (f.getType().toString().contains("boolean"))
-					{
-						NBT.setBoolean(f.getName(), Boolean.parseBoolean(f.get(owner.miningChore).toString()));
-					}
-				}
-			}
+			NBTFieldCodec.getCodec(this.getClass(), AbstractChore.class).writeFieldsToNBT(this, NBT);
+		}
 
-			catch (Throwable e)
-			{
-				MCA.instance.log(e);
-				continue;
-			}
+		catch (IllegalAccessException e)
+		{
+			MCA.instance.log(e);
 		}
 	}
 
 	@Override
 	public void readChoreFromNBT(NBTTagCompound NBT) 
 	{
-		//Loop through each field in this class and read from NBT.
-		for (Field f : this.getClass().getFields())
+		try
 		{
-			try
-			{
-				if (f.getModifiers() != Modifier.TRANSIENT)
-				{
-					if (f.getType().toString().contains("int"))
-					{
-						f.set(owner.miningChore, NBT.getInteger(f.getName()));
-					}
-
-					else if (f.getType().toString().contains("double"))
-					{
-						f.set(owner.miningChore, NBT.getDouble(f.getName()));
-					}
-
-					else if (f.getType().toString().contains("float"))
-					{
-						f.set(owner.miningChore, NBT.getFloat(f.getName()));
-					}
-
-					else if (f.getType().toString().contains("String"))
-					{
-						f.set(owner.miningChore, NBT.getString(f.getName()));
-					}
-
-					else if (f.getType().toString().contains("boolean"))
-					{
-						f.set(owner.miningChore, NBT.getBoolean(f.getName()));
-					}
-				}
-			}
+			NBTFieldCodec.getCodec(this.getClass(), AbstractChore.class).readFieldsFromNBT(this, NBT);
+		}
 
-			catch (Throwable e)
-			{
-				MCA.instance.log(e);
-				continue;
-			}
+		catch (IllegalAccessException e)
+		{
+			MCA.instance.log(e);
 		}
 	}
 
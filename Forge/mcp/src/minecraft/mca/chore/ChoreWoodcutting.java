@@ -9,15 +9,13 @@
 
 package mca.chore;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
-import java.util.List;
-
 import mca.core.MCA;
+import mca.core.io.NBTFieldCodec;
 import mca.core.util.LanguageHelper;
-import mca.core.util.LogicHelper;
 import mca.core.util.PacketHelper;
 import mca.core.util.object.Coordinates;
+import mca.core.util.object.TreeCache;
+import mca.core.util.object.TreeStructure;
 import mca.entity.AbstractEntity;
 import mca.entity.EntityPlayerChild;
 import net.minecraft.block.Block;
@@ -68,6 +66,15 @@ public class ChoreWoodcutting extends AbstractChore
 	/**The type of tree that should be cut. 0 = Oak, 1 = Spruce, 2 = Birch, 3 = Jungle*/
 	public int treeType = 0;
 
+	/**The tree being cut. Not sent to clients.*/
+	public transient TreeStructure tree = null;
+
+	/**Index of the log being cut in the tree's cut order. The cached tree is shared, so the place in it is kept here.*/
+	private transient int cutIndex = 0;
+
+	/**Has the log at the cut index been confirmed to still exist?*/
+	private transient boolean isCurrentLogVerified = false;
+
 	/**
 	 * Constructor
 	 * 
@@ -175,27 +182,25 @@ public class ChoreWoodcutting extends AbstractChore
 			treeCutInterval = 25;
 		}
 
-		//Create a list to store coordinates containing wood.
-		List<Coordinates> coordinatesContainingWood;
-
-		//Check if a specific tree was selected.
-		if (treeType != -1)
+		//Check if they need some tree coordinates.
+		if (!hasTreeCoordinates || tree == null)
 		{
-			//Get only wood blocks whose metadata matches the tree type.
-			coordinatesContainingWood = LogicHelper.getNearbyBlockCoordinatesWithMetadata(owner, Block.wood.blockID, treeType, 10);
-		}
+			setTree(MCA.instance.treeCache.getNearestTree(owner, treeType, 10));
 
-		//All trees should be cut.
-		else
-		{
-			coordinatesContainingWood = LogicHelper.getNearbyBlockCoordinates(owner, Block.wood.blockID, 10);
-		}
+			if (tree != null)
+			{
+				MCA.instance.jobBoard.claim(owner, TreeCache.getJobKey(tree));
+				hasTreeCoordinates = true;
+				treeCoordinatesX = tree.baseX;
+				treeCoordinatesY = tree.baseY;
+				treeCoordinatesZ = tree.baseZ;
+				currentLogCoordinatesX = tree.baseX;
+				currentLogCoordinatesY = tree.baseY;
+				currentLogCoordinatesZ = tree.baseZ;
+			}
 
-		//Check if they need some tree coordinates.
-		if (!hasTreeCoordinates)
-		{
-			//Check that there's actually some in the list.
-			if (coordinatesContainingWood.isEmpty())
+			//A valid tree wasn't found.
+			else
 			{
 				if (!owner.worldObj.isRemote)
 				{
@@ -213,91 +218,22 @@ public class ChoreWoodcutting extends AbstractChore
 				endChore();
 				return;
 			}
-
-			else
-			{
-				hasTreeCoordinates = true;
-
-				Coordinates coordinatesOfBlock = null;
-				Double distance = null;
-
-				//Get the coordinates of the nearest valid wood block found of the specified ID.
-				for (Coordinates coords : coordinatesContainingWood)
-				{
-					if (distance != null)
-					{
-						Double thisDistance = LogicHelper.getDistanceToXYZ(owner.posX, owner.posY, owner.posZ, coords.x, coords.y, coords.z);
-
-						if (thisDistance < distance)
-						{
-							coordinatesOfBlock = coords;
-						}
-					}
-
-					else
-					{
-						if (owner.worldObj.getBlockId((int)coords.x, (int)coords.y - 1, (int)coords.z) == Block.dirt.blockID ||
-								owner.worldObj.getBlockId((int)coords.x, (int)coords.y - 1, (int)coords.z) == Block.grass.blockID)
-						{
-							distance = LogicHelper.getDistanceToXYZ(owner.posX, owner.posY, owner.posZ, coords.x, coords.y, coords.z);
-							coordinatesOfBlock = coords;
-						}
-					}
-				}
-
-				if (coordinatesOfBlock != null)
-				{
-					treeCoordinatesX = coordinatesOfBlock.x;
-					treeCoordinatesY = coordinatesOfBlock.y;
-					treeCoordinatesZ = coordinatesOfBlock.z;
-
-					//Calculate the lowest log.
-					int distanceFromY = 0;
-
-					while (distanceFromY != 10)
-					{
-						int blockId = owner.worldObj.getBlockId((int)treeCoordinatesX, (int)treeCoordinatesY - distanceFromY, (int)treeCoordinatesZ);
-
-						if (blockId != Block.wood.blockID)
-						{
-							distanceFromY--;
-							break;
-						}
-
-						distanceFromY++;
-					}
-
-					currentLogCoordinatesX = treeCoordinatesX;
-					currentLogCoordinatesY = treeCoordinatesY - distanceFromY;
-					currentLogCoordinatesZ = treeCoordinatesZ;
-				}
-
-				//A valid tree wasn't found.
-				else
-				{
-					if (!owner.worldObj.isRemote)
-					{
-						owner.say(LanguageHelper.getString(owner, "notify.child.chore.interrupted.woodcutting.notrees", false));
-					}
-
-					endChore();
-					return;
-				}
-			}
 		}
 
 		//If they don't need tree coordinates, continue working.
 		else
 		{
-			//Get the coordinates of all leaf blocks adjacent to the entity.
-			List<Coordinates> leafBlockCoordinates = LogicHelper.getNearbyBlocksBottomTop(owner, Block.leaves.blockID, 1, 1);
-
-			//Loop through each coordinate in the list and remove the leaves.
-			for (Coordinates coords : leafBlockCoordinates)
+			//Keep the claim on the tree so others leave it alone. Find another tree if someone else has taken it over.
+			if (!MCA.instance.jobBoard.claim(owner, TreeCache.getJobKey(tree)))
 			{
-				owner.worldObj.setBlock((int)coords.x, (int)coords.y, (int)coords.z, 0);
+				tree = null;
+				hasTreeCoordinates = false;
+				return;
 			}
 
+			//Remove the tree's leaves that are adjacent to the entity.
+			tree.clearLeavesNear(owner.worldObj, owner.posX, owner.posY, owner.posZ);
+
 			//Check if they need to move to the tree to cut.
 			if (!(owner.getDistance(treeCoordinatesX, owner.posY, treeCoordinatesZ) <= 2.5))
 			{
@@ -316,27 +252,40 @@ public class ChoreWoodcutting extends AbstractChore
 			//They don't need to move to the tree, so begin cutting.
 			else
 			{
-				//Make sure the log they're going to cut exists, or the log above.
-				if (owner.worldObj.getBlockId((int)currentLogCoordinatesX, (int)currentLogCoordinatesY, (int)currentLogCoordinatesZ) == Block.wood.blockID ||
-						owner.worldObj.getBlockId((int)currentLogCoordinatesX, (int)currentLogCoordinatesY + 1, (int)currentLogCoordinatesZ) == Block.wood.blockID)
+				//Get the next log in the tree's cut order.
+				Coordinates currentLog = getCurrentLog();
+
+				if (currentLog != null)
 				{
+					currentLogCoordinatesX = currentLog.x;
+					currentLogCoordinatesY = currentLog.y;
+					currentLogCoordinatesZ = currentLog.z;
+
 					//Check the ticks vs the interval to see if the log should be removed.
 					if (treeCutTicks >= treeCutInterval)
 					{
 						treeCutTicks = 0;
+
+						//Make sure the log is still there before taking it.
+						if (owner.worldObj.getBlockId((int)currentLogCoordinatesX, (int)currentLogCoordinatesY, (int)currentLogCoordinatesZ) != Block.wood.blockID)
+						{
+							advanceLog();
+							return;
+						}
+
 						owner.damageHeldItem();
 
 						ItemStack stackToAdd = new ItemStack(Block.wood, 1, treeType);
 						stackToAdd.damageItem(treeType, owner);
 						owner.inventory.addItemStackToInventory(stackToAdd);
 
-						//Remove the block and increase Y by 1.
+						//Remove the block and move on to the next log.
 						if (!owner.worldObj.isRemote)
 						{
 							owner.worldObj.setBlock((int)currentLogCoordinatesX, (int)currentLogCoordinatesY, (int)currentLogCoordinatesZ, 0);
 						}
 
-						currentLogCoordinatesY++;
+						advanceLog();
 
 						//Remember they've done work.
 						hasDoneWork = true;
@@ -369,21 +318,155 @@ public class ChoreWoodcutting extends AbstractChore
 					}
 				}
 
-				//The log being cut doesn't exist. Get another one.
+				//The whole tree has been cut. Get another one.
 				else
 				{
+					MCA.instance.jobBoard.release(owner, TreeCache.getJobKey(tree));
+					MCA.instance.treeCache.removeTree(owner.worldObj, tree);
+					tree = null;
 					hasTreeCoordinates = false;
 				}
 			}
 		}
 	}
 
+	@Override
+	public void simulateElapsedTime(long elapsedTicks)
+	{
+		//Each log takes the cut interval plus the tick it is removed on.
+		long logsToCut = elapsedTicks / (treeCutInterval + 1);
+
+		if (owner instanceof EntityPlayerChild)
+		{
+			logsToCut = Math.min(logsToCut, getToolUsesLeft());
+		}
+
+		int logsCut = 0;
+
+		//Only the trees in reach of the owner could have been cut, so the work done is bounded by what is nearby.
+		while (logsCut < logsToCut)
+		{
+			if (tree == null)
+			{
+				setTree(MCA.instance.treeCache.getNearestTree(owner, treeType, 10));
+
+				if (tree == null)
+				{
+					break;
+				}
+
+				MCA.instance.jobBoard.claim(owner, TreeCache.getJobKey(tree));
+			}
+
+			Coordinates currentLog = getCurrentLog();
+
+			if (currentLog != null)
+			{
+				owner.worldObj.setBlock((int)currentLog.x, (int)currentLog.y, (int)currentLog.z, 0);
+				advanceLog();
+				logsCut++;
+			}
+
+			else
+			{
+				MCA.instance.jobBoard.release(owner, TreeCache.getJobKey(tree));
+				MCA.instance.treeCache.removeTree(owner.worldObj, tree);
+				tree = null;
+			}
+		}
+
+		if (tree != null)
+		{
+			MCA.instance.jobBoard.release(owner, TreeCache.getJobKey(tree));
+			tree = null;
+		}
+
+		hasTreeCoordinates = false;
+
+		if (logsCut > 0)
+		{
+			ItemStack stackToAdd = new ItemStack(Block.wood, logsCut, treeType);
+			stackToAdd.damageItem(treeType, owner);
+			owner.inventory.addItemStackToInventory(stackToAdd);
+			hasDoneWork = true;
+
+			//Increment stat and check for achievement on children.
+			if (owner instanceof EntityPlayerChild)
+			{
+				EntityPlayerChild child = (EntityPlayerChild)owner;
+
+				applyToolWear(logsCut);
+				child.woodChopped += logsCut;
+
+				if (child.woodChopped >= 100)
+				{
+					EntityPlayer player = child.worldObj.getPlayerEntityByName(child.ownerPlayerName);
+
+					if (player != null)
+					{
+						player.triggerAchievement(MCA.instance.achievementChildWoodcut);
+					}
+				}
+			}
+		}
+	}
+
 	@Override
 	public String getChoreName()
 	{
 		return "Woodcutting";
 	}
 
+	/**
+	 * Starts cutting the provided tree from the bottom of its cut order.
+	 *
+	 * @param 	tree	The tree to cut. May be null.
+	 */
+	private void setTree(TreeStructure tree)
+	{
+		this.tree = tree;
+		cutIndex = 0;
+		isCurrentLogVerified = false;
+	}
+
+	/**
+	 * Gets the log of the tree that should be cut next. The world is only checked when moving on to a new log.
+	 *
+	 * @return	Coordinates of the next log to cut. Null if the whole tree has been cut.
+	 */
+	private Coordinates getCurrentLog()
+	{
+		while (cutIndex < tree.getLogCount())
+		{
+			Coordinates log = tree.getLog(cutIndex);
+
+			if (isCurrentLogVerified)
+			{
+				return log;
+			}
+
+			else if (owner.worldObj.getBlockId((int)log.x, (int)log.y, (int)log.z) == Block.wood.blockID)
+			{
+				isCurrentLogVerified = true;
+				return log;
+			}
+
+			//Someone else removed this log.
+			advanceLog();
+		}
+
+		return null;
+	}
+
+	/**
+	 * Moves on to the next log in the cut order. Called when the current log has been cut or found missing.
+	 */
+	private void advanceLog()
+	{
+		cutIndex++;
+		isCurrentLogVerified = false;
+	}
+
 	@Override
 	public void endChore() 
 	{
@@ -400,96 +483,36 @@ public class ChoreWoodcutting extends AbstractChore
 
 		owner.addAI();
 
+		MCA.instance.jobBoard.releaseAll(owner);
+		tree = null;
 		hasEnded = true;
 	}
 
 	@Override
 	public void writeChoreToNBT(NBTTagCompound NBT) 
 	{
-		//Loop through each field in this class and write to NBT.
-		for (Field f : this.getClass().getFields())
+		try
 		{
-			try
-			{
-				if (f.getModifiers() != Modifier.TRANSIENT)
-				{
-					if (f.getType().toString().contains("int"))
-					{
-						NBT.setInteger(f.getName(), (Integer)f.get(owner.woodcuttingChore));
-					}
-
-					else if (f.getType().toString().contains("double"))
-					{
-						NBT.setDouble(f.getName(), (Double)f.get(owner.woodcuttingChore));
-					}
-
-					else if (f.getType().toString().contains("float"))
-					{
-						NBT.setFloat(f.getName(), (Float)f.get(owner.woodcuttingChore));
-					}
-
-					else if (f.getType().toString().contains("String"))
-					{
-						NBT.setString(f.getName(), (String)f.get(owner.woodcuttingChore));
-					}
-
-					else if (f.getType().toString().contains("boolean"))
-					{
-						NBT.setBoolean(f.getName(), (Boolean)f.get(owner.woodcuttingChore));
-					}
-				}
-			}
+			NBTFieldCodec.getCodec(this.getClass(), AbstractChore.class).writeFieldsToNBT(this, NBT);
+		}
 
-			catch (Throwable e)
-			{
-				MCA.instance.log(e);
-				continue;
-			}
+		catch (IllegalAccessException e)
+		{
+			MCA.instance.log(e);
 		}
 	}
 
 	@Override
 	public void readChoreFromNBT(NBTTagCompound NBT) 
 	{
-		//Loop through each field in this class and read from NBT.
-		for (Field f : this.getClass().getFields())
+		try
 		{
-			try
-			{
-				if (f.getModifiers() != Modifier.TRANSIENT)
-				{
-					if (f.getType().toString().contains("int"))
-					{
-						f.set(owner.woodcuttingChore, NBT.getInteger(f.getName()));
-					}
-
-					else if (f.getType().toString().contains("double"))
-					{
-						f.set(owner.woodcuttingChore, NBT.getDouble(f.getName()));
-					}
-
-					else if (f.getType().toString().contains("float"))
-					{
-						f.set(owner.woodcuttingChore, NBT.getFloat(f.getName()));
-					}
-
-					else if (f.getType().toString().contains("String"))
-					{
-						f.set(owner.woodcuttingChore, NBT.getString(f.getName()));
-					}
-
-					else if (f.getType().toString().contains("boolean"))
-					{
-						f.set(owner.woodcuttingChore, NBT.getBoolean(f.getName()));
-					}
-				}
-			}
+			NBTFieldCodec.getCodec(this.getClass(), AbstractChore.class).readFieldsFromNBT(this, NBT);
+		}
 
-			catch (Throwable e)
-			{
-				MCA.instance.log(e);
-				continue;
-			}
+		catch (IllegalAccessException e)
+		{
+			MCA.instance.log(e);
 		}
 	}
 }
@@ -504,7 +504,7 @@ public class GuiInteractionPlayerChild extends AbstractGui
 			buttonList.add(playButton = new GuiButton(6, width / 2 + 30, height / 2 + 20, 60, 20, LanguageHelper.getString("gui.button.interact.play"))); 
 		}
 
-		greetButton.displayString = entityChild.playerMemoryMap.get(player.username).hearts >= 50 ? LanguageHelper.getString("gui.button.interact.greet.highfive") : LanguageHelper.getString("gui.button.interact.greet.handshake");
+		greetButton.displayString = entityChild.peekPlayerMemory(player.username).hearts >= 50 ? LanguageHelper.getString("gui.button.interact.greet.highfive") : LanguageHelper.getString("gui.button.interact.greet.handshake");
 		buttonList.add(backButton = new GuiButton(10, width / 2 - 190, height / 2 + 85, 65, 20, LanguageHelper.getString("gui.button.back")));
 		buttonList.add(exitButton = new GuiButton(11, width / 2 + 125, height / 2 + 85, 65, 20, LanguageHelper.getString("gui.button.exit")));
 	}
@@ -990,7 +990,7 @@ public class GuiInteractionPlayerChild extends AbstractGui
 
 			else
 			{
-				PlayerMemory memory = entityChild.playerMemoryMap.get(player.username);
+				PlayerMemory memory = entityChild.getPlayerMemory(player.username);
 				memory.tributeRequests++;
 
 				//Limit is 10 demands without giving a gift.
@@ -1005,7 +1005,7 @@ public class GuiInteractionPlayerChild extends AbstractGui
 					entityChild.say(LanguageHelper.getString("heir.bad.demandtribute"));
 				}
 
-				PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entityChild.entityId, "playerMemoryMap", entityChild.playerMemoryMap));
+				entityChild.markMemoryChanged(player.username);
 				close();
 				return;
 			}
@@ -1039,8 +1039,8 @@ public class GuiInteractionPlayerChild extends AbstractGui
 
 		else if (button == giftButton)
 		{
-			entityChild.playerMemoryMap.get(player.username).isInGiftMode = true;
-			PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entityChild.entityId, "playerMemoryMap", entityChild.playerMemoryMap));
+			entityChild.getPlayerMemory(player.username).isInGiftMode = true;
+			entityChild.markMemoryChanged(player.username);
 			close();
 		}
 
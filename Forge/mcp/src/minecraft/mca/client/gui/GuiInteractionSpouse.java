@@ -272,7 +272,7 @@ public class GuiInteractionSpouse extends AbstractGui
 		buttonList.add(kissButton = new GuiButton(6, width / 2 + 30, height / 2 + 20, 60, 20, LanguageHelper.getString("gui.button.interact.kiss")));
 		buttonList.add(flirtButton = new GuiButton(7, width / 2 + 30, height / 2 + 40, 60, 20, LanguageHelper.getString("gui.button.interact.flirt")));
 		
-		greetButton.displayString = entitySpouse.playerMemoryMap.get(player.username).hearts >= 50 ? LanguageHelper.getString("gui.button.interact.greet.highfive") : LanguageHelper.getString("gui.button.interact.greet.handshake");
+		greetButton.displayString = entitySpouse.peekPlayerMemory(player.username).hearts >= 50 ? LanguageHelper.getString("gui.button.interact.greet.highfive") : LanguageHelper.getString("gui.button.interact.greet.handshake");
 		buttonList.add(backButton = new GuiButton(10, width / 2 - 190, height / 2 + 85, 65, 20, LanguageHelper.getString("gui.button.back")));
 		buttonList.add(exitButton = new GuiButton(11, width / 2 + 125, height / 2 + 85, 65, 20, LanguageHelper.getString("gui.button.exit")));
 	}
@@ -463,7 +463,7 @@ public class GuiInteractionSpouse extends AbstractGui
 
 		else if (button == procreateButton)
 		{
-			if (entitySpouse.playerMemoryMap.get(player.username).hearts < 100)
+			if (entitySpouse.peekPlayerMemory(player.username).hearts < 100)
 			{
 				entitySpouse.say(LanguageHelper.getString("spouse.procreate.refuse"));
 				close();
@@ -535,8 +535,8 @@ public class GuiInteractionSpouse extends AbstractGui
 
 		else if (button == giftButton)
 		{
-			entitySpouse.playerMemoryMap.get(player.username).isInGiftMode = true;
-			PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entitySpouse.entityId, "playerMemoryMap", entitySpouse.playerMemoryMap));
+			entitySpouse.getPlayerMemory(player.username).isInGiftMode = true;
+			entitySpouse.markMemoryChanged(player.username);
 			close();
 		}
 		
@@ -752,7 +752,7 @@ public class GuiInteractionSpouse extends AbstractGui
 
 		else if (button == demandGiftButton)
 		{
-			PlayerMemory memory = entitySpouse.playerMemoryMap.get(player.username);
+			PlayerMemory memory = entitySpouse.getPlayerMemory(player.username);
 
 			//Increase gifts demanded.
 			memory.monarchGiftsDemanded++;
@@ -777,8 +777,7 @@ public class GuiInteractionSpouse extends AbstractGui
 					entitySpouse.say(LanguageHelper.getString("monarch.demandgift.dictator"));
 
 					//Update, send to server, and stop here.
-					entitySpouse.playerMemoryMap.put(player.username, memory);
-					PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entitySpouse.entityId, "playerMemoryMap", entitySpouse.playerMemoryMap));
+					entitySpouse.markMemoryChanged(player.username);
 
 					close();
 					return;
@@ -799,7 +798,7 @@ public class GuiInteractionSpouse extends AbstractGui
 			entitySpouse.playerMemoryMap.put(player.username, memory);
 			ItemStack giftStack = LogicHelper.getGiftStackFromRelationship(player, entitySpouse);
 
-			PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entitySpouse.entityId, "playerMemoryMap", entitySpouse.playerMemoryMap));
+			entitySpouse.markMemoryChanged(player.username);
 			PacketDispatcher.sendPacketToServer(PacketHelper.createDropItemPacket(entitySpouse.entityId, giftStack.itemID, giftStack.stackSize));
 			close();
 		}
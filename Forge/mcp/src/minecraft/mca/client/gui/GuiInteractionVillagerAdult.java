@@ -354,9 +354,9 @@ public class GuiInteractionVillagerAdult extends AbstractGui
 			}
 
 			//They're not a peasant or a knight, so check if they're hired by this player and place (Hired) beside their name if they are.
-			else if (entityVillager.playerMemoryMap.get(player.username).isHired)
+			else if (entityVillager.peekPlayerMemory(player.username).isHired)
 			{
-				PlayerMemory memory = entityVillager.playerMemoryMap.get(player.username);
+				PlayerMemory memory = entityVillager.peekPlayerMemory(player.username);
 				drawCenteredString(fontRenderer, entityVillager.getTitle(MCA.instance.getIdOfPlayer(player), true) + " " + LanguageHelper.getString("gui.title.special.hired"), width / 2, height / 2 - 80, 0xffffff);
 
 				if (!inSpecialGui)
@@ -530,7 +530,7 @@ public class GuiInteractionVillagerAdult extends AbstractGui
 			buttonList.add(takeArrangerRingButton = new GuiButton(8, width / 2 - 60, height / 2 - 20, 120, 20, LanguageHelper.getString("gui.button.interact.takearrangerring")));
 		}
 
-		else if (entityVillager.playerMemoryMap.get(player.username).hasGift)
+		else if (entityVillager.peekPlayerMemory(player.username).hasGift)
 		{
 			buttonList.add(takeGiftButton = new GuiButton(8, width / 2 - 60, height / 2 - 20, 120, 20, LanguageHelper.getString("gui.button.interact.takegift")));
 		}
@@ -575,7 +575,7 @@ public class GuiInteractionVillagerAdult extends AbstractGui
 		buttonList.add(kissButton = new GuiButton(6, width / 2 + 30, height / 2 + 20, 60, 20, LanguageHelper.getString("gui.button.interact.kiss")));
 		buttonList.add(flirtButton = new GuiButton(7, width / 2 + 30, height / 2 + 40, 60, 20, LanguageHelper.getString("gui.button.interact.flirt")));
 
-		greetButton.displayString = entityVillager.playerMemoryMap.get(player.username).hearts >= 50 ? LanguageHelper.getString("gui.button.interact.greet.highfive") : LanguageHelper.getString("gui.button.interact.greet.handshake");
+		greetButton.displayString = entityVillager.peekPlayerMemory(player.username).hearts >= 50 ? LanguageHelper.getString("gui.button.interact.greet.highfive") : LanguageHelper.getString("gui.button.interact.greet.handshake");
 		buttonList.add(backButton = new GuiButton(10, width / 2 - 190, height / 2 + 85, 65, 20, LanguageHelper.getString("gui.button.back")));
 		buttonList.add(exitButton = new GuiButton(11, width / 2 + 125, height / 2 + 85, 65, 20, LanguageHelper.getString("gui.button.exit")));
 	}
@@ -641,11 +641,11 @@ public class GuiInteractionVillagerAdult extends AbstractGui
 		buttonList.add(exitButton = new GuiButton(11, width / 2 + 125, height / 2 + 85, 65, 20, LanguageHelper.getString("gui.button.exit")));
 		backButton.enabled = false;
 
-		hireButton.enabled = entityVillager.playerMemoryMap.get(player.username).isHired == false;
-		dismissButton.enabled = entityVillager.playerMemoryMap.get(player.username).isHired == true;
-		miningButton.enabled = entityVillager.playerMemoryMap.get(player.username).isHired || (entityVillager.isPeasant && entityVillager.monarchPlayerName.equals(player.username));
+		hireButton.enabled = entityVillager.peekPlayerMemory(player.username).isHired == false;
+		dismissButton.enabled = entityVillager.peekPlayerMemory(player.username).isHired == true;
+		miningButton.enabled = entityVillager.peekPlayerMemory(player.username).isHired || (entityVillager.isPeasant && entityVillager.monarchPlayerName.equals(player.username));
 
-		if (entityVillager.playerMemoryMap.get(player.username).isHired || (entityVillager.isPeasant && entityVillager.monarchPlayerName.equals(player.username)))
+		if (entityVillager.peekPlayerMemory(player.username).isHired || (entityVillager.isPeasant && entityVillager.monarchPlayerName.equals(player.username)))
 		{
 			if (entityVillager.isInChoreMode)
 			{
@@ -693,12 +693,12 @@ public class GuiInteractionVillagerAdult extends AbstractGui
 		buttonList.add(exitButton = new GuiButton(11, width / 2 + 125, height / 2 + 85, 65, 20, LanguageHelper.getString("gui.button.exit")));
 		backButton.enabled = false;
 
-		hireButton.enabled = entityVillager.playerMemoryMap.get(player.username).isHired == false;
-		dismissButton.enabled = entityVillager.playerMemoryMap.get(player.username).isHired == true;
-		combatButton.enabled = entityVillager.playerMemoryMap.get(player.username).isHired || (entityVillager.isKnight && entityVillager.monarchPlayerName.equals(player.username));
-		huntingButton.enabled = entityVillager.playerMemoryMap.get(player.username).isHired || (entityVillager.isKnight && entityVillager.monarchPlayerName.equals(player.username));
+		hireButton.enabled = entityVillager.peekPlayerMemory(player.username).isHired == false;
+		dismissButton.enabled = entityVillager.peekPlayerMemory(player.username).isHired == true;
+		combatButton.enabled = entityVillager.peekPlayerMemory(player.username).isHired || (entityVillager.isKnight && entityVillager.monarchPlayerName.equals(player.username));
+		huntingButton.enabled = entityVillager.peekPlayerMemory(player.username).isHired || (entityVillager.isKnight && entityVillager.monarchPlayerName.equals(player.username));
 
-		if (entityVillager.playerMemoryMap.get(player.username).isHired || (entityVillager.isPeasant && entityVillager.monarchPlayerName.equals(player.username)))
+		if (entityVillager.peekPlayerMemory(player.username).isHired || (entityVillager.isPeasant && entityVillager.monarchPlayerName.equals(player.username)))
 		{
 			if (entityVillager.isInChoreMode)
 			{
@@ -765,13 +765,13 @@ public class GuiInteractionVillagerAdult extends AbstractGui
 		buttonList.add(exitButton = new GuiButton(11, width / 2 + 125, height / 2 + 85, 65, 20, LanguageHelper.getString("gui.button.exit")));
 		backButton.enabled = false;
 
-		hireButton.enabled = entityVillager.playerMemoryMap.get(player.username).isHired == false;
-		dismissButton.enabled = entityVillager.playerMemoryMap.get(player.username).isHired == true;
-		farmingButton.enabled = entityVillager.playerMemoryMap.get(player.username).isHired || (entityVillager.isPeasant && entityVillager.monarchPlayerName.equals(player.username));
-		fishingButton.enabled = entityVillager.playerMemoryMap.get(player.username).isHired || (entityVillager.isPeasant && entityVillager.monarchPlayerName.equals(player.username));
-		woodcuttingButton.enabled = entityVillager.playerMemoryMap.get(player.username).isHired || (entityVillager.isPeasant && entityVillager.monarchPlayerName.equals(player.username));
+		hireButton.enabled = entityVillager.peekPlayerMemory(player.username).isHired == false;
+		dismissButton.enabled = entityVillager.peekPlayerMemory(player.username).isHired == true;
+		farmingButton.enabled = entityVillager.peekPlayerMemory(player.username).isHired || (entityVillager.isPeasant && entityVillager.monarchPlayerName.equals(player.username));
+		fishingButton.enabled = entityVillager.peekPlayerMemory(player.username).isHired || (entityVillager.isPeasant && entityVillager.monarchPlayerName.equals(player.username));
+		woodcuttingButton.enabled = entityVillager.peekPlayerMemory(player.username).isHired || (entityVillager.isPeasant && entityVillager.monarchPlayerName.equals(player.username));
 
-		if (entityVillager.playerMemoryMap.get(player.username).isHired || (entityVillager.isPeasant && entityVillager.monarchPlayerName.equals(player.username)))
+		if (entityVillager.peekPlayerMemory(player.username).isHired || (entityVillager.isPeasant && entityVillager.monarchPlayerName.equals(player.username)))
 		{
 			if (entityVillager.isInChoreMode)
 			{
@@ -1129,7 +1129,7 @@ public class GuiInteractionVillagerAdult extends AbstractGui
 					}
 
 					//They're not a knight and they're not hired.
-					else if (entityVillager.playerMemoryMap.get(player.username).isHired == false)
+					else if (entityVillager.peekPlayerMemory(player.username).isHired == false)
 					{
 						entityVillager.say(LanguageHelper.getString("guard.follow.refuse"));
 						close();
@@ -1281,13 +1281,13 @@ public class GuiInteractionVillagerAdult extends AbstractGui
 
 		else if (button == takeGiftButton)
 		{
-			PlayerMemory memory = entityVillager.playerMemoryMap.get(player.username);
+			PlayerMemory memory = entityVillager.getPlayerMemory(player.username);
 			memory.hasGift = false;
 			entityVillager.playerMemoryMap.put(player.username, memory);
 
 			ItemStack giftStack = LogicHelper.getGiftStackFromRelationship(player, entityVillager);
 
-			PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entityVillager.entityId, "playerMemoryMap", entityVillager.playerMemoryMap));
+			entityVillager.markMemoryChanged(player.username);
 			PacketDispatcher.sendPacketToServer(PacketHelper.createDropItemPacket(entityVillager.entityId, giftStack.itemID, giftStack.stackSize));
 			close();
 		}
@@ -1328,8 +1328,8 @@ public class GuiInteractionVillagerAdult extends AbstractGui
 
 		else if (button == giftButton)
 		{
-			entityVillager.playerMemoryMap.get(player.username).isInGiftMode = true;
-			PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entityVillager.entityId, "playerMemoryMap", entityVillager.playerMemoryMap));
+			entityVillager.getPlayerMemory(player.username).isInGiftMode = true;
+			entityVillager.markMemoryChanged(player.username);
 			close();
 		}
 
@@ -1392,15 +1392,14 @@ public class GuiInteractionVillagerAdult extends AbstractGui
 			}
 
 			//Set them to "hired".
-			PlayerMemory memory = entityVillager.playerMemoryMap.get(player.username);
+			PlayerMemory memory = entityVillager.getPlayerMemory(player.username);
 			memory.isHired = true;
 			memory.hoursHired = hiringHours;
 			memory.minutesSinceHired = 0;
 
 			entityVillager.say(LanguageHelper.getString("generic.hire.accept"));
 
-			entityVillager.playerMemoryMap.put(player.username, memory);
-			PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entityVillager.entityId, "playerMemoryMap", entityVillager.playerMemoryMap));
+			entityVillager.markMemoryChanged(player.username);
 			close();
 		}
 
@@ -1628,7 +1627,7 @@ public class GuiInteractionVillagerAdult extends AbstractGui
 			entityVillager.isFollowing = false;
 			entityVillager.isStaying = false;
 
-			PlayerMemory memory = entityVillager.playerMemoryMap.get(player.username);
+			PlayerMemory memory = entityVillager.getPlayerMemory(player.username);
 			memory.isHired = false;
 			memory.hoursHired = 0;
 			memory.minutesSinceHired = 0;
@@ -1638,7 +1637,7 @@ public class GuiInteractionVillagerAdult extends AbstractGui
 
 			PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entityVillager.entityId, "isFollowing", false));
 			PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entityVillager.entityId, "isStaying", false));
-			PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entityVillager.entityId, "playerMemoryMap", entityVillager.playerMemoryMap));
+			entityVillager.markMemoryChanged(player.username);
 			close();
 		}
 
@@ -1723,7 +1722,7 @@ public class GuiInteractionVillagerAdult extends AbstractGui
 			entityVillager.isFollowing = false;
 			entityVillager.isStaying = false;
 
-			PlayerMemory memory = entityVillager.playerMemoryMap.get(player.username);
+			PlayerMemory memory = entityVillager.getPlayerMemory(player.username);
 			memory.isHired = false;
 			memory.hoursHired = 0;
 			memory.minutesSinceHired = 0;
@@ -1733,7 +1732,7 @@ public class GuiInteractionVillagerAdult extends AbstractGui
 
 			PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entityVillager.entityId, "isFollowing", false));
 			PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entityVillager.entityId, "isStaying", false));
-			PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entityVillager.entityId, "playerMemoryMap", entityVillager.playerMemoryMap));
+			entityVillager.markMemoryChanged(player.username);
 			close();
 		}
 
@@ -1834,14 +1833,14 @@ public class GuiInteractionVillagerAdult extends AbstractGui
 			entityVillager.say(LanguageHelper.getString("smith.aid.prompt"));
 			entityVillager.isInAnvilGiftMode = true;
 
-			PlayerMemory memory = entityVillager.playerMemoryMap.get(player.username);
+			PlayerMemory memory = entityVillager.getPlayerMemory(player.username);
 			memory.isInGiftMode = true;
 			entityVillager.playerMemoryMap.put(player.username, memory);
 
 			PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entityVillager.entityId, "itemIdRequiredForSale", entityVillager.itemIdRequiredForSale));
 			PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entityVillager.entityId, "amountRequiredForSale", entityVillager.amountRequiredForSale));
 			PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entityVillager.entityId, "isInAnvilGiftMode", true));
-			PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entityVillager.entityId, "playerMemoryMap", entityVillager.playerMemoryMap));
+			entityVillager.markMemoryChanged(player.username);
 		}
 
 		close();
@@ -1865,7 +1864,7 @@ public class GuiInteractionVillagerAdult extends AbstractGui
 			entityVillager.isFollowing = false;
 			entityVillager.isStaying = false;
 
-			PlayerMemory memory = entityVillager.playerMemoryMap.get(player.username);
+			PlayerMemory memory = entityVillager.getPlayerMemory(player.username);
 			memory.isHired = false;
 			memory.hoursHired = 0;
 			memory.minutesSinceHired = 0;
@@ -1875,7 +1874,7 @@ public class GuiInteractionVillagerAdult extends AbstractGui
 
 			PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entityVillager.entityId, "isFollowing", false));
 			PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entityVillager.entityId, "isStaying", false));
-			PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entityVillager.entityId, "playerMemoryMap", entityVillager.playerMemoryMap));
+			entityVillager.markMemoryChanged(player.username);
 			close();
 		}
 
@@ -2433,7 +2432,7 @@ public class GuiInteractionVillagerAdult extends AbstractGui
 
 		else if (button == demandGiftButton)
 		{
-			PlayerMemory memory = entityVillager.playerMemoryMap.get(player.username);
+			PlayerMemory memory = entityVillager.getPlayerMemory(player.username);
 
 			//Increase gifts demanded.
 			memory.monarchGiftsDemanded++;
@@ -2458,8 +2457,7 @@ public class GuiInteractionVillagerAdult extends AbstractGui
 					entityVillager.say(LanguageHelper.getString(player, "monarch.demandgift.dictator"));
 
 					//Update, send to server, and stop here.
-					entityVillager.playerMemoryMap.put(player.username, memory);
-					PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entityVillager.entityId, "playerMemoryMap", entityVillager.playerMemoryMap));
+					entityVillager.markMemoryChanged(player.username);
 
 					close();
 					return;
@@ -2480,7 +2478,7 @@ public class GuiInteractionVillagerAdult extends AbstractGui
 			entityVillager.playerMemoryMap.put(player.username, memory);
 			ItemStack giftStack = LogicHelper.getGiftStackFromRelationship(player, entityVillager);
 
-			PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entityVillager.entityId, "playerMemoryMap", entityVillager.playerMemoryMap));
+			entityVillager.markMemoryChanged(player.username);
 			PacketDispatcher.sendPacketToServer(PacketHelper.createDropItemPacket(entityVillager.entityId, giftStack.itemID, giftStack.stackSize));
 			close();
 		}
@@ -188,7 +188,7 @@ public class GuiInteractionVillagerChild extends AbstractGui
 			buttonList.add(playButton = new GuiButton(5, width / 2 + 30, height / 2 + 20, 60, 20, LanguageHelper.getString("gui.button.interact.play")));
 		}
 		
-		greetButton.displayString = entityVillagerChild.playerMemoryMap.get(player.username).hearts >= 50 ? LanguageHelper.getString("gui.button.interact.greet.highfive") : LanguageHelper.getString("gui.button.interact.greet.handshake");
+		greetButton.displayString = entityVillagerChild.peekPlayerMemory(player.username).hearts >= 50 ? LanguageHelper.getString("gui.button.interact.greet.highfive") : LanguageHelper.getString("gui.button.interact.greet.handshake");
 		buttonList.add(backButton = new GuiButton(10, width / 2 - 190, height / 2 + 85, 65, 20, LanguageHelper.getString("gui.button.back")));
 		buttonList.add(exitButton = new GuiButton(11, width / 2 + 125, height / 2 + 85, 65, 20, LanguageHelper.getString("gui.button.exit")));
 		
@@ -320,8 +320,8 @@ public class GuiInteractionVillagerChild extends AbstractGui
 
 		else if (button == giftButton)
 		{
-			entityVillagerChild.playerMemoryMap.get(player.username).isInGiftMode = true;
-			PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entityVillagerChild.entityId, "playerMemoryMap", entityVillagerChild.playerMemoryMap));
+			entityVillagerChild.getPlayerMemory(player.username).isInGiftMode = true;
+			entityVillagerChild.markMemoryChanged(player.username);
 			close();
 		}
 		
@@ -91,7 +91,7 @@ public class RenderFishHook extends Render
 			
 			if (entityFishHook.angler instanceof EntityPlayerChild)
 			{
-				int age = ((EntityChild)entityFishHook.angler).age;
+				int age = ((EntityChild)entityFishHook.angler).getAge();
 				scale = 0.55F + ((0.39F / MCA.instance.modPropertiesManager.modProperties.kidGrowUpTimeMinutes) * age);
 			}
 			
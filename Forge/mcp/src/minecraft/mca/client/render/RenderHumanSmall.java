@@ -41,7 +41,7 @@ public class RenderHumanSmall extends RenderHuman
 	{
 		if (MCA.instance.playerWorldManagerMap.get(Minecraft.getMinecraft().thePlayer.username).worldProperties.childrenGrowAutomatically && !(((EntityChild)entity).isAdult))
 		{
-			int age = ((EntityChild)entity).age;
+			int age = ((EntityChild)entity).getAge();
 			
 			//Children initially start at 0.55F as their scale. Divide the distance between the player's size and the child's size by
 			//the amount of time it takes for them to grow and multiply that times their age. This makes the child gradually get taller
@@ -40,7 +40,7 @@ public class CommandBlock extends AbstractCommand
 			String playerName = arguments[0];
 			
 			//Get the sender's world properties.
-			WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.get(senderName);
+			WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.loadManager(senderName);
 			
 			if (manager != null)
 			{
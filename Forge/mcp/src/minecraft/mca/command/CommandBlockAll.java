@@ -39,7 +39,7 @@ public class CommandBlockAll extends AbstractCommand
 			boolean argument = arguments[0].toUpperCase().equals("TRUE");
 			
 			//Get the sender's world properties.
-			WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.get(sender.getCommandSenderName());
+			WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.loadManager(sender.getCommandSenderName());
 			
 			if (manager != null)
 			{
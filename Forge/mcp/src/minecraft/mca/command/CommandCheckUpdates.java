@@ -54,8 +54,7 @@ public class CommandCheckUpdates extends AbstractCommand
 				super.sendChatToPlayer(sender, "notify.update.turnedon", Color.GREEN, null);
 				
 				MCA.instance.hasCheckedForUpdates = false;
-				MCA.instance.modPropertiesManager.modProperties.checkForUpdates = true;
-				MCA.instance.modPropertiesManager.saveModProperties();
+				MCA.instance.modPropertiesManager.setCheckForUpdates(true);
 				
 				new Thread(new UpdateHandler(sender)).run();
 			}
@@ -64,8 +63,7 @@ public class CommandCheckUpdates extends AbstractCommand
 			{
 				super.sendChatToPlayer(sender, "notify.update.turnedoff", Color.RED, null);
 				
-				MCA.instance.modPropertiesManager.modProperties.checkForUpdates = false;
-				MCA.instance.modPropertiesManager.saveModProperties();
+				MCA.instance.modPropertiesManager.setCheckForUpdates(false);
 				
 				new Thread(new UpdateHandler(sender)).run();
 			}
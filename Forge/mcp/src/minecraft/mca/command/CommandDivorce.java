@@ -36,7 +36,7 @@ public class CommandDivorce extends AbstractCommand
 	public void processCommand(ICommandSender sender, String[] arguments) 
 	{
 		EntityPlayer player = (EntityPlayer)sender;
-		WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.get(player.username);
+		WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.loadManager(player.username);
 		
 		//Check if they're married to nobody at all.
 		if (manager.worldProperties.playerSpouseID == 0)
@@ -65,7 +65,7 @@ public class CommandDivorce extends AbstractCommand
 			else
 			{
 				//Get the spouse's world properties.
-				WorldPropertiesManager spouseManager = MCA.instance.playerWorldManagerMap.get(manager.worldProperties.playerSpouseName);
+				WorldPropertiesManager spouseManager = MCA.instance.playerWorldManagerMap.loadManager(manager.worldProperties.playerSpouseName);
 				
 				//Notify both that they are no longer married. Sender's text will be Color.GREEN, recipient's text will be red.
 				this.sendChatToPlayer(sender, "multiplayer.command.output.divorce.successful", Color.GREEN, null);
@@ -57,13 +57,13 @@ public class CommandHaveBaby extends AbstractCommand
 	public void processCommand(ICommandSender sender, String[] arguments) 
 	{
 		//Make sure they are married to a player.
-		WorldPropertiesManager senderManager = MCA.instance.playerWorldManagerMap.get(sender.getCommandSenderName());
+		WorldPropertiesManager senderManager = MCA.instance.playerWorldManagerMap.loadManager(sender.getCommandSenderName());
 		
 		if (senderManager.worldProperties.playerSpouseID < 0)
 		{
 			//Check if the spouse is on the server.
 			EntityPlayer spouse = MCA.instance.getPlayerByName(senderManager.worldProperties.playerSpouseName);
-			WorldPropertiesManager spouseManager = MCA.instance.playerWorldManagerMap.get(spouse.username);
+			WorldPropertiesManager spouseManager = MCA.instance.playerWorldManagerMap.loadManager(spouse.username);
 			
 			if (spouse != null)
 			{
@@ -40,7 +40,7 @@ public class CommandHaveBabyAccept extends AbstractCommand
 	{
 		//Make sure they are married to a player.
 		EntityPlayer player = MCA.instance.getPlayerByName(sender.getCommandSenderName());
-		WorldPropertiesManager senderManager = MCA.instance.playerWorldManagerMap.get(sender.getCommandSenderName());
+		WorldPropertiesManager senderManager = MCA.instance.playerWorldManagerMap.loadManager(sender.getCommandSenderName());
 
 		if (senderManager.worldProperties.playerSpouseID < 0)
 		{
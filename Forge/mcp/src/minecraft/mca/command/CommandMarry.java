@@ -95,7 +95,7 @@ public class CommandMarry extends AbstractCommand
 			if (senderEntity.inventory.hasItem(MCA.instance.itemWeddingRing.itemID))
 			{
 				//Check if the other player has blocked the sender.
-				WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.get(recipientName);
+				WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.loadManager(recipientName);
 				
 				//Check that the recipient isn't married.
 				if (manager.worldProperties.playerSpouseID != 0)
@@ -69,8 +69,8 @@ public class CommandMarryAccept extends AbstractCommand
 					if (recipient != null)
 					{	
 						//Set both to married.
-						WorldPropertiesManager senderProperties = MCA.instance.playerWorldManagerMap.get(sender.getCommandSenderName());
-						WorldPropertiesManager recipientProperties = MCA.instance.playerWorldManagerMap.get(recipient.username);
+						WorldPropertiesManager senderProperties = MCA.instance.playerWorldManagerMap.loadManager(sender.getCommandSenderName());
+						WorldPropertiesManager recipientProperties = MCA.instance.playerWorldManagerMap.loadManager(recipient.username);
 						
 						senderProperties.worldProperties.playerSpouseID = recipientProperties.worldProperties.playerID;
 						senderProperties.worldProperties.playerSpouseName = recipient.username;
@@ -52,7 +52,7 @@ public class CommandSetGender extends AbstractCommand
 			{
 				String playerName = sender.getCommandSenderName();
 				String realGender = Character.toUpperCase(arguments[0].charAt(0)) + arguments[0].substring(1);
-				WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.get(playerName);
+				WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.loadManager(playerName);
 	
 				manager.worldProperties.playerGender = realGender;
 				super.sendChatToPlayer(sender, "multiplayer.command.output.setgender", Color.GREEN, realGender);
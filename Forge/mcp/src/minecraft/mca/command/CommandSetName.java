@@ -49,7 +49,7 @@ public class CommandSetName extends AbstractCommand
 		if (arguments.length == 1)
 		{
 			String playerName = sender.getCommandSenderName();
-			WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.get(playerName);
+			WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.loadManager(playerName);
 			manager.worldProperties.playerName = arguments[0];
 			
 			super.sendChatToPlayer(sender, "multiplayer.command.output.setname", Color.GREEN, arguments[0]);
@@ -37,7 +37,7 @@ public class CommandUnblockAll extends AbstractCommand
 		String senderName = sender.getCommandSenderName();
 
 		//Get the sender's world properties.
-		WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.get(senderName);
+		WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.loadManager(senderName);
 
 		if (manager != null)
 		{
@@ -53,9 +53,19 @@ import mca.core.forge.EventHooks;
 import mca.core.forge.GuiHandler;
 import mca.core.forge.PacketHandler;
 import mca.core.io.ModPropertiesManager;
+import mca.core.io.RegionScanner;
+import mca.core.io.RelationshipLog;
+import mca.core.io.WorldPropertiesCache;
 import mca.core.io.WorldPropertiesManager;
+import mca.core.io.WorldPropertiesWriter;
 import mca.core.util.LanguageHelper;
+import mca.core.util.object.EntityIndex;
+import mca.core.util.object.HomeRegistry;
+import mca.core.util.object.JobBoard;
+import mca.core.util.object.MonarchRegistry;
+import mca.core.util.object.TreeCache;
 import mca.core.util.object.UpdateHandler;
+import mca.core.util.object.VillageRegistry;
 import mca.entity.AbstractEntity;
 import mca.entity.EntityChoreFishHook;
 import mca.entity.EntityPlayerChild;
@@ -118,7 +128,7 @@ channels={"MCA_F_REQ", "MCA_F_VAL", "MCA_TARGET", "MCA_REMOVEITEM", "MCA_ACHIEV"
 		"MCA_SYNC_REQ", "MCA_ENGAGE", "MCA_ADDITEM", "MCA_DROPITEM", "MCA_FAMTREE", "MCA_INVENTORY", 
 		"MCA_CHORE", "MCA_TOMB", "MCA_TOMB_REQ", "MCA_POSITION", "MCA_KILL", "MCA_LOGIN", "MCA_WORLDPROP",
 		"MCA_SAYLOCAL", "MCA_PLMARRY", "MCA_HAVEBABY", "MCA_BABYINFO", "MCA_TRADE", "MCA_RESPAWN", "MCA_VPPROC",
-		"MCA_ADDAI", "MCA_RETURNINV"},
+		"MCA_ADDAI", "MCA_RETURNINV", "MCA_HEARTS", "MCA_MODPROPS"},
 		packetHandler = PacketHandler.class)
 public class MCA
 {
@@ -231,12 +241,39 @@ public class MCA
 	/**Map of MCA ids and entity ids. Key = mcaId, Value = entityId.**/
 	public Map<Integer, Integer> idsMap = new HashMap<Integer, Integer>();
 
-	/**Map of all current players and their world properties manager. Server side only.**/
-	public Map<String, WorldPropertiesManager> playerWorldManagerMap = new HashMap<String, WorldPropertiesManager>();
+	/**Map of recently used players and their world properties manager. Players are loaded when first asked for server side.**/
+	public WorldPropertiesCache playerWorldManagerMap = new WorldPropertiesCache();
 
 	/**Map of the inventory of a player saved just before they died. */
 	public Map<String, ArrayList<EntityItem>> deadPlayerInventories = new HashMap<String, ArrayList<EntityItem>>();
 
+	/**Trees that have been found by woodcutting chores in each world.**/
+	public TreeCache treeCache = new TreeCache();
+
+	/**Claims on the trees and crops being worked by chores in each world.**/
+	public JobBoard jobBoard = new JobBoard();
+
+	/**Living entities in each world, indexed by position once per tick.**/
+	public EntityIndex entityIndex = new EntityIndex();
+
+	/**The village helper of each village in each world.**/
+	public VillageRegistry villageRegistry = new VillageRegistry();
+
+	/**The monarch status of each player, announced to entities when it changes.**/
+	public MonarchRegistry monarchRegistry = new MonarchRegistry();
+
+	/**Entities waiting to be sent to their home points at night in each world.**/
+	public HomeRegistry homeRegistry = new HomeRegistry();
+
+	/**Writes world properties files in the background.**/
+	public WorldPropertiesWriter worldPropertiesWriter = new WorldPropertiesWriter();
+
+	/**Reads region files for the population index in the background.**/
+	public RegionScanner regionScanner = new RegionScanner();
+
+	/**Logs the marriages, births, heirs and executions in the world being played.**/
+	public RelationshipLog relationshipLog = new RelationshipLog();
+
 	/** List of the male names loaded from MaleNames.txt.*/
 	public static List<String> maleNames = new ArrayList<String>();
 
@@ -1213,7 +1250,18 @@ public class MCA
 			}
 		}
 
+		//Write any world properties still waiting to be written and close the stores before the server stops.
+		worldPropertiesWriter.close();
+		relationshipLog.close();
+
 		playerWorldManagerMap.clear();
+		treeCache.clear();
+		jobBoard.clear();
+		entityIndex.clear();
+		villageRegistry.clear();
+		monarchRegistry.clear();
+		homeRegistry.clear();
+		regionScanner.close();
 		hasLoadedProperties = false;
 		hasCompletedMainMenuTick = false;
 	}
@@ -18,6 +18,7 @@ import net.minecraft.network.packet.NetHandler;
 import net.minecraft.network.packet.Packet1Login;
 import net.minecraft.server.MinecraftServer;
 import cpw.mods.fml.common.network.IConnectionHandler;
+import cpw.mods.fml.common.network.PacketDispatcher;
 import cpw.mods.fml.common.network.Player;
 
 /**
@@ -28,6 +29,9 @@ public class ConnectionHandler implements IConnectionHandler
 	@Override
 	public void playerLoggedIn(Player player, NetHandler netHandler, INetworkManager manager) 
 	{
+		//Bring the player up to date with any server properties that were reloaded before they joined.
+		PacketDispatcher.sendPacketToPlayer(PacketHelper.createModPropertiesPacket(MCA.instance.modPropertiesManager.getSyncedValues()), player);
+
 		new Thread(new UpdateHandler(netHandler)).run();
 		return;
 	}
@@ -31,7 +31,7 @@ public class CraftingHandler implements ICraftingHandler
 	{
 		if (itemStack.getItem() instanceof ItemCrown)
 		{
-			WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.get(player.username);
+			WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.loadManager(player.username);
 			
 			if (!manager.worldProperties.isMonarch)
 			{
@@ -54,7 +54,7 @@ public class CraftingHandler implements ICraftingHandler
 	{
 		if (itemStack.getItem() instanceof ItemBaby)
 		{
-			WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.get(player.username);
+			WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.loadManager(player.username);
 			
 			//Reset all information about the baby.
 			manager.worldProperties.babyExists = false;
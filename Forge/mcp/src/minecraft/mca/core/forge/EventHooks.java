@@ -9,20 +9,19 @@
 
 package mca.core.forge;
 
-import java.io.File;
+import java.util.List;
 
 import mca.core.MCA;
 import mca.core.io.WorldPropertiesManager;
 import mca.core.util.PacketHelper;
+import mca.core.util.object.PopulationIndex;
 import mca.entity.AbstractEntity;
 import mca.entity.AbstractSerializableEntity;
-import mca.entity.EntityPlayerChild;
+import mca.entity.EntityAINearestMCATarget;
 import mca.entity.EntityVillagerAdult;
-import mca.entity.EntityVillagerChild;
 import mca.item.ItemBaby;
 import net.minecraft.entity.ai.EntityAIAttackOnCollide;
 import net.minecraft.entity.ai.EntityAIAvoidEntity;
-import net.minecraft.entity.ai.EntityAINearestAttackableTarget;
 import net.minecraft.entity.monster.EntityCreeper;
 import net.minecraft.entity.monster.EntityEnderman;
 import net.minecraft.entity.monster.EntityMob;
@@ -31,10 +30,13 @@ import net.minecraft.entity.monster.EntitySpider;
 import net.minecraft.entity.monster.EntityZombie;
 import net.minecraft.entity.passive.EntityVillager;
 import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.WorldServer;
 import net.minecraftforge.event.ForgeSubscribe;
 import net.minecraftforge.event.entity.EntityJoinWorldEvent;
 import net.minecraftforge.event.entity.item.ItemTossEvent;
 import net.minecraftforge.event.entity.player.PlayerDropsEvent;
+import net.minecraftforge.event.world.ChunkDataEvent;
+import net.minecraftforge.event.world.ChunkEvent;
 import net.minecraftforge.event.world.WorldEvent;
 import cpw.mods.fml.common.network.PacketDispatcher;
 import cpw.mods.fml.common.network.Player;
@@ -54,7 +56,7 @@ public class EventHooks
 	{
 		if (event.entityItem.getEntityItem().getItem() instanceof ItemBaby)
 		{
-			if (MCA.instance.playerWorldManagerMap.get(event.player.username).worldProperties.babyExists)
+			if (MCA.instance.playerWorldManagerMap.loadManager(event.player.username).worldProperties.babyExists)
 			{
 				PacketDispatcher.sendPacketToPlayer(PacketHelper.createSayLocalizedPacket(event.player, null, "notify.player.droppedbaby", false, null, null), (Player)event.player);
 				event.player.inventory.addItemStackToInventory(event.entityItem.getEntityItem());
@@ -100,12 +102,9 @@ public class EventHooks
 					moveSpeed = 0.9F;
 				}
 
-				mob.tasks.addTask(2, new EntityAIAttackOnCollide(mob, EntityVillagerAdult.class, moveSpeed, false));
-				mob.tasks.addTask(2, new EntityAIAttackOnCollide(mob, EntityPlayerChild.class, moveSpeed, false));
-				mob.tasks.addTask(2, new EntityAIAttackOnCollide(mob, EntityVillagerChild.class, moveSpeed, false));
-				mob.targetTasks.addTask(2, new EntityAINearestAttackableTarget(mob, EntityVillagerAdult.class, 16, false));
-				mob.targetTasks.addTask(2, new EntityAINearestAttackableTarget(mob, EntityPlayerChild.class, 16, false));
-				mob.targetTasks.addTask(2, new EntityAINearestAttackableTarget(mob, EntityVillagerChild.class, 16, false));
+				//One task each covers every kind of MCA entity.
+				mob.tasks.addTask(2, new EntityAIAttackOnCollide(mob, AbstractEntity.class, moveSpeed, false));
+				mob.targetTasks.addTask(2, new EntityAINearestMCATarget(mob, 16, false));
 			}
 
 			else if (mob instanceof EntityCreeper)
@@ -116,6 +115,12 @@ public class EventHooks
 
 		if (!event.world.isRemote)
 		{
+			//Count MCA entities in the census of the village they're in.
+			if (event.entity instanceof AbstractEntity)
+			{
+				MCA.instance.villageRegistry.addEntity((AbstractEntity)event.entity);
+			}
+
 			//Now check the event's entity and see if it is a Testificate.
 			if (event.entity instanceof EntityVillager && !(event.entity instanceof AbstractSerializableEntity))
 			{
@@ -174,7 +179,7 @@ public class EventHooks
 	}
 
 	/**
-	 * Fires when the world is loading. Loads world properties for every single player into memory server side only.
+	 * Fires when the world is loading. Opens the world's properties store and starts building the population index server side only.
 	 * 
 	 * @param 	event	An instance of the WorldEvent.Load event.
 	 */
@@ -188,43 +193,27 @@ public class EventHooks
 			if (server.isDedicatedServer())
 			{
 				MCA.instance.log("Loading world properties for dedicated server...");
-
-				String worldName = MinecraftServer.getServer().worldServers[0].getSaveHandler().getWorldDirectoryName();
-				File worldPropertiesFolderPath = new File(MCA.instance.runningDirectory + "/config/MCA/ServerWorlds/" + worldName);
-
-				if (!worldPropertiesFolderPath.exists())
-				{
-					MCA.instance.log("Creating folder " + worldPropertiesFolderPath.getPath());
-					worldPropertiesFolderPath.mkdirs();
-				}
-
-				for (File file : worldPropertiesFolderPath.listFiles())
-				{
-					MCA.instance.playerWorldManagerMap.put(file.getName(), new WorldPropertiesManager(worldName, file.getName()));
-				}
 			}
 
 			else
 			{
 				MCA.instance.log("Loading world properties for integrated server...");
-
-				String worldName = MinecraftServer.getServer().worldServers[0].getSaveHandler().getWorldDirectoryName();
-				File worldPropertiesFolderPath = new File(MCA.instance.runningDirectory + "/config/MCA/Worlds/" + worldName);
-
-				if (!worldPropertiesFolderPath.exists())
-				{
-					MCA.instance.log("Creating folder " + worldPropertiesFolderPath.getPath());
-					worldPropertiesFolderPath.mkdirs();
-				}
-
-				for (File file : worldPropertiesFolderPath.listFiles())
-				{
-					MCA.instance.playerWorldManagerMap.put(file.getName(), new WorldPropertiesManager(worldName, file.getName()));
-				}
 			}
 
+			//Every player's properties are in a single store for the world, and are loaded when they're first needed.
+			String worldName = MinecraftServer.getServer().worldServers[0].getSaveHandler().getWorldDirectoryName();
+			MCA.instance.worldPropertiesWriter.getStore(WorldPropertiesManager.getStoreFile(worldName));
+			MCA.instance.playerWorldManagerMap.setWorldName(worldName);
+			MCA.instance.relationshipLog.open(WorldPropertiesManager.getStoreFile(worldName).getParentFile());
+
 			MCA.instance.hasLoadedProperties = true;
 		}
+
+		//Learn about the entities in chunks that aren't loaded the first time each dimension is loaded.
+		if (event.world instanceof WorldServer)
+		{
+			PopulationIndex.getIndex(event.world).scanIfNeeded((WorldServer)event.world);
+		}
 	}
 
 	/**
@@ -239,6 +228,16 @@ public class EventHooks
 		{
 			manager.saveWorldProperties();
 		}
+
+		MCA.instance.worldPropertiesWriter.flush();
+		MCA.instance.relationshipLog.flush();
+
+		//What is kept about each world holds on to its entities, which hold on to the world, so it has to be dropped by hand.
+		MCA.instance.treeCache.clearWorld(event.world);
+		MCA.instance.jobBoard.clearWorld(event.world);
+		MCA.instance.entityIndex.clearWorld(event.world);
+		MCA.instance.homeRegistry.clearWorld(event.world);
+		MCA.instance.villageRegistry.clearWorld(event.world);
 	}
 	
 	/**
@@ -251,4 +250,56 @@ public class EventHooks
 	{
 		MCA.instance.deadPlayerInventories.put(event.entityPlayer.username, event.drops);
 	}
+
+	/**
+	 * Fired when a chunk is loaded.
+	 * 
+	 * @param 	event	An instance of the ChunkEvent.Load event.
+	 */
+	@ForgeSubscribe
+	public void chunkLoadEventHandler(ChunkEvent.Load event)
+	{
+		if (!event.world.isRemote)
+		{
+			MCA.instance.homeRegistry.onChunkLoad(event.world, event.getChunk().xPosition, event.getChunk().zPosition);
+		}
+	}
+
+	/**
+	 * Fired when a chunk is unloaded.
+	 * 
+	 * @param 	event	An instance of the ChunkEvent.Unload event.
+	 */
+	@ForgeSubscribe
+	public void chunkUnloadEventHandler(ChunkEvent.Unload event)
+	{
+		if (!event.world.isRemote)
+		{
+			//The entities in the chunk are unloaded along with it, so they are no longer part of any village.
+			for (List entityList : event.getChunk().entityLists)
+			{
+				for (Object obj : entityList)
+				{
+					if (obj instanceof AbstractEntity)
+					{
+						MCA.instance.villageRegistry.removeEntity((AbstractEntity)obj);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Fired when a chunk is saved.
+	 * 
+	 * @param 	event	An instance of the ChunkDataEvent.Save event.
+	 */
+	@ForgeSubscribe
+	public void chunkSaveEventHandler(ChunkDataEvent.Save event)
+	{
+		if (!event.world.isRemote)
+		{
+			PopulationIndex.getIndex(event.world).updateChunk(event.getChunk());
+		}
+	}
 }
@@ -95,7 +95,7 @@ public class GuiHandler implements IGuiHandler
 
 		else if (id == MCA.instance.guiNameChildID)
 		{
-			WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.get(player.username);
+			WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.loadManager(player.username);
 			return new GuiNameChild(player, manager.worldProperties.babyGender);
 		}
 
@@ -32,6 +32,7 @@ import mca.core.util.LanguageHelper;
 import mca.core.util.LogicHelper;
 import mca.core.util.PacketHelper;
 import mca.core.util.object.FamilyTree;
+import mca.core.util.object.MemoryArchive;
 import mca.core.util.object.PlayerMemory;
 import mca.entity.AbstractEntity;
 import mca.entity.EntityChild;
@@ -221,6 +222,16 @@ public final class PacketHandler implements IPacketHandler
 			{
 				handleReturnInventory(packet, player);
 			}
+
+			else if (packet.channel.equals("MCA_HEARTS"))
+			{
+				handleHearts(packet, player);
+			}
+
+			else if (packet.channel.equals("MCA_MODPROPS"))
+			{
+				handleModProperties(packet, player);
+			}
 		}
 
 		catch (Throwable e)
@@ -743,6 +754,11 @@ public final class PacketHandler implements IPacketHandler
 		AbstractEntity entity = (AbstractEntity)world.getEntityByID(entityId);
 		familyTree.owner = entity;
 		entity.familyTree = familyTree;
+
+		if (!world.isRemote)
+		{
+			MCA.instance.relationshipLog.recordSpouseOf(entity);
+		}
 	}
 
 	/**
@@ -822,6 +838,7 @@ public final class PacketHandler implements IPacketHandler
 
 		if (chore instanceof ChoreFarming)
 		{
+			((ChoreFarming) chore).inheritFarmPlot(entity.farmingChore);
 			entity.farmingChore = (ChoreFarming) chore;
 		}
 
@@ -991,8 +1008,13 @@ public final class PacketHandler implements IPacketHandler
 		//Ensure item IDs are the same.
 		if (modPropertiesManager.equals(MCA.instance.modPropertiesManager))
 		{
-			//Give the player a world settings manager.
-			WorldPropertiesManager manager = new WorldPropertiesManager(world.getSaveHandler().getWorldDirectoryName(), entityPlayer.username);
+			//Give the player a world settings manager, loading it if it isn't already.
+			WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.loadManager(entityPlayer.username);
+
+			if (manager == null)
+			{
+				manager = new WorldPropertiesManager(world.getSaveHandler().getWorldDirectoryName(), entityPlayer.username);
+			}
 
 			MCA.instance.playerWorldManagerMap.put(entityPlayer.username, manager);
 
@@ -1031,13 +1053,14 @@ public final class PacketHandler implements IPacketHandler
 		if (world.isRemote)
 		{
 			MCA.instance.playerWorldManagerMap.put(entityPlayer.username, manager);
+			MCA.instance.monarchRegistry.updateMonarchStatus(entityPlayer.username, manager.worldProperties.isMonarch);
 		}
 
 		//Server side.
 		else
 		{
 			//Update only the actual properties on the old manager to retain the ability to save.
-			WorldPropertiesManager oldWorldPropertiesManager = MCA.instance.playerWorldManagerMap.get(entityPlayer.username);
+			WorldPropertiesManager oldWorldPropertiesManager = MCA.instance.playerWorldManagerMap.loadManager(entityPlayer.username);
 			oldWorldPropertiesManager.worldProperties = manager.worldProperties;
 
 			//Put the changed manager back into the map and save it.
@@ -1238,7 +1261,7 @@ public final class PacketHandler implements IPacketHandler
 			PacketDispatcher.sendPacketToServer(PacketHelper.createAchievementPacket(MCA.instance.achievementHaveBabyGirl, spouseId));
 		}
 
-		WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.get(entityPlayer.username);
+		WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.loadManager(entityPlayer.username);
 		manager.worldProperties.babyGender = babyGender;
 		manager.worldProperties.babyExists = true;
 		manager.saveWorldProperties();
@@ -1269,7 +1292,7 @@ public final class PacketHandler implements IPacketHandler
 		objectInput.close();
 
 		//Set the player's spouse's manager to have the same baby info.
-		WorldPropertiesManager spouseManager = MCA.instance.playerWorldManagerMap.get(receivedManager.worldProperties.playerSpouseName);
+		WorldPropertiesManager spouseManager = MCA.instance.playerWorldManagerMap.loadManager(receivedManager.worldProperties.playerSpouseName);
 
 		spouseManager.worldProperties.babyExists = receivedManager.worldProperties.babyExists;
 		spouseManager.worldProperties.babyGender = receivedManager.worldProperties.babyGender;
@@ -1408,7 +1431,7 @@ public final class PacketHandler implements IPacketHandler
 		}
 
 		//Modify the player's world properties manager.
-		WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.get(entityPlayer.username);
+		WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.loadManager(entityPlayer.username);
 		manager.worldProperties.babyGender = babyGender;
 		manager.worldProperties.babyExists = true;
 		manager.saveWorldProperties();
@@ -1471,4 +1494,80 @@ public final class PacketHandler implements IPacketHandler
 			entity.entityDropItem(item.getEntityItem(), 0.3F);
 		}
 	}
+
+	/**
+	 * Handles a packet that updates one player's memories on several entities at once.
+	 * 
+	 * @param 	packet	The packet containing the changed memories.
+	 * @param	player	The player that the packet came from.
+	 */
+	@SuppressWarnings({ "javadoc", "unchecked" })
+	private static void handleHearts(Packet250CustomPayload packet, Player player) throws IOException, ClassNotFoundException
+	{
+		byte[] data = MCA.decompressBytes(packet.data);
+
+		ByteArrayInputStream byteInput = new ByteArrayInputStream(data);
+		ObjectInputStream objectInput = new ObjectInputStream(byteInput);
+
+		EntityPlayer entityPlayer = (EntityPlayer)player;
+		World worldObj = entityPlayer.worldObj;
+
+		String playerName = (String)objectInput.readObject();
+		Map<Integer, PlayerMemory> memoryMap = (Map<Integer, PlayerMemory>)objectInput.readObject();
+
+		objectInput.close();
+
+		for (Map.Entry<Integer, PlayerMemory> entry : memoryMap.entrySet())
+		{
+			Entity entity = worldObj.getEntityByID(entry.getKey());
+
+			if (entity instanceof AbstractEntity)
+			{
+				AbstractEntity abstractEntity = (AbstractEntity)entity;
+
+				//Player name must be set since it is transient.
+				PlayerMemory memory = entry.getValue();
+				memory.playerName = playerName;
+
+				//The memory sent replaces any archived copy, which would otherwise be restored over it later.
+				if (!worldObj.isRemote && !abstractEntity.playerMemoryMap.containsKey(playerName))
+				{
+					MemoryArchive.getArchive(worldObj).restoreMemory(abstractEntity.mcaID, playerName);
+				}
+
+				abstractEntity.playerMemoryMap.put(playerName, memory);
+				abstractEntity.scheduleMonarchUpdate();
+			}
+		}
+
+		//Pass the changes on to all other players if server side.
+		if (!worldObj.isRemote)
+		{
+			PacketDispatcher.sendPacketToAllPlayers(PacketHelper.createHeartsPacket(playerName, memoryMap));
+		}
+	}
+
+	/**
+	 * Handles a packet containing the mod properties that changed on the server.
+	 * 
+	 * @param 	packet	The packet containing the changed mod properties.
+	 * @param	player	The player that the packet came from.
+	 */
+	@SuppressWarnings({ "javadoc", "unchecked" })
+	private static void handleModProperties(Packet250CustomPayload packet, Player player) throws IOException, ClassNotFoundException
+	{
+		byte[] data = MCA.decompressBytes(packet.data);
+
+		ByteArrayInputStream byteInput = new ByteArrayInputStream(data);
+		ObjectInputStream objectInput = new ObjectInputStream(byteInput);
+
+		Map<String, Object> changedValues = (Map<String, Object>)objectInput.readObject();
+		objectInput.close();
+
+		//Only the server sends these. On an integrated server the properties are already shared with the client.
+		if (((EntityPlayer)player).worldObj.isRemote && !MCA.instance.isIntegratedServer)
+		{
+			MCA.instance.modPropertiesManager.applyChangedValues(changedValues);
+		}
+	}
 }
@@ -29,6 +29,12 @@ public class ServerTickHandler implements ITickHandler
 	/** The number of ticks since the loop has been ran. */
 	public int ticks = 20;
 
+	/** The number of ticks since the mod properties file was last checked for changes. */
+	private int modPropertiesCheckTicks = 0;
+
+	/** How many ticks pass between checks of the mod properties file. */
+	private static final int MOD_PROPERTIES_CHECK_INTERVAL = 100;
+
 	@Override
 	public void tickStart(EnumSet<TickType> type, Object... tickData) {	}
 
@@ -59,6 +65,13 @@ public class ServerTickHandler implements ITickHandler
 	 */
 	public void onTickInGame()
 	{
+		//Pick up edits made to the mod properties file while the server is running.
+		if (++modPropertiesCheckTicks >= MOD_PROPERTIES_CHECK_INTERVAL)
+		{
+			MCA.instance.modPropertiesManager.reloadIfChanged();
+			modPropertiesCheckTicks = 0;
+		}
+
 		for (WorldServer worldServer : MinecraftServer.getServer().worldServers)
 		{
 			//Run this every 20 ticks to avoid performance problems.
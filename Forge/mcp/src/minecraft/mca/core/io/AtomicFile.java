@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * AtomicFile.java
+ * Copyright (c) 2013 WildBamaBoy.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+
+package mca.core.io;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Properties;
+
+/**
+ * Replaces files by writing a temporary file beside them and renaming it over the original once it is on disk,
+ * so that a crash part way through a write leaves either the old file or the new one instead of a mix of both.
+ */
+public final class AtomicFile
+{
+	/**
+	 * Writes properties to a file, replacing the file only once every property has been written.
+	 *
+	 * @param 	file		The file to write to.
+	 * @param 	properties	The properties to write.
+	 * @param 	comment		The comment written at the top of the file.
+	 */
+	public static void writeProperties(File file, Properties properties, String comment) throws IOException
+	{
+		File tempFile = getTempFile(file);
+		FileOutputStream outputStream = new FileOutputStream(tempFile);
+
+		try
+		{
+			properties.store(outputStream, comment);
+			outputStream.flush();
+			outputStream.getFD().sync();
+		}
+
+		finally
+		{
+			outputStream.close();
+		}
+
+		replace(tempFile, file);
+	}
+
+	/**
+	 * Moves a finished temporary file over the file it replaces.
+	 *
+	 * @param 	tempFile	The temporary file, already written to disk.
+	 * @param 	file		The file to replace.
+	 */
+	public static void replace(File tempFile, File file) throws IOException
+	{
+		if (!tempFile.renameTo(file))
+		{
+			//Some systems won't rename over a file that exists. The temporary file is complete, so it is found by recover() if this is interrupted.
+			file.delete();
+
+			if (!tempFile.renameTo(file))
+			{
+				throw new IOException("Unable to replace " + file.getPath());
+			}
+		}
+	}
+
+	/**
+	 * Finishes or discards a replacement of the provided file that was interrupted. Should be called before the file is read.
+	 *
+	 * @param 	file	The file that may have been being replaced.
+	 */
+	public static void recover(File file)
+	{
+		File tempFile = getTempFile(file);
+
+		if (tempFile.exists())
+		{
+			//The original is only deleted once the temporary file is complete.
+			if (!file.exists())
+			{
+				tempFile.renameTo(file);
+			}
+
+			else
+			{
+				tempFile.delete();
+			}
+		}
+	}
+
+	/**
+	 * Gets the temporary file that is written before replacing the provided file.
+	 *
+	 * @param 	file	The file to be replaced.
+	 *
+	 * @return	The temporary file beside it.
+	 */
+	public static File getTempFile(File file)
+	{
+		return new File(file.getPath() + ".tmp");
+	}
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * BackgroundWriter.java
+ * Copyright (c) 2013 WildBamaBoy.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+
+package mca.core.io;
+
+/**
+ * Base of the classes that queue what they save in memory and write it to disk on a background thread, so the server
+ * never waits on the disk. The thread is started by the first save and flushes on an interval until the game exits.
+ */
+public abstract class BackgroundWriter implements Runnable
+{
+	/** How long the writer waits between flushes, in milliseconds. */
+	private static final long FLUSH_INTERVAL_MS = 10000;
+
+	/** Held while files are being written so that a flush on shutdown doesn't overlap the background flush. */
+	protected final Object flushLock = new Object();
+
+	/** The name given to the writer's thread. */
+	private final String threadName;
+
+	/** The thread that flushes on an interval. */
+	private Thread writerThread = null;
+
+	/**
+	 * Constructor
+	 *
+	 * @param 	threadName	The name given to the writer's thread.
+	 */
+	protected BackgroundWriter(String threadName)
+	{
+		this.threadName = threadName;
+	}
+
+	/**
+	 * Writes everything waiting to be written on the calling thread, while holding the flush lock.
+	 */
+	public abstract void flush();
+
+	@Override
+	public void run()
+	{
+		while (true)
+		{
+			try
+			{
+				Thread.sleep(FLUSH_INTERVAL_MS);
+			}
+
+			catch (InterruptedException e)
+			{
+				return;
+			}
+
+			flush();
+		}
+	}
+
+	/**
+	 * Starts the thread that flushes on an interval if it isn't running.
+	 */
+	protected synchronized void startWriterThread()
+	{
+		if (writerThread == null || !writerThread.isAlive())
+		{
+			writerThread = new Thread(this, threadName);
+			writerThread.setDaemon(true);
+			writerThread.start();
+		}
+	}
+}
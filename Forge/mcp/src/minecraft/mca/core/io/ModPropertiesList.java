@@ -94,6 +94,9 @@ public class ModPropertiesList implements Serializable
 	/** Should players be allowed to demand gifts from people? */
 	public boolean server_allowDemandGift = true;
 	
+	/** How many days a player can be away before villagers' memories of them are archived. 0 to never archive. */
+	public int server_memoryArchiveDays = 7;
+	
 	/** Should MCA display update notifications? */
 	public boolean checkForUpdates = true;
 	
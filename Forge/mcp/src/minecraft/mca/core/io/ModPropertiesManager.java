@@ -12,27 +12,39 @@ package mca.core.io;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.Serializable;
 import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
 
 import mca.core.MCA;
+import mca.core.util.PacketHelper;
+import cpw.mods.fml.common.network.PacketDispatcher;
 
 /**
- * Handles reading and writing properties that effect how the entire mod operates.
+ * Handles reading and writing properties that effect how the entire mod operates. Edits made to the file while the
+ * server is running are loaded into a new properties list, which then replaces the current one all at once.
  */
 public class ModPropertiesManager implements Serializable
 {
+	/** The fields of the mod properties list, found once. */
+	private static final Field[] propertyFields = ModPropertiesList.class.getFields();
+
+	/** The comment written at the top of the mod properties file. */
+	private static final String PROPERTIES_COMMENT = "MCA Mod Properties File - Change Item IDs and server settings here.";
+
 	private transient Properties properties = new Properties();
 	private transient FileInputStream inputStream   = null;
-	private transient FileOutputStream outputStream = null;
 	private transient File modPropertiesFile = null;
 	private transient File configFolder = null;
 
-	/** The properties and values stored within the mod properties file. */
-	public ModPropertiesList modProperties = new ModPropertiesList();
+	/** The time the mod properties file was last changed when it was last loaded or saved. */
+	private transient long lastModified = 0;
+
+	/** The properties and values stored within the mod properties file. Replaced rather than changed when the file is reloaded. */
+	public volatile ModPropertiesList modProperties = new ModPropertiesList();
 
 	/**
 	 * Constructor
@@ -49,6 +61,9 @@ public class ModPropertiesManager implements Serializable
 			configFolder.mkdirs();
 		}
 
+		//Finish or discard a save that was interrupted.
+		AtomicFile.recover(modPropertiesFile);
+
 		//Now check if the mod properties file must be created or should be loaded.
 		if (!modPropertiesFile.exists())
 		{
@@ -65,47 +80,21 @@ public class ModPropertiesManager implements Serializable
 	/**
 	 * Saves the current mod properties to file.
 	 */
-	public void saveModProperties()
+	public synchronized void saveModProperties()
 	{
 		try
 		{
 			//Clear the properties instance to avoid saving unwanted variables.
 			properties.clear();
+			putModProperties(properties);
 
-			//Use reflection to get all the fields in this class. Only work with the ones whose name is prefixed with setting_.
-			for (Field f : ModPropertiesList.class.getFields())
-			{
-				String fieldType = f.getType().toString();
-
-				if (fieldType.contains("int"))
-				{
-					properties.put(f.getName(), f.get(modProperties).toString());
-				}
-
-				else if (fieldType.contains("boolean"))
-				{
-					properties.put(f.getName(), f.get(modProperties).toString());
-				}
-				
-				else if (fieldType.contains("String"))
-				{
-					properties.put(f.getName(), f.get(modProperties).toString());
-				}
-			}
-
-			//Store information in the properties instance to file.
-			outputStream = new FileOutputStream(modPropertiesFile);
-			properties.store(outputStream, "MCA Mod Properties File - Change Item IDs and server settings here.");
-			outputStream.close();
+			//Store information in the properties instance to file, replacing the old file only once it is complete.
+			AtomicFile.writeProperties(modPropertiesFile, properties, PROPERTIES_COMMENT);
+			lastModified = modPropertiesFile.lastModified();
 
 			MCA.instance.log("Mod properties successfully saved.");
 		}
 
-		catch (FileNotFoundException e)
-		{
-			MCA.instance.quitWithError("FileNotFoundException occurred while creating a new mod properties file.", e);
-		}
-
 		catch (IllegalAccessException e)
 		{
 			MCA.instance.quitWithError("IllegalAccessException occurred while creating a new mod properties file.", e);
@@ -117,10 +106,37 @@ public class ModPropertiesManager implements Serializable
 		}
 	}
 
+	/**
+	 * Queues the current mod properties to be saved to file by the world properties writer, so that the calling thread
+	 * doesn't wait on the disk. Used for changes made while the game is running. The time the file was changed is
+	 * recorded once it is written, so the save isn't picked up as an edit.
+	 */
+	public synchronized void queueSaveModProperties()
+	{
+		try
+		{
+			Properties propertiesToSave = new Properties();
+			putModProperties(propertiesToSave);
+			MCA.instance.worldPropertiesWriter.queueFileWrite(modPropertiesFile, propertiesToSave, PROPERTIES_COMMENT, new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					recordSaved();
+				}
+			});
+		}
+
+		catch (IllegalAccessException e)
+		{
+			MCA.instance.log(e);
+		}
+	}
+
 	/**
 	 * Loads each value from the mod properties file into memory.
 	 */
-	public void loadModProperties()
+	public synchronized void loadModProperties()
 	{
 		MCA.instance.log("Loading mod properties...");
 
@@ -132,31 +148,8 @@ public class ModPropertiesManager implements Serializable
 			//Make sure the file exists.
 			if (modPropertiesFile.exists())
 			{
-				//Load its properties into the properties instance.
-				inputStream = new FileInputStream(modPropertiesFile);
-				properties.load(inputStream);
-				inputStream.close();
-
-				//Loop through each field and assign the value stored in the properties.
-				for (Field f : ModPropertiesList.class.getFields())
-				{
-					String fieldType = f.getType().toString();
-
-					if (fieldType.contains("int"))
-					{
-						f.set(modProperties, Integer.parseInt(properties.getProperty(f.getName())));
-					}
-
-					else if (fieldType.contains("boolean"))
-					{
-						f.set(modProperties, Boolean.parseBoolean(properties.getProperty(f.getName())));
-					}
-					
-					else if (fieldType.contains("String"))
-					{
-						f.set(modProperties, properties.getProperty(f.getName()));
-					}
-				}
+				lastModified = modPropertiesFile.lastModified();
+				modProperties = readModPropertiesFile();
 			}
 
 			else //The mod properties file does not exist. It was either deleted by the user or hasn't been created yet.
@@ -190,12 +183,279 @@ public class ModPropertiesManager implements Serializable
 		}
 	}
 
+	/**
+	 * Replaces the current properties with a copy that has a new value for checkForUpdates and queues them to be saved.
+	 * 
+	 * @param 	checkForUpdates	The new value.
+	 */
+	public synchronized void setCheckForUpdates(boolean checkForUpdates)
+	{
+		ModPropertiesList newProperties = copyModProperties();
+
+		if (newProperties != null)
+		{
+			newProperties.checkForUpdates = checkForUpdates;
+			modProperties = newProperties;
+			queueSaveModProperties();
+		}
+	}
+
+	/**
+	 * Replaces the current properties with a copy that has a new value for lastFoundUpdate and queues them to be saved.
+	 * 
+	 * @param 	lastFoundUpdate	The new value.
+	 */
+	public synchronized void setLastFoundUpdate(String lastFoundUpdate)
+	{
+		ModPropertiesList newProperties = copyModProperties();
+
+		if (newProperties != null)
+		{
+			newProperties.lastFoundUpdate = lastFoundUpdate;
+			modProperties = newProperties;
+			queueSaveModProperties();
+		}
+	}
+
 	/** Resets all mod properties back to their default values.*/
 	public void resetModProperties()
 	{
 		modProperties = new ModPropertiesList();
 	}
 
+	/**
+	 * Reloads the mod properties if the file has been changed since it was last loaded or saved, and sends the values
+	 * that changed to every player. Item and block IDs can't change while the game is running, so they keep their values.
+	 * An edit that can't be read is ignored and the current properties are kept.
+	 */
+	public synchronized void reloadIfChanged()
+	{
+		//The file is being changed by a queued save, which records its own time once written.
+		if (MCA.instance.worldPropertiesWriter.isFileWritePending(modPropertiesFile))
+		{
+			return;
+		}
+
+		long fileModified = modPropertiesFile.lastModified();
+
+		if (fileModified == 0 || fileModified == lastModified)
+		{
+			return;
+		}
+
+		lastModified = fileModified;
+
+		try
+		{
+			ModPropertiesList currentProperties = modProperties;
+			ModPropertiesList newProperties = readModPropertiesFile();
+			Map<String, Object> changedValues = new HashMap<String, Object>();
+
+			for (Field f : propertyFields)
+			{
+				Object currentValue = f.get(currentProperties);
+				Object newValue = f.get(newProperties);
+
+				if (currentValue == null ? newValue != null : !currentValue.equals(newValue))
+				{
+					if (f.getName().contains("ID"))
+					{
+						MCA.instance.log("Mod property " + f.getName() + " changed to " + newValue + ". Item and block IDs only change after a restart.");
+						f.set(newProperties, currentValue);
+					}
+
+					else
+					{
+						MCA.instance.log("Mod property " + f.getName() + " changed from " + currentValue + " to " + newValue + ".");
+						changedValues.put(f.getName(), newValue);
+					}
+				}
+			}
+
+			modProperties = newProperties;
+
+			if (!changedValues.isEmpty())
+			{
+				PacketDispatcher.sendPacketToAllPlayers(PacketHelper.createModPropertiesPacket(changedValues));
+			}
+		}
+
+		catch (NumberFormatException e)
+		{
+			MCA.instance.log("NumberFormatException while reloading mod properties. The current properties will be kept until the file is fixed.");
+		}
+
+		catch (Throwable e)
+		{
+			MCA.instance.log(e);
+		}
+	}
+
+	/**
+	 * Gets the current value of every property that is sent to clients. Item and block IDs are left out, since
+	 * they can't change once the game is running.
+	 * 
+	 * @return	Map of the values. Key = field name, Value = the current value.
+	 */
+	public Map<String, Object> getSyncedValues()
+	{
+		Map<String, Object> syncedValues = new HashMap<String, Object>();
+		ModPropertiesList currentProperties = modProperties;
+
+		try
+		{
+			for (Field f : propertyFields)
+			{
+				if (!f.getName().contains("ID"))
+				{
+					syncedValues.put(f.getName(), f.get(currentProperties));
+				}
+			}
+		}
+
+		catch (IllegalAccessException e)
+		{
+			MCA.instance.log(e);
+		}
+
+		return syncedValues;
+	}
+
+	/**
+	 * Replaces the current properties with a copy that has the provided values. Used on the client when the server's
+	 * properties change. The values are not saved to the client's own mod properties file.
+	 * 
+	 * @param 	changedValues	The values to change. Key = field name, Value = the new value.
+	 */
+	public synchronized void applyChangedValues(Map<String, Object> changedValues)
+	{
+		try
+		{
+			ModPropertiesList currentProperties = modProperties;
+			ModPropertiesList newProperties = new ModPropertiesList();
+
+			for (Field f : propertyFields)
+			{
+				Object value = changedValues.get(f.getName());
+
+				if (value != null && !f.getName().contains("ID"))
+				{
+					f.set(newProperties, value);
+				}
+
+				else
+				{
+					f.set(newProperties, f.get(currentProperties));
+				}
+			}
+
+			modProperties = newProperties;
+		}
+
+		catch (Throwable e)
+		{
+			MCA.instance.log(e);
+		}
+	}
+
+	/**
+	 * Records the time the mod properties file was changed by a queued save once it has been written.
+	 */
+	private synchronized void recordSaved()
+	{
+		lastModified = modPropertiesFile.lastModified();
+	}
+
+	/**
+	 * Makes a copy of the current properties list, to be changed before it replaces the current one.
+	 * 
+	 * @return	The copy. Null if it couldn't be made.
+	 */
+	private ModPropertiesList copyModProperties()
+	{
+		ModPropertiesList currentProperties = modProperties;
+		ModPropertiesList newProperties = new ModPropertiesList();
+
+		try
+		{
+			for (Field f : propertyFields)
+			{
+				f.set(newProperties, f.get(currentProperties));
+			}
+
+			return newProperties;
+		}
+
+		catch (IllegalAccessException e)
+		{
+			MCA.instance.log(e);
+			return null;
+		}
+	}
+
+	/**
+	 * Puts the value of each current mod property into the provided properties.
+	 * 
+	 * @param 	propertiesToSave	The properties to put the values into.
+	 */
+	private void putModProperties(Properties propertiesToSave) throws IllegalAccessException
+	{
+		ModPropertiesList currentProperties = modProperties;
+
+		//Every field of the list is an int, boolean, or String, so each one is stored as its string value.
+		for (Field f : propertyFields)
+		{
+			propertiesToSave.put(f.getName(), f.get(currentProperties).toString());
+		}
+	}
+
+	/**
+	 * Reads the mod properties file into a new properties list.
+	 * 
+	 * @return	A properties list containing the values in the file.
+	 */
+	private ModPropertiesList readModPropertiesFile() throws IOException, IllegalAccessException
+	{
+		ModPropertiesList newProperties = new ModPropertiesList();
+
+		//Load its properties into the properties instance.
+		properties.clear();
+		inputStream = new FileInputStream(modPropertiesFile);
+
+		try
+		{
+			properties.load(inputStream);
+		}
+
+		finally
+		{
+			inputStream.close();
+		}
+
+		//Loop through each field and assign the value stored in the properties.
+		for (Field f : propertyFields)
+		{
+			Class<?> fieldType = f.getType();
+
+			if (fieldType == int.class)
+			{
+				f.setInt(newProperties, Integer.parseInt(properties.getProperty(f.getName())));
+			}
+
+			else if (fieldType == boolean.class)
+			{
+				f.setBoolean(newProperties, Boolean.parseBoolean(properties.getProperty(f.getName())));
+			}
+
+			else if (fieldType == String.class)
+			{
+				f.set(newProperties, properties.getProperty(f.getName()));
+			}
+		}
+
+		return newProperties;
+	}
+
 	@Override
 	public boolean equals(Object obj)
 	{
@@ -205,7 +465,7 @@ public class ModPropertiesManager implements Serializable
 			{
 				ModPropertiesManager modPropertiesManager = (ModPropertiesManager)obj;
 
-				for (Field f : ModPropertiesList.class.getFields())
+				for (Field f : propertyFields)
 				{
 					//Only check item and block IDs, ignore grow up times, etc.
 					if (f.getName().contains("ID"))
@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * NBTFieldCodec.java
+ * Copyright (c) 2013 WildBamaBoy.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+
+package mca.core.io;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.minecraft.nbt.NBTTagCompound;
+
+/**
+ * Writes and reads the public String, boolean, double, int and float fields of a class to and from NBT, using the
+ * field's name as its key. The fields are found once for each class and sorted by type, so saving doesn't look
+ * through every field or convert values through strings. Transient fields are not saved.
+ */
+public class NBTFieldCodec
+{
+	/** The codecs that have been built. Key = the root class of the codecs, Value = map of the class each codec is for to the codec. */
+	private static final Map<Class<?>, Map<Class<?>, NBTFieldCodec>> codecMap = new HashMap<Class<?>, Map<Class<?>, NBTFieldCodec>>();
+
+	private final Field[] stringFields;
+	private final Field[] booleanFields;
+	private final Field[] doubleFields;
+	private final Field[] intFields;
+	private final Field[] floatFields;
+
+	/**
+	 * Constructor
+	 *
+	 * @param 	type		The class whose fields will be saved.
+	 * @param 	rootClass	Only fields declared by this class or its subclasses are saved.
+	 */
+	private NBTFieldCodec(Class<?> type, Class<?> rootClass)
+	{
+		List<Field> stringList = new ArrayList<Field>();
+		List<Field> booleanList = new ArrayList<Field>();
+		List<Field> doubleList = new ArrayList<Field>();
+		List<Field> intList = new ArrayList<Field>();
+		List<Field> floatList = new ArrayList<Field>();
+
+		for (Field f : type.getFields())
+		{
+			if (!rootClass.isAssignableFrom(f.getDeclaringClass()) || Modifier.isTransient(f.getModifiers()))
+			{
+				continue;
+			}
+
+			Class<?> fieldType = f.getType();
+
+			if (fieldType == String.class)
+			{
+				stringList.add(f);
+			}
+
+			else if (fieldType == boolean.class)
+			{
+				booleanList.add(f);
+			}
+
+			else if (fieldType == double.class)
+			{
+				doubleList.add(f);
+			}
+
+			else if (fieldType == int.class)
+			{
+				intList.add(f);
+			}
+
+			else if (fieldType == float.class)
+			{
+				floatList.add(f);
+			}
+		}
+
+		stringFields = stringList.toArray(new Field[stringList.size()]);
+		booleanFields = booleanList.toArray(new Field[booleanList.size()]);
+		doubleFields = doubleList.toArray(new Field[doubleList.size()]);
+		intFields = intList.toArray(new Field[intList.size()]);
+		floatFields = floatList.toArray(new Field[floatList.size()]);
+	}
+
+	/**
+	 * Gets the codec of the provided class, building it the first time the class is asked for with the provided root class.
+	 *
+	 * @param 	type		The class whose fields will be saved.
+	 * @param 	rootClass	Only fields declared by this class or its subclasses are saved.
+	 *
+	 * @return	The codec of the class.
+	 */
+	public static synchronized NBTFieldCodec getCodec(Class<?> type, Class<?> rootClass)
+	{
+		Map<Class<?>, NBTFieldCodec> rootCodecMap = codecMap.get(rootClass);
+
+		if (rootCodecMap == null)
+		{
+			rootCodecMap = new HashMap<Class<?>, NBTFieldCodec>();
+			codecMap.put(rootClass, rootCodecMap);
+		}
+
+		NBTFieldCodec codec = rootCodecMap.get(type);
+
+		if (codec == null)
+		{
+			codec = new NBTFieldCodec(type, rootClass);
+			rootCodecMap.put(type, codec);
+		}
+
+		return codec;
+	}
+
+	/**
+	 * Writes the fields of an object to NBT. Strings that are null are not written.
+	 *
+	 * @param 	object	The object whose fields will be written.
+	 * @param 	NBT		The NBT tag compound to write to.
+	 */
+	public void writeFieldsToNBT(Object object, NBTTagCompound NBT) throws IllegalAccessException
+	{
+		for (Field f : stringFields)
+		{
+			String value = (String)f.get(object);
+
+			if (value != null)
+			{
+				NBT.setString(f.getName(), value);
+			}
+		}
+
+		for (Field f : booleanFields)
+		{
+			NBT.setBoolean(f.getName(), f.getBoolean(object));
+		}
+
+		for (Field f : doubleFields)
+		{
+			NBT.setDouble(f.getName(), f.getDouble(object));
+		}
+
+		for (Field f : intFields)
+		{
+			NBT.setInteger(f.getName(), f.getInt(object));
+		}
+
+		for (Field f : floatFields)
+		{
+			NBT.setFloat(f.getName(), f.getFloat(object));
+		}
+	}
+
+	/**
+	 * Reads the fields of an object from NBT. Fields missing from the NBT are set to empty or zero, and final fields are not changed.
+	 *
+	 * @param 	object	The object whose fields will be read.
+	 * @param 	NBT		The NBT tag compound to read from.
+	 */
+	public void readFieldsFromNBT(Object object, NBTTagCompound NBT) throws IllegalAccessException
+	{
+		for (Field f : stringFields)
+		{
+			if (!Modifier.isFinal(f.getModifiers()))
+			{
+				f.set(object, NBT.getString(f.getName()));
+			}
+		}
+
+		for (Field f : booleanFields)
+		{
+			if (!Modifier.isFinal(f.getModifiers()))
+			{
+				f.setBoolean(object, NBT.getBoolean(f.getName()));
+			}
+		}
+
+		for (Field f : doubleFields)
+		{
+			if (!Modifier.isFinal(f.getModifiers()))
+			{
+				f.setDouble(object, NBT.getDouble(f.getName()));
+			}
+		}
+
+		for (Field f : intFields)
+		{
+			if (!Modifier.isFinal(f.getModifiers()))
+			{
+				f.setInt(object, NBT.getInteger(f.getName()));
+			}
+		}
+
+		for (Field f : floatFields)
+		{
+			if (!Modifier.isFinal(f.getModifiers()))
+			{
+				f.setFloat(object, NBT.getFloat(f.getName()));
+			}
+		}
+	}
+}
@@ -0,0 +1,455 @@
+/*******************************************************************************
+ * RecordFile.java
+ * Copyright (c) 2013 WildBamaBoy.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+
+package mca.core.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import mca.core.MCA;
+
+/**
+ * A file of records that are only ever appended to its end. The file starts with a magic number and a version, and
+ * each record is its length, its checksum and then its data. A record damaged by a crash is passed over when the file
+ * is scanned, and anything after the last complete record is cut off. Not thread safe, so the owner of the file must
+ * hold its own lock while using it.
+ */
+public class RecordFile
+{
+	/** The length of the magic number and version at the start of the file. */
+	public static final int HEADER_LENGTH = 8;
+
+	/** The length of the record length and checksum at the start of each record. */
+	private static final int RECORD_HEADER_LENGTH = 8;
+
+	/** The file on disk. */
+	private final File recordFile;
+
+	/** Written at the start of the file to identify it. */
+	private final int magic;
+
+	/** The version of the layout of the records written to the file. */
+	private final int version;
+
+	/** The open file. Volatile so that the file can be synced without holding the owner's lock. */
+	private volatile RandomAccessFile file = null;
+
+	/**
+	 * Constructor
+	 *
+	 * @param 	recordFile	The file on disk. Created when it is opened if it doesn't exist.
+	 * @param 	magic		The magic number written at the start of the file.
+	 * @param 	version		The version of the layout of the records written to the file.
+	 */
+	public RecordFile(File recordFile, int magic, int version)
+	{
+		this.recordFile = recordFile;
+		this.magic = magic;
+		this.version = version;
+	}
+
+	/**
+	 * Gets the file on disk.
+	 *
+	 * @return	The file on disk.
+	 */
+	public File getFile()
+	{
+		return recordFile;
+	}
+
+	/**
+	 * Checks if the file is open.
+	 *
+	 * @return	True if the file is open.
+	 */
+	public boolean isOpen()
+	{
+		return file != null;
+	}
+
+	/**
+	 * Opens the file, finishing any interrupted replacement of it and writing its header if it is new. The file is
+	 * closed first if it is already open.
+	 *
+	 * @param 	oldestVersion	The oldest version of the layout that can still be read.
+	 *
+	 * @return	The version of the layout of the records already in the file.
+	 */
+	public int open(int oldestVersion) throws IOException
+	{
+		close();
+		AtomicFile.recover(recordFile);
+
+		recordFile.getParentFile().mkdirs();
+		file = new RandomAccessFile(recordFile, "rw");
+
+		if (file.length() < HEADER_LENGTH)
+		{
+			file.setLength(0);
+			file.writeInt(magic);
+			file.writeInt(version);
+		}
+
+		file.seek(0);
+		int fileMagic = file.readInt();
+		int fileVersion = file.readInt();
+
+		if (fileMagic != magic || fileVersion < oldestVersion || fileVersion > version)
+		{
+			close();
+			throw new IOException("Unrecognized file: " + recordFile.getPath());
+		}
+
+		return fileVersion;
+	}
+
+	/**
+	 * Reads every complete record in the file. Damaged records are skipped by looking for the next record that passes
+	 * its checksum. Anything after the last complete record is cut off so new records follow it, but only when no
+	 * complete record follows it, so a damaged record in the middle of the file never takes those after it along.
+	 *
+	 * @param 	hasChecksums	False if the records were written in a layout that had no checksum after their length.
+	 *
+	 * @return	Map of the records in the order they were written. Key = offset of the record, Value = the record's data.
+	 */
+	public Map<Long, byte[]> scan(boolean hasChecksums) throws IOException
+	{
+		Map<Long, byte[]> recordMap = new LinkedHashMap<Long, byte[]>();
+		byte[] data = new byte[(int)file.length()];
+		file.seek(0);
+		file.readFully(data);
+
+		int recordHeaderLength = hasChecksums ? RECORD_HEADER_LENGTH : 4;
+		int offset = HEADER_LENGTH;
+
+		while (offset + recordHeaderLength <= data.length)
+		{
+			byte[] recordData = getRecordAt(data, offset, hasChecksums);
+
+			if (recordData != null)
+			{
+				recordMap.put((long)offset, recordData);
+				offset += recordHeaderLength + recordData.length;
+				continue;
+			}
+
+			//Without checksums there is no telling where the next record starts.
+			int nextOffset = hasChecksums ? findNextRecord(data, offset + 1) : -1;
+
+			//Nothing complete follows, so this is a record that was only partly written.
+			if (nextOffset == -1)
+			{
+				break;
+			}
+
+			MCA.instance.log("Skipped a damaged record in " + recordFile.getPath() + " at " + offset + ".");
+			offset = nextOffset;
+		}
+
+		if (offset < data.length)
+		{
+			file.setLength(offset);
+		}
+
+		return recordMap;
+	}
+
+	/**
+	 * Reads the record starting at an offset.
+	 *
+	 * @param 	offset	The offset of the record.
+	 *
+	 * @return	The record's data.
+	 */
+	public byte[] read(long offset) throws IOException
+	{
+		return readRecord(file, offset);
+	}
+
+	/**
+	 * Reads the records starting at the provided offsets through a separate handle, so they can be read without
+	 * holding the owner's lock while records are appended. Records are never changed once written, so those already
+	 * in the file read the same either way.
+	 *
+	 * @param 	offsetList	The offsets of the records.
+	 * @param 	recordList	List to put the data of each record into, in the same order as the offsets.
+	 */
+	public void readSeparately(List<Long> offsetList, List<byte[]> recordList) throws IOException
+	{
+		RandomAccessFile readFile = new RandomAccessFile(recordFile, "r");
+
+		try
+		{
+			for (long offset : offsetList)
+			{
+				recordList.add(readRecord(readFile, offset));
+			}
+		}
+
+		finally
+		{
+			readFile.close();
+		}
+	}
+
+	/**
+	 * Appends a record to the end of the file.
+	 *
+	 * @param 	recordData	The record's data.
+	 *
+	 * @return	The offset the record was written at.
+	 */
+	public long append(byte[] recordData) throws IOException
+	{
+		long offset = file.length();
+
+		file.seek(offset);
+		file.writeInt(recordData.length);
+		file.writeInt(getChecksum(recordData));
+		file.write(recordData);
+
+		return offset;
+	}
+
+	/**
+	 * Gets the length of the file.
+	 *
+	 * @return	The length of the file in bytes.
+	 */
+	public long length() throws IOException
+	{
+		return file.length();
+	}
+
+	/**
+	 * Removes every record from the file, leaving its header, and makes sure the change has reached the disk.
+	 */
+	public void clear() throws IOException
+	{
+		file.setLength(HEADER_LENGTH);
+		file.getFD().sync();
+	}
+
+	/**
+	 * Makes sure everything appended to the file has reached the disk. Doesn't need the owner's lock, so that the
+	 * owner isn't held up by the disk.
+	 */
+	public void sync() throws IOException
+	{
+		RandomAccessFile syncFile = file;
+
+		if (syncFile != null)
+		{
+			syncFile.getFD().sync();
+		}
+	}
+
+	/**
+	 * Writes a complete file holding the provided records beside this one and syncs it to disk, ready to be put in this
+	 * one's place with replace(). Doesn't use the open file, so it can be called without holding the owner's lock.
+	 *
+	 * @param 	recordList	The data of each record, in the order to write them.
+	 * @param 	offsetList	List to put where each record starts in the new file into.
+	 *
+	 * @return	The file written.
+	 */
+	public File writeTempFile(List<byte[]> recordList, List<Long> offsetList) throws IOException
+	{
+		File tempFile = AtomicFile.getTempFile(recordFile);
+		RandomAccessFile newFile = new RandomAccessFile(tempFile, "rw");
+
+		try
+		{
+			newFile.setLength(0);
+			newFile.writeInt(magic);
+			newFile.writeInt(version);
+
+			for (byte[] recordData : recordList)
+			{
+				offsetList.add(newFile.getFilePointer());
+				newFile.writeInt(recordData.length);
+				newFile.writeInt(getChecksum(recordData));
+				newFile.write(recordData);
+			}
+
+			newFile.getFD().sync();
+		}
+
+		catch (IOException e)
+		{
+			newFile.close();
+			tempFile.delete();
+			throw e;
+		}
+
+		newFile.close();
+		return tempFile;
+	}
+
+	/**
+	 * Puts a file written by writeTempFile() in this one's place, so an interruption leaves one complete copy of the
+	 * file. The new file is opened if this one was open.
+	 *
+	 * @param 	tempFile	The file written by writeTempFile().
+	 */
+	public void replace(File tempFile) throws IOException
+	{
+		boolean wasOpen = file != null;
+
+		close();
+		AtomicFile.replace(tempFile, recordFile);
+
+		if (wasOpen)
+		{
+			file = new RandomAccessFile(recordFile, "rw");
+		}
+	}
+
+	/**
+	 * Closes the file, if it is open.
+	 */
+	public void close()
+	{
+		if (file != null)
+		{
+			try
+			{
+				file.close();
+			}
+
+			catch (IOException e)
+			{
+				MCA.instance.log(e);
+			}
+
+			file = null;
+		}
+	}
+
+	/**
+	 * Reads a record and checks it against its checksum.
+	 *
+	 * @param 	readFile	The file to read from.
+	 * @param 	offset		The offset of the record in the file.
+	 *
+	 * @return	The record's data.
+	 */
+	private byte[] readRecord(RandomAccessFile readFile, long offset) throws IOException
+	{
+		readFile.seek(offset);
+
+		int recordLength = readFile.readInt();
+		int checksum = readFile.readInt();
+
+		if (recordLength <= 0 || offset + RECORD_HEADER_LENGTH + recordLength > readFile.length())
+		{
+			throw new IOException("Damaged record in " + recordFile.getPath() + " at " + offset + ".");
+		}
+
+		byte[] recordData = new byte[recordLength];
+		readFile.readFully(recordData);
+
+		if (getChecksum(recordData) != checksum)
+		{
+			throw new IOException("Damaged record in " + recordFile.getPath() + " at " + offset + ".");
+		}
+
+		return recordData;
+	}
+
+	/**
+	 * Gets the data of the record starting at an offset in the contents of a file, if it is complete and passes its checksum.
+	 *
+	 * @param 	data			The contents of the file.
+	 * @param 	offset			The offset the record may start at.
+	 * @param 	hasChecksums	False if the records have no checksum after their length.
+	 *
+	 * @return	The record's data. Null if there isn't a complete, undamaged record at the offset.
+	 */
+	private static byte[] getRecordAt(byte[] data, int offset, boolean hasChecksums)
+	{
+		int recordHeaderLength = hasChecksums ? RECORD_HEADER_LENGTH : 4;
+
+		if (offset + recordHeaderLength > data.length)
+		{
+			return null;
+		}
+
+		int recordLength = getInt(data, offset);
+
+		if (recordLength <= 0 || recordLength > data.length - offset - recordHeaderLength)
+		{
+			return null;
+		}
+
+		byte[] recordData = new byte[recordLength];
+		System.arraycopy(data, offset + recordHeaderLength, recordData, 0, recordLength);
+
+		if (hasChecksums && getChecksum(recordData) != getInt(data, offset + 4))
+		{
+			return null;
+		}
+
+		return recordData;
+	}
+
+	/**
+	 * Looks for the next complete, undamaged record in the contents of a file.
+	 *
+	 * @param 	data		The contents of the file.
+	 * @param 	offset		The offset to start looking from.
+	 *
+	 * @return	The offset of the next record. -1 if there is none.
+	 */
+	private static int findNextRecord(byte[] data, int offset)
+	{
+		for (int nextOffset = offset; nextOffset + RECORD_HEADER_LENGTH <= data.length; nextOffset++)
+		{
+			if (getRecordAt(data, nextOffset, true) != null)
+			{
+				return nextOffset;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Reads a big-endian int from the contents of a file, the same way RandomAccessFile writes it.
+	 *
+	 * @param 	data		The contents of the file.
+	 * @param 	offset		The offset of the int.
+	 *
+	 * @return	The int.
+	 */
+	private static int getInt(byte[] data, int offset)
+	{
+		return ((data[offset] & 0xFF) << 24) | ((data[offset + 1] & 0xFF) << 16) | ((data[offset + 2] & 0xFF) << 8) | (data[offset + 3] & 0xFF);
+	}
+
+	/**
+	 * Gets the checksum of a record.
+	 *
+	 * @param 	recordData	The record's data.
+	 *
+	 * @return	The record's checksum.
+	 */
+	private static int getChecksum(byte[] recordData)
+	{
+		CRC32 crc = new CRC32();
+		crc.update(recordData);
+		return (int)crc.getValue();
+	}
+}
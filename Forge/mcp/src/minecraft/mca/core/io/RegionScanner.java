@@ -0,0 +1,533 @@
+/*******************************************************************************
+ * RegionScanner.java
+ * Copyright (c) 2013 WildBamaBoy.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+
+package mca.core.io;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import mca.core.MCA;
+import mca.core.util.CoordinateHelper;
+import mca.core.util.object.PopulationIndex;
+import mca.entity.EntityPlayerChild;
+import mca.entity.EntityVillagerAdult;
+import mca.entity.EntityVillagerChild;
+import net.minecraft.nbt.NBTBase;
+import net.minecraft.nbt.NBTTagByte;
+import net.minecraft.nbt.NBTTagByteArray;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagDouble;
+import net.minecraft.nbt.NBTTagFloat;
+import net.minecraft.nbt.NBTTagInt;
+import net.minecraft.nbt.NBTTagIntArray;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.nbt.NBTTagLong;
+import net.minecraft.nbt.NBTTagShort;
+import net.minecraft.nbt.NBTTagString;
+
+/**
+ * Reads the MCA entities saved in a dimension's region files on a pool of worker threads, one region file per task.
+ * Region files are only opened for reading, and only the entity list of each chunk is read. Everything else in the
+ * chunk is skipped over without being loaded.
+ */
+public class RegionScanner
+{
+	/** The most worker threads that will read region files at once. */
+	private static final int MAX_THREADS = 4;
+
+	/** The size of a sector of a region file, in bytes. */
+	private static final int SECTOR_SIZE = 4096;
+
+	/** The most elements an array or list in a chunk may claim to have before the chunk is treated as damaged. */
+	private static final int MAX_TAG_LENGTH = 1 << 20;
+
+	/** The threads that read region files. Created when the first scan starts. */
+	private ExecutorService workerPool = null;
+
+	/**
+	 * Starts reading the region files in the provided folder. The index is given what was found once every file has been read.
+	 *
+	 * @param 	index			The index to give the results to.
+	 * @param 	dimension		The dimension the region files belong to.
+	 * @param 	regionFolder	The folder containing the region files.
+	 */
+	public synchronized void scan(final PopulationIndex index, final int dimension, File regionFolder)
+	{
+		File[] regionFiles = regionFolder.listFiles();
+		final List<Future<Map<Long, List<PopulationIndex.Record>>>> futures = new ArrayList<Future<Map<Long, List<PopulationIndex.Record>>>>();
+
+		if (regionFiles != null)
+		{
+			for (final File regionFile : regionFiles)
+			{
+				if (regionFile.getName().matches("r\\.-?\\d+\\.-?\\d+\\.mca"))
+				{
+					futures.add(getWorkerPool().submit(new Callable<Map<Long, List<PopulationIndex.Record>>>()
+					{
+						@Override
+						public Map<Long, List<PopulationIndex.Record>> call() throws Exception
+						{
+							return scanRegionFile(regionFile, dimension);
+						}
+					}));
+				}
+			}
+		}
+
+		//Wait for every file on a separate thread so that the caller isn't held up.
+		Thread collectorThread = new Thread(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				Map<Long, List<PopulationIndex.Record>> results = new HashMap<Long, List<PopulationIndex.Record>>();
+
+				try
+				{
+					for (Future<Map<Long, List<PopulationIndex.Record>>> future : futures)
+					{
+						results.putAll(future.get());
+					}
+
+					index.finishScan(dimension, results);
+				}
+
+				catch (Throwable e)
+				{
+					MCA.instance.log("Scan of dimension " + dimension + " did not finish.");
+					index.abortScan(dimension);
+				}
+			}
+		}, "MCA Region Scan DIM" + dimension);
+
+		collectorThread.setDaemon(true);
+		collectorThread.start();
+	}
+
+	/**
+	 * Stops every scan in progress.
+	 */
+	public synchronized void close()
+	{
+		if (workerPool != null)
+		{
+			workerPool.shutdownNow();
+			workerPool = null;
+		}
+	}
+
+	/**
+	 * Gets the pool of worker threads, creating it if necessary.
+	 *
+	 * @return	The worker pool.
+	 */
+	private ExecutorService getWorkerPool()
+	{
+		if (workerPool == null)
+		{
+			int threads = Math.max(Math.min(Runtime.getRuntime().availableProcessors() - 1, MAX_THREADS), 1);
+
+			workerPool = Executors.newFixedThreadPool(threads, new ThreadFactory()
+			{
+				@Override
+				public Thread newThread(Runnable runnable)
+				{
+					Thread thread = new Thread(runnable, "MCA Region Scanner");
+					thread.setDaemon(true);
+					thread.setPriority(Thread.MIN_PRIORITY);
+					return thread;
+				}
+			});
+		}
+
+		return workerPool;
+	}
+
+	/**
+	 * Reads the MCA entities saved in every chunk of a region file. Chunks that can't be read are skipped.
+	 *
+	 * @param 	regionFile	The region file.
+	 * @param 	dimension	The dimension the region file belongs to.
+	 *
+	 * @return	The entities found. Key = chunk key, Value = the entities in that chunk. Chunks with no MCA entities aren't included.
+	 */
+	private static Map<Long, List<PopulationIndex.Record>> scanRegionFile(File regionFile, int dimension) throws IOException
+	{
+		Map<Long, List<PopulationIndex.Record>> results = new HashMap<Long, List<PopulationIndex.Record>>();
+
+		//Region files are named r.X.Z.mca after the coordinates of the region.
+		String[] nameParts = regionFile.getName().split("\\.");
+		int regionX = Integer.parseInt(nameParts[1]);
+		int regionZ = Integer.parseInt(nameParts[2]);
+
+		RandomAccessFile file = new RandomAccessFile(regionFile, "r");
+
+		try
+		{
+			int[] offsets = new int[1024];
+
+			for (int i = 0; i < offsets.length; i++)
+			{
+				offsets[i] = file.readInt();
+			}
+
+			for (int i = 0; i < offsets.length; i++)
+			{
+				if (Thread.currentThread().isInterrupted())
+				{
+					throw new IOException("Scan stopped.");
+				}
+
+				int sectorOffset = offsets[i] >> 8;
+				int sectorCount = offsets[i] & 0xFF;
+
+				if (sectorOffset < 2 || sectorCount == 0 || (long)(sectorOffset + sectorCount) * SECTOR_SIZE > file.length())
+				{
+					continue;
+				}
+
+				long chunkKey = CoordinateHelper.getChunkKey(regionX * 32 + (i & 31), regionZ * 32 + (i >> 5));
+
+				try
+				{
+					List<NBTTagCompound> entityList = readChunkEntities(file, sectorOffset, sectorCount);
+					List<PopulationIndex.Record> records = new ArrayList<PopulationIndex.Record>();
+
+					for (NBTTagCompound entityNBT : entityList)
+					{
+						if (isMCAEntity(entityNBT))
+						{
+							records.add(new PopulationIndex.Record(entityNBT, dimension, chunkKey));
+						}
+					}
+
+					if (!records.isEmpty())
+					{
+						results.put(chunkKey, records);
+					}
+				}
+
+				catch (IOException e)
+				{
+					//The chunk was being written or is damaged. It is picked up again when it is next saved.
+					continue;
+				}
+			}
+		}
+
+		finally
+		{
+			file.close();
+		}
+
+		return results;
+	}
+
+	/**
+	 * Reads the entity list of a single chunk from a region file.
+	 *
+	 * @param 	file			The region file.
+	 * @param 	sectorOffset	The sector the chunk starts at.
+	 * @param 	sectorCount		The number of sectors the chunk uses.
+	 *
+	 * @return	The NBT of each entity in the chunk.
+	 */
+	private static List<NBTTagCompound> readChunkEntities(RandomAccessFile file, int sectorOffset, int sectorCount) throws IOException
+	{
+		file.seek((long)sectorOffset * SECTOR_SIZE);
+
+		int length = file.readInt();
+		byte compression = file.readByte();
+
+		//The length doesn't include itself, so it must fit in the chunk's sectors after its own four bytes.
+		if (length <= 1 || length > sectorCount * SECTOR_SIZE - 4)
+		{
+			throw new IOException("Invalid chunk length.");
+		}
+
+		byte[] data = new byte[length - 1];
+		file.readFully(data);
+
+		InputStream inputStream = new ByteArrayInputStream(data);
+
+		if (compression == 1)
+		{
+			inputStream = new GZIPInputStream(inputStream);
+		}
+
+		else if (compression == 2)
+		{
+			inputStream = new InflaterInputStream(inputStream);
+		}
+
+		else
+		{
+			throw new IOException("Unknown chunk compression.");
+		}
+
+		DataInputStream input = new DataInputStream(new BufferedInputStream(inputStream));
+		List<NBTTagCompound> entityList = new ArrayList<NBTTagCompound>();
+
+		//The chunk is a compound holding the Level compound, which holds the Entities list.
+		if (input.readByte() != 10)
+		{
+			throw new IOException("Chunk is not a compound.");
+		}
+
+		input.readUTF();
+
+		if (!findTag(input, "Level", 10) || !findTag(input, "Entities", 9))
+		{
+			return entityList;
+		}
+
+		byte elementType = input.readByte();
+		int elementCount = input.readInt();
+
+		for (int i = 0; i < elementCount; i++)
+		{
+			if (elementType == 10)
+			{
+				entityList.add((NBTTagCompound)readPayload(input, (byte)10, ""));
+			}
+
+			else
+			{
+				skipPayload(input, elementType);
+			}
+		}
+
+		return entityList;
+	}
+
+	/**
+	 * Skips through the tags of the compound being read until the one with the provided name and type is found.
+	 *
+	 * @param 	input	The input positioned among the tags of a compound.
+	 * @param 	name	The name of the tag to find.
+	 * @param 	type	The type of the tag to find.
+	 *
+	 * @return	True if the tag was found, leaving the input at the start of its value. False if the compound ended first.
+	 */
+	private static boolean findTag(DataInput input, String name, int type) throws IOException
+	{
+		while (true)
+		{
+			byte tagType = input.readByte();
+
+			if (tagType == 0)
+			{
+				return false;
+			}
+
+			String tagName = input.readUTF();
+
+			if (tagType == type && tagName.equals(name))
+			{
+				return true;
+			}
+
+			skipPayload(input, tagType);
+		}
+	}
+
+	/**
+	 * Reads the value of a tag.
+	 *
+	 * @param 	input	The input positioned at the start of the value.
+	 * @param 	type	The type of the tag.
+	 * @param 	name	The name of the tag.
+	 *
+	 * @return	The tag.
+	 */
+	private static NBTBase readPayload(DataInput input, byte type, String name) throws IOException
+	{
+		switch (type)
+		{
+			case 1: return new NBTTagByte(name, input.readByte());
+			case 2: return new NBTTagShort(name, input.readShort());
+			case 3: return new NBTTagInt(name, input.readInt());
+			case 4: return new NBTTagLong(name, input.readLong());
+			case 5: return new NBTTagFloat(name, input.readFloat());
+			case 6: return new NBTTagDouble(name, input.readDouble());
+			case 7:
+				byte[] byteArray = new byte[readLength(input)];
+				input.readFully(byteArray);
+				return new NBTTagByteArray(name, byteArray);
+			case 8: return new NBTTagString(name, input.readUTF());
+			case 9:
+				NBTTagList list = new NBTTagList(name);
+				byte elementType = input.readByte();
+				int elementCount = readLength(input);
+
+				for (int i = 0; i < elementCount; i++)
+				{
+					list.appendTag(readPayload(input, elementType, ""));
+				}
+
+				return list;
+			case 10:
+				NBTTagCompound compound = new NBTTagCompound(name);
+
+				while (true)
+				{
+					byte tagType = input.readByte();
+
+					if (tagType == 0)
+					{
+						break;
+					}
+
+					String tagName = input.readUTF();
+					compound.setTag(tagName, readPayload(input, tagType, tagName));
+				}
+
+				return compound;
+			case 11:
+				int[] intArray = new int[readLength(input)];
+
+				for (int i = 0; i < intArray.length; i++)
+				{
+					intArray[i] = input.readInt();
+				}
+
+				return new NBTTagIntArray(name, intArray);
+			default:
+				throw new IOException("Unknown tag type " + type);
+		}
+	}
+
+	/**
+	 * Moves past the value of a tag without reading it.
+	 *
+	 * @param 	input	The input positioned at the start of the value.
+	 * @param 	type	The type of the tag.
+	 */
+	private static void skipPayload(DataInput input, byte type) throws IOException
+	{
+		switch (type)
+		{
+			case 1: skipFully(input, 1); break;
+			case 2: skipFully(input, 2); break;
+			case 3: skipFully(input, 4); break;
+			case 4: skipFully(input, 8); break;
+			case 5: skipFully(input, 4); break;
+			case 6: skipFully(input, 8); break;
+			case 7: skipFully(input, readLength(input)); break;
+			case 8: skipFully(input, input.readUnsignedShort()); break;
+			case 9:
+				byte elementType = input.readByte();
+				int elementCount = readLength(input);
+
+				for (int i = 0; i < elementCount; i++)
+				{
+					skipPayload(input, elementType);
+				}
+
+				break;
+			case 10:
+				while (true)
+				{
+					byte tagType = input.readByte();
+
+					if (tagType == 0)
+					{
+						break;
+					}
+
+					skipFully(input, input.readUnsignedShort());
+					skipPayload(input, tagType);
+				}
+
+				break;
+			case 11: skipFully(input, readLength(input) * 4); break;
+			default:
+				throw new IOException("Unknown tag type " + type);
+		}
+	}
+
+	/**
+	 * Reads the number of elements in an array or list, so that a damaged chunk can't make the scanner allocate
+	 * more than any real chunk would hold.
+	 *
+	 * @param 	input	The input positioned at the length.
+	 *
+	 * @return	The number of elements.
+	 */
+	private static int readLength(DataInput input) throws IOException
+	{
+		int length = input.readInt();
+
+		if (length < 0 || length > MAX_TAG_LENGTH)
+		{
+			throw new IOException("Invalid tag length " + length);
+		}
+
+		return length;
+	}
+
+	/**
+	 * Skips the provided number of bytes, even if the input skips fewer at a time.
+	 *
+	 * @param 	input	The input to skip bytes of.
+	 * @param 	count	The number of bytes to skip.
+	 */
+	private static void skipFully(DataInput input, int count) throws IOException
+	{
+		if (count < 0)
+		{
+			throw new IOException("Invalid length.");
+		}
+
+		while (count > 0)
+		{
+			int skipped = input.skipBytes(count);
+
+			if (skipped <= 0)
+			{
+				input.readByte();
+				skipped = 1;
+			}
+
+			count -= skipped;
+		}
+	}
+
+	/**
+	 * Checks if a saved entity is an MCA entity that should be in the population index.
+	 *
+	 * @param 	entityNBT	The entity's saved NBT.
+	 *
+	 * @return	True if the entity is an MCA villager or child with an MCA ID.
+	 */
+	private static boolean isMCAEntity(NBTTagCompound entityNBT)
+	{
+		String id = entityNBT.getString("id");
+
+		return entityNBT.getInteger("mcaID") != 0 && (id.endsWith(EntityVillagerAdult.class.getSimpleName()) ||
+				id.endsWith(EntityVillagerChild.class.getSimpleName()) || id.endsWith(EntityPlayerChild.class.getSimpleName()));
+	}
+}
@@ -0,0 +1,798 @@
+/*******************************************************************************
+ * RelationshipLog.java
+ * Copyright (c) 2013 WildBamaBoy.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+
+package mca.core.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import mca.core.MCA;
+import mca.entity.AbstractEntity;
+import mca.enums.EnumRelation;
+import mca.enums.EnumRelationshipEvent;
+import net.minecraft.server.MinecraftServer;
+
+/**
+ * Keeps a log of the marriages, divorces, births, heir changes and executions in a world, so that family and marriage
+ * state can be looked up or rebuilt without loading the entities involved. Each event is applied to the state in
+ * memory straight away and appended to the end of the log file by a background thread. Once enough events have built
+ * up, the state is written to a snapshot and the log is started again. Opening the log reads the snapshot and then
+ * replays the events logged after it.
+ */
+public class RelationshipLog extends BackgroundWriter
+{
+	/** Written at the start of the log to identify it. Spells "MCAL". */
+	private static final int LOG_MAGIC = 0x4D43414C;
+
+	/** Written at the start of the snapshot to identify it. Spells "MCAS". */
+	private static final int SNAPSHOT_MAGIC = 0x4D434153;
+
+	/** The version of the log and snapshot layout. */
+	private static final int VERSION = 1;
+
+	/** The number of events the log must hold before a snapshot is taken and the log is started again. */
+	private static final int SNAPSHOT_MIN_EVENTS = 1024;
+
+	/** The events in the log file. Null while no world is open, and only used while holding the flush lock. */
+	private RecordFile logFile = null;
+
+	/** The snapshot file, which holds a single record of the state. Null while no world is open. */
+	private RecordFile snapshotFile = null;
+
+	/** The number of events in the log file since the last snapshot. Only used while holding the flush lock. */
+	private int loggedEventCount = 0;
+
+	/** The sequence number of the latest event. */
+	private long lastSequence = 0;
+
+	/** The events waiting to be written, oldest first. */
+	private final List<Event> pendingList = new ArrayList<Event>();
+
+	/** Map of who is married to who. Each couple is in the map twice, once for each of them. */
+	private final Map<Integer, Integer> spouseMap = new HashMap<Integer, Integer>();
+
+	/** Map of the parents of each child born. Key = the child's ID, Value = the IDs of its two parents. */
+	private final Map<Integer, int[]> parentMap = new HashMap<Integer, int[]>();
+
+	/** Map of the heir of each player with one. Key = the player's ID, Value = the heir's ID. */
+	private final Map<Integer, Integer> heirMap = new HashMap<Integer, Integer>();
+
+	/** The IDs of everyone who has been executed. */
+	private final Set<Integer> executedSet = new HashSet<Integer>();
+
+	/**
+	 * Constructor
+	 */
+	public RelationshipLog()
+	{
+		super("MCA Relationship Log Writer");
+	}
+
+	/**
+	 * Opens the log of a world, reading its snapshot and replaying the events logged after it. Any log that is already
+	 * open is closed first.
+	 *
+	 * @param 	folder	The folder the world's log and snapshot are kept in.
+	 */
+	public void open(File folder)
+	{
+		close();
+
+		synchronized (flushLock)
+		{
+			synchronized (this)
+			{
+				logFile = new RecordFile(new File(folder, "RelationshipLog.dat"), LOG_MAGIC, VERSION);
+				snapshotFile = new RecordFile(new File(folder, "RelationshipSnapshot.dat"), SNAPSHOT_MAGIC, VERSION);
+
+				try
+				{
+					readSnapshot();
+				}
+
+				//The events in the log are still replayed, so as much of the state as possible is kept.
+				catch (IOException e)
+				{
+					MCA.instance.log(e);
+					clearState();
+				}
+
+				try
+				{
+					openLog();
+				}
+
+				catch (IOException e)
+				{
+					MCA.instance.log(e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes every event waiting to be written and closes the log.
+	 */
+	public void close()
+	{
+		flush();
+
+		synchronized (flushLock)
+		{
+			synchronized (this)
+			{
+				if (logFile != null)
+				{
+					logFile.close();
+				}
+
+				logFile = null;
+				snapshotFile = null;
+				pendingList.clear();
+				clearState();
+			}
+		}
+	}
+
+	/**
+	 * Writes every event waiting to be written to the log on the calling thread, taking a snapshot if the log has grown
+	 * long enough.
+	 */
+	@Override
+	public void flush()
+	{
+		synchronized (flushLock)
+		{
+			List<Event> writeList = null;
+			byte[] snapshotData = null;
+
+			synchronized (this)
+			{
+				writeList = new ArrayList<Event>(pendingList);
+				pendingList.clear();
+
+				//The snapshot is taken along with the events to write, so it holds exactly the events up to the last of them.
+				if (isLogOpen() && !writeList.isEmpty() && loggedEventCount + writeList.size() >= SNAPSHOT_MIN_EVENTS)
+				{
+					try
+					{
+						snapshotData = createSnapshot();
+					}
+
+					catch (IOException e)
+					{
+						MCA.instance.log(e);
+					}
+				}
+			}
+
+			if (!isLogOpen() || writeList.isEmpty())
+			{
+				return;
+			}
+
+			try
+			{
+				for (Event event : writeList)
+				{
+					logFile.append(createRecord(event));
+				}
+
+				logFile.sync();
+				loggedEventCount += writeList.size();
+
+				if (snapshotData != null)
+				{
+					writeSnapshot(snapshotData);
+
+					//Every event in the log is in the snapshot now. Should this be interrupted, the events are skipped when replayed.
+					logFile.clear();
+					loggedEventCount = 0;
+				}
+			}
+
+			catch (IOException e)
+			{
+				MCA.instance.log(e);
+			}
+		}
+	}
+
+	/**
+	 * Records a marriage, unless the two are already married to each other. Anyone still married to someone else is
+	 * divorced from them first.
+	 *
+	 * @param 	firstId		The ID of one of the couple.
+	 * @param 	secondId	The ID of the other.
+	 */
+	public synchronized void recordMarriage(int firstId, int secondId)
+	{
+		if (firstId == secondId || getSpouseOf(firstId) == secondId)
+		{
+			return;
+		}
+
+		recordDivorce(firstId, getSpouseOf(firstId));
+		recordDivorce(secondId, getSpouseOf(secondId));
+		addEvent(EnumRelationshipEvent.Marriage, firstId, secondId, 0);
+	}
+
+	/**
+	 * Records a divorce, if the two are married to each other.
+	 *
+	 * @param 	firstId		The ID of one of the couple.
+	 * @param 	secondId	The ID of the other.
+	 */
+	public synchronized void recordDivorce(int firstId, int secondId)
+	{
+		if (secondId != 0 && getSpouseOf(firstId) == secondId)
+		{
+			addEvent(EnumRelationshipEvent.Divorce, firstId, secondId, 0);
+		}
+	}
+
+	/**
+	 * Records the birth of a child, taking its parents from its family tree.
+	 *
+	 * @param 	child	The child that was born.
+	 */
+	public synchronized void recordBirth(AbstractEntity child)
+	{
+		if (parentMap.containsKey(child.mcaID))
+		{
+			return;
+		}
+
+		int[] parentIds = new int[2];
+		int parentCount = 0;
+
+		for (Map.Entry<Integer, EnumRelation> entry : child.familyTree.getRelationMap().entrySet())
+		{
+			EnumRelation relation = entry.getValue();
+
+			if (parentCount < parentIds.length && (relation == EnumRelation.Parent || relation == EnumRelation.Mother || relation == EnumRelation.Father))
+			{
+				parentIds[parentCount] = entry.getKey();
+				parentCount++;
+			}
+		}
+
+		addEvent(EnumRelationshipEvent.Birth, child.mcaID, parentIds[0], parentIds[1]);
+	}
+
+	/**
+	 * Records a player's choice of heir, if it has changed.
+	 *
+	 * @param 	playerId	The ID of the player.
+	 * @param 	heirId		The ID of the heir. -1 if the player has none.
+	 */
+	public synchronized void recordHeir(int playerId, int heirId)
+	{
+		if (getHeirOf(playerId) != heirId)
+		{
+			addEvent(EnumRelationshipEvent.HeirChange, playerId, heirId, 0);
+		}
+	}
+
+	/**
+	 * Records an execution, unless it has already been recorded.
+	 *
+	 * @param 	executedId	The ID of who was executed.
+	 * @param 	playerId	The ID of the player who executed them. 0 if unknown.
+	 */
+	public synchronized void recordExecution(int executedId, int playerId)
+	{
+		if (!executedSet.contains(executedId))
+		{
+			addEvent(EnumRelationshipEvent.Execution, executedId, playerId, 0);
+		}
+	}
+
+	/**
+	 * Records any change to a player's spouse or heir in their world properties. Players who are only engaged are not
+	 * yet married.
+	 *
+	 * @param 	worldProperties	The player's world properties.
+	 */
+	public synchronized void recordPlayerProperties(WorldPropertiesList worldProperties)
+	{
+		int playerId = worldProperties.playerID;
+		int spouseId = worldProperties.isEngaged ? 0 : worldProperties.playerSpouseID;
+
+		if (playerId == 0)
+		{
+			return;
+		}
+
+		if (spouseId != 0)
+		{
+			recordMarriage(playerId, spouseId);
+		}
+
+		else
+		{
+			recordDivorce(playerId, getSpouseOf(playerId));
+		}
+
+		recordHeir(playerId, worldProperties.heirId);
+	}
+
+	/**
+	 * Records any change to who an entity is married to in its family tree. Marriages to players are recorded from the
+	 * player's world properties instead, since a player in an entity's family tree may only be engaged to it.
+	 *
+	 * @param 	entity	The entity whose family tree changed.
+	 */
+	public synchronized void recordSpouseOf(AbstractEntity entity)
+	{
+		int treeSpouseId = 0;
+
+		for (Map.Entry<Integer, EnumRelation> entry : entity.familyTree.getRelationMap().entrySet())
+		{
+			if (entry.getValue() == EnumRelation.Spouse && entry.getKey() > 0)
+			{
+				treeSpouseId = entry.getKey();
+			}
+		}
+
+		int loggedSpouseId = getSpouseOf(entity.mcaID);
+
+		if (treeSpouseId != 0)
+		{
+			recordMarriage(entity.mcaID, treeSpouseId);
+		}
+
+		else if (loggedSpouseId > 0)
+		{
+			recordDivorce(entity.mcaID, loggedSpouseId);
+		}
+	}
+
+	/**
+	 * Gets who someone is married to.
+	 *
+	 * @param 	id	The ID of a player or entity.
+	 *
+	 * @return	The ID of their spouse. 0 if they aren't married.
+	 */
+	public synchronized int getSpouseOf(int id)
+	{
+		Integer spouseId = spouseMap.get(id);
+		return spouseId != null ? spouseId : 0;
+	}
+
+	/**
+	 * Gets the parents of a child whose birth was recorded.
+	 *
+	 * @param 	id	The ID of the child.
+	 *
+	 * @return	The IDs of the child's two parents, where 0 is an unknown parent. Null if the child's birth wasn't recorded.
+	 */
+	public synchronized int[] getParentsOf(int id)
+	{
+		int[] parentIds = parentMap.get(id);
+		return parentIds != null ? parentIds.clone() : null;
+	}
+
+	/**
+	 * Gets the children whose birth was recorded with the provided parent.
+	 *
+	 * @param 	id	The ID of the parent.
+	 *
+	 * @return	List of the IDs of the parent's children.
+	 */
+	public synchronized List<Integer> getChildrenOf(int id)
+	{
+		List<Integer> returnList = new ArrayList<Integer>();
+
+		for (Map.Entry<Integer, int[]> entry : parentMap.entrySet())
+		{
+			if (entry.getValue()[0] == id || entry.getValue()[1] == id)
+			{
+				returnList.add(entry.getKey());
+			}
+		}
+
+		return returnList;
+	}
+
+	/**
+	 * Gets a player's heir.
+	 *
+	 * @param 	playerId	The ID of the player.
+	 *
+	 * @return	The ID of the player's heir. -1 if they have none.
+	 */
+	public synchronized int getHeirOf(int playerId)
+	{
+		Integer heirId = heirMap.get(playerId);
+		return heirId != null ? heirId : -1;
+	}
+
+	/**
+	 * Checks if someone has been executed.
+	 *
+	 * @param 	id	The ID of a player or entity.
+	 *
+	 * @return	True if their execution was recorded.
+	 */
+	public synchronized boolean wasExecuted(int id)
+	{
+		return executedSet.contains(id);
+	}
+
+	/**
+	 * Reads the events recorded since the last snapshot, including those still waiting to be written.
+	 *
+	 * @return	List of events, oldest first.
+	 */
+	public List<Event> readEvents()
+	{
+		List<Event> returnList = new ArrayList<Event>();
+
+		synchronized (flushLock)
+		{
+			if (isLogOpen())
+			{
+				try
+				{
+					for (byte[] recordData : logFile.scan(true).values())
+					{
+						returnList.add(readEvent(recordData));
+					}
+				}
+
+				catch (IOException e)
+				{
+					MCA.instance.log(e);
+				}
+			}
+
+			synchronized (this)
+			{
+				returnList.addAll(pendingList);
+			}
+		}
+
+		return returnList;
+	}
+
+	/**
+	 * Applies an event to the state in memory and queues it to be written to the log. Does nothing while no world is open.
+	 *
+	 * @param 	type		The kind of event.
+	 * @param 	firstId		The first ID of the event.
+	 * @param 	secondId	The second ID of the event.
+	 * @param 	thirdId		The third ID of the event.
+	 */
+	private void addEvent(EnumRelationshipEvent type, int firstId, int secondId, int thirdId)
+	{
+		if (logFile == null)
+		{
+			return;
+		}
+
+		lastSequence++;
+
+		Event event = new Event(lastSequence, type, getWorldTime(), firstId, secondId, thirdId);
+		applyEvent(event);
+		pendingList.add(event);
+		startWriterThread();
+	}
+
+	/**
+	 * Checks if the log file of a world is open. Only used while holding the flush lock.
+	 *
+	 * @return	True if events can be written to the log file.
+	 */
+	private boolean isLogOpen()
+	{
+		return logFile != null && logFile.isOpen();
+	}
+
+	/**
+	 * Changes the state in memory to what it is after an event.
+	 *
+	 * @param 	event	The event to apply.
+	 */
+	private void applyEvent(Event event)
+	{
+		switch (event.type)
+		{
+			case Marriage:
+				spouseMap.put(event.firstId, event.secondId);
+				spouseMap.put(event.secondId, event.firstId);
+				break;
+
+			case Divorce:
+				spouseMap.remove(event.firstId);
+				spouseMap.remove(event.secondId);
+				break;
+
+			case Birth:
+				parentMap.put(event.firstId, new int[] {event.secondId, event.thirdId});
+				break;
+
+			case HeirChange:
+				if (event.secondId == -1)
+				{
+					heirMap.remove(event.firstId);
+				}
+
+				else
+				{
+					heirMap.put(event.firstId, event.secondId);
+				}
+
+				break;
+
+			case Execution:
+				executedSet.add(event.firstId);
+				break;
+		}
+	}
+
+	/**
+	 * Forgets the state in memory.
+	 */
+	private void clearState()
+	{
+		lastSequence = 0;
+		loggedEventCount = 0;
+		spouseMap.clear();
+		parentMap.clear();
+		heirMap.clear();
+		executedSet.clear();
+	}
+
+	/**
+	 * Reads the state in memory from the snapshot, if there is one.
+	 */
+	private void readSnapshot() throws IOException
+	{
+		AtomicFile.recover(snapshotFile.getFile());
+
+		if (!snapshotFile.getFile().exists())
+		{
+			return;
+		}
+
+		snapshotFile.open(VERSION);
+
+		try
+		{
+			DataInputStream stateInput = new DataInputStream(new ByteArrayInputStream(snapshotFile.read(RecordFile.HEADER_LENGTH)));
+			lastSequence = stateInput.readLong();
+
+			int spouseCount = stateInput.readInt();
+
+			for (int i = 0; i < spouseCount; i++)
+			{
+				spouseMap.put(stateInput.readInt(), stateInput.readInt());
+			}
+
+			int childCount = stateInput.readInt();
+
+			for (int i = 0; i < childCount; i++)
+			{
+				parentMap.put(stateInput.readInt(), new int[] {stateInput.readInt(), stateInput.readInt()});
+			}
+
+			int heirCount = stateInput.readInt();
+
+			for (int i = 0; i < heirCount; i++)
+			{
+				heirMap.put(stateInput.readInt(), stateInput.readInt());
+			}
+
+			int executedCount = stateInput.readInt();
+
+			for (int i = 0; i < executedCount; i++)
+			{
+				executedSet.add(stateInput.readInt());
+			}
+		}
+
+		finally
+		{
+			snapshotFile.close();
+		}
+	}
+
+	/**
+	 * Lays out the state in memory as the body of a snapshot. The snapshot is the sequence number of the latest event,
+	 * and then the number of entries and the entries of the spouse map, parent map, heir map and executed set.
+	 *
+	 * @return	The body of the snapshot.
+	 */
+	private byte[] createSnapshot() throws IOException
+	{
+		ByteArrayOutputStream byteOutput = new ByteArrayOutputStream();
+		DataOutputStream dataOutput = new DataOutputStream(byteOutput);
+
+		dataOutput.writeLong(lastSequence);
+		dataOutput.writeInt(spouseMap.size());
+
+		for (Map.Entry<Integer, Integer> entry : spouseMap.entrySet())
+		{
+			dataOutput.writeInt(entry.getKey());
+			dataOutput.writeInt(entry.getValue());
+		}
+
+		dataOutput.writeInt(parentMap.size());
+
+		for (Map.Entry<Integer, int[]> entry : parentMap.entrySet())
+		{
+			dataOutput.writeInt(entry.getKey());
+			dataOutput.writeInt(entry.getValue()[0]);
+			dataOutput.writeInt(entry.getValue()[1]);
+		}
+
+		dataOutput.writeInt(heirMap.size());
+
+		for (Map.Entry<Integer, Integer> entry : heirMap.entrySet())
+		{
+			dataOutput.writeInt(entry.getKey());
+			dataOutput.writeInt(entry.getValue());
+		}
+
+		dataOutput.writeInt(executedSet.size());
+
+		for (int executedId : executedSet)
+		{
+			dataOutput.writeInt(executedId);
+		}
+
+		dataOutput.close();
+		return byteOutput.toByteArray();
+	}
+
+	/**
+	 * Writes a snapshot beside the old one and then puts it in the old one's place, so an interruption leaves one
+	 * complete snapshot.
+	 *
+	 * @param 	snapshotData	The body of the snapshot.
+	 */
+	private void writeSnapshot(byte[] snapshotData) throws IOException
+	{
+		List<byte[]> recordList = new ArrayList<byte[]>();
+		recordList.add(snapshotData);
+
+		snapshotFile.replace(snapshotFile.writeTempFile(recordList, new ArrayList<Long>()));
+	}
+
+	/**
+	 * Opens the log file and replays the events in it that came after the snapshot.
+	 */
+	private void openLog() throws IOException
+	{
+		logFile.open(VERSION);
+		Map<Long, byte[]> recordMap = logFile.scan(true);
+
+		for (byte[] recordData : recordMap.values())
+		{
+			Event event = readEvent(recordData);
+
+			//Events already in the snapshot are still in the log if the log wasn't started again after the snapshot was written.
+			if (event.sequence > lastSequence)
+			{
+				applyEvent(event);
+				lastSequence = event.sequence;
+			}
+		}
+
+		loggedEventCount = recordMap.size();
+	}
+
+	/**
+	 * Reads an event from the data of its record.
+	 *
+	 * @param 	recordData	The record's data.
+	 *
+	 * @return	The event in the record.
+	 */
+	private static Event readEvent(byte[] recordData) throws IOException
+	{
+		DataInputStream dataInput = new DataInputStream(new ByteArrayInputStream(recordData));
+		long sequence = dataInput.readLong();
+		int typeIndex = dataInput.readByte();
+		EnumRelationshipEvent[] types = EnumRelationshipEvent.values();
+
+		if (typeIndex < 0 || typeIndex >= types.length)
+		{
+			throw new IOException("Unknown relationship event: " + typeIndex);
+		}
+
+		return new Event(sequence, types[typeIndex], dataInput.readLong(), dataInput.readInt(), dataInput.readInt(), dataInput.readInt());
+	}
+
+	/**
+	 * Lays out the data of the record of an event. The data is the event's sequence number, the position of its type in
+	 * EnumRelationshipEvent, the world time it happened at and its three IDs.
+	 *
+	 * @param 	event	The event.
+	 *
+	 * @return	The record's data, ready to be appended.
+	 */
+	private static byte[] createRecord(Event event) throws IOException
+	{
+		ByteArrayOutputStream recordOutput = new ByteArrayOutputStream();
+		DataOutputStream dataOutput = new DataOutputStream(recordOutput);
+
+		dataOutput.writeLong(event.sequence);
+		dataOutput.writeByte(event.type.ordinal());
+		dataOutput.writeLong(event.worldTime);
+		dataOutput.writeInt(event.firstId);
+		dataOutput.writeInt(event.secondId);
+		dataOutput.writeInt(event.thirdId);
+		dataOutput.close();
+
+		return recordOutput.toByteArray();
+	}
+
+	/**
+	 * Gets the total time of the overworld, which events are stamped with.
+	 *
+	 * @return	The overworld's total world time. 0 if the server isn't running.
+	 */
+	private static long getWorldTime()
+	{
+		MinecraftServer server = MinecraftServer.getServer();
+
+		if (server == null || server.worldServers == null || server.worldServers.length == 0 || server.worldServers[0] == null)
+		{
+			return 0;
+		}
+
+		return server.worldServers[0].getTotalWorldTime();
+	}
+
+	/**
+	 * A change recorded in the log. What each ID means depends on the type of the event.
+	 */
+	public static class Event
+	{
+		public final long sequence;
+		public final EnumRelationshipEvent type;
+		public final long worldTime;
+		public final int firstId;
+		public final int secondId;
+		public final int thirdId;
+
+		/**
+		 * Constructor
+		 *
+		 * @param 	sequence	The number of the event, counting up from the first event in the world.
+		 * @param 	type		The kind of event.
+		 * @param 	worldTime	The total world time the event happened at.
+		 * @param 	firstId		The first ID of the event.
+		 * @param 	secondId	The second ID of the event.
+		 * @param 	thirdId		The third ID of the event.
+		 */
+		public Event(long sequence, EnumRelationshipEvent type, long worldTime, int firstId, int secondId, int thirdId)
+		{
+			this.sequence = sequence;
+			this.type = type;
+			this.worldTime = worldTime;
+			this.firstId = firstId;
+			this.secondId = secondId;
+			this.thirdId = thirdId;
+		}
+	}
+}
@@ -0,0 +1,261 @@
+/*******************************************************************************
+ * WorldPropertiesCache.java
+ * Copyright (c) 2013 WildBamaBoy.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+
+package mca.core.io;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import mca.core.MCA;
+import cpw.mods.fml.common.FMLCommonHandler;
+
+/**
+ * Map of players and their world properties managers that only holds the players who have been needed recently.
+ * Getting a player from the map never touches the disk. Server side, loadManager loads a player's properties from
+ * the world's store when they aren't in the map, and the players who haven't been loaded in the longest time are
+ * written back and dropped once too many are loaded. Players who are online are never dropped.
+ */
+public class WorldPropertiesCache extends HashMap<String, WorldPropertiesManager>
+{
+	/** The number of players whose properties can be loaded before offline players are dropped. */
+	private static final int MAX_LOADED_PLAYERS = 64;
+
+	/** The players in the map, in the order they were last asked for. Key = player name. */
+	private final Map<String, Boolean> recentMap = new LinkedHashMap<String, Boolean>(16, 0.75F, true);
+
+	/** The name of the world that properties are loaded from. Null if properties can't be loaded. */
+	private String worldName = null;
+
+	/**
+	 * Sets the world that properties are loaded from when they are asked for.
+	 *
+	 * @param 	worldName	The name of the world.
+	 */
+	public void setWorldName(String worldName)
+	{
+		this.worldName = worldName;
+	}
+
+	/**
+	 * Gets a player's world properties manager, loading the player's properties from the world's store if they aren't
+	 * in the map. Loading reads from disk, so use peekWorldProperties where the properties are only read.
+	 *
+	 * @param 	playerName	The name of the player.
+	 *
+	 * @return	The player's world properties manager. Null if the player has no properties.
+	 */
+	public WorldPropertiesManager loadManager(String playerName)
+	{
+		WorldPropertiesManager manager = get(playerName);
+
+		if (manager == null && canLoad())
+		{
+			File storeFile = WorldPropertiesManager.getStoreFile(worldName);
+
+			if (MCA.instance.worldPropertiesWriter.getStore(storeFile).hasPlayer(playerName) || MCA.instance.worldPropertiesWriter.getPendingProperties(storeFile, playerName) != null)
+			{
+				//The manager puts itself into the map once it has loaded.
+				manager = new WorldPropertiesManager(worldName, playerName);
+			}
+		}
+
+		if (manager != null)
+		{
+			recentMap.put(playerName, Boolean.TRUE);
+		}
+
+		return manager;
+	}
+
+	@Override
+	public WorldPropertiesManager put(String key, WorldPropertiesManager value)
+	{
+		WorldPropertiesManager oldManager = super.put(key, value);
+		recentMap.put(key, Boolean.TRUE);
+
+		//Only drop players when one is added, so that saving while looping through the map doesn't change it.
+		if (oldManager == null)
+		{
+			dropOfflinePlayers();
+		}
+
+		return oldManager;
+	}
+
+	@Override
+	public WorldPropertiesManager remove(Object key)
+	{
+		recentMap.remove(key);
+		return super.remove(key);
+	}
+
+	@Override
+	public void clear()
+	{
+		super.clear();
+		recentMap.clear();
+		worldName = null;
+	}
+
+	/**
+	 * Gets the names of every player with world properties, including those who aren't loaded.
+	 *
+	 * @return	Set of player names.
+	 */
+	public Set<String> getPlayerNames()
+	{
+		Set<String> playerNames = new HashSet<String>(keySet());
+
+		if (worldName != null)
+		{
+			playerNames.addAll(MCA.instance.worldPropertiesWriter.getStore(WorldPropertiesManager.getStoreFile(worldName)).getPlayerNames());
+		}
+
+		return playerNames;
+	}
+
+	/**
+	 * Gets a player's world properties without loading the player into the map. Changes made to the properties
+	 * returned are not saved, so this should only be used to read them.
+	 *
+	 * @param 	playerName	The name of the player.
+	 *
+	 * @return	The player's world properties. Null if the player has none or they couldn't be read.
+	 */
+	public WorldPropertiesList peekWorldProperties(String playerName)
+	{
+		WorldPropertiesManager manager = get(playerName);
+
+		if (manager != null)
+		{
+			return manager.worldProperties;
+		}
+
+		else if (worldName != null)
+		{
+			Properties properties = WorldPropertiesManager.getStoredProperties(WorldPropertiesManager.getStoreFile(worldName), playerName);
+
+			if (properties != null)
+			{
+				try
+				{
+					WorldPropertiesList worldProperties = new WorldPropertiesList();
+					WorldPropertiesManager.assignWorldProperties(properties, worldProperties);
+					return worldProperties;
+				}
+
+				catch (Throwable e)
+				{
+					MCA.instance.log(e);
+				}
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Gets the players who have an entity as their spouse, fiance, or arranger's ring holder, without loading anyone.
+	 * Players in the map are checked as they are now, and everyone else through the index kept by the world's store.
+	 *
+	 * @param 	mcaId	The MCA ID of the entity.
+	 *
+	 * @return	Set of player names.
+	 */
+	public Set<String> getPlayersPartneredWith(int mcaId)
+	{
+		Set<String> playerNames = new HashSet<String>();
+
+		for (Map.Entry<String, WorldPropertiesManager> entry : entrySet())
+		{
+			WorldPropertiesList worldProperties = entry.getValue().worldProperties;
+
+			if (worldProperties.playerSpouseID == mcaId || worldProperties.arrangerRingHolderID == mcaId)
+			{
+				playerNames.add(entry.getKey());
+			}
+		}
+
+		if (worldName != null)
+		{
+			File storeFile = WorldPropertiesManager.getStoreFile(worldName);
+			playerNames.addAll(MCA.instance.worldPropertiesWriter.getStore(storeFile).getPlayersPartneredWith(mcaId));
+			playerNames.addAll(MCA.instance.worldPropertiesWriter.getPendingPlayersPartneredWith(storeFile, mcaId));
+		}
+
+		return playerNames;
+	}
+
+	/**
+	 * Gets the lowest ID of the players in the map.
+	 *
+	 * @return	The lowest player ID. Zero if the map is empty.
+	 */
+	public int getLowestPlayerId()
+	{
+		int lowestPlayerId = 0;
+
+		for (WorldPropertiesManager manager : values())
+		{
+			lowestPlayerId = Math.min(lowestPlayerId, manager.worldProperties.playerID);
+		}
+
+		return lowestPlayerId;
+	}
+
+	/**
+	 * Checks if properties can be loaded from the world's store.
+	 *
+	 * @return	True if a world is loaded and this is the server.
+	 */
+	private boolean canLoad()
+	{
+		return worldName != null && FMLCommonHandler.instance().getEffectiveSide().isServer();
+	}
+
+	/**
+	 * Writes back and drops the offline players who were asked for the longest time ago until few enough players are loaded.
+	 */
+	private void dropOfflinePlayers()
+	{
+		if (size() <= MAX_LOADED_PLAYERS || !canLoad())
+		{
+			return;
+		}
+
+		List<String> playerNames = new ArrayList<String>(recentMap.keySet());
+
+		for (String playerName : playerNames)
+		{
+			if (size() <= MAX_LOADED_PLAYERS)
+			{
+				break;
+			}
+
+			if (MCA.instance.getPlayerByName(playerName) == null)
+			{
+				WorldPropertiesManager manager = get(playerName);
+
+				if (manager != null)
+				{
+					manager.writeWorldProperties();
+				}
+
+				remove(playerName);
+			}
+		}
+	}
+}
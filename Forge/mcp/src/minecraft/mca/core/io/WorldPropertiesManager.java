@@ -10,10 +10,6 @@
 package mca.core.io;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.IOException;
 import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
@@ -30,18 +26,14 @@ import cpw.mods.fml.common.network.Player;
 import cpw.mods.fml.relauncher.Side;
 
 /**
- * Handles operations that use the WorldProps.properties file.
+ * Handles operations that use the world properties store.
  */
 public class WorldPropertiesManager implements Serializable
 {
 	private String currentPlayerName = "";
 	private String currentWorldName = "";
-	private File worldPropertiesFolderPath = null;
-	private File worldPropertiesFolder = null;
-	private File worldPropertiesFile = null;
+	private File worldPropertiesStoreFile = null;
 	private transient Properties properties = new Properties();
-	private transient FileInputStream inputStream   = null;
-	private transient FileOutputStream outputStream = null;
 
 	/** The properties and values stored within the world properties file. */
 	public WorldPropertiesList worldProperties = new WorldPropertiesList();
@@ -54,130 +46,69 @@ public class WorldPropertiesManager implements Serializable
 	 */
 	public WorldPropertiesManager(String worldName, String playerName)
 	{
-		MinecraftServer server = MinecraftServer.getServer();
-
 		//Assign relevant data.
 		currentPlayerName = playerName;
 		currentWorldName = worldName;
+		worldPropertiesStoreFile = getStoreFile(worldName);
 
-		if (server.isDedicatedServer())
-		{
-			worldPropertiesFolderPath   = new File(MCA.instance.runningDirectory + "/config/MCA/ServerWorlds/");
-			worldPropertiesFolder   	= new File(worldPropertiesFolderPath.getPath() + "/" + worldName + "/" + playerName + "/");
-			worldPropertiesFile     	= new File(worldPropertiesFolder.getPath() + "/" + "ServerWorldProps.properties");
-		}
+		WorldPropertiesStore store = MCA.instance.worldPropertiesWriter.getStore(worldPropertiesStoreFile);
 
-		else
+		//Check if the player has properties in the world's store, or some waiting to be written. If they don't, new ones are created.
+		if (!store.hasPlayer(playerName) && MCA.instance.worldPropertiesWriter.getPendingProperties(worldPropertiesStoreFile, playerName) == null)
 		{
-			worldPropertiesFolderPath   = new File(MCA.instance.runningDirectory + "/config/MCA/Worlds/");
-			worldPropertiesFolder   	= new File(worldPropertiesFolderPath.getPath() + "/" + worldName + "/" + playerName + "/");
-			worldPropertiesFile     	= new File(worldPropertiesFolder.getPath() + "/" + "WorldProps.properties");
-		}
+			//Set the player's ID, taking players who aren't loaded into account.
+			worldProperties.playerID = Math.min(MCA.instance.playerWorldManagerMap.getLowestPlayerId(), store.getLowestPlayerId()) - 1;
 
-		//Check and be sure the config/MCA/Worlds folder exists.
-		if (worldPropertiesFolderPath.exists() == false)
-		{
-			worldPropertiesFolderPath.mkdir();
-			MCA.instance.log("Created Worlds folder.");
+			saveWorldProperties();
+			MCA.instance.log("Saved new world properties for world '" + worldName + "' and player '" + playerName + "'.");
 		}
 
-		//Now check if the current world has its own properties folder.
-		if (worldPropertiesFolder.exists() == false)
+		//If the player does have properties in the store, then load them.
+		else
 		{
-			worldPropertiesFolder.mkdirs();
-			MCA.instance.log("Created new properties folder for the world '" + worldName + "'.");
-
+			loadWorldProperties();
+			MCA.instance.log("Loaded existing world properties for world '" + worldName + "' and player '" + playerName + "'.");
 		}
+	}
 
-		//Then check if the world has a properties file within that folder. If it doesn't, a new one is created.
-		if (worldPropertiesFile.exists() == false)
+	/**
+	 * Gets the file of the store that holds the world properties of every player in a world.
+	 * 
+	 * @param 	worldName	The name of the world.
+	 * 
+	 * @return	The file of the world's store.
+	 */
+	public static File getStoreFile(String worldName)
+	{
+		if (MinecraftServer.getServer().isDedicatedServer())
 		{
-			//Set the player's ID.
-			int lowestPlayerId = 0;
-
-			for (WorldPropertiesManager manager : MCA.instance.playerWorldManagerMap.values())
-			{
-				int idInProperties = manager.worldProperties.playerID;
-
-				if (lowestPlayerId > idInProperties)
-				{
-					lowestPlayerId = idInProperties;
-				}
-			}
-
-			worldProperties.playerID = lowestPlayerId - 1;
-
-			saveWorldProperties();
-			MCA.instance.log("Saved new world properties for world '" + worldName + "' and player '" + playerName + "'.");
+			return new File(MCA.instance.runningDirectory + "/config/MCA/ServerWorlds/" + worldName + "/ServerWorldProps.dat");
 		}
 
-		//If the world does have its own world properties file, then load it.
 		else
 		{
-			loadWorldProperties();
-			MCA.instance.log("Loaded existing world properties for world '" + worldName + "' and player '" + playerName + "'.");
+			return new File(MCA.instance.runningDirectory + "/config/MCA/Worlds/" + worldName + "/WorldProps.dat");
 		}
 	}
 
 	/**
-	 * Saves all world properties to the WorldProps.properties file.
+	 * Saves all world properties to the world's store. The store is written in the background, so
+	 * several saves close together only write to disk once.
 	 */
 	public void saveWorldProperties()
 	{
+		MCA.instance.monarchRegistry.updateMonarchStatus(currentPlayerName, worldProperties.isMonarch);
+
 		if (FMLCommonHandler.instance().getEffectiveSide().isServer())
 		{
 			try
 			{
-				properties = new Properties();
-
-				//Put world specific data in the properties.
-				for (Field f : WorldPropertiesList.class.getFields())
-				{
-					try
-					{
-						String fieldType = f.getType().toString();
-
-						if (fieldType.contains("List"))
-						{
-							String stringToSave = "";
+				queueWorldProperties();
+				MCA.instance.relationshipLog.recordPlayerProperties(worldProperties);
 
-							for (String s : worldProperties.blockList)
-							{
-								stringToSave += s;
-
-								if (worldProperties.blockList.indexOf(s) != worldProperties.blockList.size() - 1)
-								{
-									stringToSave += ",";
-								}
-							}
-
-							properties.put(f.getName(), stringToSave);
-						}
-
-						else if (fieldType.contains("boolean") || fieldType.contains("int") || fieldType.contains("String"))
-						{
-							properties.put(f.getName(), f.get(worldProperties).toString());
-						}
-					}
-
-					catch (NullPointerException e)
-					{
-						MCA.instance.log(e);
-						continue;
-					}
-				}
-
-				//Store the variables in the properties instance to file.
-				outputStream = new FileOutputStream(worldPropertiesFile);
-				properties.store(outputStream, "MCA Properties for World: " + currentWorldName);
-				outputStream.close();
-
-				MCA.instance.log("Saved world properties for player " + currentPlayerName + " in world " + currentWorldName);
+				MCA.instance.logDebug("Queued world properties for player " + currentPlayerName + " in world " + currentWorldName);
 				MCA.instance.playerWorldManagerMap.put(currentPlayerName, this);
 
-				//Load properties again to update them across the client and integrated server.
-				loadWorldProperties();
-
 				//Send the properties to the server or client.
 				if (FMLCommonHandler.instance().getEffectiveSide() == Side.CLIENT && MCA.instance.isIntegratedClient)
 				{
@@ -190,26 +121,11 @@ public class WorldPropertiesManager implements Serializable
 				}
 			}
 
-			catch (FileNotFoundException e)
-			{
-				//Check for the rare "The requested operation cannot be performed on a file with a user-mapped section open"
-				//message. Skip saving if it's encountered.
-				if (!e.getMessage().contains("user-mapped"))
-				{
-					MCA.instance.quitWithError("FileNotFoundException occurred while saving world properties to file.", e);
-				}
-			}
-
 			catch (IllegalAccessException e)
 			{
 				MCA.instance.quitWithError("IllegalAccessException occurred while saving world properties to file.", e);
 			}
 
-			catch (IOException e)
-			{
-				return;
-			}
-
 			catch (NullPointerException e)
 			{
 				MCA.instance.log(e);
@@ -224,63 +140,91 @@ public class WorldPropertiesManager implements Serializable
 	}
 
 	/**
-	 * Loads the WorldProps.properties file and assigns the values within to the appropriate fields in the world properties list.
+	 * Queues the world properties to be written to the world's store without sending them to anyone. Used when the
+	 * properties of a player who isn't online are dropped from memory.
 	 */
-	public void loadWorldProperties()
+	public void writeWorldProperties()
 	{
 		try
 		{
-			//Clear the properties instance and load the world's properties file.
-			properties = new Properties();
+			queueWorldProperties();
+		}
+
+		catch (IllegalAccessException e)
+		{
+			MCA.instance.log(e);
+		}
+	}
 
-			//Load the data from the world properties file into the properties instance.
-			inputStream = new FileInputStream(worldPropertiesFile);
-			properties.load(inputStream);
-			inputStream.close();
+	/**
+	 * Puts the world properties into a new properties instance and queues it to be written to the world's store.
+	 */
+	private void queueWorldProperties() throws IllegalAccessException
+	{
+		properties = new Properties();
 
-			//Loop through all fields prefixed with world_ and assign their value that is in the properties.
-			for (Field f : WorldPropertiesList.class.getFields())
+		//Put world specific data in the properties.
+		for (Field f : WorldPropertiesList.class.getFields())
+		{
+			try
 			{
 				String fieldType = f.getType().toString();
 
-				//Determine the type of data contained in the field and parse it accordingly, since everything read from
-				//the properties instance is a String.
-				if (fieldType.contains("boolean"))
-				{
-					f.set(worldProperties, Boolean.parseBoolean(properties.getProperty(f.getName())));
-				}
-
-				else if (fieldType.contains("List"))
+				if (fieldType.contains("List"))
 				{
-					String listData = properties.getProperty(f.getName()).toString();
-
-					List<String> list = new ArrayList<String>();
+					String stringToSave = "";
 
-					for (String s : listData.split(","))
+					for (String s : worldProperties.blockList)
 					{
-						list.add(s);
-					}
+						stringToSave += s;
 
-					f.set(worldProperties, list);
-				}
+						if (worldProperties.blockList.indexOf(s) != worldProperties.blockList.size() - 1)
+						{
+							stringToSave += ",";
+						}
+					}
 
-				else if (fieldType.contains("int"))
-				{
-					f.set(worldProperties, Integer.parseInt(properties.getProperty(f.getName())));
+					properties.put(f.getName(), stringToSave);
 				}
 
-				else if (fieldType.contains("String"))
+				else if (fieldType.contains("boolean") || fieldType.contains("int") || fieldType.contains("String"))
 				{
-					f.set(worldProperties, properties.getProperty(f.getName()));
+					properties.put(f.getName(), f.get(worldProperties).toString());
 				}
 			}
 
-			MCA.instance.playerWorldManagerMap.put(currentPlayerName, this);
+			catch (NullPointerException e)
+			{
+				MCA.instance.log(e);
+				continue;
+			}
 		}
 
-		catch (FileNotFoundException e)
+		//Queue the variables in the properties instance to be written to file.
+		MCA.instance.worldPropertiesWriter.queueWrite(worldPropertiesStoreFile, currentPlayerName, properties);
+	}
+
+	/**
+	 * Loads the player's properties from the world's store and assigns the values within to the appropriate fields in the world properties list.
+	 */
+	public void loadWorldProperties()
+	{
+		try
 		{
-			MCA.instance.quitWithError("FileNotFoundException occurred while loading world properties from file.", e);
+			properties = getStoredProperties(worldPropertiesStoreFile, currentPlayerName);
+
+			//A player with nothing stored is reset the same as before. Damaged values only reset themselves.
+			if (properties == null)
+			{
+				properties = new Properties();
+				resetWorldProperties();
+				return;
+			}
+
+			assignWorldProperties(properties, worldProperties);
+
+			MCA.instance.playerWorldManagerMap.put(currentPlayerName, this);
+			MCA.instance.monarchRegistry.updateMonarchStatus(currentPlayerName, worldProperties.isMonarch);
 		}
 
 		catch (IllegalAccessException e)
@@ -288,11 +232,6 @@ public class WorldPropertiesManager implements Serializable
 			MCA.instance.quitWithError("IllegalAccessException occurred while loading world properties from file.", e);
 		}
 
-		catch (IOException e)
-		{
-			MCA.instance.quitWithError("IOException occurred while loading world properties from file.", e);
-		}
-
 		catch (NullPointerException e)
 		{
 			resetWorldProperties();
@@ -304,6 +243,87 @@ public class WorldPropertiesManager implements Serializable
 		}
 	}
 
+	/**
+	 * Gets a player's latest properties from a store, including those still waiting to be written to it.
+	 * 
+	 * @param 	storeFile	The file of the store.
+	 * @param 	playerName	The name of the player.
+	 * 
+	 * @return	The player's properties. Null if the player has none.
+	 */
+	public static Properties getStoredProperties(File storeFile, String playerName)
+	{
+		//Use the properties waiting to be written if there are any, since they are newer than the store.
+		Properties storedProperties = MCA.instance.worldPropertiesWriter.getPendingProperties(storeFile, playerName);
+
+		if (storedProperties == null)
+		{
+			storedProperties = MCA.instance.worldPropertiesWriter.getStore(storeFile).readProperties(playerName);
+		}
+
+		return storedProperties;
+	}
+
+	/**
+	 * Assigns the values in a properties instance to the appropriate fields in a world properties list. Fields whose
+	 * value is missing or can't be read keep their default value instead of the whole list being reset.
+	 * 
+	 * @param 	properties		The properties to read from.
+	 * @param 	worldProperties	The world properties list to assign the values to.
+	 */
+	public static void assignWorldProperties(Properties properties, WorldPropertiesList worldProperties) throws IllegalAccessException
+	{
+		//Loop through all fields prefixed with world_ and assign their value that is in the properties.
+		for (Field f : WorldPropertiesList.class.getFields())
+		{
+			String fieldType = f.getType().toString();
+			String value = properties.getProperty(f.getName());
+
+			if (value == null)
+			{
+				MCA.instance.log("World property " + f.getName() + " is missing. Using its default value.");
+				continue;
+			}
+
+			//Determine the type of data contained in the field and parse it accordingly, since everything read from
+			//the properties instance is a String.
+			if (fieldType.contains("boolean"))
+			{
+				f.set(worldProperties, Boolean.parseBoolean(value));
+			}
+
+			else if (fieldType.contains("List"))
+			{
+				List<String> list = new ArrayList<String>();
+
+				for (String s : value.split(","))
+				{
+					list.add(s);
+				}
+
+				f.set(worldProperties, list);
+			}
+
+			else if (fieldType.contains("int"))
+			{
+				try
+				{
+					f.set(worldProperties, Integer.parseInt(value));
+				}
+
+				catch (NumberFormatException e)
+				{
+					MCA.instance.log("World property " + f.getName() + " has an invalid value: " + value + ". Using its default value.");
+				}
+			}
+
+			else if (fieldType.contains("String"))
+			{
+				f.set(worldProperties, value);
+			}
+		}
+	}
+
 	/**
 	 * Resets all world properties back to their default values.
 	 */
@@ -0,0 +1,605 @@
+/*******************************************************************************
+ * WorldPropertiesStore.java
+ * Copyright (c) 2013 WildBamaBoy.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+
+package mca.core.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import mca.core.MCA;
+
+/**
+ * Holds the world properties of every player in a world in a single binary file. Each save appends a record
+ * for the player to the end of the file, and the file is rewritten with only the latest record of each player
+ * once most of it is out of date. An index of where each player's latest record starts is kept in memory.
+ * Every record carries a checksum, so a record damaged by a crash is passed over in favour of the player's
+ * previous one when the store is opened. The rewritten file is built and synced without holding the store's
+ * lock, so reading from the store never waits on the disk.
+ */
+public class WorldPropertiesStore
+{
+	/** Written at the start of the file to identify it. Spells "MCAW". */
+	private static final int MAGIC = 0x4D434157;
+
+	/** The version of the record layout. Version 1 records have no checksum. */
+	private static final int VERSION = 2;
+
+	/** The number of records the file must hold before it will be compacted. */
+	private static final int COMPACT_MIN_RECORDS = 64;
+
+	/** The names of the properties files used before the store existed. */
+	private static final String[] LEGACY_FILE_NAMES = {"WorldProps.properties", "ServerWorldProps.properties"};
+
+	/** The store's file on disk. */
+	private final File storeFile;
+
+	/** The records in the store's file. */
+	private final RecordFile recordFile;
+
+	/** Map of where each player's latest record starts. Key = player name, Value = offset of the record in the file. */
+	private final Map<String, Long> indexMap = new HashMap<String, Long>();
+
+	/** The number of records in the file, including those that are out of date. */
+	private int recordCount = 0;
+
+	/** The lowest player ID of any player in the store. */
+	private int lowestPlayerId = 0;
+
+	/** The players whose latest record names an entity as their spouse, fiance, or arranger's ring holder. Key = MCA ID of the entity, Value = names of the players. */
+	private final Map<Integer, Set<String>> partnerIndexMap = new HashMap<Integer, Set<String>>();
+
+	/** The IDs each player's latest record is indexed under in the partner index. Key = player name, Value = the spouse ID and arranger's ring holder ID. */
+	private final Map<String, int[]> playerPartnerMap = new HashMap<String, int[]>();
+
+	/**
+	 * Constructor
+	 *
+	 * @param 	storeFile	The store's file on disk. Created if it doesn't exist.
+	 */
+	public WorldPropertiesStore(File storeFile)
+	{
+		this.storeFile = storeFile;
+		this.recordFile = new RecordFile(storeFile, MAGIC, VERSION);
+
+		try
+		{
+			open();
+		}
+
+		catch (IOException e)
+		{
+			MCA.instance.log(e);
+		}
+	}
+
+	/**
+	 * Checks if the store has properties saved for a player.
+	 *
+	 * @param 	playerName	The name of the player.
+	 *
+	 * @return	True if the player has a record in the store.
+	 */
+	public synchronized boolean hasPlayer(String playerName)
+	{
+		return indexMap.containsKey(playerName);
+	}
+
+	/**
+	 * Gets the names of every player with properties in the store.
+	 *
+	 * @return	List of player names.
+	 */
+	public synchronized List<String> getPlayerNames()
+	{
+		return new ArrayList<String>(indexMap.keySet());
+	}
+
+	/**
+	 * Gets the lowest ID of any player who has ever had properties in the store, so that new players can be given
+	 * an ID nobody else has without loading everyone's properties.
+	 *
+	 * @return	The lowest player ID. Zero if the store is empty.
+	 */
+	public synchronized int getLowestPlayerId()
+	{
+		return lowestPlayerId;
+	}
+
+	/**
+	 * Gets the players whose latest saved properties name an entity as their spouse, fiance, or arranger's ring holder.
+	 *
+	 * @param 	mcaId	The MCA ID of the entity.
+	 *
+	 * @return	Set of player names. Empty if no player saved in the store is partnered with the entity.
+	 */
+	public synchronized Set<String> getPlayersPartneredWith(int mcaId)
+	{
+		Set<String> playerNames = partnerIndexMap.get(mcaId);
+		return playerNames != null ? new HashSet<String>(playerNames) : new HashSet<String>();
+	}
+
+	/**
+	 * Gets the IDs of the entities a player's properties name as their spouse or fiance, and as the holder of their arranger's ring.
+	 *
+	 * @param 	properties	The player's properties.
+	 *
+	 * @return	The spouse ID and the arranger's ring holder ID. Zero where there is none or the value can't be read.
+	 */
+	public static int[] getPartnerIds(Properties properties)
+	{
+		return new int[] {parseId(properties.getProperty("playerSpouseID")), parseId(properties.getProperty("arrangerRingHolderID"))};
+	}
+
+	/**
+	 * Reads the latest properties saved for a player.
+	 *
+	 * @param 	playerName	The name of the player.
+	 *
+	 * @return	The player's properties. Null if the player has none saved or they couldn't be read.
+	 */
+	public synchronized Properties readProperties(String playerName)
+	{
+		Long offset = indexMap.get(playerName);
+
+		if (offset == null || !recordFile.isOpen())
+		{
+			return null;
+		}
+
+		try
+		{
+			DataInputStream dataInput = new DataInputStream(new ByteArrayInputStream(recordFile.read(offset)));
+			dataInput.readUTF();
+
+			return readRecordProperties(dataInput);
+		}
+
+		catch (IOException e)
+		{
+			MCA.instance.log(e);
+			return null;
+		}
+	}
+
+	/**
+	 * Appends a record of a player's properties to the end of the store.
+	 *
+	 * @param 	playerName	The name of the player.
+	 * @param 	properties	The player's properties.
+	 */
+	public synchronized void appendProperties(String playerName, Properties properties)
+	{
+		if (!recordFile.isOpen())
+		{
+			return;
+		}
+
+		try
+		{
+			long offset = recordFile.append(createRecord(playerName, properties));
+
+			indexMap.put(playerName, offset);
+			recordCount++;
+			updateLowestPlayerId(properties);
+			updatePartnerIndex(playerName, properties);
+		}
+
+		catch (IOException e)
+		{
+			MCA.instance.log(e);
+		}
+	}
+
+	/**
+	 * Rewrites the store with only the latest record of each player if most of it is out of date. The new file is read,
+	 * written and synced without holding the store's lock, which is only taken to swap it in. Called from the thread
+	 * that appends to the store, after it has written.
+	 */
+	public void compactIfNeeded()
+	{
+		Map<String, Long> oldIndexMap = null;
+		long oldLength = 0;
+
+		synchronized (this)
+		{
+			if (!recordFile.isOpen() || recordCount < COMPACT_MIN_RECORDS || recordCount <= indexMap.size() * 2)
+			{
+				return;
+			}
+
+			oldIndexMap = new HashMap<String, Long>(indexMap);
+
+			try
+			{
+				oldLength = recordFile.length();
+			}
+
+			catch (IOException e)
+			{
+				MCA.instance.log(e);
+				return;
+			}
+		}
+
+		List<String> playerNames = new ArrayList<String>(oldIndexMap.keySet());
+		List<Long> oldOffsetList = new ArrayList<Long>();
+		List<Long> newOffsetList = new ArrayList<Long>();
+		File tempFile = null;
+
+		for (String playerName : playerNames)
+		{
+			oldOffsetList.add(oldIndexMap.get(playerName));
+		}
+
+		try
+		{
+			List<byte[]> recordList = new ArrayList<byte[]>();
+			recordFile.readSeparately(oldOffsetList, recordList);
+			tempFile = recordFile.writeTempFile(recordList, newOffsetList);
+		}
+
+		catch (IOException e)
+		{
+			MCA.instance.log(e);
+			return;
+		}
+
+		synchronized (this)
+		{
+			try
+			{
+				//Leave the store alone if it was closed or written to since the records were read.
+				if (!recordFile.isOpen() || recordFile.length() != oldLength)
+				{
+					tempFile.delete();
+					return;
+				}
+
+				recordFile.replace(tempFile);
+				indexMap.clear();
+
+				for (int i = 0; i < playerNames.size(); i++)
+				{
+					indexMap.put(playerNames.get(i), newOffsetList.get(i));
+				}
+
+				recordCount = indexMap.size();
+			}
+
+			catch (IOException e)
+			{
+				MCA.instance.log(e);
+
+				//Whichever copy of the store is in place is complete, so reopen it.
+				try
+				{
+					open();
+				}
+
+				catch (IOException e2)
+				{
+					MCA.instance.log(e2);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Moves the properties of players saved in the old layout, one folder and properties file per player, into the store.
+	 * The old folders are deleted once their properties are in the store.
+	 */
+	public synchronized void migrateLegacyProperties()
+	{
+		File[] playerFolders = storeFile.getParentFile().listFiles();
+
+		if (playerFolders == null || !recordFile.isOpen())
+		{
+			return;
+		}
+
+		List<File> migratedFolders = new ArrayList<File>();
+
+		for (File playerFolder : playerFolders)
+		{
+			if (!playerFolder.isDirectory())
+			{
+				continue;
+			}
+
+			for (String legacyFileName : LEGACY_FILE_NAMES)
+			{
+				File legacyFile = new File(playerFolder, legacyFileName);
+
+				if (legacyFile.exists() && !indexMap.containsKey(playerFolder.getName()))
+				{
+					FileInputStream inputStream = null;
+
+					try
+					{
+						Properties properties = new Properties();
+						inputStream = new FileInputStream(legacyFile);
+						properties.load(inputStream);
+						inputStream.close();
+						inputStream = null;
+
+						appendProperties(playerFolder.getName(), properties);
+						MCA.instance.log("Moved world properties of " + playerFolder.getName() + " into " + storeFile.getPath());
+					}
+
+					catch (IOException e)
+					{
+						MCA.instance.log(e);
+					}
+
+					finally
+					{
+						if (inputStream != null)
+						{
+							try
+							{
+								inputStream.close();
+							}
+
+							catch (IOException e)
+							{
+								MCA.instance.log(e);
+							}
+						}
+					}
+				}
+			}
+
+			if (indexMap.containsKey(playerFolder.getName()))
+			{
+				migratedFolders.add(playerFolder);
+			}
+		}
+
+		//Only delete the old folders once their properties are safely on disk.
+		sync();
+
+		for (File playerFolder : migratedFolders)
+		{
+			MCA.deletePath(playerFolder);
+		}
+	}
+
+	/**
+	 * Closes the store's file.
+	 */
+	public synchronized void close()
+	{
+		recordFile.close();
+	}
+
+	/**
+	 * Makes sure everything appended to the store has reached the disk. Not synchronized, so that reading from the
+	 * store doesn't wait on the disk.
+	 */
+	public void sync()
+	{
+		try
+		{
+			recordFile.sync();
+		}
+
+		//The store was closed or compacted while syncing. Both leave it on disk.
+		catch (IOException e)
+		{
+			return;
+		}
+	}
+
+	/**
+	 * Opens the store's file and reads where each player's latest record is. Stores in the first layout are
+	 * rewritten in the current one.
+	 */
+	private void open() throws IOException
+	{
+		boolean hasChecksums = recordFile.open(1) >= 2;
+		Map<Long, byte[]> recordMap = recordFile.scan(hasChecksums);
+		Map<String, Properties> legacyRecordMap = new HashMap<String, Properties>();
+
+		indexMap.clear();
+		partnerIndexMap.clear();
+		playerPartnerMap.clear();
+		recordCount = recordMap.size();
+		lowestPlayerId = 0;
+
+		for (Map.Entry<Long, byte[]> entry : recordMap.entrySet())
+		{
+			DataInputStream recordInput = new DataInputStream(new ByteArrayInputStream(entry.getValue()));
+			String playerName = recordInput.readUTF();
+			Properties properties = readRecordProperties(recordInput);
+
+			indexMap.put(playerName, entry.getKey());
+			updateLowestPlayerId(properties);
+			updatePartnerIndex(playerName, properties);
+
+			if (!hasChecksums)
+			{
+				legacyRecordMap.put(playerName, properties);
+			}
+		}
+
+		if (!hasChecksums)
+		{
+			MCA.instance.log("Updating the layout of " + storeFile.getPath() + ".");
+			rewrite(legacyRecordMap);
+		}
+	}
+
+	/**
+	 * Replaces the store with one holding the provided records. The new file is written beside the old one and
+	 * then takes its place, so an interruption leaves one complete copy of the store. Only used while opening.
+	 *
+	 * @param 	recordMap	The properties of each player. Key = player name, Value = the player's properties.
+	 */
+	private void rewrite(Map<String, Properties> recordMap) throws IOException
+	{
+		List<byte[]> recordList = new ArrayList<byte[]>();
+
+		for (Map.Entry<String, Properties> entry : recordMap.entrySet())
+		{
+			recordList.add(createRecord(entry.getKey(), entry.getValue()));
+		}
+
+		recordFile.replace(recordFile.writeTempFile(recordList, new ArrayList<Long>()));
+		open();
+	}
+
+	/**
+	 * Reads the properties of a record, after its player's name.
+	 *
+	 * @param 	dataInput	The input positioned at the number of properties in the record.
+	 *
+	 * @return	The properties in the record.
+	 */
+	private static Properties readRecordProperties(DataInputStream dataInput) throws IOException
+	{
+		Properties properties = new Properties();
+		int propertyCount = dataInput.readInt();
+
+		for (int i = 0; i < propertyCount; i++)
+		{
+			properties.setProperty(dataInput.readUTF(), dataInput.readUTF());
+		}
+
+		return properties;
+	}
+
+	/**
+	 * Remembers the ID in a player's properties if it is the lowest one seen.
+	 *
+	 * @param 	properties	The player's properties.
+	 */
+	private void updateLowestPlayerId(Properties properties)
+	{
+		try
+		{
+			lowestPlayerId = Math.min(lowestPlayerId, Integer.parseInt(properties.getProperty("playerID")));
+		}
+
+		catch (NumberFormatException e)
+		{
+			return;
+		}
+	}
+
+	/**
+	 * Indexes a player under the entities their latest properties name as partners, in place of their previous record.
+	 *
+	 * @param 	playerName	The name of the player.
+	 * @param 	properties	The player's latest properties.
+	 */
+	private void updatePartnerIndex(String playerName, Properties properties)
+	{
+		int[] oldPartnerIds = playerPartnerMap.remove(playerName);
+
+		if (oldPartnerIds != null)
+		{
+			for (int partnerId : oldPartnerIds)
+			{
+				Set<String> playerNames = partnerIndexMap.get(partnerId);
+
+				if (playerNames != null)
+				{
+					playerNames.remove(playerName);
+
+					if (playerNames.isEmpty())
+					{
+						partnerIndexMap.remove(partnerId);
+					}
+				}
+			}
+		}
+
+		int[] partnerIds = getPartnerIds(properties);
+
+		for (int partnerId : partnerIds)
+		{
+			if (partnerId != 0)
+			{
+				Set<String> playerNames = partnerIndexMap.get(partnerId);
+
+				if (playerNames == null)
+				{
+					playerNames = new HashSet<String>();
+					partnerIndexMap.put(partnerId, playerNames);
+				}
+
+				playerNames.add(playerName);
+			}
+		}
+
+		playerPartnerMap.put(playerName, partnerIds);
+	}
+
+	/**
+	 * Reads an ID from a property value.
+	 *
+	 * @param 	value	The value of the property. May be null.
+	 *
+	 * @return	The ID. Zero if the value is missing or isn't a number.
+	 */
+	private static int parseId(String value)
+	{
+		try
+		{
+			return value != null ? Integer.parseInt(value) : 0;
+		}
+
+		catch (NumberFormatException e)
+		{
+			return 0;
+		}
+	}
+
+	/**
+	 * Lays out the data of a record of a player's properties. The data is the player's name, the number of
+	 * properties, and then the name and value of each property.
+	 *
+	 * @param 	playerName	The name of the player.
+	 * @param 	properties	The player's properties.
+	 *
+	 * @return	The record's data, ready to be appended.
+	 */
+	private static byte[] createRecord(String playerName, Properties properties) throws IOException
+	{
+		ByteArrayOutputStream recordOutput = new ByteArrayOutputStream();
+		DataOutputStream dataOutput = new DataOutputStream(recordOutput);
+
+		Set<String> keys = properties.stringPropertyNames();
+
+		dataOutput.writeUTF(playerName);
+		dataOutput.writeInt(keys.size());
+
+		for (String key : keys)
+		{
+			dataOutput.writeUTF(key);
+			dataOutput.writeUTF(properties.getProperty(key));
+		}
+
+		dataOutput.close();
+
+		return recordOutput.toByteArray();
+	}
+}
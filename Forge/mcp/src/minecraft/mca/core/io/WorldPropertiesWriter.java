@@ -0,0 +1,304 @@
+/*******************************************************************************
+ * WorldPropertiesWriter.java
+ * Copyright (c) 2013 WildBamaBoy.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+
+package mca.core.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import mca.core.MCA;
+
+/**
+ * Writes world properties to their stores on a background thread. Saving world properties only queues the values to be
+ * written, and several saves of the same player's properties before the next flush are written to disk once. Whole
+ * properties files, such as the mod properties, can be queued the same way.
+ */
+public class WorldPropertiesWriter extends BackgroundWriter
+{
+	/** The properties waiting to be written. Key = path of the store and the player's name, Value = the latest properties queued for that player. */
+	private final Map<String, PendingWrite> pendingMap = new LinkedHashMap<String, PendingWrite>();
+
+	/** The properties files waiting to be written. Key = the file, Value = the latest properties queued for it. */
+	private final Map<File, PendingFile> pendingFileMap = new LinkedHashMap<File, PendingFile>();
+
+	/** The open stores. Key = the store's file, Value = the store. */
+	private final Map<File, WorldPropertiesStore> storeMap = new HashMap<File, WorldPropertiesStore>();
+
+	/**
+	 * Constructor
+	 */
+	public WorldPropertiesWriter()
+	{
+		super("MCA World Properties Writer");
+	}
+
+	/**
+	 * Gets the store kept in the provided file, opening it and moving any properties saved in the old layout into it
+	 * if it isn't open yet.
+	 *
+	 * @param 	storeFile	The store's file.
+	 *
+	 * @return	The store kept in the file.
+	 */
+	public synchronized WorldPropertiesStore getStore(File storeFile)
+	{
+		WorldPropertiesStore store = storeMap.get(storeFile);
+
+		if (store == null)
+		{
+			store = new WorldPropertiesStore(storeFile);
+			store.migrateLegacyProperties();
+			storeMap.put(storeFile, store);
+		}
+
+		return store;
+	}
+
+	/**
+	 * Queues a player's properties to be written to a store, replacing any of their properties already waiting to be written.
+	 * The properties must not be changed once they are queued.
+	 *
+	 * @param 	storeFile	The file of the store the properties will be written to.
+	 * @param 	playerName	The name of the player the properties belong to.
+	 * @param 	properties	The properties to write.
+	 */
+	public synchronized void queueWrite(File storeFile, String playerName, Properties properties)
+	{
+		pendingMap.put(getPendingKey(storeFile, playerName), new PendingWrite(getStore(storeFile), playerName, properties));
+		startWriterThread();
+	}
+
+	/**
+	 * Queues a whole properties file to be written, replacing anything already waiting to be written to that file.
+	 * The properties must not be changed once they are queued.
+	 *
+	 * @param 	file		The file to write to.
+	 * @param 	properties	The properties to write.
+	 * @param 	comment		The comment written at the top of the file.
+	 * @param 	onWritten	Run on the writer's thread once the file has been written, before it stops being pending. May be null.
+	 */
+	public synchronized void queueFileWrite(File file, Properties properties, String comment, Runnable onWritten)
+	{
+		pendingFileMap.put(file, new PendingFile(properties, comment, onWritten));
+		startWriterThread();
+	}
+
+	/**
+	 * Checks if a whole properties file is waiting to be written or is being written.
+	 *
+	 * @param 	file	The file to check.
+	 *
+	 * @return	True if the file has a write queued that hasn't finished.
+	 */
+	public synchronized boolean isFileWritePending(File file)
+	{
+		return pendingFileMap.containsKey(file);
+	}
+
+	/**
+	 * Gets the properties of a player waiting to be written to a store, which are newer than what is on disk.
+	 *
+	 * @param 	storeFile	The file of the store the properties will be written to.
+	 * @param 	playerName	The name of the player the properties belong to.
+	 *
+	 * @return	The properties waiting to be written. Null if nothing is waiting to be written for the player.
+	 */
+	public synchronized Properties getPendingProperties(File storeFile, String playerName)
+	{
+		PendingWrite pendingWrite = pendingMap.get(getPendingKey(storeFile, playerName));
+		return pendingWrite != null ? pendingWrite.properties : null;
+	}
+
+	/**
+	 * Gets the players with properties waiting to be written to a store that name an entity as their spouse, fiance,
+	 * or arranger's ring holder.
+	 *
+	 * @param 	storeFile	The file of the store the properties will be written to.
+	 * @param 	mcaId		The MCA ID of the entity.
+	 *
+	 * @return	Set of player names.
+	 */
+	public synchronized Set<String> getPendingPlayersPartneredWith(File storeFile, int mcaId)
+	{
+		Set<String> playerNames = new HashSet<String>();
+		WorldPropertiesStore store = storeMap.get(storeFile);
+
+		for (PendingWrite pendingWrite : pendingMap.values())
+		{
+			if (pendingWrite.store == store)
+			{
+				int[] partnerIds = WorldPropertiesStore.getPartnerIds(pendingWrite.properties);
+
+				if (partnerIds[0] == mcaId || partnerIds[1] == mcaId)
+				{
+					playerNames.add(pendingWrite.playerName);
+				}
+			}
+		}
+
+		return playerNames;
+	}
+
+	/**
+	 * Writes everything waiting in the queue and closes every open store.
+	 */
+	public void close()
+	{
+		flush();
+
+		synchronized (this)
+		{
+			for (WorldPropertiesStore store : storeMap.values())
+			{
+				store.close();
+			}
+
+			storeMap.clear();
+		}
+	}
+
+	/**
+	 * Writes everything waiting in the queue to disk on the calling thread.
+	 */
+	@Override
+	public void flush()
+	{
+		synchronized (flushLock)
+		{
+			Map<String, PendingWrite> writeMap = null;
+			Map<File, PendingFile> fileWriteMap = null;
+
+			synchronized (this)
+			{
+				writeMap = new LinkedHashMap<String, PendingWrite>(pendingMap);
+				fileWriteMap = new LinkedHashMap<File, PendingFile>(pendingFileMap);
+			}
+
+			for (Map.Entry<File, PendingFile> entry : fileWriteMap.entrySet())
+			{
+				PendingFile pendingFile = entry.getValue();
+
+				try
+				{
+					AtomicFile.writeProperties(entry.getKey(), pendingFile.properties, pendingFile.comment);
+
+					if (pendingFile.onWritten != null)
+					{
+						pendingFile.onWritten.run();
+					}
+				}
+
+				catch (IOException e)
+				{
+					MCA.instance.log(e);
+				}
+
+				synchronized (this)
+				{
+					if (pendingFileMap.get(entry.getKey()) == pendingFile)
+					{
+						pendingFileMap.remove(entry.getKey());
+					}
+				}
+			}
+
+			Set<WorldPropertiesStore> writtenStores = new HashSet<WorldPropertiesStore>();
+
+			for (Map.Entry<String, PendingWrite> entry : writeMap.entrySet())
+			{
+				PendingWrite pendingWrite = entry.getValue();
+				pendingWrite.store.appendProperties(pendingWrite.playerName, pendingWrite.properties);
+				writtenStores.add(pendingWrite.store);
+
+				//Leave the player in the queue if they were saved again while they were being written.
+				synchronized (this)
+				{
+					if (pendingMap.get(entry.getKey()) == pendingWrite)
+					{
+						pendingMap.remove(entry.getKey());
+					}
+				}
+			}
+
+			//Syncing and compacting happen here instead of on each save, so the server never waits on the disk.
+			for (WorldPropertiesStore store : writtenStores)
+			{
+				store.sync();
+				store.compactIfNeeded();
+			}
+		}
+	}
+
+	/**
+	 * Gets the key of a player's properties in the queue.
+	 *
+	 * @param 	storeFile	The file of the store the properties will be written to.
+	 * @param 	playerName	The name of the player the properties belong to.
+	 *
+	 * @return	The key of the player's properties.
+	 */
+	private static String getPendingKey(File storeFile, String playerName)
+	{
+		return storeFile.getPath() + ":" + playerName;
+	}
+
+	/**
+	 * A player's properties waiting to be written to a store.
+	 */
+	private static class PendingWrite
+	{
+		private final WorldPropertiesStore store;
+		private final String playerName;
+		private final Properties properties;
+
+		/**
+		 * Constructor
+		 *
+		 * @param 	store		The store to write to.
+		 * @param 	playerName	The name of the player the properties belong to.
+		 * @param 	properties	The properties to write.
+		 */
+		private PendingWrite(WorldPropertiesStore store, String playerName, Properties properties)
+		{
+			this.store = store;
+			this.playerName = playerName;
+			this.properties = properties;
+		}
+	}
+
+	/**
+	 * A properties file waiting to be written.
+	 */
+	private static class PendingFile
+	{
+		private final Properties properties;
+		private final String comment;
+		private final Runnable onWritten;
+
+		/**
+		 * Constructor
+		 *
+		 * @param 	properties	The properties to write.
+		 * @param 	comment		The comment written at the top of the file.
+		 * @param 	onWritten	Run once the file has been written. May be null.
+		 */
+		private PendingFile(Properties properties, String comment, Runnable onWritten)
+		{
+			this.properties = properties;
+			this.comment = comment;
+			this.onWritten = onWritten;
+		}
+	}
+}
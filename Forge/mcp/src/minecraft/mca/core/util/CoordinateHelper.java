@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * CoordinateHelper.java
+ * Copyright (c) 2013 WildBamaBoy.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+
+package mca.core.util;
+
+/**
+ * Packs block and chunk coordinates into single longs for use as map keys.
+ */
+public final class CoordinateHelper
+{
+	/**
+	 * Packs block coordinates into a single long.
+	 *
+	 * @param 	x	The X coordinate.
+	 * @param 	y	The Y coordinate.
+	 * @param 	z	The Z coordinate.
+	 *
+	 * @return	The packed coordinates.
+	 */
+	public static long packCoordinates(int x, int y, int z)
+	{
+		return ((long)(x & 0x3FFFFFF) << 38) | ((long)(z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+	}
+
+	/**
+	 * Gets the key of the chunk with the provided coordinates.
+	 *
+	 * @param 	chunkX	The X coordinate of the chunk.
+	 * @param 	chunkZ	The Z coordinate of the chunk.
+	 *
+	 * @return	The chunk key.
+	 */
+	public static long getChunkKey(int chunkX, int chunkZ)
+	{
+		return ((long)chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+	}
+}
@@ -393,7 +393,7 @@ public final class LanguageHelper
 
 		if (player != null)
 		{
-			worldPropertiesManager = MCA.instance.playerWorldManagerMap.get(player.username);
+			worldPropertiesManager = MCA.instance.playerWorldManagerMap.loadManager(player.username);
 			playerId = MCA.instance.getIdOfPlayer(player);
 		}
 
@@ -473,7 +473,7 @@ public final class LanguageHelper
 
 					if (parents.get(0) < 0 && parents.get(1) < 0)
 					{
-						text = text.replace("%FatherName%", MCA.instance.playerWorldManagerMap.get(player.username).worldProperties.playerSpouseName);
+						text = text.replace("%FatherName%", MCA.instance.playerWorldManagerMap.loadManager(player.username).worldProperties.playerSpouseName);
 					}
 
 					//One of the parents is not a player (since this is a player child no further logic is required.)
@@ -637,7 +637,7 @@ public final class LanguageHelper
 
 				else
 				{
-					WorldPropertiesManager serverPropertiesManager = MCA.instance.playerWorldManagerMap.get(player.username);
+					WorldPropertiesManager serverPropertiesManager = MCA.instance.playerWorldManagerMap.loadManager(player.username);
 
 					if (serverPropertiesManager.worldProperties.playerGender.equals("Male"))
 					{
@@ -660,7 +660,7 @@ public final class LanguageHelper
 
 				else
 				{
-					WorldPropertiesManager serverPropertiesManager = MCA.instance.playerWorldManagerMap.get(player.username);
+					WorldPropertiesManager serverPropertiesManager = MCA.instance.playerWorldManagerMap.loadManager(player.username);
 					text = text.replace("%PlayerName%", serverPropertiesManager.worldProperties.playerName);
 				}
 			}
@@ -687,7 +687,7 @@ public final class LanguageHelper
 
 				else
 				{
-					WorldPropertiesManager serverPropertiesManager = MCA.instance.playerWorldManagerMap.get(player.username);
+					WorldPropertiesManager serverPropertiesManager = MCA.instance.playerWorldManagerMap.loadManager(player.username);
 
 					if (serverPropertiesManager.worldProperties.playerGender.equals("Male"))
 					{
@@ -710,7 +710,7 @@ public final class LanguageHelper
 
 				else
 				{
-					WorldPropertiesManager serverPropertiesManager = MCA.instance.playerWorldManagerMap.get(player.username);
+					WorldPropertiesManager serverPropertiesManager = MCA.instance.playerWorldManagerMap.loadManager(player.username);
 					text = text.replace("%BabyName%", serverPropertiesManager.worldProperties.babyName);
 				}
 			}
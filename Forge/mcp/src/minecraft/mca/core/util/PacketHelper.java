@@ -11,12 +11,14 @@ package mca.core.util;
 
 import java.io.ByteArrayOutputStream;
 import java.io.ObjectOutputStream;
+import java.util.Map;
 
 import mca.chore.AbstractChore;
 import mca.core.MCA;
 import mca.core.io.ModPropertiesManager;
 import mca.core.io.WorldPropertiesManager;
 import mca.core.util.object.FamilyTree;
+import mca.core.util.object.PlayerMemory;
 import mca.entity.AbstractEntity;
 import mca.entity.EntityVillagerAdult;
 import mca.inventory.Inventory;
@@ -1072,4 +1074,74 @@ public final class PacketHelper
 			return null;
 		}
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Creates a packet used to update one player's memories on several entities at once.
+	 * 
+	 * @param	playerName	The name of the player the memories are of.
+	 * @param	memoryMap	Map of the changed memories. Key = entity ID, Value = the entity's memory of the player.
+	 * 
+	 * @return	A hearts packet.
+	 */
+	public static Packet createHeartsPacket(String playerName, Map<Integer, PlayerMemory> memoryMap)
+	{
+		try
+		{
+			Packet250CustomPayload thePacket = new Packet250CustomPayload();
+			thePacket.channel = "MCA_HEARTS";
+			
+			ByteArrayOutputStream byteOutput = new ByteArrayOutputStream();
+			ObjectOutputStream objectOutput = new ObjectOutputStream(byteOutput);
+			
+			objectOutput.writeObject(playerName);
+			objectOutput.writeObject(memoryMap);
+			objectOutput.close();
+			
+			thePacket.data = MCA.compressBytes(byteOutput.toByteArray());
+			thePacket.length = thePacket.data.length;
+			
+			MCA.instance.logDebug("Sent packet: " + thePacket.channel);
+			return thePacket;
+		}
+		
+		catch (Throwable e)
+		{
+			MCA.instance.log(e);
+			return null;
+		}
+	}
+
+	/**
+	 * Creates a packet used to send the mod properties that changed on the server to clients.
+	 * 
+	 * @param	changedValues	Map of the changed properties. Key = field name, Value = the new value.
+	 * 
+	 * @return	A mod properties packet.
+	 */
+	public static Packet createModPropertiesPacket(Map<String, Object> changedValues)
+	{
+		try
+		{
+			Packet250CustomPayload thePacket = new Packet250CustomPayload();
+			thePacket.channel = "MCA_MODPROPS";
+			
+			ByteArrayOutputStream byteOutput = new ByteArrayOutputStream();
+			ObjectOutputStream objectOutput = new ObjectOutputStream(byteOutput);
+			
+			objectOutput.writeObject(changedValues);
+			objectOutput.close();
+			
+			thePacket.data = MCA.compressBytes(byteOutput.toByteArray());
+			thePacket.length = thePacket.data.length;
+			
+			MCA.instance.logDebug("Sent packet: " + thePacket.channel);
+			return thePacket;
+		}
+		
+		catch (Throwable e)
+		{
+			MCA.instance.log(e);
+			return null;
+		}
+	}
+}
@@ -0,0 +1,247 @@
+/*******************************************************************************
+ * EntityIndex.java
+ * Copyright (c) 2013 WildBamaBoy.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+
+package mca.core.util.object;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import mca.entity.AbstractEntity;
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.util.MathHelper;
+import net.minecraft.world.World;
+
+/**
+ * A spatial hash of the living entities in each world, built at most once per tick and shared by everything that
+ * needs to find living entities near a point. MCA entities are also hashed on their own so they can be found without
+ * looking through every other entity.
+ */
+public class EntityIndex
+{
+	/** Cells of the hash are 2 to the power of this many blocks wide. */
+	private static final int CELL_SHIFT = 4;
+
+	/** Map of the index of each world. Key = world, Value = the world's index. */
+	private final Map<World, WorldIndex> worldIndexMap = Collections.synchronizedMap(new WeakHashMap<World, WorldIndex>());
+
+	/**
+	 * Gets the living entities whose positions are within the provided distances of a point.
+	 *
+	 * @param 	world		The world to search.
+	 * @param 	posX		The X position to search around.
+	 * @param 	posY		The Y position to search around.
+	 * @param 	posZ		The Z position to search around.
+	 * @param 	radiusXZ	The maximum horizontal distance along each axis.
+	 * @param 	radiusY		The maximum vertical distance.
+	 *
+	 * @return	List of living entities in the area. May be empty but never null.
+	 */
+	public List<EntityLivingBase> getEntitiesNear(World world, double posX, double posY, double posZ, double radiusXZ, double radiusY)
+	{
+		return getEntitiesNear(getWorldIndex(world).cellMap, posX, posY, posZ, radiusXZ, radiusY);
+	}
+
+	/**
+	 * Gets the MCA entities whose positions are within the provided distances of a point.
+	 *
+	 * @param 	world		The world to search.
+	 * @param 	posX		The X position to search around.
+	 * @param 	posY		The Y position to search around.
+	 * @param 	posZ		The Z position to search around.
+	 * @param 	radiusXZ	The maximum horizontal distance along each axis.
+	 * @param 	radiusY		The maximum vertical distance.
+	 *
+	 * @return	List of MCA entities in the area. May be empty but never null.
+	 */
+	public List<EntityLivingBase> getMCAEntitiesNear(World world, double posX, double posY, double posZ, double radiusXZ, double radiusY)
+	{
+		return getEntitiesNear(getWorldIndex(world).mcaCellMap, posX, posY, posZ, radiusXZ, radiusY);
+	}
+
+	/**
+	 * Forgets the index of every world.
+	 */
+	public void clear()
+	{
+		worldIndexMap.clear();
+	}
+
+	/**
+	 * Forgets the index of the provided world. Called when the world unloads, since the entities in its index
+	 * would otherwise keep it loaded.
+	 *
+	 * @param 	world	The world that unloaded.
+	 */
+	public void clearWorld(World world)
+	{
+		worldIndexMap.remove(world);
+	}
+
+	/**
+	 * Gets the entities in the provided cell map whose positions are within the provided distances of a point.
+	 *
+	 * @param 	cellMap		The cell map to search.
+	 * @param 	posX		The X position to search around.
+	 * @param 	posY		The Y position to search around.
+	 * @param 	posZ		The Z position to search around.
+	 * @param 	radiusXZ	The maximum horizontal distance along each axis.
+	 * @param 	radiusY		The maximum vertical distance.
+	 *
+	 * @return	List of entities in the area. May be empty but never null.
+	 */
+	private static List<EntityLivingBase> getEntitiesNear(Map<Long, List<EntityLivingBase>> cellMap, double posX, double posY, double posZ, double radiusXZ, double radiusY)
+	{
+		List<EntityLivingBase> entitiesNear = new ArrayList<EntityLivingBase>();
+
+		if (cellMap.isEmpty())
+		{
+			return entitiesNear;
+		}
+
+		int minCellX = getCell(posX - radiusXZ);
+		int maxCellX = getCell(posX + radiusXZ);
+		int minCellZ = getCell(posZ - radiusXZ);
+		int maxCellZ = getCell(posZ + radiusXZ);
+
+		for (int cellX = minCellX; cellX <= maxCellX; cellX++)
+		{
+			for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++)
+			{
+				List<EntityLivingBase> cellEntities = cellMap.get(getCellKey(cellX, cellZ));
+
+				if (cellEntities == null)
+				{
+					continue;
+				}
+
+				for (EntityLivingBase entity : cellEntities)
+				{
+					if (Math.abs(entity.posX - posX) <= radiusXZ && Math.abs(entity.posZ - posZ) <= radiusXZ && Math.abs(entity.posY - posY) <= radiusY)
+					{
+						entitiesNear.add(entity);
+					}
+				}
+			}
+		}
+
+		return entitiesNear;
+	}
+
+	/**
+	 * Gets the index of the provided world, rebuilding it if it was built on an earlier tick.
+	 *
+	 * @param 	world	The world whose index should be returned.
+	 *
+	 * @return	The up to date index of the world.
+	 */
+	private WorldIndex getWorldIndex(World world)
+	{
+		WorldIndex index = worldIndexMap.get(world);
+		long worldTime = world.getTotalWorldTime();
+
+		if (index == null)
+		{
+			index = new WorldIndex();
+			worldIndexMap.put(world, index);
+		}
+
+		if (index.buildTime != worldTime)
+		{
+			index.cellMap.clear();
+			index.mcaCellMap.clear();
+
+			for (Object obj : world.loadedEntityList)
+			{
+				if (obj instanceof EntityLivingBase)
+				{
+					EntityLivingBase entity = (EntityLivingBase)obj;
+
+					if (!entity.isDead)
+					{
+						long key = getCellKey(getCell(entity.posX), getCell(entity.posZ));
+						addToCell(index.cellMap, key, entity);
+
+						if (entity instanceof AbstractEntity)
+						{
+							addToCell(index.mcaCellMap, key, entity);
+						}
+					}
+				}
+			}
+
+			index.buildTime = worldTime;
+		}
+
+		return index;
+	}
+
+	/**
+	 * Adds an entity to a cell of the provided cell map.
+	 *
+	 * @param 	cellMap	The cell map to add the entity to.
+	 * @param 	key		The packed coordinates of the cell.
+	 * @param 	entity	The entity to add.
+	 */
+	private static void addToCell(Map<Long, List<EntityLivingBase>> cellMap, long key, EntityLivingBase entity)
+	{
+		List<EntityLivingBase> cellEntities = cellMap.get(key);
+
+		if (cellEntities == null)
+		{
+			cellEntities = new ArrayList<EntityLivingBase>();
+			cellMap.put(key, cellEntities);
+		}
+
+		cellEntities.add(entity);
+	}
+
+	/**
+	 * Gets the cell containing the provided position along one axis.
+	 *
+	 * @param 	position	The position.
+	 *
+	 * @return	The cell coordinate.
+	 */
+	private static int getCell(double position)
+	{
+		return MathHelper.floor_double(position) >> CELL_SHIFT;
+	}
+
+	/**
+	 * Packs cell coordinates into a single long for use as a map key.
+	 *
+	 * @param 	cellX	The X coordinate of the cell.
+	 * @param 	cellZ	The Z coordinate of the cell.
+	 *
+	 * @return	The packed cell coordinates.
+	 */
+	private static long getCellKey(int cellX, int cellZ)
+	{
+		return ((long)cellX << 32) | (cellZ & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * The index of a single world.
+	 */
+	private static class WorldIndex
+	{
+		/** Map of the living entities in each cell. Key = packed cell coordinates, Value = entities in the cell. */
+		private final Map<Long, List<EntityLivingBase>> cellMap = new HashMap<Long, List<EntityLivingBase>>();
+
+		/** Map of the MCA entities in each cell. Key = packed cell coordinates, Value = MCA entities in the cell. */
+		private final Map<Long, List<EntityLivingBase>> mcaCellMap = new HashMap<Long, List<EntityLivingBase>>();
+
+		/** The world time at which the index was last built. */
+		private long buildTime = -1;
+	}
+}
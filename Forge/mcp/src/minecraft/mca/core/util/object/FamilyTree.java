@@ -33,6 +33,9 @@ public class FamilyTree implements Serializable
 	/** Map containing the IDs of entities related to the owner as the key, and their relation to the owner as the value.*/
 	private Map<Integer, EnumRelation> relationMap;
 
+	/** Goes up each time an entry is added or removed, so the owner knows when its saved copy of the tree is out of date. */
+	private transient int changeVersion = 0;
+
 	/**
 	 * Constructor
 	 * 
@@ -116,6 +119,7 @@ public class FamilyTree implements Serializable
 	{
 		//Add the player's ID and relation to the map.
 		relationMap.put(MCA.instance.getIdOfPlayer(player), relation);
+		changeVersion++;
 	}
 
 	/**
@@ -130,6 +134,7 @@ public class FamilyTree implements Serializable
 		if (entity != null)
 		{
 			relationMap.put(entity.mcaID, relation);
+			changeVersion++;
 		}
 	}
 
@@ -143,6 +148,7 @@ public class FamilyTree implements Serializable
 	{
 		//Add the ID and relation to the map.
 		relationMap.put(id, relation);
+		changeVersion++;
 	}
 
 	/**
@@ -153,6 +159,7 @@ public class FamilyTree implements Serializable
 	public void removeFamilyTreeEntry(EntityPlayer player)
 	{
 		relationMap.remove(MCA.instance.getIdOfPlayer(player));
+		changeVersion++;
 	}
 	
 	/**
@@ -163,6 +170,7 @@ public class FamilyTree implements Serializable
 	public void removeFamilyTreeEntry(AbstractEntity entity)
 	{
 		relationMap.remove(entity.mcaID);
+		changeVersion++;
 	}
 	
 	/**
@@ -173,6 +181,7 @@ public class FamilyTree implements Serializable
 	public void removeFamilyTreeEntry(int mcaId)
 	{
 		relationMap.remove(mcaId);
+		changeVersion++;
 	}
 	
 	/**
@@ -193,6 +202,7 @@ public class FamilyTree implements Serializable
 		}
 		
 		relationMap.remove(removalKey);
+		changeVersion++;
 	}
 	
 	/**
@@ -274,7 +284,7 @@ public class FamilyTree implements Serializable
 			{
 				if (id < 0)
 				{
-					WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.get(MCA.instance.getPlayerByID(owner.worldObj, id).username);
+					WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.loadManager(MCA.instance.getPlayerByID(owner.worldObj, id).username);
 					
 					if (manager.worldProperties.playerGender.equals("Male"))
 					{
@@ -292,7 +302,7 @@ public class FamilyTree implements Serializable
 			{
 				if (id < 0)
 				{
-					WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.get(MCA.instance.getPlayerByID(owner.worldObj, id).username);
+					WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.loadManager(MCA.instance.getPlayerByID(owner.worldObj, id).username);
 					
 					if (manager.worldProperties.playerGender.equals("Male"))
 					{
@@ -398,29 +408,66 @@ public class FamilyTree implements Serializable
 	}
 
 	/**
-	 * Writes the entity's family tree to NBT.
+	 * Writes the entity's family tree to NBT. IDs and relations are kept in two int arrays of the same length, with each
+	 * relation saved as its position in EnumRelation.
 	 * 
 	 * @param	NBT	The NBT object that saves information about the entity.
 	 */
 	public void writeTreeToNBT(NBTTagCompound NBT)
 	{
+		int[] entryIds = new int[relationMap.size()];
+		int[] entryRelations = new int[relationMap.size()];
 		int counter = 0;
 
-		for(Map.Entry<Integer, EnumRelation> KVP : relationMap.entrySet())
+		for (Map.Entry<Integer, EnumRelation> KVP : relationMap.entrySet())
 		{
-			NBT.setInteger("familyTreeEntryID" + counter, KVP.getKey());
-			NBT.setString("familyTreeEntryRelation" + counter, KVP.getValue().getValue());
-
+			entryIds[counter] = KVP.getKey();
+			entryRelations[counter] = KVP.getValue().ordinal();
 			counter++;
 		}
+
+		NBTTagCompound treeNBT = new NBTTagCompound();
+		treeNBT.setIntArray("ids", entryIds);
+		treeNBT.setIntArray("relations", entryRelations);
+		NBT.setCompoundTag("familyTree", treeNBT);
 	}
 
 	/**
-	 * Reads the entity's family tree from NBT.
+	 * Reads the entity's family tree from NBT. Trees saved one tag per entry before the arrays were used are read the
+	 * same way, and are written as arrays the next time the entity is saved.
 	 * 
 	 * @param	NBT	The NBT object that reads information about the entity.
 	 */
 	public void readTreeFromNBT(NBTTagCompound NBT)
+	{
+		if (NBT.hasKey("familyTree"))
+		{
+			NBTTagCompound treeNBT = NBT.getCompoundTag("familyTree");
+			int[] entryIds = treeNBT.getIntArray("ids");
+			int[] entryRelations = treeNBT.getIntArray("relations");
+			EnumRelation[] relations = EnumRelation.values();
+
+			for (int i = 0; i < entryIds.length && i < entryRelations.length; i++)
+			{
+				int relationIndex = entryRelations[i];
+				relationMap.put(entryIds[i], relationIndex >= 0 && relationIndex < relations.length ? relations[relationIndex] : EnumRelation.None);
+			}
+		}
+
+		else
+		{
+			readLegacyTreeFromNBT(NBT);
+		}
+
+		changeVersion++;
+	}
+
+	/**
+	 * Reads a family tree saved with a pair of tags for each entry.
+	 * 
+	 * @param	NBT	The NBT object that reads information about the entity.
+	 */
+	private void readLegacyTreeFromNBT(NBTTagCompound NBT)
 	{
 		int counter = 0;
 
@@ -512,6 +559,27 @@ public class FamilyTree implements Serializable
 		return returnList;
 	}
 	
+	/**
+	 * Gets the relation map of the family tree. The map must not be changed directly, or the change won't be counted by
+	 * the tree's change version.
+	 *
+	 * @return	Map of the IDs of relatives to their relation to the owner.
+	 */
+	public Map<Integer, EnumRelation> getRelationMap()
+	{
+		return relationMap;
+	}
+
+	/**
+	 * Gets the number of times the tree has been changed since it was created.
+	 *
+	 * @return	The tree's change version.
+	 */
+	public int getChangeVersion()
+	{
+		return changeVersion;
+	}
+
 	/**
 	 * Sets the relation map of the family tree to the provided map value.
 	 * 
@@ -520,6 +588,7 @@ public class FamilyTree implements Serializable
 	public void setRelationMap(Map<Integer, EnumRelation> map)
 	{
 		this.relationMap = map;
+		changeVersion++;
 	}
 	
 	/**
@@ -0,0 +1,621 @@
+/*******************************************************************************
+ * FarmPlot.java
+ * Copyright (c) 2013 WildBamaBoy.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+
+package mca.core.util.object;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import mca.core.util.CoordinateHelper;
+import net.minecraft.block.Block;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.world.World;
+
+/**
+ * Remembers the layout of a farming chore's area so that the farm does not have to be rescanned on every pass.
+ * Each crop cell is queued by the world time at which it is expected to be mature, and only cells that are
+ * due are checked against the world.
+ */
+public class FarmPlot
+{
+	/** Approximate number of ticks a crop takes to advance one growth stage. */
+	public static final int TICKS_PER_GROWTH_STAGE = 2400;
+
+	/** Approximate number of ticks sugarcane takes to grow one block taller. */
+	public static final int TICKS_PER_REED_GROWTH = 12000;
+
+	/** Number of ticks between full rescans, which pick up crops planted or removed by someone else. */
+	public static final int TICKS_BETWEEN_RESCANS = 6000;
+
+	/** The lowest X coordinate of the plot. */
+	public int minX;
+
+	/** The lowest Y coordinate of the plot. */
+	public int minY;
+
+	/** The lowest Z coordinate of the plot. */
+	public int minZ;
+
+	/** The highest X coordinate of the plot. */
+	public int maxX;
+
+	/** The highest Y coordinate of the plot. */
+	public int maxY;
+
+	/** The highest Z coordinate of the plot. */
+	public int maxZ;
+
+	/** The world time at which the plot was last scanned. -1 if it has never been scanned. */
+	public long lastScanTime = -1;
+
+	/** Map of every known crop cell in the plot. Key = packed coordinates, Value = the cell. */
+	private Map<Long, FarmCell> cellMap = new HashMap<Long, FarmCell>();
+
+	/** Crop cells ordered by the time at which they are expected to be mature. */
+	private transient PriorityQueue<FarmCell> maturityQueue;
+
+	/** Land that still needs to be worked when creating a farm, in the order it should be worked. */
+	private transient LinkedList<Coordinates> landQueue;
+
+	/**
+	 * Constructor
+	 *
+	 * @param 	minX	The lowest X coordinate of the plot.
+	 * @param 	minY	The lowest Y coordinate of the plot.
+	 * @param 	minZ	The lowest Z coordinate of the plot.
+	 * @param 	maxX	The highest X coordinate of the plot.
+	 * @param 	maxY	The highest Y coordinate of the plot.
+	 * @param 	maxZ	The highest Z coordinate of the plot.
+	 */
+	public FarmPlot(int minX, int minY, int minZ, int maxX, int maxY, int maxZ)
+	{
+		this.minX = minX;
+		this.minY = minY;
+		this.minZ = minZ;
+		this.maxX = maxX;
+		this.maxY = maxY;
+		this.maxZ = maxZ;
+	}
+
+	/**
+	 * Checks if this plot covers exactly the provided bounds.
+	 *
+	 * @param 	minX	The lowest X coordinate.
+	 * @param 	minY	The lowest Y coordinate.
+	 * @param 	minZ	The lowest Z coordinate.
+	 * @param 	maxX	The highest X coordinate.
+	 * @param 	maxY	The highest Y coordinate.
+	 * @param 	maxZ	The highest Z coordinate.
+	 *
+	 * @return	True if the bounds match the bounds of this plot.
+	 */
+	public boolean hasBounds(int minX, int minY, int minZ, int maxX, int maxY, int maxZ)
+	{
+		return this.minX == minX && this.minY == minY && this.minZ == minZ &&
+				this.maxX == maxX && this.maxY == maxY && this.maxZ == maxZ;
+	}
+
+	/**
+	 * Checks if the provided coordinates are inside the plot.
+	 *
+	 * @param 	x	The X coordinate.
+	 * @param 	y	The Y coordinate.
+	 * @param 	z	The Z coordinate.
+	 *
+	 * @return	True if the coordinates are within the bounds of the plot.
+	 */
+	public boolean contains(int x, int y, int z)
+	{
+		return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+	}
+
+	/**
+	 * Gets the number of crop cells known to this plot.
+	 *
+	 * @return	The number of crop cells in the plot.
+	 */
+	public int getCellCount()
+	{
+		return cellMap.size();
+	}
+
+	/**
+	 * Checks if enough time has passed that the plot should be rescanned.
+	 *
+	 * @param 	worldTime	The current total world time.
+	 *
+	 * @return	True if the plot has never been scanned or the rescan interval has passed.
+	 */
+	public boolean needsRescan(long worldTime)
+	{
+		return lastScanTime < 0 || worldTime - lastScanTime >= TICKS_BETWEEN_RESCANS || worldTime < lastScanTime;
+	}
+
+	/**
+	 * Scans the entire plot once and registers every crop found in it. Crops that are already known keep their
+	 * place in the maturity queue.
+	 *
+	 * @param 	world		The world the plot is in.
+	 * @param 	worldTime	The current total world time.
+	 */
+	public void scanForCrops(World world, long worldTime)
+	{
+		Map<Long, FarmCell> scannedCells = new HashMap<Long, FarmCell>();
+
+		for (int y = minY; y <= maxY; y++)
+		{
+			for (int z = minZ; z <= maxZ; z++)
+			{
+				for (int x = minX; x <= maxX; x++)
+				{
+					int blockID = world.getBlockId(x, y, z);
+
+					if (!isCropBlock(blockID))
+					{
+						continue;
+					}
+
+					//Only the base of a sugarcane stalk is a cell.
+					if (blockID == Block.reed.blockID && world.getBlockId(x, y - 1, z) == Block.reed.blockID)
+					{
+						continue;
+					}
+
+					long key = CoordinateHelper.packCoordinates(x, y, z);
+					FarmCell cell = cellMap.get(key);
+
+					if (cell == null || cell.cropBlockId != blockID)
+					{
+						cell = new FarmCell(x, y, z, blockID, worldTime);
+						cell.expectedMatureTime = worldTime;
+					}
+
+					scannedCells.put(key, cell);
+				}
+			}
+		}
+
+		cellMap = scannedCells;
+		rebuildMaturityQueue();
+		lastScanTime = worldTime;
+	}
+
+	/**
+	 * Registers a crop that has just been planted at the provided coordinates.
+	 *
+	 * @param 	x				The X coordinate of the crop.
+	 * @param 	y				The Y coordinate of the crop.
+	 * @param 	z				The Z coordinate of the crop.
+	 * @param 	cropBlockId		The block ID of the crop.
+	 * @param 	worldTime		The current total world time.
+	 */
+	public void plantCell(int x, int y, int z, int cropBlockId, long worldTime)
+	{
+		if (!contains(x, y, z))
+		{
+			return;
+		}
+
+		FarmCell cell = new FarmCell(x, y, z, cropBlockId, worldTime);
+		cell.expectedMatureTime = worldTime + getTicksToMature(cropBlockId, 0);
+
+		FarmCell previousCell = cellMap.put(CoordinateHelper.packCoordinates(x, y, z), cell);
+		getMaturityQueue().remove(previousCell);
+		getMaturityQueue().add(cell);
+	}
+
+	/**
+	 * Puts a cell that has just been harvested back into the maturity queue. If the crop was not replanted,
+	 * the cell will be dropped the next time it comes due.
+	 *
+	 * @param 	cell		The cell that was harvested.
+	 * @param 	worldTime	The current total world time.
+	 */
+	public void rescheduleCell(FarmCell cell, long worldTime)
+	{
+		if (cell == null || cellMap.get(CoordinateHelper.packCoordinates(cell.x, cell.y, cell.z)) != cell)
+		{
+			return;
+		}
+
+		getMaturityQueue().remove(cell);
+		cell.plantedTime = worldTime;
+		cell.expectedMatureTime = worldTime + getTicksToMature(cell.cropBlockId, 0);
+		getMaturityQueue().add(cell);
+	}
+
+	/**
+	 * Puts a cell that can't be worked right now back into the plot, to be checked again at the provided time.
+	 *
+	 * @param 	cell		The cell to put back.
+	 * @param 	checkTime	The world time at which the cell should be checked again.
+	 */
+	public void deferCell(FarmCell cell, long checkTime)
+	{
+		getMaturityQueue().remove(cell);
+		cell.expectedMatureTime = checkTime;
+		cellMap.put(CoordinateHelper.packCoordinates(cell.x, cell.y, cell.z), cell);
+		getMaturityQueue().add(cell);
+	}
+
+	/**
+	 * Gets the next cell that is due and actually ready to harvest. Cells that are due but not yet mature are
+	 * requeued based on how far along they are, and cells that no longer contain their crop are forgotten.
+	 *
+	 * @param 	world		The world the plot is in.
+	 * @param 	worldTime	The current total world time.
+	 *
+	 * @return	The next cell ready to be harvested, with its harvest coordinates set. Null if no cell is ready.
+	 */
+	public FarmCell pollMaturedCell(World world, long worldTime)
+	{
+		PriorityQueue<FarmCell> queue = getMaturityQueue();
+
+		while (!queue.isEmpty() && queue.peek().expectedMatureTime <= worldTime)
+		{
+			FarmCell cell = queue.poll();
+			int blockID = world.getBlockId(cell.x, cell.y, cell.z);
+
+			if (blockID != cell.cropBlockId)
+			{
+				//Fruit blocks are harvested outright, everything else was removed by someone else.
+				cellMap.remove(CoordinateHelper.packCoordinates(cell.x, cell.y, cell.z));
+				continue;
+			}
+
+			if (blockID == Block.pumpkin.blockID || blockID == Block.melon.blockID)
+			{
+				cellMap.remove(CoordinateHelper.packCoordinates(cell.x, cell.y, cell.z));
+				cell.setHarvestCoordinates(cell.x, cell.y, cell.z);
+				return cell;
+			}
+
+			else if (blockID == Block.reed.blockID)
+			{
+				if (world.getBlockId(cell.x, cell.y + 1, cell.z) == Block.reed.blockID)
+				{
+					cell.setHarvestCoordinates(cell.x, cell.y + 1, cell.z);
+					return cell;
+				}
+			}
+
+			else if (blockID == Block.melonStem.blockID || blockID == Block.pumpkinStem.blockID)
+			{
+				int fruitID = blockID == Block.melonStem.blockID ? Block.melon.blockID : Block.pumpkin.blockID;
+				int[][] offsets = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+
+				for (int[] offset : offsets)
+				{
+					if (world.getBlockId(cell.x + offset[0], cell.y, cell.z + offset[1]) == fruitID)
+					{
+						cell.setHarvestCoordinates(cell.x + offset[0], cell.y, cell.z + offset[1]);
+						return cell;
+					}
+				}
+			}
+
+			else if (world.getBlockMetadata(cell.x, cell.y, cell.z) == 7)
+			{
+				cell.setHarvestCoordinates(cell.x, cell.y, cell.z);
+				return cell;
+			}
+
+			//Not ready yet. Check back when the remaining growth stages should be done.
+			cell.expectedMatureTime = worldTime + getTicksToMature(blockID, world.getBlockMetadata(cell.x, cell.y, cell.z));
+			queue.add(cell);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Counts how many times each kind of crop in the plot would be harvested over the provided number of ticks,
+	 * assuming every crop is harvested and replanted as soon as it is mature. Fruit is counted by the stem that grows it.
+	 * The first growth of each crop is left out, since the crops standing in the world are harvested as normal afterwards.
+	 *
+	 * @param 	elapsedTicks	The number of ticks to count harvests over.
+	 *
+	 * @return	Map of crop block IDs to the number of times that crop would be harvested.
+	 */
+	public Map<Integer, Long> getHarvestsOverTime(long elapsedTicks)
+	{
+		Map<Integer, Long> harvestMap = new HashMap<Integer, Long>();
+
+		for (FarmCell cell : cellMap.values())
+		{
+			int ticksToMature = getTicksToMature(cell.cropBlockId, 0);
+
+			if (ticksToMature > 0)
+			{
+				Long harvests = harvestMap.get(cell.cropBlockId);
+				harvestMap.put(cell.cropBlockId, (harvests == null ? 0 : harvests) + Math.max(elapsedTicks / ticksToMature - 1, 0));
+			}
+		}
+
+		return harvestMap;
+	}
+
+	/**
+	 * Builds the list of land to be worked when creating a farm. This is done once per farm instead of once per block worked.
+	 *
+	 * @param 	world	The world the plot is in.
+	 * @param 	startX	The X coordinate the farm starts at.
+	 * @param 	startY	The Y coordinate the farm starts at.
+	 * @param 	startZ	The Z coordinate the farm starts at.
+	 * @param 	areaX	The X size of the farm.
+	 * @param 	areaZ	The Z size of the farm.
+	 */
+	public void queueFarmableLand(World world, int startX, int startY, int startZ, int areaX, int areaZ)
+	{
+		landQueue = new LinkedList<Coordinates>();
+
+		for (int zMov = 0; zMov < areaZ; zMov++)
+		{
+			for (int xMov = 0; xMov < areaX; xMov++)
+			{
+				if (isFarmableLand(world, startX + xMov, startY - 1, startZ + zMov))
+				{
+					landQueue.add(new Coordinates(startX + xMov, startY - 1, startZ + zMov));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks if the list of land to be worked has been built.
+	 *
+	 * @return	True if queueFarmableLand() has been called.
+	 */
+	public boolean hasQueuedLand()
+	{
+		return landQueue != null;
+	}
+
+	/**
+	 * Gets the next piece of land that still needs to be worked, skipping any that are no longer farmable.
+	 *
+	 * @param 	world	The world the plot is in.
+	 *
+	 * @return	Coordinates of the next farmable land. Null if there is no land left.
+	 */
+	public Coordinates pollFarmableLand(World world)
+	{
+		while (landQueue != null && !landQueue.isEmpty())
+		{
+			Coordinates coords = landQueue.poll();
+
+			if (isFarmableLand(world, (int)coords.x, (int)coords.y, (int)coords.z))
+			{
+				return coords;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Writes the plot to NBT.
+	 *
+	 * @param 	NBT	The NBTTagCompound to write the plot to.
+	 */
+	public void writePlotToNBT(NBTTagCompound NBT)
+	{
+		NBTTagCompound plotCompound = new NBTTagCompound();
+		plotCompound.setIntArray("bounds", new int[] {minX, minY, minZ, maxX, maxY, maxZ});
+		plotCompound.setLong("lastScanTime", lastScanTime);
+
+		NBTTagList cellList = new NBTTagList();
+
+		for (FarmCell cell : cellMap.values())
+		{
+			NBTTagCompound cellCompound = new NBTTagCompound();
+			cellCompound.setIntArray("position", new int[] {cell.x, cell.y, cell.z});
+			cellCompound.setInteger("cropBlockId", cell.cropBlockId);
+			cellCompound.setLong("plantedTime", cell.plantedTime);
+			cellCompound.setLong("expectedMatureTime", cell.expectedMatureTime);
+			cellList.appendTag(cellCompound);
+		}
+
+		plotCompound.setTag("cells", cellList);
+		NBT.setCompoundTag("farmPlot", plotCompound);
+	}
+
+	/**
+	 * Reads a plot from NBT.
+	 *
+	 * @param 	NBT	The NBTTagCompound to read the plot from.
+	 *
+	 * @return	The plot that was saved to NBT. Null if no plot was saved.
+	 */
+	public static FarmPlot readPlotFromNBT(NBTTagCompound NBT)
+	{
+		if (!NBT.hasKey("farmPlot"))
+		{
+			return null;
+		}
+
+		NBTTagCompound plotCompound = NBT.getCompoundTag("farmPlot");
+		int[] bounds = plotCompound.getIntArray("bounds");
+
+		if (bounds.length != 6)
+		{
+			return null;
+		}
+
+		FarmPlot plot = new FarmPlot(bounds[0], bounds[1], bounds[2], bounds[3], bounds[4], bounds[5]);
+		plot.lastScanTime = plotCompound.getLong("lastScanTime");
+
+		NBTTagList cellList = plotCompound.getTagList("cells");
+
+		for (int i = 0; i < cellList.tagCount(); i++)
+		{
+			NBTTagCompound cellCompound = (NBTTagCompound)cellList.tagAt(i);
+			int[] position = cellCompound.getIntArray("position");
+
+			FarmCell cell = new FarmCell(position[0], position[1], position[2], cellCompound.getInteger("cropBlockId"), cellCompound.getLong("plantedTime"));
+			cell.expectedMatureTime = cellCompound.getLong("expectedMatureTime");
+			plot.cellMap.put(CoordinateHelper.packCoordinates(cell.x, cell.y, cell.z), cell);
+		}
+
+		plot.rebuildMaturityQueue();
+		return plot;
+	}
+
+	/**
+	 * Gets the maturity queue, rebuilding it if the plot was just deserialized.
+	 *
+	 * @return	The maturity queue.
+	 */
+	private PriorityQueue<FarmCell> getMaturityQueue()
+	{
+		if (maturityQueue == null)
+		{
+			rebuildMaturityQueue();
+		}
+
+		return maturityQueue;
+	}
+
+	/**
+	 * Rebuilds the maturity queue from the cell map.
+	 */
+	private void rebuildMaturityQueue()
+	{
+		maturityQueue = new PriorityQueue<FarmCell>(Math.max(cellMap.size(), 1));
+		maturityQueue.addAll(cellMap.values());
+	}
+
+	/**
+	 * Estimates how long a crop will take to finish growing.
+	 *
+	 * @param 	cropBlockId		The block ID of the crop.
+	 * @param 	metadata		The current metadata (growth stage) of the crop.
+	 *
+	 * @return	Estimated number of ticks until the crop can be harvested.
+	 */
+	private static int getTicksToMature(int cropBlockId, int metadata)
+	{
+		if (cropBlockId == Block.reed.blockID)
+		{
+			return TICKS_PER_REED_GROWTH;
+		}
+
+		else if (cropBlockId == Block.pumpkin.blockID || cropBlockId == Block.melon.blockID)
+		{
+			return 0;
+		}
+
+		//Mature stems still need time to grow fruit.
+		return Math.max(7 - metadata, 1) * TICKS_PER_GROWTH_STAGE;
+	}
+
+	/**
+	 * Checks if the block ID provided is one that the farming chore can harvest or grow.
+	 *
+	 * @param 	blockID	The block ID to check.
+	 *
+	 * @return	True if the block is a crop, stem, fruit, or sugarcane.
+	 */
+	private static boolean isCropBlock(int blockID)
+	{
+		return blockID == Block.crops.blockID || blockID == Block.carrot.blockID || blockID == Block.potato.blockID ||
+				blockID == Block.reed.blockID || blockID == Block.melonStem.blockID || blockID == Block.pumpkinStem.blockID ||
+				blockID == Block.melon.blockID || blockID == Block.pumpkin.blockID;
+	}
+
+	/**
+	 * Checks if the block at the provided coordinates can be farmed.
+	 *
+	 * @param 	world	The world the block is in.
+	 * @param 	x		The X coordinate of the block.
+	 * @param 	y		The Y coordinate of the block.
+	 * @param 	z		The Z coordinate of the block.
+	 *
+	 * @return	True if the block is grass or dirt with air above it.
+	 */
+	private static boolean isFarmableLand(World world, int x, int y, int z)
+	{
+		int blockID = world.getBlockId(x, y, z);
+		return (blockID == Block.grass.blockID || blockID == Block.dirt.blockID) && world.isAirBlock(x, y + 1, z);
+	}
+
+	/**
+	 * A single crop within the farm plot.
+	 */
+	public static class FarmCell implements Comparable<FarmCell>
+	{
+		/** The X coordinate of the crop. */
+		public final int x;
+
+		/** The Y coordinate of the crop. */
+		public final int y;
+
+		/** The Z coordinate of the crop. */
+		public final int z;
+
+		/** The block ID of the crop. */
+		public final int cropBlockId;
+
+		/** The world time at which the crop was planted or last harvested. */
+		public long plantedTime;
+
+		/** The world time at which the crop is expected to be mature. */
+		public long expectedMatureTime;
+
+		/** The X coordinate of the block to harvest. May differ from the crop for stems and sugarcane. */
+		public int harvestX;
+
+		/** The Y coordinate of the block to harvest. */
+		public int harvestY;
+
+		/** The Z coordinate of the block to harvest. */
+		public int harvestZ;
+
+		/**
+		 * Constructor
+		 *
+		 * @param 	x				The X coordinate of the crop.
+		 * @param 	y				The Y coordinate of the crop.
+		 * @param 	z				The Z coordinate of the crop.
+		 * @param 	cropBlockId		The block ID of the crop.
+		 * @param 	plantedTime		The world time at which the crop was planted.
+		 */
+		public FarmCell(int x, int y, int z, int cropBlockId, long plantedTime)
+		{
+			this.x = x;
+			this.y = y;
+			this.z = z;
+			this.cropBlockId = cropBlockId;
+			this.plantedTime = plantedTime;
+		}
+
+		/**
+		 * Sets the coordinates of the block that should be harvested for this cell.
+		 *
+		 * @param 	x	The X coordinate.
+		 * @param 	y	The Y coordinate.
+		 * @param 	z	The Z coordinate.
+		 */
+		private void setHarvestCoordinates(int x, int y, int z)
+		{
+			harvestX = x;
+			harvestY = y;
+			harvestZ = z;
+		}
+
+		@Override
+		public int compareTo(FarmCell cell)
+		{
+			return expectedMatureTime < cell.expectedMatureTime ? -1 : expectedMatureTime > cell.expectedMatureTime ? 1 : 0;
+		}
+	}
+}
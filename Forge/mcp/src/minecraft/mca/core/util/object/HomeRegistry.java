@@ -0,0 +1,298 @@
+/*******************************************************************************
+ * HomeRegistry.java
+ * Copyright (c) 2013 WildBamaBoy.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+
+package mca.core.util.object;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+
+import mca.core.MCA;
+import mca.core.util.CoordinateHelper;
+import mca.core.util.LanguageHelper;
+import mca.entity.AbstractEntity;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.world.World;
+
+/**
+ * Sends entities to their home points at night in small batches instead of all at once. Entities waiting to go home
+ * are indexed by the chunk their home point is in, so the home points in one chunk are checked together. Players
+ * are told about home points that are missing or obstructed once per batch instead of once for every entity.
+ */
+public class HomeRegistry
+{
+	/** How many entities are sent home each tick. */
+	private static final int TELEPORTS_PER_TICK = 4;
+
+	/** Map of the entities waiting to go home in each world. */
+	private final Map<World, WorldHomes> worldHomesMap = Collections.synchronizedMap(new WeakHashMap<World, WorldHomes>());
+
+	/**
+	 * Adds an entity to the entities waiting to go home in its world.
+	 *
+	 * @param 	entity	The entity that should go home.
+	 */
+	public void queueTeleport(AbstractEntity entity)
+	{
+		WorldHomes worldHomes = getWorldHomes(entity.worldObj);
+		long chunkKey = CoordinateHelper.getChunkKey((int)entity.homePointX >> 4, (int)entity.homePointZ >> 4);
+		List<AbstractEntity> entityList = worldHomes.queueMap.get(chunkKey);
+
+		if (entityList == null)
+		{
+			entityList = new ArrayList<AbstractEntity>();
+			worldHomes.queueMap.put(chunkKey, entityList);
+		}
+
+		if (!entityList.contains(entity))
+		{
+			entityList.add(entity);
+		}
+	}
+
+	/**
+	 * Sends the next few waiting entities home. Only runs once per tick for each world.
+	 *
+	 * @param 	world	The world the entities are in.
+	 */
+	public void update(World world)
+	{
+		WorldHomes worldHomes = worldHomesMap.get(world);
+
+		if (worldHomes == null || worldHomes.lastUpdateTime == world.getTotalWorldTime())
+		{
+			return;
+		}
+
+		worldHomes.lastUpdateTime = world.getTotalWorldTime();
+		int teleportsLeft = TELEPORTS_PER_TICK;
+
+		while (teleportsLeft > 0 && !worldHomes.queueMap.isEmpty())
+		{
+			Map.Entry<Long, List<AbstractEntity>> chunkEntry = worldHomes.queueMap.firstEntry();
+			Iterator<AbstractEntity> iterator = chunkEntry.getValue().iterator();
+
+			while (teleportsLeft > 0 && iterator.hasNext())
+			{
+				AbstractEntity entity = iterator.next();
+				iterator.remove();
+
+				if (!entity.isDead)
+				{
+					String noticeId = entity.spawnAtHomePoint();
+					teleportsLeft--;
+
+					if (noticeId != null)
+					{
+						addNotice(worldHomes, entity, noticeId);
+					}
+				}
+			}
+
+			if (chunkEntry.getValue().isEmpty())
+			{
+				worldHomes.queueMap.remove(chunkEntry.getKey());
+			}
+		}
+
+		//Tell players about the problems with this batch once everyone has gone home.
+		if (worldHomes.queueMap.isEmpty())
+		{
+			sendNotices(worldHomes);
+			worldHomes.obstructionMap.clear();
+		}
+	}
+
+	/**
+	 * Checks if the home point at the provided coordinates is blocked. Results are remembered until the batch is finished
+	 * or the chunk is loaded again, since several entities often share a home point.
+	 *
+	 * @param 	world	The world the home point is in.
+	 * @param 	x		The X coordinate of the home point.
+	 * @param 	y		The Y coordinate of the home point.
+	 * @param 	z		The Z coordinate of the home point.
+	 *
+	 * @return	True if the home point or the block above it is not air.
+	 */
+	public boolean isObstructed(World world, int x, int y, int z)
+	{
+		WorldHomes worldHomes = getWorldHomes(world);
+		long chunkKey = CoordinateHelper.getChunkKey(x >> 4, z >> 4);
+		Map<Long, Boolean> chunkObstructionMap = worldHomes.obstructionMap.get(chunkKey);
+
+		if (chunkObstructionMap == null)
+		{
+			chunkObstructionMap = new HashMap<Long, Boolean>();
+			worldHomes.obstructionMap.put(chunkKey, chunkObstructionMap);
+		}
+
+		long key = CoordinateHelper.packCoordinates(x, y, z);
+		Boolean isObstructed = chunkObstructionMap.get(key);
+
+		if (isObstructed == null)
+		{
+			isObstructed = world.getBlockId(x, y, z) != 0 || world.getBlockId(x, y + 1, z) != 0;
+			chunkObstructionMap.put(key, isObstructed);
+		}
+
+		return isObstructed;
+	}
+
+	/**
+	 * Forgets what was found about home points in a chunk that was just loaded, since its blocks may have changed.
+	 *
+	 * @param 	world	The world the chunk is in.
+	 * @param 	chunkX	The X coordinate of the chunk.
+	 * @param 	chunkZ	The Z coordinate of the chunk.
+	 */
+	public void onChunkLoad(World world, int chunkX, int chunkZ)
+	{
+		WorldHomes worldHomes = worldHomesMap.get(world);
+
+		if (worldHomes != null)
+		{
+			worldHomes.obstructionMap.remove(CoordinateHelper.getChunkKey(chunkX, chunkZ));
+		}
+	}
+
+	/**
+	 * Forgets every waiting entity in every world.
+	 */
+	public void clear()
+	{
+		worldHomesMap.clear();
+	}
+
+	/**
+	 * Forgets every waiting entity in the provided world. Called when the world unloads, since the waiting
+	 * entities would otherwise keep it loaded.
+	 *
+	 * @param 	world	The world that unloaded.
+	 */
+	public void clearWorld(World world)
+	{
+		worldHomesMap.remove(world);
+	}
+
+	/**
+	 * Remembers that the players related to an entity should be told something about its home point.
+	 *
+	 * @param 	worldHomes	The home information of the entity's world.
+	 * @param 	entity		The entity whose home point had a problem.
+	 * @param 	noticeId	The ID of the string the players should be told.
+	 */
+	private void addNotice(WorldHomes worldHomes, AbstractEntity entity, String noticeId)
+	{
+		for (int playerId : entity.familyTree.getListOfPlayers())
+		{
+			EntityPlayer player = MCA.instance.getPlayerByID(entity.worldObj, playerId);
+
+			if (player != null)
+			{
+				String key = player.username + ":" + noticeId;
+				Notice notice = worldHomes.noticeMap.get(key);
+
+				if (notice == null)
+				{
+					worldHomes.noticeMap.put(key, new Notice(player, entity, noticeId));
+				}
+
+				else
+				{
+					notice.count++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Tells each player about the problems found, naming the first entity and counting the rest.
+	 *
+	 * @param 	worldHomes	The home information of the world.
+	 */
+	private void sendNotices(WorldHomes worldHomes)
+	{
+		for (Notice notice : worldHomes.noticeMap.values())
+		{
+			String suffix = notice.count > 1 ? " (+" + (notice.count - 1) + ")" : null;
+			notice.entity.notifyPlayer(notice.player, LanguageHelper.getString(notice.player, notice.entity, notice.noticeId, false, null, suffix));
+		}
+
+		worldHomes.noticeMap.clear();
+	}
+
+	/**
+	 * Gets the home information of the provided world, creating it if necessary.
+	 *
+	 * @param 	world	The world whose home information should be returned.
+	 *
+	 * @return	The world's home information.
+	 */
+	private WorldHomes getWorldHomes(World world)
+	{
+		WorldHomes worldHomes = worldHomesMap.get(world);
+
+		if (worldHomes == null)
+		{
+			worldHomes = new WorldHomes();
+			worldHomesMap.put(world, worldHomes);
+		}
+
+		return worldHomes;
+	}
+
+	/**
+	 * The entities waiting to go home in a single world.
+	 */
+	private static class WorldHomes
+	{
+		/** The entities waiting to go home. Key = chunk key of their home point, Value = entities with a home point in that chunk. */
+		private final TreeMap<Long, List<AbstractEntity>> queueMap = new TreeMap<Long, List<AbstractEntity>>();
+
+		/** Home points that have been checked during this batch. Key = chunk key, Value = map of packed coordinates to whether the home point is obstructed. */
+		private final Map<Long, Map<Long, Boolean>> obstructionMap = new HashMap<Long, Map<Long, Boolean>>();
+
+		/** Notices waiting for the batch to finish. Key = player name and string ID. */
+		private final Map<String, Notice> noticeMap = new LinkedHashMap<String, Notice>();
+
+		/** The world time at which the queue was last updated. */
+		private long lastUpdateTime = -1;
+	}
+
+	/**
+	 * Something a player should be told about one or more home points.
+	 */
+	private static class Notice
+	{
+		private final EntityPlayer player;
+		private final AbstractEntity entity;
+		private final String noticeId;
+		private int count = 1;
+
+		/**
+		 * Constructor
+		 *
+		 * @param 	player		The player to tell.
+		 * @param 	entity		The first entity the notice is about.
+		 * @param 	noticeId	The ID of the string to tell the player.
+		 */
+		private Notice(EntityPlayer player, AbstractEntity entity, String noticeId)
+		{
+			this.player = player;
+			this.entity = entity;
+			this.noticeId = noticeId;
+		}
+	}
+}
@@ -0,0 +1,374 @@
+/*******************************************************************************
+ * JobBoard.java
+ * Copyright (c) 2013 WildBamaBoy.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+
+package mca.core.util.object;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import mca.core.util.CoordinateHelper;
+import mca.entity.AbstractEntity;
+import net.minecraft.world.World;
+
+/**
+ * Keeps track of which entity is working on what in each world, so that entities performing the same chore
+ * do not work on the same tree or crop. Claims are leased and must be renewed, so a claim held by an entity
+ * that was unloaded or killed expires on its own. The farm plots of maintained farms are shared here by area, so
+ * farmers working the same area use a single scan of it and claim cells from that.
+ */
+public class JobBoard
+{
+	/** How many ticks a claim lasts without being renewed. */
+	public static final int LEASE_TICKS = 600;
+
+	/** How many ticks a shared farm plot is kept after it was last used. */
+	public static final int PLOT_LIFETIME_TICKS = FarmPlot.TICKS_BETWEEN_RESCANS * 2;
+
+	/** Map of the claims in each world. Key = world, Value = map of job keys to claims. */
+	private final Map<World, Map<Long, JobClaim>> worldClaimMap = Collections.synchronizedMap(new WeakHashMap<World, Map<Long, JobClaim>>());
+
+	/** Map of the farm plots in each world. Key = world, Value = map of the packed lowest corner of a plot to the plots starting there. */
+	private final Map<World, Map<Long, List<SharedPlot>>> worldPlotMap = Collections.synchronizedMap(new WeakHashMap<World, Map<Long, List<SharedPlot>>>());
+
+	/**
+	 * Claims a job for the provided entity, or renews the lease if the entity already holds it.
+	 *
+	 * @param 	entity	The entity claiming the job.
+	 * @param 	jobKey	The key of the job to claim.
+	 *
+	 * @return	True if the entity now holds the job. False if another entity holds it.
+	 */
+	public boolean claim(AbstractEntity entity, long jobKey)
+	{
+		Map<Long, JobClaim> claimMap = getClaimMap(entity.worldObj);
+		long worldTime = entity.worldObj.getTotalWorldTime();
+		JobClaim claim = claimMap.get(jobKey);
+
+		if (claim != null && claim.entityId != entity.entityId && !claim.isExpired(worldTime))
+		{
+			return false;
+		}
+
+		if (claim == null || claim.entityId != entity.entityId)
+		{
+			claim = new JobClaim(entity.entityId);
+			claimMap.put(jobKey, claim);
+		}
+
+		claim.leaseExpireTime = worldTime + LEASE_TICKS;
+		return true;
+	}
+
+	/**
+	 * Checks if a job is held by an entity other than the one provided.
+	 *
+	 * @param 	entity	The entity that wants to know if the job is available.
+	 * @param 	jobKey	The key of the job.
+	 *
+	 * @return	True if another entity holds an unexpired claim on the job.
+	 */
+	public boolean isClaimedByOther(AbstractEntity entity, long jobKey)
+	{
+		Map<Long, JobClaim> claimMap = worldClaimMap.get(entity.worldObj);
+
+		if (claimMap != null)
+		{
+			JobClaim claim = claimMap.get(jobKey);
+			return claim != null && claim.entityId != entity.entityId && !claim.isExpired(entity.worldObj.getTotalWorldTime());
+		}
+
+		return false;
+	}
+
+	/**
+	 * Gives up the provided entity's claim on a job.
+	 *
+	 * @param 	entity	The entity releasing the job.
+	 * @param 	jobKey	The key of the job.
+	 */
+	public void release(AbstractEntity entity, long jobKey)
+	{
+		Map<Long, JobClaim> claimMap = worldClaimMap.get(entity.worldObj);
+
+		if (claimMap != null)
+		{
+			JobClaim claim = claimMap.get(jobKey);
+
+			if (claim != null && claim.entityId == entity.entityId)
+			{
+				claimMap.remove(jobKey);
+			}
+		}
+	}
+
+	/**
+	 * Gives up every claim held by the provided entity and forgets any claims that have expired.
+	 *
+	 * @param 	entity	The entity releasing its jobs.
+	 */
+	public void releaseAll(AbstractEntity entity)
+	{
+		Map<Long, JobClaim> claimMap = worldClaimMap.get(entity.worldObj);
+
+		if (claimMap != null)
+		{
+			long worldTime = entity.worldObj.getTotalWorldTime();
+
+			for (Iterator<JobClaim> iterator = claimMap.values().iterator(); iterator.hasNext();)
+			{
+				JobClaim claim = iterator.next();
+
+				if (claim.entityId == entity.entityId || claim.isExpired(worldTime))
+				{
+					iterator.remove();
+				}
+			}
+		}
+
+		Map<Long, List<SharedPlot>> plotMap = worldPlotMap.get(entity.worldObj);
+
+		if (plotMap != null)
+		{
+			for (List<SharedPlot> plotList : plotMap.values())
+			{
+				for (SharedPlot sharedPlot : plotList)
+				{
+					sharedPlot.holderMap.remove(entity.entityId);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the farm plot shared by everyone working the same area as the provided plot, and leases it to the
+	 * provided entity. The provided plot becomes the shared plot if no one else is working that area.
+	 *
+	 * @param 	entity	The entity working the plot.
+	 * @param 	plot	The plot covering the area to be worked.
+	 *
+	 * @return	The shared plot with the same bounds as the provided plot.
+	 */
+	public FarmPlot getSharedPlot(AbstractEntity entity, FarmPlot plot)
+	{
+		World world = entity.worldObj;
+		Map<Long, List<SharedPlot>> plotMap = worldPlotMap.get(world);
+		long worldTime = world.getTotalWorldTime();
+
+		if (plotMap == null)
+		{
+			plotMap = new HashMap<Long, List<SharedPlot>>();
+			worldPlotMap.put(world, plotMap);
+		}
+
+		long plotKey = CoordinateHelper.packCoordinates(plot.minX, plot.minY, plot.minZ);
+		List<SharedPlot> plotList = plotMap.get(plotKey);
+
+		if (plotList != null)
+		{
+			for (SharedPlot sharedPlot : plotList)
+			{
+				if (sharedPlot.plot == plot || sharedPlot.plot.hasBounds(plot.minX, plot.minY, plot.minZ, plot.maxX, plot.maxY, plot.maxZ))
+				{
+					sharedPlot.lastUsedTime = worldTime;
+					sharedPlot.holderMap.put(entity.entityId, worldTime);
+					return sharedPlot.plot;
+				}
+			}
+		}
+
+		//Forget plots no one has worked in a while before adding a new one.
+		for (Iterator<List<SharedPlot>> listIterator = plotMap.values().iterator(); listIterator.hasNext();)
+		{
+			List<SharedPlot> list = listIterator.next();
+
+			for (Iterator<SharedPlot> iterator = list.iterator(); iterator.hasNext();)
+			{
+				SharedPlot sharedPlot = iterator.next();
+
+				if (worldTime - sharedPlot.lastUsedTime > PLOT_LIFETIME_TICKS || worldTime < sharedPlot.lastUsedTime)
+				{
+					iterator.remove();
+				}
+			}
+
+			if (list.isEmpty())
+			{
+				listIterator.remove();
+			}
+		}
+
+		plotList = plotMap.get(plotKey);
+
+		if (plotList == null)
+		{
+			plotList = new ArrayList<SharedPlot>();
+			plotMap.put(plotKey, plotList);
+		}
+
+		SharedPlot sharedPlot = new SharedPlot(plot, worldTime);
+		sharedPlot.holderMap.put(entity.entityId, worldTime);
+		plotList.add(sharedPlot);
+		return plot;
+	}
+
+	/**
+	 * Counts the entities holding an unexpired lease on a shared farm plot.
+	 *
+	 * @param 	world	The world the plot is in.
+	 * @param 	plot	The shared plot.
+	 *
+	 * @return	The number of entities working the plot. At least 1, for whoever is asking.
+	 */
+	public int getPlotHolderCount(World world, FarmPlot plot)
+	{
+		Map<Long, List<SharedPlot>> plotMap = worldPlotMap.get(world);
+		List<SharedPlot> plotList = plotMap != null ? plotMap.get(CoordinateHelper.packCoordinates(plot.minX, plot.minY, plot.minZ)) : null;
+		long worldTime = world.getTotalWorldTime();
+		int holderCount = 0;
+
+		if (plotList != null)
+		{
+			for (SharedPlot sharedPlot : plotList)
+			{
+				if (sharedPlot.plot == plot)
+				{
+					for (long lastUsedTime : sharedPlot.holderMap.values())
+					{
+						if (worldTime - lastUsedTime <= LEASE_TICKS && worldTime >= lastUsedTime)
+						{
+							holderCount++;
+						}
+					}
+				}
+			}
+		}
+
+		return Math.max(holderCount, 1);
+	}
+
+	/**
+	 * Forgets every claim and farm plot in every world.
+	 */
+	public void clear()
+	{
+		worldClaimMap.clear();
+		worldPlotMap.clear();
+	}
+
+	/**
+	 * Forgets every claim and farm plot in the provided world. Called when the world unloads.
+	 *
+	 * @param 	world	The world that unloaded.
+	 */
+	public void clearWorld(World world)
+	{
+		worldClaimMap.remove(world);
+		worldPlotMap.remove(world);
+	}
+
+	/**
+	 * Gets the key of the job at the provided block coordinates.
+	 *
+	 * @param 	x	The X coordinate.
+	 * @param 	y	The Y coordinate.
+	 * @param 	z	The Z coordinate.
+	 *
+	 * @return	The job key for the coordinates.
+	 */
+	public static long getJobKey(int x, int y, int z)
+	{
+		return CoordinateHelper.packCoordinates(x, y, z);
+	}
+
+	/**
+	 * Gets the map of claims in the provided world, creating it if necessary.
+	 *
+	 * @param 	world	The world whose claims should be returned.
+	 *
+	 * @return	Map of job keys to claims.
+	 */
+	private Map<Long, JobClaim> getClaimMap(World world)
+	{
+		Map<Long, JobClaim> claimMap = worldClaimMap.get(world);
+
+		if (claimMap == null)
+		{
+			claimMap = new HashMap<Long, JobClaim>();
+			worldClaimMap.put(world, claimMap);
+		}
+
+		return claimMap;
+	}
+
+	/**
+	 * A single entity's claim on a job.
+	 */
+	private static class JobClaim
+	{
+		/** The ID of the entity holding the claim. */
+		private final int entityId;
+
+		/** The world time at which the claim expires if not renewed. */
+		private long leaseExpireTime;
+
+		/**
+		 * Constructor
+		 *
+		 * @param 	entityId	The ID of the entity holding the claim.
+		 */
+		private JobClaim(int entityId)
+		{
+			this.entityId = entityId;
+		}
+
+		/**
+		 * Checks if the claim's lease has run out.
+		 *
+		 * @param 	worldTime	The current total world time.
+		 *
+		 * @return	True if the claim has expired.
+		 */
+		private boolean isExpired(long worldTime)
+		{
+			return worldTime >= leaseExpireTime || leaseExpireTime - worldTime > LEASE_TICKS;
+		}
+	}
+
+	/**
+	 * A farm plot shared by the entities working its area.
+	 */
+	private static class SharedPlot
+	{
+		/** The shared plot. */
+		private final FarmPlot plot;
+
+		/** The world time at which the plot was last used. */
+		private long lastUsedTime;
+
+		/** Map of the entities working the plot. Key = entity ID, Value = the world time at which the entity last used the plot. */
+		private final Map<Integer, Long> holderMap = new HashMap<Integer, Long>();
+
+		/**
+		 * Constructor
+		 *
+		 * @param 	plot			The shared plot.
+		 * @param 	lastUsedTime	The world time at which the plot was last used.
+		 */
+		private SharedPlot(FarmPlot plot, long lastUsedTime)
+		{
+			this.plot = plot;
+			this.lastUsedTime = lastUsedTime;
+		}
+	}
+}
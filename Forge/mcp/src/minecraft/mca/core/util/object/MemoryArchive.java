@@ -0,0 +1,263 @@
+/*******************************************************************************
+ * MemoryArchive.java
+ * Copyright (c) 2013 WildBamaBoy.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+
+package mca.core.util.object;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldSavedData;
+
+/**
+ * Holds the memories entities have of players who haven't been around in a while, so that they don't
+ * need to be kept on the entities themselves. Saved with the world's data. Server side only.
+ */
+public class MemoryArchive extends WorldSavedData
+{
+	/** The name of the archive in the world's data. */
+	public static final String ARCHIVE_NAME = "MCAMemoryArchive";
+
+	/** Map of the archived memories of each entity. Key = MCA ID of the entity, Value = map of player names to memories. */
+	private final Map<Integer, Map<String, PlayerMemory>> archivedMemoryMap = new HashMap<Integer, Map<String, PlayerMemory>>();
+
+	/** Map of when each player was last seen. Key = player name, Value = total world time the player was last online. */
+	private final Map<String, Long> lastSeenMap = new HashMap<String, Long>();
+
+	/** The world time at which the players online were last recorded. */
+	private long lastSeenUpdateTime = -1;
+
+	/** Names of the players that were online when they were last recorded. */
+	private Set<String> onlinePlayerSet = new HashSet<String>();
+
+	/**
+	 * Constructor
+	 *
+	 * @param 	name	The name of the archive in the world's data.
+	 */
+	public MemoryArchive(String name)
+	{
+		super(name);
+	}
+
+	/**
+	 * Gets the memory archive of the provided world, creating it if the world doesn't have one yet.
+	 *
+	 * @param 	world	The world whose archive should be returned.
+	 *
+	 * @return	The world's memory archive.
+	 */
+	public static MemoryArchive getArchive(World world)
+	{
+		MemoryArchive archive = (MemoryArchive)world.loadItemData(MemoryArchive.class, ARCHIVE_NAME);
+
+		if (archive == null)
+		{
+			archive = new MemoryArchive(ARCHIVE_NAME);
+			world.setItemData(ARCHIVE_NAME, archive);
+		}
+
+		return archive;
+	}
+
+	/**
+	 * Records that every player in the provided world has been seen. Only runs once per tick, and the archive is only
+	 * marked to be saved when a player has joined or left since the last time, which is when a saved time matters.
+	 *
+	 * @param 	world	The world the players are in.
+	 */
+	public void updatePlayersSeen(World world)
+	{
+		long worldTime = world.getTotalWorldTime();
+
+		if (worldTime != lastSeenUpdateTime)
+		{
+			lastSeenUpdateTime = worldTime;
+			Set<String> playerSet = new HashSet<String>();
+
+			for (Object obj : world.playerEntities)
+			{
+				String username = ((EntityPlayer)obj).username;
+				lastSeenMap.put(username, worldTime);
+				playerSet.add(username);
+			}
+
+			if (!playerSet.equals(onlinePlayerSet))
+			{
+				onlinePlayerSet = playerSet;
+				markDirty();
+			}
+		}
+	}
+
+	/**
+	 * Gets how long it has been since the provided player was last seen.
+	 *
+	 * @param 	playerName	The name of the player.
+	 * @param 	worldTime	The current total world time.
+	 *
+	 * @return	Number of ticks since the player was last seen. Zero if the player has never been seen, so that their memories aren't archived before their absence is known.
+	 */
+	public long getTicksSinceSeen(String playerName, long worldTime)
+	{
+		Long lastSeenTime = lastSeenMap.get(playerName);
+
+		if (lastSeenTime == null)
+		{
+			lastSeenMap.put(playerName, worldTime);
+			markDirty();
+			return 0;
+		}
+
+		return Math.max(worldTime - lastSeenTime, 0);
+	}
+
+	/**
+	 * Moves an entity's memory of a player into the archive.
+	 *
+	 * @param 	mcaId	The MCA ID of the entity.
+	 * @param 	memory	The memory to archive.
+	 */
+	public void archiveMemory(int mcaId, PlayerMemory memory)
+	{
+		Map<String, PlayerMemory> memoryMap = archivedMemoryMap.get(mcaId);
+
+		if (memoryMap == null)
+		{
+			memoryMap = new HashMap<String, PlayerMemory>();
+			archivedMemoryMap.put(mcaId, memoryMap);
+		}
+
+		memoryMap.put(memory.playerName, memory);
+		markDirty();
+	}
+
+	/**
+	 * Gets an archived memory without taking it out of the archive.
+	 *
+	 * @param 	mcaId		The MCA ID of the entity.
+	 * @param 	playerName	The name of the player that is remembered.
+	 *
+	 * @return	The archived memory. Null if there isn't one.
+	 */
+	public PlayerMemory getMemory(int mcaId, String playerName)
+	{
+		Map<String, PlayerMemory> memoryMap = archivedMemoryMap.get(mcaId);
+		return memoryMap != null ? memoryMap.get(playerName) : null;
+	}
+
+	/**
+	 * Takes an entity's memory of a player out of the archive.
+	 *
+	 * @param 	mcaId		The MCA ID of the entity.
+	 * @param 	playerName	The name of the player that is remembered.
+	 *
+	 * @return	The memory that was archived. Null if there wasn't one.
+	 */
+	public PlayerMemory restoreMemory(int mcaId, String playerName)
+	{
+		Map<String, PlayerMemory> memoryMap = archivedMemoryMap.get(mcaId);
+
+		if (memoryMap != null)
+		{
+			PlayerMemory memory = memoryMap.remove(playerName);
+
+			if (memoryMap.isEmpty())
+			{
+				archivedMemoryMap.remove(mcaId);
+			}
+
+			if (memory != null)
+			{
+				markDirty();
+			}
+
+			return memory;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Forgets every archived memory of an entity.
+	 *
+	 * @param 	mcaId	The MCA ID of the entity.
+	 */
+	public void removeEntity(int mcaId)
+	{
+		if (archivedMemoryMap.remove(mcaId) != null)
+		{
+			markDirty();
+		}
+	}
+
+	@Override
+	public void readFromNBT(NBTTagCompound NBT)
+	{
+		archivedMemoryMap.clear();
+		lastSeenMap.clear();
+
+		NBTTagList playerList = NBT.getTagList("Players");
+
+		for (int i = 0; i < playerList.tagCount(); i++)
+		{
+			NBTTagCompound playerNBT = (NBTTagCompound)playerList.tagAt(i);
+			lastSeenMap.put(playerNBT.getString("Name"), playerNBT.getLong("LastSeen"));
+		}
+
+		NBTTagList entityList = NBT.getTagList("Entities");
+
+		for (int i = 0; i < entityList.tagCount(); i++)
+		{
+			NBTTagCompound entityNBT = (NBTTagCompound)entityList.tagAt(i);
+			Map<String, PlayerMemory> memoryMap = new HashMap<String, PlayerMemory>();
+
+			//Memories are stored the same way an entity stores them.
+			PlayerMemory.readPlayerMemoriesFromNBT(entityNBT, memoryMap);
+
+			if (!memoryMap.isEmpty())
+			{
+				archivedMemoryMap.put(entityNBT.getInteger("MCAID"), memoryMap);
+			}
+		}
+	}
+
+	@Override
+	public void writeToNBT(NBTTagCompound NBT)
+	{
+		NBTTagList playerList = new NBTTagList();
+
+		for (Map.Entry<String, Long> entry : lastSeenMap.entrySet())
+		{
+			NBTTagCompound playerNBT = new NBTTagCompound();
+			playerNBT.setString("Name", entry.getKey());
+			playerNBT.setLong("LastSeen", entry.getValue());
+			playerList.appendTag(playerNBT);
+		}
+
+		NBTTagList entityList = new NBTTagList();
+
+		for (Map.Entry<Integer, Map<String, PlayerMemory>> entry : archivedMemoryMap.entrySet())
+		{
+			NBTTagCompound entityNBT = new NBTTagCompound();
+			entityNBT.setInteger("MCAID", entry.getKey());
+
+			PlayerMemory.writePlayerMemoriesToNBT(entityNBT, entry.getValue().values());
+			entityList.appendTag(entityNBT);
+		}
+
+		NBT.setTag("Players", playerList);
+		NBT.setTag("Entities", entityList);
+	}
+}
@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * MonarchRegistry.java
+ * Copyright (c) 2013 WildBamaBoy.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+
+package mca.core.util.object;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps track of which players are monarchs and announces when that changes. Entities only look through
+ * their memories of monarchs when the registry's version is different from the one they last saw.
+ */
+public class MonarchRegistry
+{
+	/** Map of the last known monarch status of each player. Key = player name, Value = is the player a monarch? */
+	private final Map<String, Boolean> monarchStatusMap = new HashMap<String, Boolean>();
+
+	/** Counts the number of times a player's monarch status has changed. */
+	private volatile int version = 0;
+
+	/**
+	 * Records the monarch status of the provided player, and announces the change if it is different from the last one recorded.
+	 *
+	 * @param 	playerName	The name of the player.
+	 * @param 	isMonarch	Is the player a monarch?
+	 */
+	public synchronized void updateMonarchStatus(String playerName, boolean isMonarch)
+	{
+		Boolean lastStatus = monarchStatusMap.put(playerName, isMonarch);
+
+		if (lastStatus == null || lastStatus != isMonarch)
+		{
+			version++;
+		}
+	}
+
+	/**
+	 * Gets the last known monarch status of a player, without loading their properties.
+	 *
+	 * @param 	playerName	The name of the player.
+	 *
+	 * @return	True if the player is a monarch. Null if their properties haven't been loaded since the world was opened.
+	 */
+	public synchronized Boolean getMonarchStatus(String playerName)
+	{
+		return monarchStatusMap.get(playerName);
+	}
+
+	/**
+	 * Gets the version of the registry, which changes whenever a player's monarch status changes.
+	 *
+	 * @return	The version of the registry.
+	 */
+	public int getVersion()
+	{
+		return version;
+	}
+
+	/**
+	 * Forgets the status of every player and announces the change.
+	 */
+	public synchronized void clear()
+	{
+		monarchStatusMap.clear();
+		version++;
+	}
+}
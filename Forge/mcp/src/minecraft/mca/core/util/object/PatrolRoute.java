@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * PatrolRoute.java
+ * Copyright (c) 2013 WildBamaBoy.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+
+package mca.core.util.object;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import net.minecraft.pathfinding.PathEntity;
+import net.minecraft.pathfinding.PathPoint;
+import net.minecraft.util.ChunkCoordinates;
+import net.minecraft.village.Village;
+import net.minecraft.village.VillageDoorInfo;
+
+/**
+ * A circuit through the doors of a village that is shared by all of the village's guards. The path between each
+ * pair of neighbouring doors is found once and then reused by every guard that walks it, until the village's doors change.
+ */
+public class PatrolRoute
+{
+	/** How many ticks pass between checks for changes to the village's doors. */
+	private static final int TICKS_BETWEEN_DOOR_CHECKS = 100;
+
+	/** How close the end of a path must be to the next door, squared, for the path to be remembered. */
+	private static final double MAX_END_DISTANCE_SQ = 2.0D;
+
+	/** The doors of the village in the order they are patrolled. */
+	private List<Coordinates> doors = new ArrayList<Coordinates>();
+
+	/** The path from each door to the next door. Null if the leg hasn't been walked yet. */
+	private PathPoint[][] legPaths = new PathPoint[0][];
+
+	/** Has a path been looked for and not found from each door to the next door? */
+	private boolean[] unreachableLegs = new boolean[0];
+
+	/** Value that changes whenever the village's doors change. */
+	private int doorSignature = 0;
+
+	/** Counts the number of times the route has been rebuilt. */
+	private int version = 0;
+
+	/** The world time at which the doors were last checked. */
+	private long lastCheckTime = -1;
+
+	/**
+	 * Rebuilds the route if the village's doors have changed since it was last built. The doors are only checked occasionally.
+	 *
+	 * @param 	village		The village the route goes through.
+	 * @param 	worldTime	The current total world time.
+	 */
+	public void update(Village village, long worldTime)
+	{
+		if (lastCheckTime != -1 && worldTime - lastCheckTime < TICKS_BETWEEN_DOOR_CHECKS && worldTime >= lastCheckTime)
+		{
+			return;
+		}
+
+		lastCheckTime = worldTime;
+
+		List doorInfoList = village.getVillageDoorInfoList();
+		int signature = doorInfoList.size();
+
+		for (Object obj : doorInfoList)
+		{
+			VillageDoorInfo doorInfo = (VillageDoorInfo)obj;
+			signature = signature * 31 + (int)JobBoard.getJobKey(doorInfo.posX, doorInfo.posY, doorInfo.posZ);
+		}
+
+		if (signature != doorSignature || version == 0)
+		{
+			rebuild(village, doorInfoList);
+			doorSignature = signature;
+		}
+	}
+
+	/**
+	 * Gets the number of doors on the route.
+	 *
+	 * @return	The number of doors.
+	 */
+	public int getDoorCount()
+	{
+		return doors.size();
+	}
+
+	/**
+	 * Gets the door at the provided place on the route.
+	 *
+	 * @param 	index	The place of the door on the route.
+	 *
+	 * @return	Coordinates of the door.
+	 */
+	public Coordinates getDoor(int index)
+	{
+		return doors.get(index);
+	}
+
+	/**
+	 * Gets the version of the route, which changes whenever the route is rebuilt.
+	 *
+	 * @return	The version of the route.
+	 */
+	public int getVersion()
+	{
+		return version;
+	}
+
+	/**
+	 * Gets a new path along the leg of the route that starts at the provided door.
+	 *
+	 * @param 	index	The place of the door the leg starts at.
+	 *
+	 * @return	A path to the next door. Null if the leg hasn't been walked yet.
+	 */
+	public PathEntity getLegPath(int index)
+	{
+		return legPaths[index] == null ? null : new PathEntity(legPaths[index]);
+	}
+
+	/**
+	 * Checks if the next door can't be reached from the provided door.
+	 *
+	 * @param 	index	The place of the door the leg starts at.
+	 *
+	 * @return	True if a path was looked for and not found.
+	 */
+	public boolean isLegUnreachable(int index)
+	{
+		return unreachableLegs[index];
+	}
+
+	/**
+	 * Remembers the path found along the leg of the route that starts at the provided door. A path that stops short
+	 * of the next door, such as one cut off by the pathfinder's range, is not remembered, so the leg is looked for
+	 * again by the next guard to walk it.
+	 *
+	 * @param 	index	The place of the door the leg starts at.
+	 * @param 	path	The path that was found. Null if no path was found.
+	 */
+	public void setLegPath(int index, PathEntity path)
+	{
+		if (path == null)
+		{
+			unreachableLegs[index] = true;
+		}
+
+		else if (path.getCurrentPathLength() > 0)
+		{
+			PathPoint endPoint = path.getFinalPathPoint();
+			Coordinates nextDoor = doors.get((index + 1) % doors.size());
+			double distanceX = endPoint.xCoord - nextDoor.x;
+			double distanceY = endPoint.yCoord - nextDoor.y;
+			double distanceZ = endPoint.zCoord - nextDoor.z;
+
+			if (distanceX * distanceX + distanceY * distanceY + distanceZ * distanceZ > MAX_END_DISTANCE_SQ)
+			{
+				return;
+			}
+
+			PathPoint[] points = new PathPoint[path.getCurrentPathLength()];
+
+			for (int i = 0; i < points.length; i++)
+			{
+				points[i] = path.getPathPointFromIndex(i);
+			}
+
+			legPaths[index] = points;
+		}
+	}
+
+	/**
+	 * Orders the village's doors into a circuit around its center and forgets any paths that were found.
+	 *
+	 * @param 	village			The village the route goes through.
+	 * @param 	doorInfoList	The village's doors.
+	 */
+	private void rebuild(Village village, List doorInfoList)
+	{
+		final ChunkCoordinates center = village.getCenter();
+		List<Coordinates> newDoors = new ArrayList<Coordinates>();
+
+		for (Object obj : doorInfoList)
+		{
+			VillageDoorInfo doorInfo = (VillageDoorInfo)obj;
+			newDoors.add(new Coordinates(doorInfo.posX, doorInfo.posY, doorInfo.posZ));
+		}
+
+		Collections.sort(newDoors, new Comparator<Coordinates>()
+		{
+			@Override
+			public int compare(Coordinates first, Coordinates second)
+			{
+				double firstAngle = Math.atan2(first.z - center.posZ, first.x - center.posX);
+				double secondAngle = Math.atan2(second.z - center.posZ, second.x - center.posX);
+				return Double.compare(firstAngle, secondAngle);
+			}
+		});
+
+		doors = newDoors;
+		legPaths = new PathPoint[newDoors.size()][];
+		unreachableLegs = new boolean[newDoors.size()];
+		version++;
+	}
+}
@@ -11,9 +11,13 @@ package mca.core.util.object;
 
 import java.io.Serializable;
 import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.Map;
 
 import mca.core.MCA;
+import mca.core.io.NBTFieldCodec;
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
 
 /**
  * Helps an entity remember specific information for different players.
@@ -79,31 +83,44 @@ public class PlayerMemory implements Serializable
 	}
 
 	/**
-	 * Writes the player memory to NBT.
+	 * Checks if nothing has been remembered about the player, so the memory can be forgotten and created again when needed.
 	 * 
-	 * @param 	NBT	An instance of the NBTTagCompound used to write info about an entity.
+	 * @return	True if every value of the memory is the same as a new memory's.
 	 */
-	public void writePlayerMemoryToNBT(NBTTagCompound NBT)
+	public boolean isDefault()
 	{
 		try
 		{
+			PlayerMemory defaultMemory = new PlayerMemory(playerName);
+
 			for (Field f : PlayerMemory.class.getFields())
 			{
-				if (f.getType().getName().contains("boolean"))
+				if (!f.getName().equals("playerName") && !f.get(this).equals(f.get(defaultMemory)))
 				{
-					NBT.setBoolean("playerMemoryValue" + playerName + f.getName(), f.getBoolean(this));
+					return false;
 				}
+			}
 
-				else if (f.getType().getName().contains("int"))
-				{
-					NBT.setInteger("playerMemoryValue" + playerName + f.getName(), f.getInt(this));
-				}
+			return true;
+		}
 
-				else if (f.getType().getName().contains("String"))
-				{
-					NBT.setString("playerMemoryValue" + playerName + f.getName(), f.get(this).toString());
-				}
-			}
+		catch (Throwable e)
+		{
+			MCA.instance.log(e);
+			return false;
+		}
+	}
+
+	/**
+	 * Writes the player memory to its own NBT compound.
+	 * 
+	 * @param 	NBT	The NBT compound that holds only this player memory.
+	 */
+	public void writePlayerMemoryToNBT(NBTTagCompound NBT)
+	{
+		try
+		{
+			NBTFieldCodec.getCodec(PlayerMemory.class, PlayerMemory.class).writeFieldsToNBT(this, NBT);
 		}
 		
 		catch (Throwable e)
@@ -113,11 +130,82 @@ public class PlayerMemory implements Serializable
 	}
 
 	/**
-	 * Reads the player memory from NBT.
+	 * Reads the player memory from its own NBT compound.
 	 * 
-	 * @param 	NBT	An instance of the NBTTagCompound used to load info about an entity.
+	 * @param 	NBT	The NBT compound that holds only this player memory.
 	 */
 	public void readPlayerMemoryFromNBT(NBTTagCompound NBT)
+	{
+		try
+		{
+			NBTFieldCodec.getCodec(PlayerMemory.class, PlayerMemory.class).readFieldsFromNBT(this, NBT);
+		}
+		
+		catch (Throwable e)
+		{
+			MCA.instance.log(e);
+		}
+	}
+
+	/**
+	 * Writes a list of player memories to NBT.
+	 * 
+	 * @param 	NBT			The NBT compound of the entity the memories belong to.
+	 * @param 	memories	The player memories to write.
+	 */
+	public static void writePlayerMemoriesToNBT(NBTTagCompound NBT, Collection<PlayerMemory> memories)
+	{
+		NBTTagList memoryList = new NBTTagList();
+
+		for (PlayerMemory memory : memories)
+		{
+			NBTTagCompound memoryNBT = new NBTTagCompound();
+			memory.writePlayerMemoryToNBT(memoryNBT);
+			memoryList.appendTag(memoryNBT);
+		}
+
+		NBT.setTag("playerMemories", memoryList);
+	}
+
+	/**
+	 * Reads the player memories of an entity from NBT. Memories saved one tag at a time before the list was used are read the
+	 * same way, and are written as a list the next time the entity is saved.
+	 * 
+	 * @param 	NBT			The NBT compound of the entity the memories belong to.
+	 * @param 	memoryMap	The map to put the memories into. Key = player name.
+	 */
+	public static void readPlayerMemoriesFromNBT(NBTTagCompound NBT, Map<String, PlayerMemory> memoryMap)
+	{
+		if (NBT.hasKey("playerMemories"))
+		{
+			NBTTagList memoryList = NBT.getTagList("playerMemories");
+
+			for (int i = 0; i < memoryList.tagCount(); i++)
+			{
+				NBTTagCompound memoryNBT = (NBTTagCompound)memoryList.tagAt(i);
+				PlayerMemory memory = new PlayerMemory(memoryNBT.getString("playerName"));
+				memory.readPlayerMemoryFromNBT(memoryNBT);
+				memoryMap.put(memory.playerName, memory);
+			}
+		}
+
+		else
+		{
+			for (int counter = 0; NBT.hasKey("playerMemoryKey" + counter); counter++)
+			{
+				PlayerMemory memory = new PlayerMemory(NBT.getString("playerMemoryKey" + counter));
+				memory.readLegacyPlayerMemoryFromNBT(NBT);
+				memoryMap.put(memory.playerName, memory);
+			}
+		}
+	}
+
+	/**
+	 * Reads the player memory from the tags of the entity it belongs to, which are named after the player and the field.
+	 * 
+	 * @param 	NBT	The NBT compound of the entity the memory belongs to.
+	 */
+	private void readLegacyPlayerMemoryFromNBT(NBTTagCompound NBT)
 	{
 		try
 		{
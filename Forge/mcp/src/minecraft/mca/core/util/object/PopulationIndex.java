@@ -0,0 +1,633 @@
+/*******************************************************************************
+ * PopulationIndex.java
+ * Copyright (c) 2013 WildBamaBoy.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+
+package mca.core.util.object;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import mca.core.MCA;
+import mca.core.util.CoordinateHelper;
+import mca.entity.AbstractEntity;
+import mca.entity.EntityChild;
+import mca.enums.EnumRelation;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagDouble;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.util.MathHelper;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldSavedData;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+
+/**
+ * Knows about every MCA entity in the world, including those in chunks that aren't loaded, so that questions about
+ * the whole population can be answered without loading chunks. Built by scanning the world's region files the first
+ * time each dimension is loaded, then kept up to date as chunks are saved. Saved with the world's data. Server side only.
+ */
+public class PopulationIndex extends WorldSavedData
+{
+	/** The name of the index in the world's data. */
+	public static final String INDEX_NAME = "MCAPopulationIndex";
+
+	/** Map of every known entity. Key = MCA ID, Value = what is known about the entity. */
+	private final Map<Integer, Record> recordMap = new HashMap<Integer, Record>();
+
+	/** The entities in each chunk. Key = dimension, Value = map of chunk keys to the MCA IDs of the entities in that chunk. */
+	private final Map<Integer, Map<Long, Set<Integer>>> chunkMap = new HashMap<Integer, Map<Long, Set<Integer>>>();
+
+	/** The dimensions whose region files have been scanned. */
+	private final Set<Integer> scannedDimensions = new HashSet<Integer>();
+
+	/** The chunks saved while their dimension was being scanned. Key = dimension, Value = chunk keys. */
+	private final Map<Integer, Set<Long>> savedDuringScanMap = new HashMap<Integer, Set<Long>>();
+
+	/**
+	 * Constructor
+	 *
+	 * @param 	name	The name of the index in the world's data.
+	 */
+	public PopulationIndex(String name)
+	{
+		super(name);
+	}
+
+	/**
+	 * Gets the population index of the provided world, creating it if the world doesn't have one yet.
+	 *
+	 * @param 	world	The world whose index should be returned.
+	 *
+	 * @return	The world's population index.
+	 */
+	public static PopulationIndex getIndex(World world)
+	{
+		PopulationIndex index = (PopulationIndex)world.loadItemData(PopulationIndex.class, INDEX_NAME);
+
+		if (index == null)
+		{
+			index = new PopulationIndex(INDEX_NAME);
+			world.setItemData(INDEX_NAME, index);
+		}
+
+		return index;
+	}
+
+	/**
+	 * Scans the region files of the provided world's dimension if they have never been scanned.
+	 *
+	 * @param 	world	The world that was loaded.
+	 */
+	public void scanIfNeeded(WorldServer world)
+	{
+		boolean needsScan = false;
+
+		synchronized (this)
+		{
+			int dimension = world.provider.dimensionId;
+			needsScan = !scannedDimensions.contains(dimension) && !savedDuringScanMap.containsKey(dimension);
+		}
+
+		if (needsScan)
+		{
+			rescan(world);
+		}
+	}
+
+	/**
+	 * Scans the region files of the provided world's dimension in the background, replacing what is known about the
+	 * dimension once the scan finishes. Does nothing if the dimension is already being scanned.
+	 *
+	 * @param 	world	The world whose dimension should be scanned.
+	 */
+	public void rescan(WorldServer world)
+	{
+		int dimension = world.provider.dimensionId;
+
+		synchronized (this)
+		{
+			if (savedDuringScanMap.containsKey(dimension))
+			{
+				return;
+			}
+
+			savedDuringScanMap.put(dimension, new HashSet<Long>());
+		}
+
+		MCA.instance.log("Scanning region files of dimension " + dimension + " for MCA entities...");
+		MCA.instance.regionScanner.scan(this, dimension, new File(world.getChunkSaveLocation(), "region"));
+	}
+
+	/**
+	 * Replaces what is known about a dimension with the results of a scan of its region files. Chunks that were saved
+	 * while the scan was running keep what was learned from them, since it is newer than what the scan read.
+	 *
+	 * @param 	dimension	The dimension that was scanned.
+	 * @param 	results		The entities found. Key = chunk key, Value = the entities in that chunk.
+	 */
+	public synchronized void finishScan(int dimension, Map<Long, List<Record>> results)
+	{
+		Set<Long> savedDuringScan = savedDuringScanMap.remove(dimension);
+
+		if (savedDuringScan == null)
+		{
+			savedDuringScan = new HashSet<Long>();
+		}
+
+		Map<Long, Set<Integer>> dimensionChunkMap = getChunkMap(dimension);
+
+		for (Long chunkKey : new ArrayList<Long>(dimensionChunkMap.keySet()))
+		{
+			if (!savedDuringScan.contains(chunkKey))
+			{
+				setChunkRecords(dimension, chunkKey, new ArrayList<Record>());
+			}
+		}
+
+		for (Map.Entry<Long, List<Record>> entry : results.entrySet())
+		{
+			if (!savedDuringScan.contains(entry.getKey()))
+			{
+				setChunkRecords(dimension, entry.getKey(), entry.getValue());
+			}
+		}
+
+		scannedDimensions.add(dimension);
+		markDirty();
+
+		MCA.instance.log("Finished scanning dimension " + dimension + ". " + recordMap.size() + " MCA entities are known.");
+	}
+
+	/**
+	 * Forgets that a dimension is being scanned when the scan couldn't finish, so that it can be started again.
+	 *
+	 * @param 	dimension	The dimension whose scan failed.
+	 */
+	public synchronized void abortScan(int dimension)
+	{
+		savedDuringScanMap.remove(dimension);
+	}
+
+	/**
+	 * Updates what is known about the entities in a chunk that is being saved.
+	 *
+	 * @param 	chunk	The chunk being saved.
+	 */
+	public synchronized void updateChunk(Chunk chunk)
+	{
+		int dimension = chunk.worldObj.provider.dimensionId;
+		long chunkKey = CoordinateHelper.getChunkKey(chunk.xPosition, chunk.zPosition);
+		List<Record> records = new ArrayList<Record>();
+
+		for (List entityList : chunk.entityLists)
+		{
+			for (Object obj : entityList)
+			{
+				if (obj instanceof AbstractEntity && ((AbstractEntity)obj).mcaID != 0 && !((AbstractEntity)obj).isDead)
+				{
+					records.add(new Record((AbstractEntity)obj, dimension, chunkKey));
+				}
+			}
+		}
+
+		Set<Long> savedDuringScan = savedDuringScanMap.get(dimension);
+
+		if (savedDuringScan != null)
+		{
+			savedDuringScan.add(chunkKey);
+		}
+
+		if (setChunkRecords(dimension, chunkKey, records))
+		{
+			markDirty();
+		}
+	}
+
+	/**
+	 * Gets what is known about an entity.
+	 *
+	 * @param 	mcaId	The MCA ID of the entity.
+	 *
+	 * @return	The entity's record. Null if the entity isn't known.
+	 */
+	public synchronized Record getRecord(int mcaId)
+	{
+		return recordMap.get(mcaId);
+	}
+
+	/**
+	 * Gets the entities that belong to a player, such as the player's children.
+	 *
+	 * @param 	playerName	The name of the player.
+	 *
+	 * @return	List of the records of the player's entities. May be empty but never null.
+	 */
+	public synchronized List<Record> getRecordsOfOwner(String playerName)
+	{
+		List<Record> returnList = new ArrayList<Record>();
+
+		for (Record record : recordMap.values())
+		{
+			if (record.ownerPlayerName.equals(playerName))
+			{
+				returnList.add(record);
+			}
+		}
+
+		return returnList;
+	}
+
+	/**
+	 * Gets the entities that have the provided ID in their family tree.
+	 *
+	 * @param 	id	The MCA ID of an entity or the ID of a player.
+	 *
+	 * @return	List of the records of the relatives. May be empty but never null.
+	 */
+	public synchronized List<Record> getRecordsOfRelatives(int id)
+	{
+		List<Record> returnList = new ArrayList<Record>();
+
+		for (Record record : recordMap.values())
+		{
+			if (record.getRelationTo(id) != EnumRelation.None)
+			{
+				returnList.add(record);
+			}
+		}
+
+		return returnList;
+	}
+
+	@Override
+	public synchronized void readFromNBT(NBTTagCompound NBT)
+	{
+		recordMap.clear();
+		chunkMap.clear();
+		scannedDimensions.clear();
+
+		for (int dimension : NBT.getIntArray("scannedDimensions"))
+		{
+			scannedDimensions.add(dimension);
+		}
+
+		NBTTagList recordList = NBT.getTagList("records");
+
+		for (int i = 0; i < recordList.tagCount(); i++)
+		{
+			Record record = new Record((NBTTagCompound)recordList.tagAt(i));
+			putRecord(record);
+		}
+	}
+
+	@Override
+	public synchronized void writeToNBT(NBTTagCompound NBT)
+	{
+		int[] dimensions = new int[scannedDimensions.size()];
+		int counter = 0;
+
+		for (int dimension : scannedDimensions)
+		{
+			dimensions[counter] = dimension;
+			counter++;
+		}
+
+		NBTTagList recordList = new NBTTagList();
+
+		for (Record record : recordMap.values())
+		{
+			NBTTagCompound recordNBT = new NBTTagCompound();
+			record.writeRecordToNBT(recordNBT);
+			recordList.appendTag(recordNBT);
+		}
+
+		NBT.setIntArray("scannedDimensions", dimensions);
+		NBT.setTag("records", recordList);
+	}
+
+	/**
+	 * Replaces the entities known to be in a chunk.
+	 *
+	 * @param 	dimension	The dimension the chunk is in.
+	 * @param 	chunkKey	The key of the chunk.
+	 * @param 	records		The entities now in the chunk.
+	 *
+	 * @return	True if anything known about the chunk changed.
+	 */
+	private boolean setChunkRecords(int dimension, long chunkKey, List<Record> records)
+	{
+		Map<Long, Set<Integer>> dimensionChunkMap = getChunkMap(dimension);
+		Set<Integer> oldIds = dimensionChunkMap.get(chunkKey);
+		boolean hasChanged = false;
+
+		if (oldIds != null)
+		{
+			Set<Integer> newIds = new HashSet<Integer>();
+
+			for (Record record : records)
+			{
+				newIds.add(record.mcaID);
+			}
+
+			for (Integer mcaId : new ArrayList<Integer>(oldIds))
+			{
+				if (!newIds.contains(mcaId))
+				{
+					removeRecord(mcaId);
+					hasChanged = true;
+				}
+			}
+		}
+
+		for (Record record : records)
+		{
+			if (!record.equals(recordMap.get(record.mcaID)))
+			{
+				putRecord(record);
+				hasChanged = true;
+			}
+		}
+
+		return hasChanged;
+	}
+
+	/**
+	 * Adds a record, moving it out of the chunk it was last known to be in.
+	 *
+	 * @param 	record	The record to add.
+	 */
+	private void putRecord(Record record)
+	{
+		removeRecord(record.mcaID);
+		recordMap.put(record.mcaID, record);
+
+		Map<Long, Set<Integer>> dimensionChunkMap = getChunkMap(record.dimension);
+		Set<Integer> chunkIds = dimensionChunkMap.get(record.getChunkKey());
+
+		if (chunkIds == null)
+		{
+			chunkIds = new HashSet<Integer>();
+			dimensionChunkMap.put(record.getChunkKey(), chunkIds);
+		}
+
+		chunkIds.add(record.mcaID);
+	}
+
+	/**
+	 * Removes a record and forgets the chunk it was in if no others are there.
+	 *
+	 * @param 	mcaId	The MCA ID of the entity whose record should be removed.
+	 */
+	private void removeRecord(int mcaId)
+	{
+		Record record = recordMap.remove(mcaId);
+
+		if (record != null)
+		{
+			Map<Long, Set<Integer>> dimensionChunkMap = getChunkMap(record.dimension);
+			Set<Integer> chunkIds = dimensionChunkMap.get(record.getChunkKey());
+
+			if (chunkIds != null)
+			{
+				chunkIds.remove(mcaId);
+
+				if (chunkIds.isEmpty())
+				{
+					dimensionChunkMap.remove(record.getChunkKey());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the chunks of the provided dimension, creating the map if necessary.
+	 *
+	 * @param 	dimension	The dimension.
+	 *
+	 * @return	Map of chunk keys to the MCA IDs of the entities in each chunk.
+	 */
+	private Map<Long, Set<Integer>> getChunkMap(int dimension)
+	{
+		Map<Long, Set<Integer>> dimensionChunkMap = chunkMap.get(dimension);
+
+		if (dimensionChunkMap == null)
+		{
+			dimensionChunkMap = new HashMap<Long, Set<Integer>>();
+			chunkMap.put(dimension, dimensionChunkMap);
+		}
+
+		return dimensionChunkMap;
+	}
+
+	/**
+	 * What is known about a single MCA entity. Records are never changed once they are made.
+	 */
+	public static class Record
+	{
+		public final int mcaID;
+		public final String name;
+		public final String gender;
+		public final String ownerPlayerName;
+		public final String spousePlayerName;
+		public final int dimension;
+		public final int posX;
+		public final int posY;
+		public final int posZ;
+
+		/** The key of the chunk the entity was saved in. */
+		private final long chunkKey;
+
+		/** The IDs in the entity's family tree, in the same order as familyRelations. */
+		private final int[] familyIds;
+
+		/** The position in EnumRelation of each relation in the entity's family tree. */
+		private final int[] familyRelations;
+
+		/**
+		 * Constructor used for an entity that is loaded.
+		 *
+		 * @param 	entity		The entity.
+		 * @param 	dimension	The dimension the entity is in.
+		 * @param 	chunkKey	The key of the chunk the entity is saved in.
+		 */
+		public Record(AbstractEntity entity, int dimension, long chunkKey)
+		{
+			this(entity.mcaID, entity.name, entity.gender, entity instanceof EntityChild ? ((EntityChild)entity).ownerPlayerName : "", entity.spousePlayerName,
+					dimension, MathHelper.floor_double(entity.posX), MathHelper.floor_double(entity.posY), MathHelper.floor_double(entity.posZ), chunkKey, entity.familyTree);
+		}
+
+		/**
+		 * Constructor used for an entity read from a region file.
+		 *
+		 * @param 	entityNBT	The entity's saved NBT.
+		 * @param 	dimension	The dimension of the region file.
+		 * @param 	chunkKey	The key of the chunk the entity was read from.
+		 */
+		public Record(NBTTagCompound entityNBT, int dimension, long chunkKey)
+		{
+			this(entityNBT.getInteger("mcaID"), entityNBT.getString("name"), entityNBT.getString("gender"), entityNBT.getString("ownerPlayerName"), entityNBT.getString("spousePlayerName"),
+					dimension, getPosition(entityNBT, 0), getPosition(entityNBT, 1), getPosition(entityNBT, 2), chunkKey, readFamilyTree(entityNBT));
+		}
+
+		/**
+		 * Constructor used for a record saved in the index.
+		 *
+		 * @param 	recordNBT	The record's NBT.
+		 */
+		private Record(NBTTagCompound recordNBT)
+		{
+			int[] position = recordNBT.getIntArray("pos");
+
+			this.mcaID = recordNBT.getInteger("id");
+			this.name = recordNBT.getString("name");
+			this.gender = recordNBT.getString("gender");
+			this.ownerPlayerName = recordNBT.getString("owner");
+			this.spousePlayerName = recordNBT.getString("spouse");
+			this.dimension = recordNBT.getInteger("dim");
+			this.posX = position.length == 3 ? position[0] : 0;
+			this.posY = position.length == 3 ? position[1] : 0;
+			this.posZ = position.length == 3 ? position[2] : 0;
+			this.chunkKey = recordNBT.getLong("chunk");
+			this.familyIds = recordNBT.getIntArray("familyIds");
+			this.familyRelations = recordNBT.getIntArray("familyRelations");
+		}
+
+		private Record(int mcaID, String name, String gender, String ownerPlayerName, String spousePlayerName, int dimension, int posX, int posY, int posZ, long chunkKey, FamilyTree familyTree)
+		{
+			Map<Integer, EnumRelation> relationMap = familyTree.getRelationMap();
+
+			this.mcaID = mcaID;
+			this.name = name;
+			this.gender = gender;
+			this.ownerPlayerName = ownerPlayerName;
+			this.spousePlayerName = spousePlayerName;
+			this.dimension = dimension;
+			this.posX = posX;
+			this.posY = posY;
+			this.posZ = posZ;
+			this.chunkKey = chunkKey;
+			this.familyIds = new int[relationMap.size()];
+			this.familyRelations = new int[relationMap.size()];
+
+			int counter = 0;
+
+			for (Map.Entry<Integer, EnumRelation> entry : relationMap.entrySet())
+			{
+				familyIds[counter] = entry.getKey();
+				familyRelations[counter] = entry.getValue().ordinal();
+				counter++;
+			}
+		}
+
+		/**
+		 * Gets how the provided ID is related to this entity.
+		 *
+		 * @param 	id	The MCA ID of an entity or the ID of a player.
+		 *
+		 * @return	The relation in this entity's family tree. EnumRelation.None if they aren't related.
+		 */
+		public EnumRelation getRelationTo(int id)
+		{
+			EnumRelation[] relations = EnumRelation.values();
+
+			for (int i = 0; i < familyIds.length && i < familyRelations.length; i++)
+			{
+				if (familyIds[i] == id && familyRelations[i] >= 0 && familyRelations[i] < relations.length)
+				{
+					return relations[familyRelations[i]];
+				}
+			}
+
+			return EnumRelation.None;
+		}
+
+		/**
+		 * Gets the key of the chunk the entity was last saved in.
+		 *
+		 * @return	The chunk key.
+		 */
+		public long getChunkKey()
+		{
+			return chunkKey;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (obj instanceof Record)
+			{
+				Record record = (Record)obj;
+
+				return record.mcaID == mcaID && record.dimension == dimension && record.chunkKey == chunkKey && record.posX == posX && record.posY == posY && record.posZ == posZ &&
+						record.name.equals(name) && record.gender.equals(gender) && record.ownerPlayerName.equals(ownerPlayerName) &&
+						record.spousePlayerName.equals(spousePlayerName) && Arrays.equals(record.familyIds, familyIds) && Arrays.equals(record.familyRelations, familyRelations);
+			}
+
+			return false;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return mcaID;
+		}
+
+		/**
+		 * Writes the record to NBT.
+		 *
+		 * @param 	recordNBT	The NBT compound that holds only this record.
+		 */
+		private void writeRecordToNBT(NBTTagCompound recordNBT)
+		{
+			recordNBT.setInteger("id", mcaID);
+			recordNBT.setString("name", name);
+			recordNBT.setString("gender", gender);
+			recordNBT.setString("owner", ownerPlayerName);
+			recordNBT.setString("spouse", spousePlayerName);
+			recordNBT.setInteger("dim", dimension);
+			recordNBT.setIntArray("pos", new int[] {posX, posY, posZ});
+			recordNBT.setLong("chunk", chunkKey);
+			recordNBT.setIntArray("familyIds", familyIds);
+			recordNBT.setIntArray("familyRelations", familyRelations);
+		}
+
+		/**
+		 * Gets one coordinate of a saved entity's position.
+		 *
+		 * @param 	entityNBT	The entity's saved NBT.
+		 * @param 	axis		0 for X, 1 for Y, 2 for Z.
+		 *
+		 * @return	The block coordinate on the axis.
+		 */
+		private static int getPosition(NBTTagCompound entityNBT, int axis)
+		{
+			NBTTagList position = entityNBT.getTagList("Pos");
+			return position.tagCount() == 3 ? MathHelper.floor_double(((NBTTagDouble)position.tagAt(axis)).data) : 0;
+		}
+
+		/**
+		 * Reads the family tree of a saved entity, in either of the layouts it may be saved in.
+		 *
+		 * @param 	entityNBT	The entity's saved NBT.
+		 *
+		 * @return	The entity's family tree, without an owner.
+		 */
+		private static FamilyTree readFamilyTree(NBTTagCompound entityNBT)
+		{
+			FamilyTree familyTree = new FamilyTree(null);
+			familyTree.readTreeFromNBT(entityNBT);
+			return familyTree;
+		}
+	}
+}
@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * TreeCache.java
+ * Copyright (c) 2013 WildBamaBoy.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+
+package mca.core.util.object;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import mca.core.MCA;
+import mca.core.util.CoordinateHelper;
+import mca.core.util.LogicHelper;
+import mca.entity.AbstractEntity;
+import net.minecraft.block.Block;
+import net.minecraft.world.World;
+
+/**
+ * Remembers the trees that have been found by woodcutting chores in each world.
+ */
+public class TreeCache
+{
+	/** How long a detected tree is trusted before it must be detected again. */
+	public static final int TREE_LIFETIME_TICKS = 12000;
+
+	/** Map of the trees in each world. Key = world, Value = map of packed base coordinates to trees. */
+	private final Map<World, Map<Long, TreeStructure>> worldTreeMap = Collections.synchronizedMap(new WeakHashMap<World, Map<Long, TreeStructure>>());
+
+	/**
+	 * Gets the nearest tree to the entity that can be cut and isn't claimed by another entity, searching the area
+	 * around the entity only if no known tree is nearby. Trees claimed by others still count as known, so the area
+	 * is not searched again just because every tree in it is taken.
+	 *
+	 * @param 	entity			The entity that will cut the tree.
+	 * @param 	treeType		The type of tree to find. -1 for any tree.
+	 * @param 	maxDistanceAway	The maximum distance from the entity to look for trees.
+	 *
+	 * @return	The nearest unclaimed tree. Null if there are no unclaimed trees nearby.
+	 */
+	public TreeStructure getNearestTree(AbstractEntity entity, int treeType, int maxDistanceAway)
+	{
+		TreeStructure tree = getNearestCachedTree(entity, treeType, maxDistanceAway, true);
+
+		if (tree == null && getNearestCachedTree(entity, treeType, maxDistanceAway, false) == null)
+		{
+			scanForTrees(entity, maxDistanceAway);
+			tree = getNearestCachedTree(entity, treeType, maxDistanceAway, true);
+		}
+
+		return tree;
+	}
+
+	/**
+	 * Gets the key used to claim the provided tree on the job board.
+	 *
+	 * @param 	tree	The tree.
+	 *
+	 * @return	The job key of the tree.
+	 */
+	public static long getJobKey(TreeStructure tree)
+	{
+		return JobBoard.getJobKey(tree.baseX, tree.baseY, tree.baseZ);
+	}
+
+	/**
+	 * Forgets the provided tree.
+	 *
+	 * @param 	world	The world the tree is in.
+	 * @param 	tree	The tree to forget.
+	 */
+	public void removeTree(World world, TreeStructure tree)
+	{
+		Map<Long, TreeStructure> treeMap = worldTreeMap.get(world);
+
+		if (treeMap != null && tree != null)
+		{
+			treeMap.remove(CoordinateHelper.packCoordinates(tree.baseX, tree.baseY, tree.baseZ));
+		}
+	}
+
+	/**
+	 * Forgets every tree in every world.
+	 */
+	public void clear()
+	{
+		worldTreeMap.clear();
+	}
+
+	/**
+	 * Forgets every tree in the provided world. Called when the world unloads, since it would otherwise be kept
+	 * loaded by what is remembered about it.
+	 *
+	 * @param 	world	The world that unloaded.
+	 */
+	public void clearWorld(World world)
+	{
+		worldTreeMap.remove(world);
+	}
+
+	/**
+	 * Gets the nearest known tree that is still valid, dropping any trees that have expired or been cut.
+	 *
+	 * @param 	entity			The entity that will cut the tree.
+	 * @param 	treeType		The type of tree to find. -1 for any tree.
+	 * @param 	maxDistanceAway	The maximum distance from the entity to look for trees.
+	 * @param 	skipClaimed		Should trees claimed by other entities be skipped?
+	 *
+	 * @return	The nearest known tree. Null if none are known.
+	 */
+	private TreeStructure getNearestCachedTree(AbstractEntity entity, int treeType, int maxDistanceAway, boolean skipClaimed)
+	{
+		Map<Long, TreeStructure> treeMap = getTreeMap(entity.worldObj);
+		long worldTime = entity.worldObj.getTotalWorldTime();
+
+		TreeStructure nearestTree = null;
+		double nearestDistance = Double.MAX_VALUE;
+
+		for (Iterator<TreeStructure> iterator = treeMap.values().iterator(); iterator.hasNext();)
+		{
+			TreeStructure tree = iterator.next();
+
+			if (worldTime - tree.detectedTime > TREE_LIFETIME_TICKS || worldTime < tree.detectedTime)
+			{
+				iterator.remove();
+				continue;
+			}
+
+			if (treeType != -1 && tree.treeType != treeType)
+			{
+				continue;
+			}
+
+			if (skipClaimed && MCA.instance.jobBoard.isClaimedByOther(entity, getJobKey(tree)))
+			{
+				continue;
+			}
+
+			if (Math.abs(tree.baseX - entity.posX) > maxDistanceAway || Math.abs(tree.baseZ - entity.posZ) > maxDistanceAway || Math.abs(tree.baseY - entity.posY) > maxDistanceAway)
+			{
+				continue;
+			}
+
+			double distance = LogicHelper.getDistanceToXYZ(entity.posX, entity.posY, entity.posZ, tree.baseX, tree.baseY, tree.baseZ);
+
+			if (distance < nearestDistance)
+			{
+				nearestDistance = distance;
+				nearestTree = tree;
+			}
+		}
+
+		return nearestTree;
+	}
+
+	/**
+	 * Searches the area around the entity once and detects every tree found in it. Each column is searched from the
+	 * bottom up only as far as its first log, since detecting a tree finds the rest of its logs.
+	 *
+	 * @param 	entity			The entity being used as a base point for searching.
+	 * @param 	maxDistanceAway	The maximum distance from the entity to search.
+	 */
+	private void scanForTrees(AbstractEntity entity, int maxDistanceAway)
+	{
+		Map<Long, TreeStructure> treeMap = getTreeMap(entity.worldObj);
+		Set<Long> knownLogSet = new HashSet<Long>();
+
+		for (TreeStructure tree : treeMap.values())
+		{
+			tree.addLogsTo(knownLogSet);
+		}
+
+		int entityX = (int)entity.posX;
+		int entityY = (int)entity.posY;
+		int entityZ = (int)entity.posZ;
+
+		for (int x = entityX - maxDistanceAway; x <= entityX + maxDistanceAway; x++)
+		{
+			for (int z = entityZ - maxDistanceAway; z <= entityZ + maxDistanceAway; z++)
+			{
+				for (int y = entityY - maxDistanceAway; y <= entityY + maxDistanceAway; y++)
+				{
+					if (entity.worldObj.getBlockId(x, y, z) != Block.wood.blockID)
+					{
+						continue;
+					}
+
+					if (!knownLogSet.contains(CoordinateHelper.packCoordinates(x, y, z)))
+					{
+						TreeStructure tree = TreeStructure.detect(entity.worldObj, x, y, z);
+
+						if (tree != null)
+						{
+							treeMap.put(CoordinateHelper.packCoordinates(tree.baseX, tree.baseY, tree.baseZ), tree);
+							tree.addLogsTo(knownLogSet);
+						}
+					}
+
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the map of trees in the provided world, creating it if necessary.
+	 *
+	 * @param 	world	The world whose trees should be returned.
+	 *
+	 * @return	Map of packed base coordinates to trees.
+	 */
+	private Map<Long, TreeStructure> getTreeMap(World world)
+	{
+		Map<Long, TreeStructure> treeMap = worldTreeMap.get(world);
+
+		if (treeMap == null)
+		{
+			treeMap = new HashMap<Long, TreeStructure>();
+			worldTreeMap.put(world, treeMap);
+		}
+
+		return treeMap;
+	}
+}
@@ -0,0 +1,303 @@
+/*******************************************************************************
+ * TreeStructure.java
+ * Copyright (c) 2013 WildBamaBoy.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+
+package mca.core.util.object;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import mca.core.util.CoordinateHelper;
+import net.minecraft.block.Block;
+import net.minecraft.world.World;
+
+/**
+ * A whole tree found by a single bounded flood fill of its trunk and canopy. Holds the order in which
+ * its logs should be cut so that the tree does not have to be searched for again for each log.
+ * Trees are shared through the tree cache and are never changed once detected; each chore keeps its own
+ * place in the cut order.
+ */
+public class TreeStructure
+{
+	/** The most logs that will be considered part of one tree. */
+	public static final int MAX_LOGS = 128;
+
+	/** The most leaves that will be considered part of one tree's canopy. */
+	public static final int MAX_LEAVES = 512;
+
+	/** How far a log may be from the base of the tree horizontally. */
+	public static final int MAX_SPREAD = 6;
+
+	/** How far a log may be above the base of the tree. */
+	public static final int MAX_HEIGHT = 32;
+
+	/** How far from the nearest log the canopy is followed. */
+	public static final int MAX_LEAF_DEPTH = 4;
+
+	/** The X coordinate of the lowest log of the trunk. */
+	public final int baseX;
+
+	/** The Y coordinate of the lowest log of the trunk. */
+	public final int baseY;
+
+	/** The Z coordinate of the lowest log of the trunk. */
+	public final int baseZ;
+
+	/** The type of the tree. 0 = Oak, 1 = Spruce, 2 = Birch, 3 = Jungle */
+	public final int treeType;
+
+	/** The world time at which the tree was detected. */
+	public final long detectedTime;
+
+	/** The logs of the trunk in the order they should be cut. */
+	private final List<Coordinates> cutOrder;
+
+	/** The leaves of the tree that have not been cleared. */
+	private final List<Coordinates> leaves;
+
+	/** Packed coordinates of every log in the tree. */
+	private final Set<Long> logSet;
+
+	/**
+	 * Constructor
+	 *
+	 * @param 	baseX			The X coordinate of the base of the tree.
+	 * @param 	baseY			The Y coordinate of the base of the tree.
+	 * @param 	baseZ			The Z coordinate of the base of the tree.
+	 * @param 	treeType		The type of the tree.
+	 * @param 	detectedTime	The world time the tree was detected.
+	 * @param 	cutOrder		The logs of the trunk, in the order they should be cut.
+	 * @param 	leaves			The leaves of the tree.
+	 * @param 	logSet			Packed coordinates of every log in the tree.
+	 */
+	private TreeStructure(int baseX, int baseY, int baseZ, int treeType, long detectedTime, List<Coordinates> cutOrder, List<Coordinates> leaves, Set<Long> logSet)
+	{
+		this.baseX = baseX;
+		this.baseY = baseY;
+		this.baseZ = baseZ;
+		this.treeType = treeType;
+		this.detectedTime = detectedTime;
+		this.cutOrder = cutOrder;
+		this.leaves = leaves;
+		this.logSet = logSet;
+	}
+
+	/**
+	 * Finds the whole tree containing the log at the provided coordinates.
+	 *
+	 * @param 	world	The world the tree is in.
+	 * @param 	x		The X coordinate of a log in the tree.
+	 * @param 	y		The Y coordinate of a log in the tree.
+	 * @param 	z		The Z coordinate of a log in the tree.
+	 *
+	 * @return	The tree containing the log. Null if the log isn't part of a natural looking tree.
+	 */
+	public static TreeStructure detect(World world, int x, int y, int z)
+	{
+		if (world.getBlockId(x, y, z) != Block.wood.blockID)
+		{
+			return null;
+		}
+
+		//Walk down the trunk to the lowest log.
+		int baseY = y;
+
+		while (baseY > y - MAX_HEIGHT && world.getBlockId(x, baseY - 1, z) == Block.wood.blockID)
+		{
+			baseY--;
+		}
+
+		int groundID = world.getBlockId(x, baseY - 1, z);
+
+		if (groundID != Block.dirt.blockID && groundID != Block.grass.blockID)
+		{
+			return null;
+		}
+
+		final int treeBaseX = x;
+		final int treeBaseZ = z;
+		int treeType = world.getBlockMetadata(x, baseY, z) & 3;
+
+		//Flood fill the logs, allowing diagonal connections for branches.
+		List<Coordinates> logs = new ArrayList<Coordinates>();
+		Set<Long> logSet = new HashSet<Long>();
+		LinkedList<Coordinates> openList = new LinkedList<Coordinates>();
+
+		logSet.add(CoordinateHelper.packCoordinates(x, baseY, z));
+		openList.add(new Coordinates(x, baseY, z));
+
+		while (!openList.isEmpty() && logs.size() < MAX_LOGS)
+		{
+			Coordinates log = openList.poll();
+			logs.add(log);
+
+			for (int dY = -1; dY <= 1; dY++)
+			{
+				for (int dX = -1; dX <= 1; dX++)
+				{
+					for (int dZ = -1; dZ <= 1; dZ++)
+					{
+						int nextX = (int)log.x + dX;
+						int nextY = (int)log.y + dY;
+						int nextZ = (int)log.z + dZ;
+
+						if (nextY < baseY || nextY > baseY + MAX_HEIGHT || Math.abs(nextX - x) > MAX_SPREAD || Math.abs(nextZ - z) > MAX_SPREAD)
+						{
+							continue;
+						}
+
+						long key = CoordinateHelper.packCoordinates(nextX, nextY, nextZ);
+
+						if (!logSet.contains(key) && world.getBlockId(nextX, nextY, nextZ) == Block.wood.blockID)
+						{
+							logSet.add(key);
+							openList.add(new Coordinates(nextX, nextY, nextZ));
+						}
+					}
+				}
+			}
+		}
+
+		//Flood fill the canopy outward from the logs.
+		List<Coordinates> leaves = new ArrayList<Coordinates>();
+		Set<Long> leafSet = new HashSet<Long>();
+		List<Coordinates> frontier = logs;
+
+		for (int depth = 0; depth < MAX_LEAF_DEPTH && leaves.size() < MAX_LEAVES; depth++)
+		{
+			List<Coordinates> nextFrontier = new ArrayList<Coordinates>();
+
+			for (Coordinates coords : frontier)
+			{
+				int[][] offsets = {{1, 0, 0}, {-1, 0, 0}, {0, 1, 0}, {0, -1, 0}, {0, 0, 1}, {0, 0, -1}};
+
+				for (int[] offset : offsets)
+				{
+					int nextX = (int)coords.x + offset[0];
+					int nextY = (int)coords.y + offset[1];
+					int nextZ = (int)coords.z + offset[2];
+					long key = CoordinateHelper.packCoordinates(nextX, nextY, nextZ);
+
+					if (!leafSet.contains(key) && !logSet.contains(key) && leaves.size() < MAX_LEAVES &&
+							world.getBlockId(nextX, nextY, nextZ) == Block.leaves.blockID)
+					{
+						Coordinates leaf = new Coordinates(nextX, nextY, nextZ);
+						leafSet.add(key);
+						leaves.add(leaf);
+						nextFrontier.add(leaf);
+					}
+				}
+			}
+
+			frontier = nextFrontier;
+		}
+
+		//Trunks without any canopy are most likely part of a building.
+		if (leaves.isEmpty())
+		{
+			return null;
+		}
+
+		//Only the trunk is in reach of someone standing at the base, so cut it from the bottom up.
+		List<Coordinates> cutOrder = new ArrayList<Coordinates>();
+
+		for (Coordinates log : logs)
+		{
+			if (log.x == treeBaseX && log.z == treeBaseZ)
+			{
+				cutOrder.add(log);
+			}
+		}
+
+		Collections.sort(cutOrder, new Comparator<Coordinates>()
+		{
+			@Override
+			public int compare(Coordinates first, Coordinates second)
+			{
+				return Double.compare(first.y, second.y);
+			}
+		});
+
+		return new TreeStructure(x, baseY, z, treeType, world.getTotalWorldTime(), cutOrder, leaves, logSet);
+	}
+
+	/**
+	 * Gets a log from the cut order.
+	 *
+	 * @param 	index	The index of the log in the cut order.
+	 *
+	 * @return	Coordinates of the log.
+	 */
+	public Coordinates getLog(int index)
+	{
+		return cutOrder.get(index);
+	}
+
+	/**
+	 * Gets the number of logs in the cut order.
+	 *
+	 * @return	The number of logs that will be cut.
+	 */
+	public int getLogCount()
+	{
+		return cutOrder.size();
+	}
+
+	/**
+	 * Removes the leaves of this tree that are within one block of the provided position.
+	 *
+	 * @param 	world	The world the tree is in.
+	 * @param 	posX	The X position to clear leaves around.
+	 * @param 	posY	The Y position to clear leaves around.
+	 * @param 	posZ	The Z position to clear leaves around.
+	 */
+	public void clearLeavesNear(World world, double posX, double posY, double posZ)
+	{
+		int x = (int)posX;
+		int y = (int)posY;
+		int z = (int)posZ;
+
+		for (Coordinates leaf : leaves)
+		{
+			if (Math.abs(leaf.x - x) <= 1 && Math.abs(leaf.z - z) <= 1 && leaf.y >= y - 3 && leaf.y <= y + 1 &&
+					world.getBlockId((int)leaf.x, (int)leaf.y, (int)leaf.z) == Block.leaves.blockID)
+			{
+				world.setBlock((int)leaf.x, (int)leaf.y, (int)leaf.z, 0);
+			}
+		}
+	}
+
+	/**
+	 * Adds the packed coordinates of every log in this tree to the provided set.
+	 *
+	 * @param 	knownLogSet	The set to add the logs to.
+	 */
+	public void addLogsTo(Set<Long> knownLogSet)
+	{
+		knownLogSet.addAll(logSet);
+	}
+
+	/**
+	 * Checks if the log at the provided coordinates is part of this tree.
+	 *
+	 * @param 	x	The X coordinate.
+	 * @param 	y	The Y coordinate.
+	 * @param 	z	The Z coordinate.
+	 *
+	 * @return	True if the coordinates are one of this tree's logs.
+	 */
+	public boolean containsLog(int x, int y, int z)
+	{
+		return logSet.contains(CoordinateHelper.packCoordinates(x, y, z));
+	}
+}
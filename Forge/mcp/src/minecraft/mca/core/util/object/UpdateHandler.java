@@ -88,8 +88,7 @@ public class UpdateHandler implements Runnable
 					}
 				}
 
-				manager.modProperties.lastFoundUpdate = mostRecentVersion;
-				manager.saveModProperties();
+				manager.setLastFoundUpdate(mostRecentVersion);
 				scanner.close();
 			}
 		}
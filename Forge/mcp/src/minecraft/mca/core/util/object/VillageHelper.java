@@ -9,19 +9,22 @@
 
 package mca.core.util.object;
 
-import java.util.List;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
 
 import mca.core.MCA;
 import mca.entity.AbstractEntity;
 import mca.entity.EntityVillagerAdult;
-import net.minecraft.util.AxisAlignedBB;
 import net.minecraft.util.MathHelper;
 import net.minecraft.util.Vec3;
 import net.minecraft.village.Village;
 import net.minecraft.world.World;
 
 /**
- * Assists with changing and monitoring aspects of an entity's village object.
+ * Assists with changing and monitoring aspects of a village. There is one village helper per village, kept by the
+ * village registry. The helper keeps a census by profession of the MCA entities in the village, counted from the
+ * entities the registry knows are loaded instead of searching the world for them.
  */
 public class VillageHelper
 {
@@ -29,8 +32,16 @@ public class VillageHelper
 	private World	world;
 
 	private int tickCounter = 0;
-	private int numberOfVillagers = 0;
-	private int numberOfGuards = 0;
+	private long lastTickTime = -1;
+
+	/** The number of MCA entities in the village at the last census. */
+	private int memberCount = 0;
+
+	/** Map of the number of villagers with each profession. Key = profession ID, Value = number of villagers. */
+	private final Map<Integer, Integer> professionCountMap = new HashMap<Integer, Integer>();
+
+	/** The route the village's guards patrol. */
+	private final PatrolRoute patrolRoute = new PatrolRoute();
 
 	/**
 	 * Constructor
@@ -45,39 +56,44 @@ public class VillageHelper
 	}
 
 	/**
-	 * Updates the village helper.
+	 * Updates the village helper. Only runs once per tick no matter how many villagers call it.
 	 */
 	public void tick()
 	{
+		long worldTime = world.getTotalWorldTime();
+
+		if (worldTime == lastTickTime)
+		{
+			return;
+		}
+
+		lastTickTime = worldTime;
 		tickCounter++;
 
 		if (tickCounter % 20 == 0)
 		{
-			this.updateNumberOfVillagers();
+			this.takeCensus();
 		}
 
 		if (tickCounter % 30 == 0)
 		{
-			this.updateNumberOfGuards();
-
 			if (MCA.instance.modPropertiesManager.modProperties.guardSpawnRate != 0)
 			{
-				int desiredNumberOfGuards = this.numberOfVillagers / MCA.instance.modPropertiesManager.modProperties.guardSpawnRate;
+				int desiredNumberOfGuards = this.getNumberOfVillagers() / MCA.instance.modPropertiesManager.modProperties.guardSpawnRate;
 
-				if (this.numberOfGuards < desiredNumberOfGuards)
+				if (this.getNumberOfGuards() < desiredNumberOfGuards)
 				{
 					Vec3 vector = this.tryGetGuardSpawnLocation(MathHelper.floor_float(village.getCenter().posX), MathHelper.floor_float(village.getCenter().posY), MathHelper.floor_float(village.getCenter().posZ), 2, 4, 2);
 
-					if (vector != null)
-					{	
-						if (!world.isRemote)
-						{
-							EntityVillagerAdult guard = new EntityVillagerAdult(world, 5);
-							guard.setPosition(vector.xCoord, vector.yCoord, vector.zCoord);
-							world.spawnEntityInWorld(guard);
-						}
+					if (vector != null && !world.isRemote)
+					{
+						EntityVillagerAdult guard = new EntityVillagerAdult(world, 5);
+						guard.setPosition(vector.xCoord, vector.yCoord, vector.zCoord);
+						world.spawnEntityInWorld(guard);
 
-						numberOfGuards++;
+						//Count the guard right away so another isn't spawned before the next census.
+						changeProfessionCount(5, 1);
+						memberCount++;
 					}
 				}
 			}
@@ -89,6 +105,71 @@ public class VillageHelper
 		}
 	}
 
+	/**
+	 * Gets the number of villagers in the village with the provided profession.
+	 * 
+	 * @param 	profession	The profession ID.
+	 * 
+	 * @return	The number of villagers with the profession.
+	 */
+	public int getNumberWithProfession(int profession)
+	{
+		Integer count = professionCountMap.get(profession);
+		return count == null ? 0 : count;
+	}
+
+	/**
+	 * Gets the number of villagers in the village, including children and spouses, but not counting guards since
+	 * they don't need a home.
+	 * 
+	 * @return	The number of villagers that aren't guards.
+	 */
+	public int getNumberOfVillagers()
+	{
+		return memberCount - getNumberOfGuards();
+	}
+
+	/**
+	 * Gets the number of guards in the village.
+	 * 
+	 * @return	The number of guards.
+	 */
+	public int getNumberOfGuards()
+	{
+		return getNumberWithProfession(5);
+	}
+
+	/**
+	 * Gets the village this helper is attached to.
+	 * 
+	 * @return	The village.
+	 */
+	public Village getVillage()
+	{
+		return village;
+	}
+
+	/**
+	 * Gets the route the village's guards patrol, rebuilding it first if the village's doors have changed.
+	 * 
+	 * @return	The village's patrol route.
+	 */
+	public PatrolRoute getPatrolRoute()
+	{
+		patrolRoute.update(village, world.getTotalWorldTime());
+		return patrolRoute;
+	}
+
+	/**
+	 * Gets the world time at which this helper last ran.
+	 * 
+	 * @return	The world time of the last tick. -1 if it has never run.
+	 */
+	public long getLastTickTime()
+	{
+		return lastTickTime;
+	}
+
 	/**
 	 * Tries to find a valid spawn location for a guard.
 	 * 
@@ -161,43 +242,44 @@ public class VillageHelper
 	}
 
 	/**
-	 * Discovers how many guards are in the village.
+	 * Counts the MCA entities within the village's radius of its center by profession. Entities that have died
+	 * since they were last counted are removed from the registry.
 	 */
-	private void updateNumberOfGuards()
+	private void takeCensus()
 	{
-		List villagers = world.getEntitiesWithinAABB(EntityVillagerAdult.class, AxisAlignedBB.getAABBPool().getAABB(village.getCenter().posX - village.getVillageRadius(), village.getCenter().posY - 4, village.getCenter().posZ - village.getVillageRadius(), village.getCenter().posX + village.getVillageRadius(), village.getCenter().posY + 4, village.getCenter().posZ + village.getVillageRadius()));
+		double centerX = village.getCenter().posX;
+		double centerY = village.getCenter().posY;
+		double centerZ = village.getCenter().posZ;
+		int radius = village.getVillageRadius();
 
-		numberOfGuards = 0;
+		memberCount = 0;
+		professionCountMap.clear();
 
-		for (Object obj : villagers)
+		for (Iterator<AbstractEntity> iterator = MCA.instance.villageRegistry.getEntities(world).iterator(); iterator.hasNext();)
 		{
-			AbstractEntity entity = (AbstractEntity)obj;
+			AbstractEntity entity = iterator.next();
 
-			if (entity.profession == 5)
+			if (entity.isDead)
 			{
-				numberOfGuards++;
+				iterator.remove();
+			}
+
+			else if (Math.abs(entity.posX - centerX) <= radius && Math.abs(entity.posZ - centerZ) <= radius && Math.abs(entity.posY - centerY) <= 4)
+			{
+				memberCount++;
+				changeProfessionCount(entity.profession, 1);
 			}
 		}
 	}
 
 	/**
-	 * Discovers how many villagers are in the village.
+	 * Changes the number of villagers counted with the provided profession.
+	 * 
+	 * @param 	profession	The profession ID.
+	 * @param 	amount		The amount to change the count by.
 	 */
-	private void updateNumberOfVillagers()
+	private void changeProfessionCount(int profession, int amount)
 	{
-		List villagers = world.getEntitiesWithinAABB(AbstractEntity.class, AxisAlignedBB.getAABBPool().getAABB(village.getCenter().posX - village.getVillageRadius(), village.getCenter().posY - 4, village.getCenter().posZ - village.getVillageRadius(), village.getCenter().posX + village.getVillageRadius(), village.getCenter().posY + 4, village.getCenter().posZ + village.getVillageRadius()));
-
-		numberOfVillagers = villagers.size();
-
-		for (Object obj : villagers)
-		{
-			AbstractEntity entity = (AbstractEntity)obj;
-
-			//Skip guards, they don't count because they don't need a home.
-			if (entity.profession == 5)
-			{
-				numberOfVillagers--;
-			}
-		}
+		professionCountMap.put(profession, getNumberWithProfession(profession) + amount);
 	}
 }
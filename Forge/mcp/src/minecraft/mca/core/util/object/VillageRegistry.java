@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * VillageRegistry.java
+ * Copyright (c) 2013 WildBamaBoy.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+
+package mca.core.util.object;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import mca.entity.AbstractEntity;
+import net.minecraft.village.Village;
+import net.minecraft.world.World;
+
+/**
+ * Keeps the single village helper of each village in each world, and the MCA entities loaded in each world that
+ * the helpers take their census from. Entities are added when they join the world and removed when they die or
+ * their chunk unloads.
+ */
+public class VillageRegistry
+{
+	/** How many ticks a village helper can go without running before it is forgotten. */
+	private static final int HELPER_TIMEOUT_TICKS = 1200;
+
+	/** Map of the villages and entities in each world. Key = world, Value = the world's villages and entities. */
+	private final Map<World, WorldVillages> worldVillagesMap = Collections.synchronizedMap(new WeakHashMap<World, WorldVillages>());
+
+	/**
+	 * Gets the helper of the provided village, creating it if the village doesn't have one yet.
+	 *
+	 * @param 	world	The world the village is in.
+	 * @param 	village	The village.
+	 *
+	 * @return	The village's helper.
+	 */
+	public VillageHelper getVillageHelper(World world, Village village)
+	{
+		Map<Village, VillageHelper> helperMap = getWorldVillages(world).helperMap;
+		VillageHelper helper = helperMap.get(village);
+
+		if (helper == null)
+		{
+			removeAbandonedVillages(world, helperMap);
+
+			helper = new VillageHelper(village, world);
+			helperMap.put(village, helper);
+		}
+
+		return helper;
+	}
+
+	/**
+	 * Starts counting an entity that has joined its world.
+	 *
+	 * @param 	entity	The entity that joined.
+	 */
+	public void addEntity(AbstractEntity entity)
+	{
+		getWorldVillages(entity.worldObj).entityMap.put(entity.entityId, entity);
+	}
+
+	/**
+	 * Stops counting an entity that has died or unloaded.
+	 *
+	 * @param 	entity	The entity that left.
+	 */
+	public void removeEntity(AbstractEntity entity)
+	{
+		WorldVillages worldVillages = worldVillagesMap.get(entity.worldObj);
+
+		if (worldVillages != null && worldVillages.entityMap.get(entity.entityId) == entity)
+		{
+			worldVillages.entityMap.remove(entity.entityId);
+		}
+	}
+
+	/**
+	 * Gets the MCA entities loaded in a world. Removing an entity from the collection stops counting it.
+	 *
+	 * @param 	world	The world.
+	 *
+	 * @return	The entities loaded in the world.
+	 */
+	public Collection<AbstractEntity> getEntities(World world)
+	{
+		return getWorldVillages(world).entityMap.values();
+	}
+
+	/**
+	 * Forgets every village helper and entity in every world.
+	 */
+	public void clear()
+	{
+		worldVillagesMap.clear();
+	}
+
+	/**
+	 * Forgets every village helper and entity in the provided world. Called when the world unloads, since the
+	 * helpers and entities would otherwise keep it loaded.
+	 *
+	 * @param 	world	The world that unloaded.
+	 */
+	public void clearWorld(World world)
+	{
+		worldVillagesMap.remove(world);
+	}
+
+	/**
+	 * Gets the villages and entities of the provided world, creating them if necessary.
+	 *
+	 * @param 	world	The world.
+	 *
+	 * @return	The world's villages and entities.
+	 */
+	private WorldVillages getWorldVillages(World world)
+	{
+		WorldVillages worldVillages = worldVillagesMap.get(world);
+
+		if (worldVillages == null)
+		{
+			worldVillages = new WorldVillages();
+			worldVillagesMap.put(world, worldVillages);
+		}
+
+		return worldVillages;
+	}
+
+	/**
+	 * Forgets the helpers of villages that no longer exist or that nobody has reported to in a while.
+	 *
+	 * @param 	world		The world the villages are in.
+	 * @param 	helperMap	The map of villages to helpers in the world.
+	 */
+	private void removeAbandonedVillages(World world, Map<Village, VillageHelper> helperMap)
+	{
+		long worldTime = world.getTotalWorldTime();
+
+		for (Iterator<Map.Entry<Village, VillageHelper>> iterator = helperMap.entrySet().iterator(); iterator.hasNext();)
+		{
+			Map.Entry<Village, VillageHelper> entry = iterator.next();
+			long lastTickTime = entry.getValue().getLastTickTime();
+
+			if (entry.getKey().isAnnihilated() || (lastTickTime != -1 && worldTime - lastTickTime > HELPER_TIMEOUT_TICKS))
+			{
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * The village helpers and MCA entities of a single world.
+	 */
+	private static class WorldVillages
+	{
+		/** Map of the villages in the world to their helpers. */
+		private final Map<Village, VillageHelper> helperMap = new IdentityHashMap<Village, VillageHelper>();
+
+		/** Map of the MCA entities loaded in the world. Key = entity ID, Value = the entity. */
+		private final Map<Integer, AbstractEntity> entityMap = new HashMap<Integer, AbstractEntity>();
+	}
+}
@@ -13,14 +13,15 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.ConcurrentModificationException;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import mca.chore.AbstractChore;
 import mca.chore.ChoreCombat;
@@ -30,11 +31,15 @@ import mca.chore.ChoreHunting;
 import mca.chore.ChoreMining;
 import mca.chore.ChoreWoodcutting;
 import mca.core.MCA;
+import mca.core.io.NBTFieldCodec;
+import mca.core.io.WorldPropertiesList;
 import mca.core.io.WorldPropertiesManager;
 import mca.core.util.LanguageHelper;
 import mca.core.util.LogicHelper;
 import mca.core.util.PacketHelper;
+import mca.core.util.object.Coordinates;
 import mca.core.util.object.FamilyTree;
+import mca.core.util.object.MemoryArchive;
 import mca.core.util.object.PlayerMemory;
 import mca.enums.EnumMood;
 import mca.enums.EnumMoodChangeContext;
@@ -57,6 +62,7 @@ import net.minecraft.item.ItemHoe;
 import net.minecraft.item.ItemPickaxe;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.ItemSword;
+import net.minecraft.nbt.NBTBase;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.util.DamageSource;
@@ -101,8 +107,6 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 	public int moodUpdateDeviation = MCA.instance.rand.nextInt(50) + MCA.instance.rand.nextInt(50);
 	public int particleTicks = 0;
 	public int procreateTicks = 0;
-	public int villagerBabyCalendarPrevMinutes	  = Calendar.getInstance().get(Calendar.MINUTE);
-	public int villagerBabyCalendarCurrentMinutes = Calendar.getInstance().get(Calendar.MINUTE);
 	public int workCalendarPrevMinutes	  = Calendar.getInstance().get(Calendar.MINUTE);
 	public int workCalendarCurrentMinutes = Calendar.getInstance().get(Calendar.MINUTE);
 	public boolean isSleeping = false;
@@ -126,7 +130,6 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 	public boolean shouldSpawnBaby = false;
 	public boolean shouldDivorce = false;
 	public boolean shouldOpenInventory = false;
-	public boolean shouldSkipAreaModify = false;
 	public boolean isProcreatingWithPlayer = false;
 	public boolean shouldActAsHeir = false;
 	public boolean isGoodHeir = true;
@@ -157,6 +160,44 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 	public transient EntityLivingBase target = null;
 	public transient boolean sentSyncRequest = false;
 	public transient boolean addedAI = false;
+	public transient long choreCatchUpTicks = 0;
+
+	/** The total world time at which the held baby was born. -1 if it isn't known yet. Saved by hand since it is a long. */
+	public long heldBabyBirthTime = -1;
+
+	/** The number of world ticks in a minute. */
+	protected static final int TICKS_PER_MINUTE = 1200;
+
+	//Pathing state
+	private static final int REPATH_INTERVAL_TICKS = 5;
+	private static final double REPATH_DISTANCE_SQ = 4.0D;
+	private transient Entity pathTarget = null;
+	private transient double pathTargetX = 0D;
+	private transient double pathTargetY = 0D;
+	private transient double pathTargetZ = 0D;
+	private transient int repathCooldownTicks = 0;
+	private transient boolean lastPathFound = false;
+	private transient int teleportCacheX = Integer.MIN_VALUE;
+	private transient int teleportCacheY = Integer.MIN_VALUE;
+	private transient int teleportCacheZ = Integer.MIN_VALUE;
+	private transient Coordinates teleportCandidate = null;
+
+	//Monarch state
+	private transient int monarchRegistryVersion = -1;
+	private transient Map<String, PlayerMemory> monarchMemoryMap = null;
+	private transient int monarchMemoryCount = 0;
+	private transient long lastMonarchUpdateTime = -1;
+	private transient long nextMonarchUpdateTime = -1;
+	private transient Map<String, Long> monarchResetTimeMap = new HashMap<String, Long>();
+
+	//Memories waiting to be sent
+	private transient Set<String> changedMemorySet = new HashSet<String>();
+
+	//Saved component state
+	private transient int componentChangeVersion = 0;
+	private transient int snapshotVersion = 0;
+	private transient Object[] snapshotComponents = null;
+	private transient NBTTagCompound componentSnapshot = null;
 
 	/**
 	 * Constructor
@@ -293,6 +334,8 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 			updateMood();
 			updateWorkTime();
 			updateDebug();
+			updateMemoryArchive();
+			sendChangedMemories();
 
 			//Check if inventory should be opened.
 			if (shouldOpenInventory)
@@ -335,89 +378,38 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 	public void writeEntityToNBT(NBTTagCompound NBT)
 	{
 		super.writeEntityToNBT(NBT);
-		inventory.writeInventoryToNBT(NBT);
-		familyTree.writeTreeToNBT(NBT);
-		combatChore.writeChoreToNBT(NBT);
-		farmingChore.writeChoreToNBT(NBT);
-		fishingChore.writeChoreToNBT(NBT);
-		woodcuttingChore.writeChoreToNBT(NBT);
-		miningChore.writeChoreToNBT(NBT);
-		huntingChore.writeChoreToNBT(NBT);
+		writeComponentsToNBT(NBT);
 
+		//Remember when the chores were saved so they can be caught up on when loaded again.
+		NBT.setLong("choreCheckpointTime", worldObj.getTotalWorldTime());
 		NBT.setString("texture", texture);
 
-		String fieldName = null;
-		String fieldType = null;
+		//Keep the held baby's age in minutes up to date alongside its birth time.
+		if (heldBabyBirthTime >= 0)
+		{
+			heldBabyAge = (int)Math.max((worldObj.getTotalWorldTime() - heldBabyBirthTime) / TICKS_PER_MINUTE, 0);
+			NBT.setLong("heldBabyBirthTime", heldBabyBirthTime);
+		}
 
 		try
 		{
-			for (Field f : this.getClass().getFields())
-			{
-				if (EntityChild.class.isAssignableFrom(f.getDeclaringClass()) || EntityPlayerChild.class.isAssignableFrom(f.getDeclaringClass()) ||
-						EntityVillagerChild.class.isAssignableFrom(f.getDeclaringClass()) || EntityVillagerAdult.class.isAssignableFrom(f.getDeclaringClass()) ||
-						AbstractEntity.class.isAssignableFrom(f.getDeclaringClass()))
-				{
-					try
-					{
-						fieldName = f.getName();
-						fieldType = f.getType().toString();
-
-						//Do not save transient fields.
-						if (!Modifier.isTransient(f.getModifiers()))
-						{
-							if (fieldType.contains("String"))
-							{
-								NBT.setString(fieldName, (String)f.get(this));
-							}
+			NBTFieldCodec.getCodec(this.getClass(), AbstractEntity.class).writeFieldsToNBT(this, NBT);
 
-							else if (fieldType.contains("boolean"))
-							{
-								NBT.setBoolean(fieldName, Boolean.parseBoolean(f.get(this).toString()));
-							}
-
-							else if (fieldType.contains("double"))
-							{
-								NBT.setDouble(fieldName, Double.parseDouble(f.get(this).toString()));
-							}
+			//Bring the demand timers up to date before they're saved.
+			updateMonarchResetTicks();
 
-							else if (fieldType.contains("int"))
-							{
-								NBT.setInteger(fieldName, Integer.parseInt(f.get(this).toString()));
-							}
-
-							else if (fieldType.contains("float"))
-							{
-								NBT.setFloat(fieldName, Float.parseFloat(f.get(this).toString()));
-							}
-						}
-					}
-
-					catch (NullPointerException e)
-					{
-						continue;
-					}
-
-					catch (IllegalArgumentException e)
-					{
-						continue;
-					}
+			//Save the player memories to NBT. Memories that hold nothing are created again when needed.
+			List<PlayerMemory> memoriesToSave = new ArrayList<PlayerMemory>();
 
-					catch (IllegalAccessException e)
-					{
-						continue;
-					}
+			for (PlayerMemory memory : playerMemoryMap.values())
+			{
+				if (!memory.isDefault())
+				{
+					memoriesToSave.add(memory);
 				}
 			}
 
-			int counter = 0;
-
-			//Save the player memories to NBT.
-			for(Map.Entry<String, PlayerMemory> KVP : playerMemoryMap.entrySet())
-			{
-				NBT.setString("playerMemoryKey" + counter, KVP.getKey());
-				KVP.getValue().writePlayerMemoryToNBT(NBT);
-				counter++;
-			}
+			PlayerMemory.writePlayerMemoriesToNBT(NBT, memoriesToSave);
 		}
 
 		catch (Throwable e)
@@ -433,119 +425,117 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 
 		inventory.readInventoryFromNBT(NBT);
 		familyTree.readTreeFromNBT(NBT);
-		combatChore.readChoreFromNBT(NBT);
-		farmingChore.readChoreFromNBT(NBT);
-		fishingChore.readChoreFromNBT(NBT);
-		woodcuttingChore.readChoreFromNBT(NBT);
-		miningChore.readChoreFromNBT(NBT);
-		huntingChore.readChoreFromNBT(NBT);
+		readChoreFromNBT(NBT, "combatChore", combatChore);
+		readChoreFromNBT(NBT, "farmingChore", farmingChore);
+		readChoreFromNBT(NBT, "fishingChore", fishingChore);
+		readChoreFromNBT(NBT, "woodcuttingChore", woodcuttingChore);
+		readChoreFromNBT(NBT, "miningChore", miningChore);
+		readChoreFromNBT(NBT, "huntingChore", huntingChore);
+		markComponentsChanged();
 
-		texture = NBT.getString("texture");
+		if (NBT.hasKey("choreCheckpointTime"))
+		{
+			choreCatchUpTicks = Math.max(worldObj.getTotalWorldTime() - NBT.getLong("choreCheckpointTime"), 0);
+		}
 
-		String fieldName = null;
-		String fieldType = null;
+		texture = NBT.getString("texture");
+		heldBabyBirthTime = NBT.hasKey("heldBabyBirthTime") ? NBT.getLong("heldBabyBirthTime") : -1;
 
 		try
 		{
-			for (Field f : this.getClass().getFields())
-			{
-				if (EntityChild.class.isAssignableFrom(f.getDeclaringClass()) || EntityPlayerChild.class.isAssignableFrom(f.getDeclaringClass()) ||
-						EntityVillagerChild.class.isAssignableFrom(f.getDeclaringClass()) || EntityVillagerAdult.class.isAssignableFrom(f.getDeclaringClass()) ||
-						AbstractEntity.class.isAssignableFrom(f.getDeclaringClass()))
-				{
-					try
-					{
-						fieldName = f.getName();
-						fieldType = f.getType().toString();
-
-						if (!Modifier.isTransient(f.getModifiers()))
-						{
-							if (fieldType.contains("String"))
-							{
-								f.set(this, new String(NBT.getString(fieldName)));
-							}
-
-							else if (fieldType.contains("boolean"))
-							{
-								f.set(this, new Boolean(NBT.getBoolean(fieldName)));
-							}
-
-							else if (fieldType.contains("double"))
-							{
-								f.set(this, new Double(NBT.getDouble(fieldName)));
-							}
-
-							else if (fieldType.contains("int"))
-							{
-								f.set(this, new Integer(NBT.getInteger(fieldName)));
-							}
-
-							else if (fieldType.contains("float"))
-							{
-								f.set(this, new Float(NBT.getFloat(fieldName)));
-							}
-						}
-					}
-
-					catch (NullPointerException e)
-					{
-						continue;
-					}
-
-					catch (IllegalArgumentException e)
-					{
-						continue;
-					}
-
-					catch (IllegalAccessException e)
-					{
-						//Happens when characterType is hit.
-						continue;
-					}
-				}
-			}
+			NBTFieldCodec.getCodec(this.getClass(), AbstractEntity.class).readFieldsFromNBT(this, NBT);
 
 			//Get the player memories.
-			int counter = 0;
+			PlayerMemory.readPlayerMemoriesFromNBT(NBT, playerMemoryMap);
 
-			while (true)
-			{
-				try
-				{
-					String playerName = NBT.getString("playerMemoryKey" + counter);
+			//Set trait.
+			trait = EnumTrait.getTraitById(traitId);
+		}
 
-					if (playerName.equals(""))
-					{
-						break;
-					}
+		catch (Throwable e)
+		{
+			MCA.instance.quitWithError("Error reading from NBT.", e);
+		}
+	}
 
-					else
-					{
-						PlayerMemory playerMemory = new PlayerMemory(playerName);
-						playerMemory.readPlayerMemoryFromNBT(NBT);
-						playerMemoryMap.put(playerName, playerMemory);
+	/**
+	 * Counts a change to the entity's chores, so that they are written again the next time the entity is saved. Changes
+	 * to the inventory and family tree are counted by the inventory and family tree themselves.
+	 */
+	public void markComponentsChanged()
+	{
+		componentChangeVersion++;
+	}
 
-						counter++;
-					}
-				}
+	/**
+	 * Writes the inventory, family tree and chores to NBT. These are only built again when one of them has changed
+	 * since the entity was last saved. Otherwise a copy of the tags built for an earlier save is written.
+	 * 
+	 * @param 	NBT	The entity's NBT.
+	 */
+	private void writeComponentsToNBT(NBTTagCompound NBT)
+	{
+		Object[] components = new Object[] {inventory, familyTree, combatChore, farmingChore, fishingChore, woodcuttingChore, miningChore, huntingChore};
+		int version = componentChangeVersion + inventory.getChangeVersion() + familyTree.getChangeVersion();
+		boolean snapshotIsCurrent = componentSnapshot != null && version == snapshotVersion;
 
-				catch (NullPointerException e)
-				{
-					MCA.instance.log(e);
-					break;
-				}
-			}
+		//A component that was replaced by another object has to be written again, even if its version matches.
+		for (int i = 0; snapshotIsCurrent && i < components.length; i++)
+		{
+			snapshotIsCurrent = components[i] == snapshotComponents[i];
+		}
 
-			//Set trait.
-			trait = EnumTrait.getTraitById(traitId);
+		if (!snapshotIsCurrent)
+		{
+			componentSnapshot = new NBTTagCompound();
+			inventory.writeInventoryToNBT(componentSnapshot);
+			familyTree.writeTreeToNBT(componentSnapshot);
+			writeChoreToNBT(componentSnapshot, "combatChore", combatChore);
+			writeChoreToNBT(componentSnapshot, "farmingChore", farmingChore);
+			writeChoreToNBT(componentSnapshot, "fishingChore", fishingChore);
+			writeChoreToNBT(componentSnapshot, "woodcuttingChore", woodcuttingChore);
+			writeChoreToNBT(componentSnapshot, "miningChore", miningChore);
+			writeChoreToNBT(componentSnapshot, "huntingChore", huntingChore);
+
+			snapshotVersion = version;
+			snapshotComponents = components;
 		}
 
-		catch (Throwable e)
+		//Copies are written so that nothing done to the saved NBT can change the snapshot.
+		for (Object tag : componentSnapshot.getTags())
 		{
-			MCA.instance.quitWithError("Error reading from NBT.", e);
+			NBTBase componentTag = (NBTBase)tag;
+			NBT.setTag(componentTag.getName(), componentTag.copy());
 		}
 	}
 
+	/**
+	 * Writes a chore to its own compound within the entity's NBT.
+	 * 
+	 * @param 	NBT		The entity's NBT.
+	 * @param 	key		The name of the chore's compound.
+	 * @param 	chore	The chore to write.
+	 */
+	private static void writeChoreToNBT(NBTTagCompound NBT, String key, AbstractChore chore)
+	{
+		NBTTagCompound choreNBT = new NBTTagCompound();
+		chore.writeChoreToNBT(choreNBT);
+		NBT.setCompoundTag(key, choreNBT);
+	}
+
+	/**
+	 * Reads a chore from its own compound within the entity's NBT. Chores saved before they had their own compound are
+	 * read from the entity's tags, and are moved into their compound the next time the entity is saved.
+	 * 
+	 * @param 	NBT		The entity's NBT.
+	 * @param 	key		The name of the chore's compound.
+	 * @param 	chore	The chore to read.
+	 */
+	private static void readChoreFromNBT(NBTTagCompound NBT, String key, AbstractChore chore)
+	{
+		chore.readChoreFromNBT(NBT.hasKey(key) ? NBT.getCompoundTag(key) : NBT);
+	}
+
 	@Override
 	public ItemStack getHeldItem()
 	{		
@@ -642,11 +632,24 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 	{
 		super.onDeath(damageSource);
 
+		//Archived memories are no longer needed.
+		if (!worldObj.isRemote)
+		{
+			MemoryArchive.getArchive(worldObj).removeEntity(mcaID);
+		}
+
+		//Executions are made by the player who last interacted with the entity.
+		if (!worldObj.isRemote && hasBeenExecuted)
+		{
+			WorldPropertiesList executorProperties = MCA.instance.playerWorldManagerMap.peekWorldProperties(lastInteractingPlayer);
+			MCA.instance.relationshipLog.recordExecution(mcaID, executorProperties != null ? executorProperties.playerID : 0);
+		}
+
 		//Check for heir.
 		if (!worldObj.isRemote && this instanceof EntityPlayerChild)
 		{
 			EntityPlayerChild playerChild = (EntityPlayerChild)this;
-			WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.get(playerChild.ownerPlayerName);
+			WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.loadManager(playerChild.ownerPlayerName);
 
 			if (manager != null)
 			{
@@ -844,6 +847,7 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 			{
 				int itemSlot = inventory.getFirstSlotContainingItem(heldItem.getItem());
 				inventory.inventoryItems[itemSlot].damageItem(1, this);
+				inventory.markChanged();
 
 				if (inventory.inventoryItems[itemSlot].stackSize == 0)
 				{
@@ -929,12 +933,24 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 		}
 	}
 
+	@Override
+	public void setDead()
+	{
+		super.setDead();
+
+		//Dead or not, the entity is no longer part of any village.
+		if (!worldObj.isRemote)
+		{
+			MCA.instance.villageRegistry.removeEntity(this);
+		}
+	}
+
 	/**
 	 * Removes the entity from the world without notifying the player that they have died.
 	 */
 	public void setDeadWithoutNotification()
 	{
-		super.setDead();
+		setDead();
 
 		if (this.worldObj.isRemote)
 		{
@@ -1061,9 +1077,11 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 	}
 
 	/**
-	 * Spawns the entity at their home point if it is safe.
+	 * Spawns the entity at their home point if it is safe. Called by the home registry when it is this entity's turn to go home.
+	 * 
+	 * @return	The ID of the string that related players should be notified with. Null if there is nothing to notify them of.
 	 */
-	public void spawnAtHomePoint()
+	public String spawnAtHomePoint()
 	{
 		//Check if they actually have a home point.
 		if (hasHomePoint)
@@ -1104,8 +1122,7 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 
 			else //The entity isn't staying or following the player.
 			{
-				if (worldObj.getBlockId((int)homePointX, (int)(homePointY + 0), (int)homePointZ) == 0 &&
-						worldObj.getBlockId((int)homePointX, (int)(homePointY + 1), (int)homePointZ) == 0)
+				if (!MCA.instance.homeRegistry.isObstructed(worldObj, (int)homePointX, (int)homePointY, (int)homePointZ))
 				{
 					setPosition(homePointX, homePointY, homePointZ);
 					getNavigator().clearPathEntity();
@@ -1118,7 +1135,7 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 						if (adult.profession == 5 && !adult.isSpouse)
 						{
 							hasTeleportedHome = true;
-							return;
+							return null;
 						}
 					}
 
@@ -1128,17 +1145,9 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 
 				else //The test for obstructed home point failed. Notify the player.
 				{
-					for (int i : familyTree.getListOfPlayers())
-					{
-						EntityPlayer player = MCA.instance.getPlayerByID(worldObj, i);
-
-						if (worldObj.isRemote)
-						{
-							notifyPlayer(player, LanguageHelper.getString(this, "notify.homepoint.obstructed", false));
-						}
-					}
-
 					hasHomePoint = false;
+					hasTeleportedHome = true;
+					return "notify.homepoint.obstructed";
 				}
 			}
 		}
@@ -1146,18 +1155,44 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 		//This person doesn't have a home point.
 		else
 		{
-			for (int i : familyTree.getListOfPlayers())
-			{
-				EntityPlayer player = MCA.instance.getPlayerByID(worldObj, i);
+			hasTeleportedHome = true;
+			return "notify.homepoint.none";
+		}
 
-				if (worldObj.isRemote)
-				{
-					notifyPlayer(player, LanguageHelper.getString(this, "notify.homepoint.none", false));
-				}
+		return null;
+	}
 
-				hasTeleportedHome = true;
-			}
+	/**
+	 * Checks if the baby being held is old enough to be born, going by when it was first held.
+	 * 
+	 * @return	True if the held baby has grown up.
+	 */
+	protected boolean isHeldBabyGrown()
+	{
+		long worldTime = worldObj.getTotalWorldTime();
+
+		//Babies held before birth times were kept are as old as their saved age.
+		if (heldBabyBirthTime < 0)
+		{
+			heldBabyBirthTime = worldTime - (long)heldBabyAge * TICKS_PER_MINUTE;
 		}
+
+		//Babies grow a minute every tick in debug mode.
+		if (MCA.instance.inDebugMode)
+		{
+			heldBabyBirthTime -= TICKS_PER_MINUTE;
+		}
+
+		return worldTime - heldBabyBirthTime >= (long)MCA.instance.modPropertiesManager.modProperties.babyGrowUpTimeMinutes * TICKS_PER_MINUTE;
+	}
+
+	/**
+	 * Queues the entity to go home with the next batch of entities in its world. The entity won't be queued again tonight.
+	 */
+	private void queueTeleportHome()
+	{
+		hasTeleportedHome = true;
+		MCA.instance.homeRegistry.queueTeleport(this);
 	}
 
 	/**
@@ -1191,7 +1226,7 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 	{
 		boolean chatWasGood = false;
 
-		PlayerMemory memory = playerMemoryMap.get(player.username);
+		PlayerMemory memory = getPlayerMemory(player.username);
 		int chanceModifier = -(memory.interactionFatigue * 7) + mood.getChanceModifier("chat") + trait.getChanceModifier("chat");
 		int heartsModifier = mood.getHeartsModifier("chat") + trait.getHeartsModifier("chat");
 		chatWasGood = getBooleanWithProbability(65 + chanceModifier);
@@ -1223,8 +1258,7 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 		}
 
 		memory.interactionFatigue++;
-		playerMemoryMap.put(player.username, memory);
-		PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entityId, "playerMemoryMap", playerMemoryMap));
+		markMemoryChanged(player.username);
 	}
 
 	/**
@@ -1236,7 +1270,7 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 	{
 		boolean jokeWasGood = false;
 
-		PlayerMemory memory = playerMemoryMap.get(player.username);
+		PlayerMemory memory = getPlayerMemory(player.username);
 		int chanceModifier = -(memory.interactionFatigue * 7) + mood.getChanceModifier("joke") + trait.getChanceModifier("joke");
 		int heartsModifier = mood.getHeartsModifier("joke") + trait.getHeartsModifier("joke");
 
@@ -1269,8 +1303,7 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 		}
 		
 		memory.interactionFatigue++;
-		playerMemoryMap.put(player.username, memory);
-		PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entityId, "playerMemoryMap", playerMemoryMap));
+		markMemoryChanged(player.username);
 	}
 
 	/**
@@ -1283,7 +1316,7 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 		boolean greetingWasGood = false;
 
 		//This has a higher interaction fatigue, so that reactions are appropriate when the player "greets" someone multiple times.
-		PlayerMemory memory = playerMemoryMap.get(player.username);
+		PlayerMemory memory = getPlayerMemory(player.username);
 		int chanceModifier = -(memory.interactionFatigue * 20) + mood.getChanceModifier("greeting") + trait.getChanceModifier("greeting");
 		int heartsModifier = mood.getHeartsModifier("greeting") + trait.getHeartsModifier("greeting");
 
@@ -1318,8 +1351,7 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 		}
 		
 		memory.interactionFatigue++;
-		playerMemoryMap.put(player.username, memory);
-		PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entityId, "playerMemoryMap", playerMemoryMap));
+		markMemoryChanged(player.username);
 	}
 
 	/**
@@ -1331,7 +1363,7 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 	{
 		boolean storyWasGood = false;
 
-		PlayerMemory memory = playerMemoryMap.get(player.username);
+		PlayerMemory memory = getPlayerMemory(player.username);
 		int chanceModifier = -(memory.interactionFatigue * 7) + mood.getChanceModifier("story") + trait.getChanceModifier("story");
 		int heartsModifier = mood.getHeartsModifier("story") + trait.getHeartsModifier("story");
 
@@ -1364,8 +1396,7 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 		}
 		
 		memory.interactionFatigue++;
-		playerMemoryMap.put(player.username, memory);
-		PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entityId, "playerMemoryMap", playerMemoryMap));
+		markMemoryChanged(player.username);
 	}
 
 	/**
@@ -1377,7 +1408,7 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 	{
 		boolean playWasGood = false;
 
-		PlayerMemory memory = playerMemoryMap.get(player.username);
+		PlayerMemory memory = getPlayerMemory(player.username);
 		int chanceModifier = -(memory.interactionFatigue * 7) + mood.getChanceModifier("play") + trait.getChanceModifier("play");
 		int heartsModifier = mood.getHeartsModifier("play") + trait.getHeartsModifier("play");
 
@@ -1410,8 +1441,7 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 		}
 		
 		memory.interactionFatigue++;
-		playerMemoryMap.put(player.username, memory);
-		PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entityId, "playerMemoryMap", playerMemoryMap));
+		markMemoryChanged(player.username);
 	}
 
 	/**
@@ -1424,7 +1454,7 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 		int hearts = getHearts(player);
 		boolean flirtWasGood = false;
 
-		PlayerMemory memory = playerMemoryMap.get(player.username);
+		PlayerMemory memory = getPlayerMemory(player.username);
 		int chanceModifier = -(memory.interactionFatigue * 7) + mood.getChanceModifier("flirt") + trait.getChanceModifier("flirt");
 		int heartsModifier = mood.getHeartsModifier("flirt") + trait.getHeartsModifier("flirt");
 
@@ -1464,8 +1494,7 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 		}
 		
 		memory.interactionFatigue++;
-		playerMemoryMap.put(player.username, memory);
-		PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entityId, "playerMemoryMap", playerMemoryMap));
+		markMemoryChanged(player.username);
 	}
 
 	/**
@@ -1479,7 +1508,7 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 		boolean kissWasGood = false;
 
 		//This has a higher interaction fatigue.
-		PlayerMemory memory = playerMemoryMap.get(player.username);
+		PlayerMemory memory = getPlayerMemory(player.username);
 		int chanceModifier = -(memory.interactionFatigue * 10) + mood.getChanceModifier("kiss") + trait.getChanceModifier("kiss");
 		int heartsModifier = mood.getHeartsModifier("kiss") + trait.getHeartsModifier("kiss");
 
@@ -1524,8 +1553,7 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 		}
 		
 		memory.interactionFatigue++;
-		playerMemoryMap.put(player.username, memory);
-		PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entityId, "playerMemoryMap", playerMemoryMap));
+		markMemoryChanged(player.username);
 	}
 
 	/**
@@ -1864,7 +1892,7 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 		//Check the acceptable gifts for the item stack's item ID.
 		if (MCA.acceptableGifts.containsKey(itemStack.itemID))
 		{
-			PlayerMemory memory = playerMemoryMap.get(player.username);
+			PlayerMemory memory = getPlayerMemory(player.username);
 
 			int heartIncrease = -(memory.interactionFatigue * 7) + MCA.acceptableGifts.get(itemStack.itemID) + mood.getHeartsModifier("gift") + trait.getHeartsModifier("gift");
 
@@ -1898,7 +1926,7 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 			}
 
 			memory.interactionFatigue++;
-			playerMemoryMap.put(player.username, memory);
+			markMemoryChanged(player.username);
 		}
 
 		//The gift wasn't contained in the acceptable gifts map.
@@ -1911,37 +1939,162 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 	}
 
 	/**
-	 * Gets the hearts value for the specified player from the hearts map.
+	 * Gets the hearts value for the specified player from the hearts map. Nothing is changed or sent.
 	 * 
 	 * @param 	player	The player that needs the heart information.
 	 * 
-	 * @return	Hearts value for the specified player.
+	 * @return	Hearts value for the specified player. Zero if the player isn't remembered.
 	 */
 	public int getHearts(EntityPlayer player)
 	{
-		int hearts = 0;
+		PlayerMemory memory = playerMemoryMap.get(player.username);
 
-		if (playerMemoryMap.containsKey(player.username))
+		if (memory == null && !worldObj.isRemote)
 		{
-			hearts = playerMemoryMap.get(player.username).hearts;
+			memory = MemoryArchive.getArchive(worldObj).getMemory(mcaID, player.username);
 		}
 
-		else
+		return memory != null ? memory.hearts : 0;
+	}
+
+	/**
+	 * Gets the memory of the specified player without changing anything. Memories in the archive are read in place, and a
+	 * player that isn't remembered gets a new memory that is not added to the memory map. Use this anywhere the memory is
+	 * only read, such as while drawing a GUI.
+	 * 
+	 * @param 	playerName	The name of the player.
+	 * 
+	 * @return	This entity's memory of the player, which must not be changed.
+	 */
+	public PlayerMemory peekPlayerMemory(String playerName)
+	{
+		PlayerMemory memory = playerMemoryMap.get(playerName);
+
+		if (memory == null && !worldObj.isRemote)
 		{
-			playerMemoryMap.put(player.username, new PlayerMemory(player.username));
+			memory = MemoryArchive.getArchive(worldObj).getMemory(mcaID, playerName);
 		}
 
-		if (worldObj.isRemote)
+		return memory != null ? memory : new PlayerMemory(playerName);
+	}
+
+	/**
+	 * Gets the memory of the specified player, taking it out of the memory archive or creating it if the player isn't remembered yet.
+	 * 
+	 * @param 	playerName	The name of the player.
+	 * 
+	 * @return	This entity's memory of the player.
+	 */
+	public PlayerMemory getPlayerMemory(String playerName)
+	{
+		PlayerMemory memory = playerMemoryMap.get(playerName);
+
+		if (memory == null)
 		{
-			PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entityId, "playerMemoryMap", playerMemoryMap));
+			if (!worldObj.isRemote)
+			{
+				memory = MemoryArchive.getArchive(worldObj).restoreMemory(mcaID, playerName);
+			}
+
+			if (memory != null)
+			{
+				markMemoryChanged(playerName);
+			}
+
+			else
+			{
+				memory = new PlayerMemory(playerName);
+			}
+
+			playerMemoryMap.put(playerName, memory);
 		}
 
-		else
+		return memory;
+	}
+
+	/**
+	 * Forgets memories of absent players that hold nothing worth remembering, and moves memories of players who have been
+	 * away for a long time into the world's memory archive. Server side only, and only runs once every minute for each entity.
+	 */
+	private void updateMemoryArchive()
+	{
+		long worldTime = worldObj.getTotalWorldTime();
+
+		if (worldObj.isRemote || (worldTime + entityId) % 1200 != 0)
+		{
+			return;
+		}
+
+		MemoryArchive archive = MemoryArchive.getArchive(worldObj);
+		long archiveTicks = MCA.instance.modPropertiesManager.modProperties.server_memoryArchiveDays * 24000L;
+		archive.updatePlayersSeen(worldObj);
+
+		for (Iterator<Map.Entry<String, PlayerMemory>> iterator = playerMemoryMap.entrySet().iterator(); iterator.hasNext();)
 		{
-			PacketDispatcher.sendPacketToPlayer(PacketHelper.createFieldValuePacket(entityId, "playerMemoryMap", playerMemoryMap), (Player) player);
+			Map.Entry<String, PlayerMemory> entry = iterator.next();
+			PlayerMemory memory = entry.getValue();
+
+			//Never touch the memories of players that are around, or that are still hiring this entity.
+			if (worldObj.getPlayerEntityByName(entry.getKey()) != null || memory.isHired)
+			{
+				continue;
+			}
+
+			if (memory.isDefault())
+			{
+				iterator.remove();
+			}
+
+			else if (archiveTicks > 0 && archive.getTicksSinceSeen(entry.getKey(), worldTime) >= archiveTicks)
+			{
+				memory.playerName = entry.getKey();
+				archive.archiveMemory(mcaID, memory);
+				iterator.remove();
+			}
 		}
+	}
+
+	/**
+	 * Queues the memory of the specified player to be sent to the other side on the next update.
+	 * 
+	 * @param 	playerName	The name of the player whose memory has changed.
+	 */
+	public void markMemoryChanged(String playerName)
+	{
+		changedMemorySet.add(playerName);
+	}
+
+	/**
+	 * Sends every memory that has changed since the last update. Client side, they are sent to the server.
+	 * Server side, they are sent to all players.
+	 */
+	private void sendChangedMemories()
+	{
+		if (!changedMemorySet.isEmpty())
+		{
+			for (String playerName : changedMemorySet)
+			{
+				PlayerMemory memory = playerMemoryMap.get(playerName);
+
+				if (memory != null)
+				{
+					Map<Integer, PlayerMemory> memoryMap = new HashMap<Integer, PlayerMemory>();
+					memoryMap.put(entityId, memory);
 
-		return hearts;
+					if (worldObj.isRemote)
+					{
+						PacketDispatcher.sendPacketToServer(PacketHelper.createHeartsPacket(playerName, memoryMap));
+					}
+
+					else
+					{
+						PacketDispatcher.sendPacketToAllPlayers(PacketHelper.createHeartsPacket(playerName, memoryMap));
+					}
+				}
+			}
+
+			changedMemorySet.clear();
+		}
 	}
 
 	/**
@@ -1952,104 +2105,131 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 	 */
 	public void modifyHearts(EntityPlayer player, int amount)
 	{
-		if (playerMemoryMap.containsKey(player.username))
+		modifyHearts(player, amount, true);
+	}
+
+	/**
+	 * Modifies the hearts amount for the specified player. If the player is this entity's monarch, the entities around
+	 * this one can be affected as well. All changed memories are sent in a single packet.
+	 * 
+	 * @param 	player		The player whose heart information is being modified.
+	 * @param	amount		The amount to modify the hearts by.
+	 * @param	affectArea	Should the surrounding entities be affected if the player is a monarch?
+	 */
+	public void modifyHearts(EntityPlayer player, int amount, boolean affectArea)
+	{
+		Map<Integer, PlayerMemory> changedMemoryMap = new HashMap<Integer, PlayerMemory>();
+		boolean isCharmed = applyHearts(player.username, amount);
+		changedMemoryMap.put(entityId, playerMemoryMap.get(player.username));
+
+		//Check for monarch status and area modification.
+		if (affectArea && playerMemoryMap.get(player.username).acknowledgedAsMonarch)
 		{
-			PlayerMemory playerMemory = playerMemoryMap.get(player.username);
-			playerMemory.hearts += amount;
-			playerMemoryMap.put(player.username, playerMemory);
+			isCharmed = modifyAreaHearts(player, amount, changedMemoryMap) || isCharmed;
+		}
 
-			if (playerMemory.hearts >= 100)
-			{
-				player.triggerAchievement(MCA.instance.achievementCharmer);
+		if (isCharmed)
+		{
+			player.triggerAchievement(MCA.instance.achievementCharmer);
 
-				if (worldObj.isRemote)
-				{
-					PacketDispatcher.sendPacketToServer(PacketHelper.createAchievementPacket(MCA.instance.achievementCharmer, player.entityId));
-				}
+			if (worldObj.isRemote)
+			{
+				PacketDispatcher.sendPacketToServer(PacketHelper.createAchievementPacket(MCA.instance.achievementCharmer, player.entityId));
+			}
 
-				else
-				{
-					PacketDispatcher.sendPacketToPlayer(PacketHelper.createAchievementPacket(MCA.instance.achievementCharmer, player.entityId), (Player) player);
-				}
+			else
+			{
+				PacketDispatcher.sendPacketToPlayer(PacketHelper.createAchievementPacket(MCA.instance.achievementCharmer, player.entityId), (Player) player);
 			}
 		}
 
+		if (worldObj.isRemote)
+		{
+			PacketDispatcher.sendPacketToServer(PacketHelper.createHeartsPacket(player.username, changedMemoryMap));
+		}
+
 		else
 		{
-			PlayerMemory playerMemory = new PlayerMemory(player.username);
-			playerMemory.hearts = amount;
-			playerMemoryMap.put(player.username, playerMemory);
+			PacketDispatcher.sendPacketToPlayer(PacketHelper.createHeartsPacket(player.username, changedMemoryMap), (Player) player);
 		}
+	}
 
-		if (worldObj.isRemote)
+	/**
+	 * Changes the hearts this entity has for the specified player without telling anyone.
+	 * 
+	 * @param 	playerName	The name of the player whose heart information is being modified.
+	 * @param	amount		The amount to modify the hearts by.
+	 * 
+	 * @return	True if the hearts of an existing memory reached 100 or more.
+	 */
+	private boolean applyHearts(String playerName, int amount)
+	{
+		PlayerMemory playerMemory = playerMemoryMap.get(playerName);
+
+		if (playerMemory != null)
 		{
-			PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entityId, "playerMemoryMap", playerMemoryMap));
+			playerMemory.hearts += amount;
+			return playerMemory.hearts >= 100;
 		}
 
 		else
 		{
-			PacketDispatcher.sendPacketToPlayer(PacketHelper.createFieldValuePacket(entityId, "playerMemoryMap", playerMemoryMap), (Player) player);
+			playerMemory = new PlayerMemory(playerName);
+			playerMemory.hearts = amount;
+			playerMemoryMap.put(playerName, playerMemory);
+			return false;
 		}
+	}
 
-		//Check for monarch status and area modification.
-		if (!shouldSkipAreaModify)
-		{
-			PlayerMemory playerMemory = playerMemoryMap.get(player.username);
-			WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.get(player.username);
+	/**
+	 * Applies a monarch's change in hearts to every entity around this one in a single pass.
+	 * 
+	 * @param 	player				The monarch whose heart information is being modified.
+	 * @param	amount				The amount this entity's hearts were modified by.
+	 * @param	changedMemoryMap	Map that the changed memories of the surrounding entities are added to.
+	 * 
+	 * @return	True if the hearts of an existing memory reached 100 or more.
+	 */
+	private boolean modifyAreaHearts(EntityPlayer player, int amount, Map<Integer, PlayerMemory> changedMemoryMap)
+	{
+		WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.loadManager(player.username);
+		boolean isCharmed = false;
 
-			if (playerMemory.acknowledgedAsMonarch)
+		for (Entity entity : LogicHelper.getAllEntitiesWithinDistanceOfEntity(this, 30))
+		{
+			if (entity instanceof AbstractEntity)
 			{
-				for (Entity entity : LogicHelper.getAllEntitiesWithinDistanceOfEntity(this, 30))
+				AbstractEntity abstractEntity = (AbstractEntity)entity;
+
+				//Relatives to the player are not affected.
+				if (!abstractEntity.familyTree.idIsRelative(manager.worldProperties.playerID))
 				{
-					if (entity instanceof AbstractEntity)
+					//Other villagers are affected by 50% of the original value.
+					int areaAmount = (int)(amount * 0.50);
+
+					//Check if this entity has been executed. If so, check the number of executions witnessed by each
+					//surrounding villager. If it's more than three, then they suffer a drop in hearts.
+					if (this.hasBeenExecuted)
 					{
-						AbstractEntity abstractEntity = (AbstractEntity)entity;
+						PlayerMemory playerMemoryOnOtherVillager = abstractEntity.playerMemoryMap.get(player.username);
 
-						//Relatives to the player are not affected.
-						if (!abstractEntity.familyTree.idIsRelative(manager.worldProperties.playerID))
+						if (playerMemoryOnOtherVillager == null)
 						{
-							//Other villagers are affected by 50% of the original value.
-							Double percentage = amount * 0.50;
-
-							//Check if this entity has been executed. If so, check the number of executions witnessed by each
-							//surrounding villager. If it's more than three, then they suffer a drop in hearts.
-							if (this.hasBeenExecuted)
-							{
-								PlayerMemory playerMemoryOnOtherVillager = abstractEntity.playerMemoryMap.get(player.username);
-
-								if (playerMemoryOnOtherVillager != null)
-								{
-									playerMemoryOnOtherVillager.executionsWitnessed++;
-
-									if (playerMemoryOnOtherVillager.executionsWitnessed > 3)
-									{
-										abstractEntity.shouldSkipAreaModify = true;
-										abstractEntity.modifyHearts(player, -30);
-										abstractEntity.shouldSkipAreaModify = false;
-									}
-
-									else
-									{
-										abstractEntity.shouldSkipAreaModify = true;
-										abstractEntity.modifyHearts(player, 30);
-										abstractEntity.shouldSkipAreaModify = false;
-									}
-								}
-							}
-
-							//This villager has not been executed.
-							else
-							{
-								//Prevent an infinite loop.
-								abstractEntity.shouldSkipAreaModify = true;
-								abstractEntity.modifyHearts(player, percentage.intValue());
-								abstractEntity.shouldSkipAreaModify = false;
-							}
+							continue;
 						}
+
+						playerMemoryOnOtherVillager.executionsWitnessed++;
+						abstractEntity.scheduleMonarchUpdate();
+						areaAmount = playerMemoryOnOtherVillager.executionsWitnessed > 3 ? -30 : 30;
 					}
+
+					isCharmed = abstractEntity.applyHearts(player.username, areaAmount) || isCharmed;
+					changedMemoryMap.put(abstractEntity.entityId, abstractEntity.playerMemoryMap.get(player.username));
 				}
 			}
 		}
+
+		return isCharmed;
 	}
 
 	/**
@@ -2107,6 +2287,9 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 		{
 			if (!worldObj.isRemote)
 			{
+				//Send the next few entities home that are waiting to go.
+				MCA.instance.homeRegistry.update(worldObj);
+
 				//Only update sleeping if the entity is in the overworld.
 				if (worldObj.provider.dimensionId == 0)
 				{
@@ -2136,7 +2319,7 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 						//Check for chore mode & skip if necessary.
 						if (!isInChoreMode)
 						{
-							spawnAtHomePoint();
+							queueTeleportHome();
 						}
 
 						else
@@ -2202,7 +2385,7 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 						{
 							float speed = 0.6F;
 
-							if (!this.getNavigator().tryMoveToEntityLiving(target, speed))
+							if (!moveToEntity(target, speed))
 							{
 								if (getDistanceSqToEntity(target) >= 144.0D)
 								{
@@ -2236,25 +2419,18 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 									speed = 0.8F;
 								}
 
-								if (!this.getNavigator().tryMoveToEntityLiving(thePlayer, speed))
+								if (!moveToEntity(thePlayer, speed))
 								{
 									if (getDistanceSqToEntity(thePlayer) >= 144.0D)
 									{
-										int playerX = MathHelper.floor_double(thePlayer.posX) - 2;
-										int playerZ = MathHelper.floor_double(thePlayer.posZ) - 2;
-										int playerY = MathHelper.floor_double(thePlayer.boundingBox.minY);
+										Coordinates teleportCoordinates = getTeleportCandidate(thePlayer);
 
-										for (int i = 0; i <= 4; ++i)
+										if (teleportCoordinates != null)
 										{
-											for (int i2 = 0; i2 <= 4; ++i2)
-											{
-												if ((i < 1 || i2 < 1 || i > 3 || i2 > 3) && worldObj.doesBlockHaveSolidTopSurface(playerX + i, playerY - 1, playerZ + i2) && !worldObj.isBlockNormalCube(playerX + i, playerY, playerZ + i2) && !worldObj.isBlockNormalCube(playerX + i, playerY + 1, playerZ + i2))
-												{
-													this.setLocationAndAngles(playerX + i + 0.5F, playerY, playerZ + i2 + 0.5F, this.rotationYaw, this.rotationPitch);
-													this.getNavigator().clearPathEntity();
-													return;
-												}
-											}
+											this.setLocationAndAngles(teleportCoordinates.x + 0.5F, teleportCoordinates.y, teleportCoordinates.z + 0.5F, this.rotationYaw, this.rotationPitch);
+											this.getNavigator().clearPathEntity();
+											pathTarget = null;
+											return;
 										}
 									}
 								}
@@ -2283,6 +2459,100 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 		}
 	}
 
+	/**
+	 * Moves towards an entity, only finding a new path when the entity has moved far enough from where it was when the
+	 * last path was found, the last path has been walked, or the target has changed. New paths are found at most a few times a second.
+	 * 
+	 * @param 	entity	The entity to move towards.
+	 * @param 	speed	The speed to move at.
+	 * 
+	 * @return	True if there is a path to the entity.
+	 */
+	private boolean moveToEntity(Entity entity, float speed)
+	{
+		if (repathCooldownTicks > 0)
+		{
+			repathCooldownTicks--;
+		}
+
+		boolean targetMoved = entity.getDistanceSq(pathTargetX, pathTargetY, pathTargetZ) > REPATH_DISTANCE_SQ;
+		boolean needsPath = entity != pathTarget || getNavigator().noPath() || targetMoved;
+
+		if (needsPath && (repathCooldownTicks == 0 || entity != pathTarget))
+		{
+			lastPathFound = getNavigator().tryMoveToEntityLiving(entity, speed);
+			pathTarget = entity;
+			pathTargetX = entity.posX;
+			pathTargetY = entity.posY;
+			pathTargetZ = entity.posZ;
+			repathCooldownTicks = REPATH_INTERVAL_TICKS;
+		}
+
+		else if (lastPathFound)
+		{
+			//Keep up if the speed has changed, such as when a player starts sprinting.
+			getNavigator().setSpeed(speed);
+		}
+
+		return lastPathFound;
+	}
+
+	/**
+	 * Gets a spot near the player that this entity can teleport to. The spot is only looked for again when the player
+	 * moves to another block, or when the last spot found can no longer be stood in.
+	 * 
+	 * @param 	player	The player being followed.
+	 * 
+	 * @return	Coordinates of a spot near the player. Null if there is no spot to teleport to.
+	 */
+	private Coordinates getTeleportCandidate(EntityPlayer player)
+	{
+		int playerX = MathHelper.floor_double(player.posX) - 2;
+		int playerZ = MathHelper.floor_double(player.posZ) - 2;
+		int playerY = MathHelper.floor_double(player.boundingBox.minY);
+
+		if (playerX == teleportCacheX && playerY == teleportCacheY && playerZ == teleportCacheZ)
+		{
+			if (teleportCandidate == null || canTeleportTo((int)teleportCandidate.x, (int)teleportCandidate.y, (int)teleportCandidate.z))
+			{
+				return teleportCandidate;
+			}
+		}
+
+		teleportCacheX = playerX;
+		teleportCacheY = playerY;
+		teleportCacheZ = playerZ;
+		teleportCandidate = null;
+
+		for (int i = 0; i <= 4; ++i)
+		{
+			for (int i2 = 0; i2 <= 4; ++i2)
+			{
+				if ((i < 1 || i2 < 1 || i > 3 || i2 > 3) && canTeleportTo(playerX + i, playerY, playerZ + i2))
+				{
+					teleportCandidate = new Coordinates(playerX + i, playerY, playerZ + i2);
+					return teleportCandidate;
+				}
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Checks if this entity can stand at the provided coordinates after teleporting.
+	 * 
+	 * @param 	x	The X coordinate.
+	 * @param 	y	The Y coordinate.
+	 * @param 	z	The Z coordinate.
+	 * 
+	 * @return	True if the block below is solid and the two blocks above are not.
+	 */
+	private boolean canTeleportTo(int x, int y, int z)
+	{
+		return worldObj.doesBlockHaveSolidTopSurface(x, y - 1, z) && !worldObj.isBlockNormalCube(x, y, z) && !worldObj.isBlockNormalCube(x, y + 1, z);
+	}
+
 	/**
 	 * Handles greeting a player.
 	 */
@@ -2297,10 +2567,7 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 				//Check to see that the player is in the map. Add them if they aren't.
 				if (nearestPlayer != null)
 				{
-					if (!playerMemoryMap.containsKey(nearestPlayer.username))
-					{
-						playerMemoryMap.put(nearestPlayer.username, new PlayerMemory(nearestPlayer.username));
-					}
+					getPlayerMemory(nearestPlayer.username);
 
 					for (PlayerMemory memory : playerMemoryMap.values())
 					{
@@ -2319,7 +2586,7 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 
 								if (getBooleanWithProbability(70) == true)
 								{
-									WorldPropertiesManager worldPropertiesManager = MCA.instance.playerWorldManagerMap.get(nearestPlayer.username);
+									WorldPropertiesManager worldPropertiesManager = MCA.instance.playerWorldManagerMap.loadManager(nearestPlayer.username);
 
 									if (worldPropertiesManager != null)
 									{
@@ -2332,6 +2599,7 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 										{
 											say(LanguageHelper.getString(nearestPlayer, this, "heir.bad.demandtribute"));
 											memory.tributeRequests++;
+											markMemoryChanged(memory.playerName);
 										}
 
 										else
@@ -2419,7 +2687,7 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 				{
 					if (hasTeleportedHome == false)
 					{
-						spawnAtHomePoint();
+						queueTeleportHome();
 					}
 				}
 			}
@@ -2501,6 +2769,12 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 	 */
 	private void updateChores()
 	{
+		//Chores only change while they are working or fighting.
+		if (isInChoreMode || target != null)
+		{
+			markComponentsChanged();
+		}
+
 		if (isInChoreMode)
 		{
 			AbstractChore chore = getInstanceOfCurrentChore();
@@ -2515,6 +2789,18 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 
 				else if (chore.hasBegun)
 				{
+					//Catch up on the work that would have been done while unloaded before continuing.
+					if (choreCatchUpTicks > 0 && !worldObj.isRemote)
+					{
+						chore.simulateElapsedTime(choreCatchUpTicks);
+						choreCatchUpTicks = 0;
+
+						if (chore.hasEnded)
+						{
+							return;
+						}
+					}
+
 					chore.runChoreAI();
 				}
 
@@ -2531,7 +2817,8 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 		}
 
 		else
-		{			
+		{
+			choreCatchUpTicks = 0;
 			combatChore.runChoreAI();
 		}
 	}
@@ -2612,18 +2899,34 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 
 		else
 		{
-			for (Map.Entry<String, PlayerMemory> entry : playerMemoryMap.entrySet())
+			long worldTime = worldObj.getTotalWorldTime();
+			int registryVersion = MCA.instance.monarchRegistry.getVersion();
+
+			//Nothing needs to be done unless a monarch's status has changed, the memories have changed, or a demand timer has run out.
+			if (registryVersion == monarchRegistryVersion && playerMemoryMap == monarchMemoryMap && playerMemoryMap.size() == monarchMemoryCount &&
+					(nextMonarchUpdateTime == -1 || worldTime < nextMonarchUpdateTime))
 			{
-				WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.get(entry.getKey());
+				return;
+			}
+
+			monarchRegistryVersion = registryVersion;
+			monarchMemoryMap = playerMemoryMap;
+			monarchMemoryCount = playerMemoryMap.size();
+			nextMonarchUpdateTime = -1;
 
-				if (manager != null)
+			updateMonarchResetTicks();
+
+			for (PlayerMemory memory : playerMemoryMap.values())
+			{
+				if (memory != null)
 				{
-					PlayerMemory memory = entry.getValue();
+					//A player's status is known once their properties have been loaded, which they always are when it changes.
+					Boolean isMonarch = MCA.instance.monarchRegistry.getMonarchStatus(memory.playerName);
 
-					if (memory != null)
+					if (isMonarch != null)
 					{
 						//Check if they're acknowledged as a monarch.
-						if (memory.acknowledgedAsMonarch && !manager.worldProperties.isMonarch)
+						if (memory.acknowledgedAsMonarch && !isMonarch)
 						{
 							//The player is no longer a monarch.
 							memory.acknowledgedAsMonarch = false;
@@ -2643,7 +2946,9 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 							//Check if this person is the player's heir.
 							if (this instanceof EntityPlayerChild)
 							{
-								if (manager.worldProperties.heirId == this.mcaID)
+								WorldPropertiesList worldProperties = MCA.instance.playerWorldManagerMap.peekWorldProperties(memory.playerName);
+
+								if (worldProperties != null && worldProperties.heirId == this.mcaID)
 								{
 									shouldActAsHeir = true;
 
@@ -2677,22 +2982,27 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 							}
 						}
 
-						else if (!memory.acknowledgedAsMonarch && manager.worldProperties.isMonarch)
+						else if (!memory.acknowledgedAsMonarch && isMonarch)
 						{
 							memory.acknowledgedAsMonarch = true;
 							memory.hearts = 100;
 						}
+					}
 
-						//Check reset ticks.
-						if (memory.monarchResetTicks <= 0)
-						{
-							memory.monarchGiftsDemanded = 0;
-							memory.executionsWitnessed = 0;
-						}
+					//Check reset ticks.
+					if (memory.monarchResetTicks <= 0)
+					{
+						memory.monarchGiftsDemanded = 0;
+						memory.executionsWitnessed = 0;
+					}
 
-						else
+					else
+					{
+						long resetTime = worldTime + memory.monarchResetTicks;
+
+						if (nextMonarchUpdateTime == -1 || resetTime < nextMonarchUpdateTime)
 						{
-							memory.monarchResetTicks--;
+							nextMonarchUpdateTime = resetTime;
 						}
 					}
 				}
@@ -2700,6 +3010,48 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 		}
 	}
 
+	/**
+	 * Makes the entity look through its memories of monarchs on the next tick. Used when a memory is changed
+	 * without being replaced, such as when an execution is witnessed.
+	 */
+	public void scheduleMonarchUpdate()
+	{
+		nextMonarchUpdateTime = 0;
+	}
+
+	/**
+	 * Counts down the demand timers of each memory by the time that has passed since they were last counted down.
+	 * Each timer is kept as the world time it runs out at, so that timers set or changed elsewhere are picked up.
+	 */
+	private void updateMonarchResetTicks()
+	{
+		long worldTime = worldObj.getTotalWorldTime();
+
+		for (Map.Entry<String, PlayerMemory> entry : playerMemoryMap.entrySet())
+		{
+			PlayerMemory memory = entry.getValue();
+
+			if (memory == null || memory.monarchResetTicks <= 0 || MCA.instance.playerWorldManagerMap.loadManager(entry.getKey()) == null)
+			{
+				monarchResetTimeMap.remove(entry.getKey());
+				continue;
+			}
+
+			Long resetTime = monarchResetTimeMap.get(entry.getKey());
+
+			//Start the timer again if it was changed since it was last counted down.
+			if (resetTime == null || lastMonarchUpdateTime == -1 || memory.monarchResetTicks != resetTime - lastMonarchUpdateTime)
+			{
+				resetTime = worldTime + memory.monarchResetTicks;
+				monarchResetTimeMap.put(entry.getKey(), resetTime);
+			}
+
+			memory.monarchResetTicks = (int)Math.max(resetTime - worldTime, 0);
+		}
+
+		lastMonarchUpdateTime = worldTime;
+	}
+
 	/**
 	 * Updates the villager's mood and assigns a trait if one has not been assigned.
 	 */
@@ -2803,7 +3155,11 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 					//Update interaction fatigue on all memories.
 					for (PlayerMemory memory : playerMemoryMap.values())
 					{
-						memory.interactionFatigue = 0;
+						if (memory.interactionFatigue != 0)
+						{
+							memory.interactionFatigue = 0;
+							markMemoryChanged(memory.playerName);
+						}
 					}
 
 					//Do natural mood cooldowns.
@@ -2845,7 +3201,6 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 					PacketDispatcher.sendPacketToAllPlayers(PacketHelper.createFieldValuePacket(entityId, "moodPointsHappy", moodPointsHappy));
 					PacketDispatcher.sendPacketToAllPlayers(PacketHelper.createFieldValuePacket(entityId, "moodPointsAnger", moodPointsAnger));
 					PacketDispatcher.sendPacketToAllPlayers(PacketHelper.createFieldValuePacket(entityId, "moodPointsSad", moodPointsSad));
-					PacketDispatcher.sendPacketToAllPlayers(PacketHelper.createFieldValuePacket(entityId, "playerMemoryMap", playerMemoryMap));
 				}
 			}
 		}
@@ -2864,8 +3219,6 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 			{
 				workCalendarPrevMinutes = workCalendarCurrentMinutes;
 
-				boolean hasChanged = false;
-
 				for (PlayerMemory memory : playerMemoryMap.values())
 				{
 					if (memory.isHired)
@@ -2881,14 +3234,9 @@ public abstract class AbstractEntity extends AbstractSerializableEntity implemen
 							this.notifyPlayer(MCA.instance.getPlayerByName(memory.playerName), LanguageHelper.getString(this, "notify.hiring.complete", false));
 						}
 
-						hasChanged = true;
+						markMemoryChanged(memory.playerName);
 					}
 				}
-
-				if (hasChanged)
-				{
-					PacketDispatcher.sendPacketToAllPlayers(PacketHelper.createFieldValuePacket(entityId, "playerMemoryMap", playerMemoryMap));
-				}
 			}
 		}
 	}
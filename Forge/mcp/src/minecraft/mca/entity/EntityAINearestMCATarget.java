@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * EntityAINearestMCATarget.java
+ * Copyright (c) 2013 WildBamaBoy.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+
+package mca.entity;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import mca.core.MCA;
+import net.minecraft.entity.EntityCreature;
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.entity.ai.EntityAITarget;
+
+/**
+ * Modified EntityAINearestAttackableTarget that targets the nearest MCA entity of any kind. Hostile mobs are given
+ * this single task instead of one for each MCA entity class, and it finds MCA entities through the shared entity index.
+ */
+public class EntityAINearestMCATarget extends EntityAITarget
+{
+	/** One in this many ticks will look for a target. */
+	private final int targetChance;
+
+	/** The target found by shouldExecute(). */
+	private EntityLivingBase target;
+
+	/**
+	 * Constructor
+	 *
+	 * @param 	creature		The creature running this AI task.
+	 * @param 	targetChance	One in this many ticks will look for a target. 0 to look every tick.
+	 * @param 	checkSight		Must the creature be able to see its target?
+	 */
+	public EntityAINearestMCATarget(EntityCreature creature, int targetChance, boolean checkSight)
+	{
+		super(creature, checkSight);
+		this.targetChance = targetChance;
+		this.setMutexBits(1);
+	}
+
+	/**
+	 * Returns whether the EntityAIBase should begin execution.
+	 *
+	 * @return	True if AI should execute.
+	 */
+	public boolean shouldExecute()
+	{
+		if (this.targetChance > 0 && this.taskOwner.getRNG().nextInt(this.targetChance) != 0)
+		{
+			return false;
+		}
+
+		double distance = this.getTargetDistance();
+		List<EntityLivingBase> entitiesNear = MCA.instance.entityIndex.getMCAEntitiesNear(this.taskOwner.worldObj, this.taskOwner.posX, this.taskOwner.posY, this.taskOwner.posZ, distance, 4.0D);
+
+		this.target = null;
+
+		if (!entitiesNear.isEmpty())
+		{
+			//Check the nearest entities first, since checking a target can mean checking line of sight.
+			Collections.sort(entitiesNear, new Comparator<EntityLivingBase>()
+			{
+				@Override
+				public int compare(EntityLivingBase first, EntityLivingBase second)
+				{
+					return Double.compare(taskOwner.getDistanceSqToEntity(first), taskOwner.getDistanceSqToEntity(second));
+				}
+			});
+
+			for (EntityLivingBase entity : entitiesNear)
+			{
+				if (this.isSuitableTarget(entity, false))
+				{
+					this.target = entity;
+					break;
+				}
+			}
+		}
+
+		return this.target != null;
+	}
+
+	/**
+	 * Execute a one shot task or start executing a continuous task
+	 */
+	public void startExecuting()
+	{
+		this.taskOwner.setAttackTarget(this.target);
+		super.startExecuting();
+	}
+}
@@ -9,20 +9,16 @@
 
 package mca.entity;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
-
+import mca.core.util.object.Coordinates;
+import mca.core.util.object.PatrolRoute;
 import net.minecraft.entity.ai.EntityAIBase;
 import net.minecraft.entity.ai.RandomPositionGenerator;
 import net.minecraft.pathfinding.PathEntity;
-import net.minecraft.util.MathHelper;
 import net.minecraft.util.Vec3;
-import net.minecraft.village.Village;
-import net.minecraft.village.VillageDoorInfo;
 
 /**
- * Modified EntityAIMoveThroughVillage to allow constant patrolling.
+ * Modified EntityAIMoveThroughVillage to allow constant patrolling. Guards walk the patrol route shared by their
+ * village, each starting at a different door, and reuse the paths other guards have already found along it.
  */
 public class EntityAIPatrolVillage extends EntityAIBase
 {
@@ -30,12 +26,19 @@ public class EntityAIPatrolVillage extends EntityAIBase
 	private EntityVillagerAdult guard;
 
 	private PathEntity entityPathNavigate;
-	private VillageDoorInfo doorInfo;
-	private List doorList = new ArrayList();
+
+	/** The door the guard is walking to. */
+	private Coordinates targetDoor;
+
+	/** The place on the patrol route of the door the guard is walking to. -1 if the guard hasn't joined the route. */
+	private int routeIndex = -1;
+
+	/** The version of the patrol route that routeIndex refers to. */
+	private int routeVersion = -1;
 
 	/**
 	 * Constructor
-	 * 
+	 *
 	 * @param 	guard	An instance of the guard performing this AI task.
      */
 	public EntityAIPatrolVillage(EntityVillagerAdult guard)
@@ -45,70 +48,91 @@ public class EntityAIPatrolVillage extends EntityAIBase
 
 	/**
 	 * Returns whether the EntityAIBase should begin execution.
-	 * 
+	 *
 	 * @return	True if AI should execute.
 	 */
 	public boolean shouldExecute()
-	{		
-		this.removeNextDoor();
+	{
+		if (this.guard.villageObj == null || this.guard.villageHelper == null)
+		{
+			return false;
+		}
 
-		Village village = this.guard.villageObj;
+		PatrolRoute route = this.guard.villageHelper.getPatrolRoute();
+		int doorCount = route.getDoorCount();
 
-		if (village != null)
+		if (doorCount == 0)
 		{
-			this.doorInfo = this.getDoorInfo(village);
+			return false;
+		}
 
-			if (this.doorInfo == null)
-			{
-				if (guard.villageObj.getVillageDoorInfoList().size() == doorList.size())
-				{
-					doorList.clear();
-				}
+		//Join the route at a different door than the other guards.
+		if (this.routeIndex < 0 || this.routeIndex >= doorCount || this.routeVersion != route.getVersion())
+		{
+			this.routeIndex = this.guard.entityId % doorCount;
+			this.routeVersion = route.getVersion();
+		}
 
-				return false;
+		int legIndex = (this.routeIndex + doorCount - 1) % doorCount;
+		Coordinates legStart = route.getDoor(legIndex);
+		this.targetDoor = route.getDoor(this.routeIndex);
+
+		//Use the path along this leg if the guard is at the start of it and someone has already found it.
+		if (this.guard.getDistanceSq(legStart.x, legStart.y, legStart.z) <= 36.0D)
+		{
+			if (route.isLegUnreachable(legIndex))
+			{
+				this.entityPathNavigate = null;
 			}
 
 			else
 			{
-				boolean flag = this.guard.getNavigator().getCanBreakDoors();
-				this.guard.getNavigator().setBreakDoors(false);
-				this.entityPathNavigate = this.guard.getNavigator().getPathToXYZ(this.doorInfo.posX, this.doorInfo.posY, this.doorInfo.posZ);
-				this.guard.getNavigator().setBreakDoors(flag);
+				this.entityPathNavigate = route.getLegPath(legIndex);
 
-				if (this.entityPathNavigate != null)
+				if (this.entityPathNavigate == null)
 				{
-					return true;
-				}
-
-				else
-				{
-					Vec3 vec3 = RandomPositionGenerator.findRandomTargetBlockTowards(this.guard, 10, 7, this.guard.worldObj.getWorldVec3Pool().getVecFromPool(this.doorInfo.posX, this.doorInfo.posY, this.doorInfo.posZ));
-
-					if (vec3 == null)
-					{
-						return false;
-					}
-
-					else
-					{
-						this.guard.getNavigator().setBreakDoors(false);
-						this.entityPathNavigate = this.guard.getNavigator().getPathToXYZ(vec3.xCoord, vec3.yCoord, vec3.zCoord);
-						this.guard.getNavigator().setBreakDoors(flag);
-						return this.entityPathNavigate != null;
-					}
+					this.entityPathNavigate = this.getPathToTargetDoor();
+					route.setLegPath(legIndex, this.entityPathNavigate);
 				}
 			}
 		}
 
 		else
 		{
-			return false;
+			this.entityPathNavigate = this.getPathToTargetDoor();
+		}
+
+		if (this.entityPathNavigate != null)
+		{
+			return true;
+		}
+
+		else
+		{
+			//Head towards the door anyway, and move on to the next door afterwards.
+			this.advanceRoute(doorCount);
+
+			Vec3 vec3 = RandomPositionGenerator.findRandomTargetBlockTowards(this.guard, 10, 7, this.guard.worldObj.getWorldVec3Pool().getVecFromPool(this.targetDoor.x, this.targetDoor.y, this.targetDoor.z));
+
+			if (vec3 == null)
+			{
+				return false;
+			}
+
+			else
+			{
+				boolean flag = this.guard.getNavigator().getCanBreakDoors();
+				this.guard.getNavigator().setBreakDoors(false);
+				this.entityPathNavigate = this.guard.getNavigator().getPathToXYZ(vec3.xCoord, vec3.yCoord, vec3.zCoord);
+				this.guard.getNavigator().setBreakDoors(flag);
+				return this.entityPathNavigate != null;
+			}
 		}
 	}
 
 	/**
 	 * Returns whether an in-progress EntityAIBase should continue executing
-	 * 
+	 *
 	 * @return	True if AI should continue executing.
 	 */
 	public boolean continueExecuting()
@@ -121,7 +145,7 @@ public class EntityAIPatrolVillage extends EntityAIBase
 		else
 		{
 			float f = this.guard.width + 4.0F;
-			return this.guard.getDistanceSq(this.doorInfo.posX, this.doorInfo.posY, this.doorInfo.posZ) > f * f;
+			return this.guard.getDistanceSq(this.targetDoor.x, this.targetDoor.y, this.targetDoor.z) > f * f;
 		}
 	}
 
@@ -138,75 +162,40 @@ public class EntityAIPatrolVillage extends EntityAIBase
 	 */
 	public void resetTask()
 	{
-		if (this.guard.getNavigator().noPath() || this.guard.getDistanceSq(this.doorInfo.posX, this.doorInfo.posY, this.doorInfo.posZ) < 16.0D)
+		if (this.guard.getNavigator().noPath() || this.guard.getDistanceSq(this.targetDoor.x, this.targetDoor.y, this.targetDoor.z) < 16.0D)
 		{
-			this.doorList.add(this.doorInfo);
-		}
-	}
-
-	/**
-	 * Gets the number and location of each door in the village.
-	 * 
-	 * @param 	village	An instance of the village this AI is running in.
-	 * 
-	 * @return	VillageDoorInfo object containing
-	 */
-	private VillageDoorInfo getDoorInfo(Village village)
-	{
-		VillageDoorInfo villagedoorinfo = null;
-		int i = Integer.MAX_VALUE;
-		List list = village.getVillageDoorInfoList();
-		Iterator iterator = list.iterator();
-
-		while (iterator.hasNext())
-		{
-			VillageDoorInfo villagedoorinfo1 = (VillageDoorInfo)iterator.next();
-			int j = villagedoorinfo1.getDistanceSquared(MathHelper.floor_double(this.guard.posX), MathHelper.floor_double(this.guard.posY), MathHelper.floor_double(this.guard.posZ));
-
-			if (j < i && !this.func_75413_a(villagedoorinfo1))
+			if (this.guard.villageHelper != null)
 			{
-				villagedoorinfo = villagedoorinfo1;
-				i = j;
+				this.advanceRoute(this.guard.villageHelper.getPatrolRoute().getDoorCount());
 			}
 		}
-
-		return villagedoorinfo;
 	}
 
 	/**
-	 * Unknown function.
-	 * 
-	 * @param 	villageDoorInfo	An instance of a VillageDoorInfo object.
-	 * 
-	 * @return	Unknown boolean.
+	 * Finds a path from the guard to the door they are walking to, without breaking doors along the way.
+	 *
+	 * @return	The path to the door. Null if a path couldn't be found.
 	 */
-	private boolean func_75413_a(VillageDoorInfo villageDoorInfo)
+	private PathEntity getPathToTargetDoor()
 	{
-		Iterator iterator = this.doorList.iterator();
-		VillageDoorInfo tempDoorInfo;
-
-		do
-		{
-			if (!iterator.hasNext())
-			{
-				return false;
-			}
-
-			tempDoorInfo = (VillageDoorInfo)iterator.next();
-		}
-		while (villageDoorInfo.posX != tempDoorInfo.posX || villageDoorInfo.posY != tempDoorInfo.posY || villageDoorInfo.posZ != tempDoorInfo.posZ);
+		boolean flag = this.guard.getNavigator().getCanBreakDoors();
+		this.guard.getNavigator().setBreakDoors(false);
+		PathEntity path = this.guard.getNavigator().getPathToXYZ(this.targetDoor.x, this.targetDoor.y, this.targetDoor.z);
+		this.guard.getNavigator().setBreakDoors(flag);
 
-		return true;
+		return path;
 	}
 
 	/**
-	 * Unknown purpose.
+	 * Moves on to the next door on the patrol route.
+	 *
+	 * @param 	doorCount	The number of doors on the route.
 	 */
-	private void removeNextDoor()
+	private void advanceRoute(int doorCount)
 	{
-		if (this.doorList.size() > 15)
+		if (doorCount > 0)
 		{
-			this.doorList.remove(0);
+			this.routeIndex = (this.routeIndex + 1) % doorCount;
 		}
 	}
 }
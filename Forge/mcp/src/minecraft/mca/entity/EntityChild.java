@@ -9,9 +9,8 @@
 
 package mca.entity;
 
-import java.util.Calendar;
-
 import mca.core.MCA;
+import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.world.World;
 
 /**
@@ -19,7 +18,7 @@ import net.minecraft.world.World;
  */
 public abstract class EntityChild extends AbstractEntity
 {
-	/** The age of the child in minutes. */
+	/** The age of the child in minutes when it was last saved. Use getAge() for the current age. */
 	public int age = 0;
 	
 	/** Is the child ready to grow up? */
@@ -31,11 +30,8 @@ public abstract class EntityChild extends AbstractEntity
 	/** The name of the player who owns this child. */
 	public String ownerPlayerName = "";
 
-	/** The minute value gotten from the last minute value check. */
-	protected int prevMinutes    = Calendar.getInstance().get(Calendar.MINUTE);
-	
-	/** The minute value gotten from the current minute value check. */
-	protected int currentMinutes = Calendar.getInstance().get(Calendar.MINUTE);
+	/** The total world time at which the child was born. -1 if it isn't known yet. Saved by hand since it is a long. */
+	public long birthTime = -1;
 
 	/**
 	 * Constructor
@@ -52,23 +48,62 @@ public abstract class EntityChild extends AbstractEntity
 	{
 		super.onUpdate();
 
-		//Check if age should be increased.
-		currentMinutes = Calendar.getInstance().get(Calendar.MINUTE);
-
-		if (currentMinutes > prevMinutes || currentMinutes == 0 && prevMinutes == 59)
+		//The child's age is worked out when needed, so only the time it becomes ready to grow is watched.
+		if (!isReadyToGrow && worldObj.getTotalWorldTime() >= getReadyToGrowTime())
 		{
-			if (age < MCA.instance.modPropertiesManager.modProperties.kidGrowUpTimeMinutes)
-			{
-				age++;
-				prevMinutes = currentMinutes;
-			}
+			isReadyToGrow = true;
 		}
+	}
+
+	@Override
+	public void writeEntityToNBT(NBTTagCompound NBT)
+	{
+		age = getAge();
+		super.writeEntityToNBT(NBT);
+		NBT.setLong("birthTime", getBirthTime());
+	}
+
+	@Override
+	public void readEntityFromNBT(NBTTagCompound NBT)
+	{
+		super.readEntityFromNBT(NBT);
+		birthTime = NBT.hasKey("birthTime") ? NBT.getLong("birthTime") : -1;
+	}
 
-		if (age >= MCA.instance.modPropertiesManager.modProperties.kidGrowUpTimeMinutes)
+	/**
+	 * Gets the age of the child from the time it was born.
+	 * 
+	 * @return	The age of the child in minutes, no higher than the time it takes to grow up.
+	 */
+	public int getAge()
+	{
+		long ageMinutes = (worldObj.getTotalWorldTime() - getBirthTime()) / TICKS_PER_MINUTE;
+		return (int)Math.max(Math.min(ageMinutes, MCA.instance.modPropertiesManager.modProperties.kidGrowUpTimeMinutes), 0);
+	}
+
+	/**
+	 * Gets the world time at which the child will be ready to grow up.
+	 * 
+	 * @return	The total world time at which the child is ready to grow up.
+	 */
+	public long getReadyToGrowTime()
+	{
+		return getBirthTime() + (long)MCA.instance.modPropertiesManager.modProperties.kidGrowUpTimeMinutes * TICKS_PER_MINUTE;
+	}
+
+	/**
+	 * Gets the world time at which the child was born, working it out from the saved age if it isn't known.
+	 * 
+	 * @return	The total world time at which the child was born.
+	 */
+	private long getBirthTime()
+	{
+		//Children from before birth times were kept are as old as their saved age.
+		if (birthTime < 0)
 		{
-			//Set age to the maximum to prevent the renderer from going nuts just in case age is higher than grow up time.
-			age = MCA.instance.modPropertiesManager.modProperties.kidGrowUpTimeMinutes;
-			isReadyToGrow = true;
+			birthTime = worldObj.getTotalWorldTime() - (long)age * TICKS_PER_MINUTE;
 		}
+
+		return birthTime;
 	}
 }
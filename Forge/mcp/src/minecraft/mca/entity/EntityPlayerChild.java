@@ -10,7 +10,6 @@
 package mca.entity;
 
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.List;
 import java.util.Map;
 
@@ -66,6 +65,9 @@ public class EntityPlayerChild extends EntityChild
 	/** Has the child's owner approved their growth? */
 	public boolean playerApprovedGrowth = false;
 
+	/** The world time at which the owner's growth settings will next be checked. */
+	private transient long nextGrowthCheckTime = 0;
+
 	/** Has the child been registered in the family tree? */
 	public boolean registeredInFamilyTree = false;
 
@@ -120,7 +122,7 @@ public class EntityPlayerChild extends EntityChild
 		this.setTexture();
 		this.ownerPlayerName = player.username;
 
-		WorldPropertiesManager worldPropertiesManager = MCA.instance.playerWorldManagerMap.get(ownerPlayerName);
+		WorldPropertiesManager worldPropertiesManager = MCA.instance.playerWorldManagerMap.loadManager(ownerPlayerName);
 
 		this.familyTree.addFamilyTreeEntry(player, EnumRelation.Parent);
 		this.familyTree.addFamilyTreeEntry(worldPropertiesManager.worldProperties.playerSpouseID, EnumRelation.Parent);
@@ -294,12 +296,7 @@ public class EntityPlayerChild extends EntityChild
 			}
 
 			//Players get added to the playerMemory map when they interact with an entity.
-			if (!playerMemoryMap.containsKey(player.username))
-			{
-				playerMemoryMap.put(player.username, new PlayerMemory(player.username));
-			}
-
-			PlayerMemory memory = playerMemoryMap.get(player.username);
+			PlayerMemory memory = getPlayerMemory(player.username);
 
 			if (!memory.isInGiftMode)
 			{
@@ -516,14 +513,14 @@ public class EntityPlayerChild extends EntityChild
 
 			else
 			{
-				PlayerMemory memory = playerMemoryMap.get(player.username);
+				PlayerMemory memory = getPlayerMemory(player.username);
 
 				say(LanguageHelper.getString(this, "spouse.gifted.baby", false));
 				inventory.addItemStackToInventory(itemStack);
 				removeItemFromPlayer(itemStack, player);
 
 				memory.isInGiftMode = false;
-				PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entityId, "isInGiftMode", false));
+				markMemoryChanged(player.username);
 				PacketDispatcher.sendPacketToServer(PacketHelper.createInventoryPacket(entityId, inventory));
 			}
 		}
@@ -542,7 +539,7 @@ public class EntityPlayerChild extends EntityChild
 	 */
 	private void doGiftOfArrangersRing(ItemStack itemStack, EntityPlayer player) 
 	{
-		WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.get(player.username);
+		WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.loadManager(player.username);
 
 		if (!isSpouse)
 		{
@@ -679,7 +676,7 @@ public class EntityPlayerChild extends EntityChild
 	 */
 	private void doGiftOfEngagementRing(ItemStack itemStack, EntityPlayer player) 
 	{
-		WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.get(player.username);
+		WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.loadManager(player.username);
 
 		if (!isSpouse)
 		{
@@ -744,7 +741,7 @@ public class EntityPlayerChild extends EntityChild
 	 */
 	private void doGiftOfWeddingRing(ItemStack itemStack, EntityPlayer player) 
 	{
-		WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.get(player.username);
+		WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.loadManager(player.username);
 
 		if (!isSpouse)
 		{	
@@ -765,9 +762,7 @@ public class EntityPlayerChild extends EntityChild
 					this.spousePlayerName = player.username;
 					say(LanguageHelper.getString(this, "villager.marriage.acceptance", false));
 
-					shouldSkipAreaModify = true;
-					modifyHearts(player, 50);
-					shouldSkipAreaModify = false;
+					modifyHearts(player, 50, false);
 
 					isSpouse = true;
 					player.triggerAchievement(MCA.instance.achievementGetMarried);
@@ -804,7 +799,7 @@ public class EntityPlayerChild extends EntityChild
 								if (memory != null)
 								{
 									memory.hasGift = true;
-									entityVillager.playerMemoryMap.put(player.username, memory);
+									entityVillager.markMemoryChanged(player.username);
 								}
 							}
 						}
@@ -994,7 +989,7 @@ public class EntityPlayerChild extends EntityChild
 
 			else
 			{
-				WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.get(player.username);
+				WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.loadManager(player.username);
 
 				if (manager != null)
 				{
@@ -1033,37 +1028,28 @@ public class EntityPlayerChild extends EntityChild
 	}
 
 	/**
-	 * Handles growing up when it is time to become an adult.
+	 * Handles growing up when it is time to become an adult. The owner's settings are checked when the child becomes
+	 * ready to grow and once a minute after that, instead of on every tick.
 	 */
 	private void updateGrowth()
 	{
-		WorldPropertiesManager worldPropertiesManager = MCA.instance.playerWorldManagerMap.get(ownerPlayerName);
+		long worldTime = worldObj.getTotalWorldTime();
+
+		if (!playerApprovedGrowth && (!isReadyToGrow || worldTime < nextGrowthCheckTime))
+		{
+			return;
+		}
+
+		nextGrowthCheckTime = worldTime + TICKS_PER_MINUTE;
+		WorldPropertiesManager worldPropertiesManager = MCA.instance.playerWorldManagerMap.loadManager(ownerPlayerName);
 
 		if (worldPropertiesManager != null && MCA.instance.getPlayerByID(worldObj, worldPropertiesManager.worldProperties.playerID) != null)
-		{			
+		{
 			shouldGrowAutomatically = worldPropertiesManager.worldProperties.childrenGrowAutomatically;
 
-			if (shouldGrowAutomatically && !playerApprovedGrowth)
+			if (shouldGrowAutomatically)
 			{
-				if (isReadyToGrow && !hasNotifiedGrowthReady && !shouldGrowAutomatically)
-				{
-					for (int i : familyTree.getListOfPlayers())
-					{
-						EntityPlayer player = MCA.instance.getPlayerByID(worldObj, i);
-
-						if (!worldObj.isRemote)
-						{
-							notifyPlayer(player, LanguageHelper.getString(this, "notify.child.readytogrow", false));
-						}
-					}
-
-					hasNotifiedGrowthReady = true;
-				}
-
-				else if (isReadyToGrow && shouldGrowAutomatically)
-				{
-					playerApprovedGrowth = true;
-				}
+				playerApprovedGrowth = true;
 			}
 
 			//Check if the player approved the growth of this child.
@@ -1096,33 +1082,20 @@ public class EntityPlayerChild extends EntityChild
 	 */
 	private void updateBabyGrowth()
 	{
-		//Check for debug.
-		if (MCA.instance.inDebugMode && !heldBabyGender.equals("None"))
-		{
-			heldBabyAge++;
-		}
-
 		if (!heldBabyGender.equals("None"))
 		{
-			//Get the current minutes from the system.
-			villagerBabyCalendarCurrentMinutes = Calendar.getInstance().get(Calendar.MINUTE);
-
-			//Check it against previousMinutes to see if the time changed.
-			if (villagerBabyCalendarCurrentMinutes > villagerBabyCalendarPrevMinutes || villagerBabyCalendarCurrentMinutes == 0 && villagerBabyCalendarPrevMinutes == 59)
-			{
-				//If it did, bump up the baby's age and set prevMinutes.
-				heldBabyAge++;
-				villagerBabyCalendarPrevMinutes = villagerBabyCalendarCurrentMinutes;
-			}
-
 			//It's time for the baby to grow.
-			if (heldBabyAge >= MCA.instance.modPropertiesManager.modProperties.babyGrowUpTimeMinutes)
+			if (isHeldBabyGrown())
 			{
-				//Reset baby information.
 				shouldSpawnBaby = true;
 			}
 		}
 
+		else
+		{
+			heldBabyBirthTime = -1;
+		}
+
 		//Check if the baby should be spawned.
 		if (shouldSpawnBaby)
 		{
@@ -1151,6 +1124,7 @@ public class EntityPlayerChild extends EntityChild
 			{
 				child.setLocationAndAngles(this.posX, this.posY, this.posZ, this.rotationPitch, this.rotationYaw);
 				worldObj.spawnEntityInWorld(child);
+				MCA.instance.relationshipLog.recordBirth(child);
 			}
 
 			MCA.instance.idsMap.put(child.mcaID, child.entityId);
@@ -1353,6 +1327,11 @@ public class EntityPlayerChild extends EntityChild
 			hasBaby = false;
 			familyTree.removeFamilyTreeEntry(EnumRelation.Spouse);
 
+			if (!worldObj.isRemote)
+			{
+				MCA.instance.relationshipLog.recordSpouseOf(this);
+			}
+
 			PacketDispatcher.sendPacketToAllPlayers(PacketHelper.createFieldValuePacket(entityId, "isMarried", false));
 			PacketDispatcher.sendPacketToAllPlayers(PacketHelper.createFieldValuePacket(entityId, "heldBabyGender", "None"));
 			PacketDispatcher.sendPacketToAllPlayers(PacketHelper.createFieldValuePacket(entityId, "heldBabyProfession", 0));
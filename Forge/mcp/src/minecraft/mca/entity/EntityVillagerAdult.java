@@ -10,7 +10,6 @@
 package mca.entity;
 
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.List;
 import java.util.Map;
 
@@ -345,11 +344,19 @@ public class EntityVillagerAdult extends AbstractEntity
 		super.onDeath(damageSource);
 
 		isFollowing = false;
+		villageHelper = null;
 
-		for (Map.Entry<String, WorldPropertiesManager> entry : MCA.instance.playerWorldManagerMap.entrySet())
+		//Only load the players whose properties name this villager.
+		for (String playerName : MCA.instance.playerWorldManagerMap.getPlayersPartneredWith(this.mcaID))
 		{
+			WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.loadManager(playerName);
+
+			if (manager == null)
+			{
+				continue;
+			}
+
 			boolean propertiesChanged = false;
-			WorldPropertiesManager manager = entry.getValue();
 
 			if (hasArrangerRing)
 			{
@@ -587,12 +594,7 @@ public class EntityVillagerAdult extends AbstractEntity
 		super.interact(player);
 
 		//Players get added to the playerMemory map when they interact with an entity.
-		if (!playerMemoryMap.containsKey(player.username))
-		{
-			playerMemoryMap.put(player.username, new PlayerMemory(player.username));
-		}
-
-		PlayerMemory memory = playerMemoryMap.get(player.username);
+		PlayerMemory memory = getPlayerMemory(player.username);
 		ItemStack itemStack = player.inventory.getCurrentItem();
 
 		if (itemStack != null)
@@ -778,14 +780,14 @@ public class EntityVillagerAdult extends AbstractEntity
 
 			else
 			{
-				PlayerMemory memory = playerMemoryMap.get(player.username);
+				PlayerMemory memory = getPlayerMemory(player.username);
 
 				say(LanguageHelper.getString(this, "spouse.gifted.baby", false));
 				inventory.addItemStackToInventory(itemStack);
 				removeItemFromPlayer(itemStack, player);
 
 				memory.isInGiftMode = false;
-				PacketDispatcher.sendPacketToServer(PacketHelper.createFieldValuePacket(entityId, "isInGiftMode", false));
+				markMemoryChanged(player.username);
 				PacketDispatcher.sendPacketToServer(PacketHelper.createInventoryPacket(entityId, inventory));
 			}
 		}
@@ -804,7 +806,7 @@ public class EntityVillagerAdult extends AbstractEntity
 	 */
 	private void doGiftOfArrangersRing(ItemStack itemStack, EntityPlayer player) 
 	{
-		WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.get(player.username);
+		WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.loadManager(player.username);
 
 		if (!isSpouse)
 		{
@@ -943,7 +945,7 @@ public class EntityVillagerAdult extends AbstractEntity
 	 */
 	private void doGiftOfEngagementRing(ItemStack itemStack, EntityPlayer player) 
 	{
-		WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.get(player.username);
+		WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.loadManager(player.username);
 
 		if (!isSpouse)
 		{
@@ -1008,7 +1010,7 @@ public class EntityVillagerAdult extends AbstractEntity
 	 */
 	private void doGiftOfWeddingRing(ItemStack itemStack, EntityPlayer player) 
 	{
-		WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.get(player.username);
+		WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.loadManager(player.username);
 
 		if (!isSpouse)
 		{	
@@ -1029,9 +1031,7 @@ public class EntityVillagerAdult extends AbstractEntity
 					this.spousePlayerName = player.username;
 					say(LanguageHelper.getString(this, "marriage.acceptance"));
 
-					shouldSkipAreaModify = true;
-					modifyHearts(player, 50);
-					shouldSkipAreaModify = false;
+					modifyHearts(player, 50, false);
 
 					isSpouse = true;
 					player.triggerAchievement(MCA.instance.achievementGetMarried);
@@ -1068,7 +1068,7 @@ public class EntityVillagerAdult extends AbstractEntity
 								if (memory != null)
 								{
 									memory.hasGift = true;
-									entityVillager.playerMemoryMap.put(player.username, memory);
+									entityVillager.markMemoryChanged(player.username);
 								}
 							}
 						}
@@ -1199,32 +1199,20 @@ public class EntityVillagerAdult extends AbstractEntity
 	 */
 	private void updateBabyGrowth()
 	{
-		//Check for debug.
-		if (MCA.instance.inDebugMode && !heldBabyGender.equals("None") && this.hasBaby)
-		{
-			heldBabyAge++;
-		}
-
-		if (!heldBabyGender.equals("None") && this.hasBaby)
+		if (!heldBabyGender.equals("None"))
 		{
-			//Get the current minutes from the system.
-			villagerBabyCalendarCurrentMinutes = Calendar.getInstance().get(Calendar.MINUTE);
-
-			//Check it against previousMinutes to see if the time changed.
-			if (villagerBabyCalendarCurrentMinutes > villagerBabyCalendarPrevMinutes || villagerBabyCalendarCurrentMinutes == 0 && villagerBabyCalendarPrevMinutes == 59)
-			{
-				//If it did, bump up the baby's age and set prevMinutes.
-				heldBabyAge++;
-				villagerBabyCalendarPrevMinutes = villagerBabyCalendarCurrentMinutes;
-			}
-
 			//It's time for the baby to grow.
-			if (heldBabyAge >= MCA.instance.modPropertiesManager.modProperties.babyGrowUpTimeMinutes)
+			if (this.hasBaby && isHeldBabyGrown())
 			{
 				shouldSpawnBaby = true;
 			}
 		}
 
+		else
+		{
+			heldBabyBirthTime = -1;
+		}
+
 		//Check if the baby should be spawned.
 		if (shouldSpawnBaby)
 		{
@@ -1288,6 +1276,7 @@ public class EntityVillagerAdult extends AbstractEntity
 			{
 				child.setLocationAndAngles(this.posX, this.posY, this.posZ, this.rotationPitch, this.rotationYaw);	
 				worldObj.spawnEntityInWorld(child);
+				MCA.instance.relationshipLog.recordBirth(child);
 			}
 
 			MCA.instance.idsMap.put(child.mcaID, child.entityId);
@@ -1498,7 +1487,7 @@ public class EntityVillagerAdult extends AbstractEntity
 				modifyHearts(worldObj.getPlayerEntityByName(lastInteractingPlayer), -200);
 				isFollowing = false;
 
-				WorldPropertiesManager worldPropertiesManager = MCA.instance.playerWorldManagerMap.get(lastInteractingPlayer);
+				WorldPropertiesManager worldPropertiesManager = MCA.instance.playerWorldManagerMap.loadManager(lastInteractingPlayer);
 				worldPropertiesManager.worldProperties.playerSpouseID = 0;
 				worldPropertiesManager.saveWorldProperties();
 
@@ -1532,6 +1521,11 @@ public class EntityVillagerAdult extends AbstractEntity
 				heldBabyGender = "None";
 				heldBabyAge = 0;
 				familyTree.removeFamilyTreeEntry(EnumRelation.Spouse);
+
+				if (!worldObj.isRemote)
+				{
+					MCA.instance.relationshipLog.recordSpouseOf(this);
+				}
 			}
 		}
 	}
@@ -1544,8 +1538,12 @@ public class EntityVillagerAdult extends AbstractEntity
 		//Adjust combat chore settings for villagers and guards.
 		if (profession != 5)
 		{
-			combatChore.useMelee = false;
-			combatChore.useRange = false;
+			if (combatChore.useMelee || combatChore.useRange)
+			{
+				combatChore.useMelee = false;
+				combatChore.useRange = false;
+				markComponentsChanged();
+			}
 		}
 
 		//If they're not hired, reset the combat chore.
@@ -1612,9 +1610,15 @@ public class EntityVillagerAdult extends AbstractEntity
 	 */
 	private void updateVillage()
 	{
+		//Use the new village's helper when moving to another village.
+		if (villageHelper != null && villageHelper.getVillage() != villageObj)
+		{
+			villageHelper = null;
+		}
+
 		if (villageObj != null && villageHelper == null)
 		{
-			villageHelper = new VillageHelper(villageObj, worldObj);
+			villageHelper = MCA.instance.villageRegistry.getVillageHelper(worldObj, villageObj);
 		}
 
 		if (villageHelper != null)
@@ -172,12 +172,7 @@ public class EntityVillagerChild extends EntityChild
 		ItemStack itemStack = player.inventory.getCurrentItem();
 
 		//Players get added to the playerMemory map when they interact with an entity.
-		if (!playerMemoryMap.containsKey(player.username))
-		{
-			playerMemoryMap.put(player.username, new PlayerMemory(player.username));
-		}
-		
-		PlayerMemory memory = playerMemoryMap.get(player.username);
+		PlayerMemory memory = getPlayerMemory(player.username);
 		
 		if (itemStack != null)
 		{
@@ -14,7 +14,7 @@ import mca.entity.AbstractEntity;
 
 /**
  * Constants having to do with relationships to other people.
- * Some are currently unused.
+ * Some are currently unused. Family trees save relations by their position, so new relations must be added to the end.
  */
 public enum EnumRelation
 {
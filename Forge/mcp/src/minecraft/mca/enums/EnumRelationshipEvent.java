@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * EnumRelationshipEvent.java
+ * Copyright (c) 2013 WildBamaBoy.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+
+package mca.enums;
+
+/**
+ * The kinds of change kept in the relationship log. Events are saved by their ordinal, so new events must be added to the end.
+ */
+public enum EnumRelationshipEvent
+{
+	/** Two people were married. The first and second IDs are the couple. */
+	Marriage,
+
+	/** Two people were divorced. The first and second IDs are the couple. */
+	Divorce,
+
+	/** A child was born. The first ID is the child, and the second and third IDs are its parents. */
+	Birth,
+
+	/** A player chose a new heir. The first ID is the player, and the second ID is the heir, or -1 if they have none. */
+	HeirChange,
+
+	/** Someone was executed. The first ID is who was executed, and the second ID is the player who executed them, or 0 if unknown. */
+	Execution;
+}
@@ -48,6 +48,9 @@ public class Inventory implements IInventory, Serializable
 	/** The items in the main inventory. Armor items exist here and are copied to the other array.*/
 	public ItemStack inventoryItems[];
 
+	/** Goes up each time the inventory changes, so the owner knows when its saved copy of the inventory is out of date. */
+	private transient int changeVersion = 0;
+
 	/**
 	 * Constructor
 	 * 
@@ -254,6 +257,8 @@ public class Inventory implements IInventory, Serializable
 	@Override
 	public void onInventoryChanged()
 	{
+		changeVersion++;
+
 		if (!owner.worldObj.isRemote)
 		{
 			PacketDispatcher.sendPacketToAllPlayers(PacketHelper.createInventoryPacket(owner.entityId, this));
@@ -456,10 +461,13 @@ public class Inventory implements IInventory, Serializable
 	}
 
 	/**
-	 * Sets the best possible armor combination in the armor inventory.
+	 * Sets the best possible armor combination in the armor inventory. The inventory is only counted as changed when
+	 * the armor worn actually changes.
 	 */
 	public void setWornArmorItems()
 	{
+		boolean armorChanged = false;
+
 		for (ItemStack stack : inventoryItems)
 		{
 			if (stack != null)
@@ -474,6 +482,7 @@ public class Inventory implements IInventory, Serializable
 						if (((ItemArmor)armorItems[armorType].getItem()).damageReduceAmount < itemAsArmor.damageReduceAmount)
 						{
 							armorItems[armorType] = stack;
+							armorChanged = true;
 						}
 					}
 
@@ -481,6 +490,7 @@ public class Inventory implements IInventory, Serializable
 					catch (NullPointerException e)
 					{
 						armorItems[armorType] = stack;
+						armorChanged = true;
 					}
 				}
 			}
@@ -495,9 +505,15 @@ public class Inventory implements IInventory, Serializable
 				if (getQuantityOfItem(armorItems[i].getItem()) == 0)
 				{
 					armorItems[i] = null;
+					armorChanged = true;
 				}
 			}
 		}
+
+		if (armorChanged)
+		{
+			markChanged();
+		}
 	}
 
 	/**
@@ -1090,6 +1106,25 @@ public class Inventory implements IInventory, Serializable
 		return false;
 	}
 
+	/**
+	 * Counts a change made directly to an item stack in the inventory, such as a tool being damaged, without sending
+	 * the inventory to clients.
+	 */
+	public void markChanged()
+	{
+		changeVersion++;
+	}
+
+	/**
+	 * Gets the number of times the inventory has been changed since it was created.
+	 *
+	 * @return	The inventory's change version.
+	 */
+	public int getChangeVersion()
+	{
+		return changeVersion;
+	}
+
 	/**
 	 * Writes the owner's inventory to NBT.
 	 * 
@@ -1166,6 +1201,8 @@ public class Inventory implements IInventory, Serializable
 				this.armorItems[armorSlotId] = ItemStack.loadItemStackFromNBT(nbttagcompound);
 			}
 		}
+
+		changeVersion++;
 	}
 
 	/**
@@ -61,7 +61,7 @@ public class ItemBaby extends Item
 	@Override
 	public boolean onItemUse(ItemStack itemStack, EntityPlayer player, World world, int x, int y, int z, int meta, float xOffset, float yOffset, float zOffset)
 	{
-		WorldPropertiesManager worldPropertiesManager = MCA.instance.playerWorldManagerMap.get(player.username);
+		WorldPropertiesManager worldPropertiesManager = MCA.instance.playerWorldManagerMap.loadManager(player.username);
 
 		if (worldPropertiesManager.worldProperties.babyReadyToGrow)
 		{
@@ -70,11 +70,12 @@ public class ItemBaby extends Item
 				EntityPlayerChild entityPlayerChild = new EntityPlayerChild(world, player, worldPropertiesManager.worldProperties.babyName, gender);
 				entityPlayerChild.setLocationAndAngles(x, y + 1, z, player.rotationYaw, player.rotationPitch);
 				world.spawnEntityInWorld(entityPlayerChild);
+				MCA.instance.relationshipLog.recordBirth(entityPlayerChild);
 
 				//Trigger the achievement
 				player.triggerAchievement(MCA.instance.achievementBabyGrowUp);
 
-				WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.get(player.username);
+				WorldPropertiesManager manager = MCA.instance.playerWorldManagerMap.loadManager(player.username);
 
 				//Set relevant properties back to their default values so that the player can have another baby.
 				manager.worldProperties.babyExists = false;
@@ -93,13 +94,13 @@ public class ItemBaby extends Item
 					
 					if (spouseEntity != null)
 					{
-						spouseManager = MCA.instance.playerWorldManagerMap.get(spouseEntity.username);
+						spouseManager = MCA.instance.playerWorldManagerMap.loadManager(spouseEntity.username);
 					}
 					
 					//Fail-safe for when spouse is not logged in. Their properties are still loaded, though.
 					else
 					{
-						spouseManager = MCA.instance.playerWorldManagerMap.get(manager.worldProperties.playerSpouseName);
+						spouseManager = MCA.instance.playerWorldManagerMap.loadManager(manager.worldProperties.playerSpouseName);
 					}
 					
 					spouseManager.worldProperties.babyExists = false;